@@ -5,38 +5,28 @@ import com.controfinanciero.application.dto.MovimientoFinancieroDTO;
 import com.controfinanciero.domain.exception.UsuarioNoEncontradoException;
 import com.controfinanciero.domain.model.*;
 import com.controfinanciero.domain.repository.*;
-import com.controfinanciero.infrastructure.service.BudgetMonitorService;
-import com.controfinanciero.infrastructure.service.GoalMonitorService;
 
 /**
  * Caso de uso: Crear un nuevo movimiento financiero
  * ✅ Integrado con sistema de notificaciones automáticas
+ * ✅ El gasto del presupuesto y sus alertas se aplican en la transacción que lo guarda (EfectosMovimientosService)
+ * ✅ Meta vinculada, racha y redondeo se aplican al confirmarse (evento MovimientoCreado)
  */
 public class CrearMovimientoFinancieroUseCase {
 
     private final MovimientoFinancieroRepository movimientoRepository;
     private final UsuarioRepository usuarioRepository;
-    private final CategoriaRepository categoriaRepository;
-    private final FuenteIngresoRepository fuenteIngresoRepository;
-    private final MetaFinancieraRepository metaRepository;
-    private final BudgetMonitorService budgetMonitorService;
-    private final GoalMonitorService goalMonitorService;
+    private final EnriquecedorMovimientos enriquecedor;
 
     public CrearMovimientoFinancieroUseCase(
             MovimientoFinancieroRepository movimientoRepository,
             UsuarioRepository usuarioRepository,
             CategoriaRepository categoriaRepository,
             FuenteIngresoRepository fuenteIngresoRepository,
-            MetaFinancieraRepository metaRepository,
-            BudgetMonitorService budgetMonitorService,
-            GoalMonitorService goalMonitorService) {
+            MetaFinancieraRepository metaRepository) {
         this.movimientoRepository = movimientoRepository;
         this.usuarioRepository = usuarioRepository;
-        this.categoriaRepository = categoriaRepository;
-        this.fuenteIngresoRepository = fuenteIngresoRepository;
-        this.metaRepository = metaRepository;
-        this.budgetMonitorService = budgetMonitorService;
-        this.goalMonitorService = goalMonitorService;
+        this.enriquecedor = new EnriquecedorMovimientos(categoriaRepository, fuenteIngresoRepository, metaRepository);
     }
 
     public MovimientoFinancieroDTO ejecutar(CrearMovimientoFinancieroCommand command) {
@@ -44,6 +34,19 @@ public class CrearMovimientoFinancieroUseCase {
         Usuario usuario = usuarioRepository.findById(command.usuarioId())
                 .orElseThrow(() -> new UsuarioNoEncontradoException(command.usuarioId()));
 
+        MovimientoFinanciero movimiento = construirMovimiento(command);
+
+        // Guardar (el progreso de la meta y demás efectos llegan con el evento MovimientoCreado)
+        MovimientoFinanciero guardado = movimientoRepository.save(movimiento);
+
+        // Retornar DTO con información enriquecida
+        return enriquecedor.enriquecer(guardado);
+    }
+
+    /**
+     * Construye el movimiento de dominio a partir del comando (compartido con la carga por lotes).
+     */
+    static MovimientoFinanciero construirMovimiento(CrearMovimientoFinancieroCommand command) {
         // Crear el movimiento con el constructor correcto
         MovimientoFinanciero movimiento = new MovimientoFinanciero(
                 command.usuarioId(),
@@ -74,74 +77,7 @@ public class CrearMovimientoFinancieroUseCase {
             movimiento.agregarNotas(command.notas());
         }
 
-        // Guardar
-        MovimientoFinanciero guardado = movimientoRepository.save(movimiento);
-
-        // Si está vinculado a una meta y es de tipo SAVINGS, actualizar el progreso
-        if (guardado.getMetaId() != null && command.tipoMovimiento().name().equals("SAVINGS")) {
-            metaRepository.findById(guardado.getMetaId()).ifPresent(meta -> {
-                meta.agregarMonto(guardado.getMonto());
-                metaRepository.save(meta);
-            });
-
-            // ✅ Verificar progreso de la meta y generar notificación si aplica
-            goalMonitorService.verificarProgresoMeta(guardado.getMetaId());
-        }
-
-        // ✅ Si es un gasto (EXPENSE), verificar presupuesto y generar alerta si aplica
-        if (command.tipoMovimiento().name().equals("EXPENSE") && guardado.getCategoriaId() != null) {
-            budgetMonitorService.verificarPresupuestoDespuesDeGasto(
-                    guardado.getUsuarioId(),
-                    guardado.getCategoriaId(),
-                    guardado.getMonto()
-            );
-        }
-
-        // Retornar DTO con información enriquecida
-        return toDTO(guardado);
-    }
-
-    private MovimientoFinancieroDTO toDTO(MovimientoFinanciero movimiento) {
-        String categoriaNombre = null;
-        if (movimiento.getCategoriaId() != null) {
-            categoriaNombre = categoriaRepository.findById(movimiento.getCategoriaId())
-                    .map(Categoria::getNombre)
-                    .orElse(null);
-        }
-
-        String fuenteNombre = null;
-        if (movimiento.getFuenteIngresoId() != null) {
-            fuenteNombre = fuenteIngresoRepository.findById(movimiento.getFuenteIngresoId())
-                    .map(FuenteIngreso::getNombre)
-                    .orElse(null);
-        }
-
-        String metaNombre = null;
-        if (movimiento.getMetaId() != null) {
-            metaNombre = metaRepository.findById(movimiento.getMetaId())
-                    .map(MetaFinanciera::getNombre)
-                    .orElse(null);
-        }
-
-        return new MovimientoFinancieroDTO(
-                movimiento.getId(),
-                movimiento.getUsuarioId(),
-                movimiento.getTipoMovimiento(),
-                movimiento.getMonto(),
-                movimiento.getDescripcion(),
-                movimiento.getFechaMovimiento(),
-                movimiento.getCategoriaId(),
-                categoriaNombre,
-                movimiento.getFuenteIngresoId(),
-                fuenteNombre,
-                movimiento.getMetaId(),
-                metaNombre,
-                movimiento.isEsRecurrente(),
-                movimiento.getPatronRecurrencia(),
-                movimiento.getNotas(),
-                movimiento.getCreatedAt(),
-                movimiento.getUpdatedAt()
-        );
+        return movimiento;
     }
 }
 
@@ -0,0 +1,53 @@
+package com.controfinanciero.application.usecase.movimiento;
+
+import com.controfinanciero.application.dto.CrearMovimientoFinancieroCommand;
+import com.controfinanciero.domain.exception.UsuarioNoEncontradoException;
+import com.controfinanciero.domain.model.MovimientoFinanciero;
+import com.controfinanciero.domain.repository.MovimientoFinancieroRepository;
+import com.controfinanciero.domain.repository.UsuarioRepository;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Caso de uso: Crear movimientos financieros por lotes (sincronización bancaria)
+ * ✅ Un único INSERT por lote JDBC en lugar de una petición por movimiento
+ * ✅ Presupuestos en un único UPDATE por lote, en la transacción del lote (EfectosMovimientosService)
+ * ✅ Metas, rachas y redondeos se aplican al confirmarse el lote (eventos MovimientoCreado)
+ */
+public class CrearMovimientosLoteUseCase {
+
+    private final MovimientoFinancieroRepository movimientoRepository;
+    private final UsuarioRepository usuarioRepository;
+
+    public CrearMovimientosLoteUseCase(
+            MovimientoFinancieroRepository movimientoRepository,
+            UsuarioRepository usuarioRepository) {
+        this.movimientoRepository = movimientoRepository;
+        this.usuarioRepository = usuarioRepository;
+    }
+
+    /**
+     * Inserta todos los movimientos del lote y devuelve sus ids en el mismo orden.
+     */
+    public List<Long> ejecutar(List<CrearMovimientoFinancieroCommand> commands) {
+        // Validar cada usuario una sola vez
+        Set<Long> usuarioIds = new LinkedHashSet<>();
+        commands.forEach(command -> usuarioIds.add(command.usuarioId()));
+        for (Long usuarioId : usuarioIds) {
+            usuarioRepository.findById(usuarioId)
+                    .orElseThrow(() -> new UsuarioNoEncontradoException(usuarioId));
+        }
+
+        List<MovimientoFinanciero> movimientos = commands.stream()
+                .map(CrearMovimientoFinancieroUseCase::construirMovimiento)
+                .toList();
+
+        List<MovimientoFinanciero> guardados = movimientoRepository.saveAll(movimientos);
+
+        return guardados.stream()
+                .map(MovimientoFinanciero::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,103 @@
+package com.controfinanciero.application.usecase.movimiento;
+
+import com.controfinanciero.application.dto.MovimientoFinancieroDTO;
+import com.controfinanciero.domain.model.MovimientoFinanciero;
+import com.controfinanciero.domain.repository.CategoriaRepository;
+import com.controfinanciero.domain.repository.FuenteIngresoRepository;
+import com.controfinanciero.domain.repository.MetaFinancieraRepository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Convierte movimientos a DTO resolviendo los nombres de categoría, fuente de ingreso y meta.
+ * Reúne los ids distintos de todo el resultado y resuelve cada tipo con una sola consulta IN,
+ * en lugar de tres búsquedas por movimiento.
+ */
+class EnriquecedorMovimientos {
+
+    private final CategoriaRepository categoriaRepository;
+    private final FuenteIngresoRepository fuenteIngresoRepository;
+    private final MetaFinancieraRepository metaRepository;
+
+    EnriquecedorMovimientos(
+            CategoriaRepository categoriaRepository,
+            FuenteIngresoRepository fuenteIngresoRepository,
+            MetaFinancieraRepository metaRepository) {
+        this.categoriaRepository = categoriaRepository;
+        this.fuenteIngresoRepository = fuenteIngresoRepository;
+        this.metaRepository = metaRepository;
+    }
+
+    /**
+     * Convierte una lista de movimientos con a lo sumo tres consultas adicionales.
+     */
+    List<MovimientoFinancieroDTO> enriquecer(List<MovimientoFinanciero> movimientos) {
+        if (movimientos.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, String> categorias = nombres(movimientos, MovimientoFinanciero::getCategoriaId,
+                categoriaRepository::findNombresByIds);
+        Map<Long, String> fuentes = nombres(movimientos, MovimientoFinanciero::getFuenteIngresoId,
+                fuenteIngresoRepository::findNombresByIds);
+        Map<Long, String> metas = nombres(movimientos, MovimientoFinanciero::getMetaId,
+                metaRepository::findNombresByIds);
+
+        return movimientos.stream()
+                .map(m -> toDTO(m, categorias, fuentes, metas))
+                .toList();
+    }
+
+    /**
+     * Convierte un único movimiento.
+     */
+    MovimientoFinancieroDTO enriquecer(MovimientoFinanciero movimiento) {
+        return enriquecer(List.of(movimiento)).get(0);
+    }
+
+    private Map<Long, String> nombres(List<MovimientoFinanciero> movimientos,
+                                      Function<MovimientoFinanciero, Long> id,
+                                      Function<Set<Long>, Map<Long, String>> consulta) {
+        Set<Long> ids = new HashSet<>();
+        for (MovimientoFinanciero movimiento : movimientos) {
+            Long valor = id.apply(movimiento);
+            if (valor != null) {
+                ids.add(valor);
+            }
+        }
+        return ids.isEmpty() ? Map.of() : consulta.apply(ids);
+    }
+
+    private MovimientoFinancieroDTO toDTO(MovimientoFinanciero movimiento,
+                                          Map<Long, String> categorias,
+                                          Map<Long, String> fuentes,
+                                          Map<Long, String> metas) {
+        return new MovimientoFinancieroDTO(
+                movimiento.getId(),
+                movimiento.getUsuarioId(),
+                movimiento.getTipoMovimiento(),
+                movimiento.getMonto(),
+                movimiento.getDescripcion(),
+                movimiento.getFechaMovimiento(),
+                movimiento.getCategoriaId(),
+                nombre(categorias, movimiento.getCategoriaId()),
+                movimiento.getFuenteIngresoId(),
+                nombre(fuentes, movimiento.getFuenteIngresoId()),
+                movimiento.getMetaId(),
+                nombre(metas, movimiento.getMetaId()),
+                movimiento.isEsRecurrente(),
+                movimiento.getPatronRecurrencia(),
+                movimiento.getNotas(),
+                movimiento.getCreatedAt(),
+                movimiento.getUpdatedAt()
+        );
+    }
+
+    private static String nombre(Map<Long, String> nombres, Long id) {
+        return id != null ? nombres.get(id) : null;
+    }
+}
@@ -4,10 +4,16 @@ import com.controfinanciero.application.dto.MovimientoFinancieroDTO;
 import com.controfinanciero.domain.model.*;
 import com.controfinanciero.domain.model.enums.TipoMovimiento;
 import com.controfinanciero.domain.repository.*;
+import com.controfinanciero.domain.valueobject.CursorMovimiento;
+import com.controfinanciero.domain.valueobject.FiltroMovimientos;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Caso de uso: Obtener movimientos financieros
@@ -15,9 +21,7 @@ import java.util.stream.Collectors;
 public class ObtenerMovimientosFinancierosUseCase {
 
     private final MovimientoFinancieroRepository movimientoRepository;
-    private final CategoriaRepository categoriaRepository;
-    private final FuenteIngresoRepository fuenteIngresoRepository;
-    private final MetaFinancieraRepository metaRepository;
+    private final EnriquecedorMovimientos enriquecedor;
 
     public ObtenerMovimientosFinancierosUseCase(
             MovimientoFinancieroRepository movimientoRepository,
@@ -25,80 +29,47 @@ public class ObtenerMovimientosFinancierosUseCase {
             FuenteIngresoRepository fuenteIngresoRepository,
             MetaFinancieraRepository metaRepository) {
         this.movimientoRepository = movimientoRepository;
-        this.categoriaRepository = categoriaRepository;
-        this.fuenteIngresoRepository = fuenteIngresoRepository;
-        this.metaRepository = metaRepository;
+        this.enriquecedor = new EnriquecedorMovimientos(categoriaRepository, fuenteIngresoRepository, metaRepository);
     }
 
     public List<MovimientoFinancieroDTO> ejecutar(Long usuarioId) {
         List<MovimientoFinanciero> movimientos = movimientoRepository.findByUsuarioId(usuarioId);
-        return movimientos.stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return enriquecedor.enriquecer(movimientos);
     }
 
     public List<MovimientoFinancieroDTO> ejecutarPorTipo(Long usuarioId, TipoMovimiento tipo) {
         List<MovimientoFinanciero> movimientos = movimientoRepository.findByUsuarioIdAndTipo(usuarioId, tipo);
-        return movimientos.stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return enriquecedor.enriquecer(movimientos);
     }
 
     public List<MovimientoFinancieroDTO> ejecutarPorRangoFechas(Long usuarioId, LocalDate fechaInicio, LocalDate fechaFin) {
         List<MovimientoFinanciero> movimientos = movimientoRepository.findByUsuarioIdAndFechaBetween(usuarioId, fechaInicio, fechaFin);
-        return movimientos.stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return enriquecedor.enriquecer(movimientos);
     }
 
     public List<MovimientoFinancieroDTO> ejecutarPorCategoria(Long usuarioId, Long categoriaId) {
         List<MovimientoFinanciero> movimientos = movimientoRepository.findByUsuarioIdAndCategoriaId(usuarioId, categoriaId);
-        return movimientos.stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return enriquecedor.enriquecer(movimientos);
     }
 
-    private MovimientoFinancieroDTO toDTO(MovimientoFinanciero movimiento) {
-        String categoriaNombre = null;
-        if (movimiento.getCategoriaId() != null) {
-            categoriaNombre = categoriaRepository.findById(movimiento.getCategoriaId())
-                    .map(Categoria::getNombre)
-                    .orElse(null);
-        }
-
-        String fuenteNombre = null;
-        if (movimiento.getFuenteIngresoId() != null) {
-            fuenteNombre = fuenteIngresoRepository.findById(movimiento.getFuenteIngresoId())
-                    .map(FuenteIngreso::getNombre)
-                    .orElse(null);
-        }
-
-        String metaNombre = null;
-        if (movimiento.getMetaId() != null) {
-            metaNombre = metaRepository.findById(movimiento.getMetaId())
-                    .map(MetaFinanciera::getNombre)
-                    .orElse(null);
-        }
+    /**
+     * Paginación por offset (incluye el total de elementos).
+     */
+    public Page<MovimientoFinancieroDTO> ejecutarPaginado(Long usuarioId, FiltroMovimientos filtro, Pageable pageable) {
+        Page<MovimientoFinanciero> page = movimientoRepository.findByUsuarioIdPaginado(usuarioId, filtro, pageable);
+        return new PageImpl<>(enriquecedor.enriquecer(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
 
-        return new MovimientoFinancieroDTO(
-                movimiento.getId(),
-                movimiento.getUsuarioId(),
-                movimiento.getTipoMovimiento(),
-                movimiento.getMonto(),
-                movimiento.getDescripcion(),
-                movimiento.getFechaMovimiento(),
-                movimiento.getCategoriaId(),
-                categoriaNombre,
-                movimiento.getFuenteIngresoId(),
-                fuenteNombre,
-                movimiento.getMetaId(),
-                metaNombre,
-                movimiento.isEsRecurrente(),
-                movimiento.getPatronRecurrencia(),
-                movimiento.getNotas(),
-                movimiento.getCreatedAt(),
-                movimiento.getUpdatedAt()
-        );
+    /**
+     * Paginación por cursor (keyset): coste constante sin importar la profundidad de la página.
+     * Con haciaAtras = true devuelve los movimientos más recientes que el cursor.
+     */
+    public Slice<MovimientoFinancieroDTO> ejecutarPorCursor(Long usuarioId, FiltroMovimientos filtro,
+                                                           CursorMovimiento cursor, boolean haciaAtras, int tamano) {
+        Slice<MovimientoFinanciero> slice = haciaAtras && cursor != null
+                ? movimientoRepository.findByUsuarioIdAntesDeCursor(usuarioId, filtro, cursor, tamano)
+                : movimientoRepository.findByUsuarioIdDespuesDeCursor(usuarioId, filtro, cursor, tamano);
+        return new SliceImpl<>(enriquecedor.enriquecer(slice.getContent()), slice.getPageable(), slice.hasNext());
     }
 }
 
@@ -0,0 +1,27 @@
+package com.controfinanciero.domain.event;
+
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Evento de dominio sobre un movimiento financiero. Se publica cuando la transacción
+ * que lo origina se confirma; los suscriptores lo procesan fuera de la petición.
+ */
+public sealed interface EventoMovimiento permits MovimientoCreado, MovimientoEliminado {
+
+    Long movimientoId();
+
+    Long usuarioId();
+
+    TipoMovimiento tipo();
+
+    BigDecimal monto();
+
+    Long categoriaId();
+
+    Long metaId();
+
+    LocalDate fechaMovimiento();
+}
@@ -0,0 +1,26 @@
+package com.controfinanciero.domain.event;
+
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Evento de dominio: se registró un movimiento nuevo.
+ */
+public record MovimientoCreado(
+        Long movimientoId,
+        Long usuarioId,
+        TipoMovimiento tipo,
+        BigDecimal monto,
+        Long categoriaId,
+        Long metaId,
+        LocalDate fechaMovimiento
+) implements EventoMovimiento {
+
+    public MovimientoCreado {
+        Objects.requireNonNull(movimientoId, "El id del movimiento no puede ser null");
+        Objects.requireNonNull(usuarioId, "El usuario del movimiento no puede ser null");
+    }
+}
@@ -24,4 +24,12 @@ public class MovimientoInvalidoException extends DomainException {
     public static MovimientoInvalidoException fechaInvalida(String detalle) {
         return new MovimientoInvalidoException("Fecha inválida: " + detalle);
     }
+
+    public static MovimientoInvalidoException cursorInvalido(String detalle) {
+        return new MovimientoInvalidoException("Cursor de paginación inválido: " + detalle);
+    }
+
+    public static MovimientoInvalidoException extractoInvalido(String detalle) {
+        return new MovimientoInvalidoException("Extracto bancario inválido: " + detalle);
+    }
 }
@@ -30,6 +30,36 @@ public class Categoria {
 
         validarNombre();
     }
+
+    /**
+     * Reconstruye una categoría ya persistida con todos sus campos.
+     * No aplica validaciones ni inicializa fechas: los datos vienen de la base de datos.
+     */
+    public static Categoria reconstituir(
+            Long id,
+            Long usuarioId,
+            String nombre,
+            String descripcion,
+            String colorHex,
+            String icono,
+            TipoCategoria tipoCategoria,
+            boolean activa,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt
+    ) {
+        Categoria categoria = new Categoria();
+        categoria.id = id;
+        categoria.usuarioId = usuarioId;
+        categoria.nombre = nombre;
+        categoria.descripcion = descripcion;
+        categoria.colorHex = colorHex;
+        categoria.icono = icono;
+        categoria.tipoCategoria = tipoCategoria;
+        categoria.activa = activa;
+        categoria.createdAt = createdAt;
+        categoria.updatedAt = updatedAt;
+        return categoria;
+    }
     public void actualizarInformacion(String nombre, String descripcion) {
         this.nombre = Objects.requireNonNull(nombre, "Nombre no puede ser null");
         this.descripcion = descripcion;
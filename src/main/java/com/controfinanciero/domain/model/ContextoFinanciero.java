@@ -41,6 +41,36 @@ public class ContextoFinanciero {
         this.updatedAt = LocalDateTime.now();
     }
 
+    /**
+     * Reconstruye un contexto financiero ya persistido con todos sus campos.
+     * No aplica validaciones ni inicializa fechas: los datos vienen de la base de datos.
+     */
+    public static ContextoFinanciero reconstituir(
+            Long id,
+            Long usuarioId,
+            TipoIngreso tipoIngreso,
+            boolean tieneIngresoVariable,
+            BigDecimal porcentajeAhorroDeseado,
+            PeriodoAnalisis periodoAnalisis,
+            Integer diasPeriodoPersonalizado,
+            String codigoMoneda,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt
+    ) {
+        ContextoFinanciero contexto = new ContextoFinanciero();
+        contexto.id = id;
+        contexto.usuarioId = usuarioId;
+        contexto.tipoIngreso = tipoIngreso;
+        contexto.tieneIngresoVariable = tieneIngresoVariable;
+        contexto.porcentajeAhorroDeseado = porcentajeAhorroDeseado;
+        contexto.periodoAnalisis = periodoAnalisis;
+        contexto.diasPeriodoPersonalizado = diasPeriodoPersonalizado;
+        contexto.codigoMoneda = codigoMoneda;
+        contexto.createdAt = createdAt;
+        contexto.updatedAt = updatedAt;
+        return contexto;
+    }
+
     // Métodos de negocio
     public void configurarAhorro(BigDecimal porcentaje) {
         validarPorcentaje(porcentaje);
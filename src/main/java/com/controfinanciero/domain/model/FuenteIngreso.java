@@ -39,6 +39,34 @@ public class FuenteIngreso {
         validarNombre();
     }
 
+    /**
+     * Reconstruye una fuente de ingreso ya persistida con todos sus campos.
+     * No aplica validaciones ni inicializa fechas: los datos vienen de la base de datos.
+     */
+    public static FuenteIngreso reconstituir(
+            Long id,
+            Long usuarioId,
+            String nombre,
+            String descripcion,
+            TipoFuente tipoFuente,
+            boolean esIngresoReal,
+            boolean activa,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt
+    ) {
+        FuenteIngreso fuente = new FuenteIngreso();
+        fuente.id = id;
+        fuente.usuarioId = usuarioId;
+        fuente.nombre = nombre;
+        fuente.descripcion = descripcion;
+        fuente.tipoFuente = tipoFuente;
+        fuente.esIngresoReal = esIngresoReal;
+        fuente.activa = activa;
+        fuente.createdAt = createdAt;
+        fuente.updatedAt = updatedAt;
+        return fuente;
+    }
+
     // Métodos de negocio
     public void actualizarInformacion(String nombre, String descripcion) {
         this.nombre = Objects.requireNonNull(nombre, "Nombre no puede ser null");
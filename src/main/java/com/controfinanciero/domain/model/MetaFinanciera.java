@@ -54,6 +54,40 @@ public class MetaFinanciera {
         validarNombre();
     }
 
+    /**
+     * Reconstruye una meta ya persistida con todos sus campos.
+     * No aplica validaciones ni inicializa fechas: los datos vienen de la base de datos.
+     */
+    public static MetaFinanciera reconstituir(
+            Long id,
+            Long usuarioId,
+            String nombre,
+            String descripcion,
+            BigDecimal montoObjetivo,
+            BigDecimal montoActual,
+            LocalDate fechaObjetivo,
+            Prioridad prioridad,
+            EstadoMeta estado,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt,
+            LocalDateTime completedAt
+    ) {
+        MetaFinanciera meta = new MetaFinanciera();
+        meta.id = id;
+        meta.usuarioId = usuarioId;
+        meta.nombre = nombre;
+        meta.descripcion = descripcion;
+        meta.montoObjetivo = montoObjetivo;
+        meta.montoActual = montoActual;
+        meta.fechaObjetivo = fechaObjetivo;
+        meta.prioridad = prioridad;
+        meta.estado = estado;
+        meta.createdAt = createdAt;
+        meta.updatedAt = updatedAt;
+        meta.completedAt = completedAt;
+        return meta;
+    }
+
     // Métodos de negocio
     public void agregarMonto(BigDecimal monto) {
         if (monto.compareTo(BigDecimal.ZERO) <= 0) {
@@ -53,6 +53,44 @@ public class MovimientoFinanciero {
         validarMonto();
     }
 
+    /**
+     * Reconstruye un movimiento ya persistido con todos sus campos.
+     * No aplica validaciones ni inicializa fechas: los datos vienen de la base de datos.
+     */
+    public static MovimientoFinanciero reconstituir(
+            Long id,
+            Long usuarioId,
+            TipoMovimiento tipoMovimiento,
+            BigDecimal monto,
+            String descripcion,
+            LocalDate fechaMovimiento,
+            Long categoriaId,
+            Long fuenteIngresoId,
+            Long metaId,
+            boolean esRecurrente,
+            String patronRecurrencia,
+            String notas,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt
+    ) {
+        MovimientoFinanciero movimiento = new MovimientoFinanciero();
+        movimiento.id = id;
+        movimiento.usuarioId = usuarioId;
+        movimiento.tipoMovimiento = tipoMovimiento;
+        movimiento.monto = monto;
+        movimiento.descripcion = descripcion;
+        movimiento.fechaMovimiento = fechaMovimiento;
+        movimiento.categoriaId = categoriaId;
+        movimiento.fuenteIngresoId = fuenteIngresoId;
+        movimiento.metaId = metaId;
+        movimiento.esRecurrente = esRecurrente;
+        movimiento.patronRecurrencia = patronRecurrencia;
+        movimiento.notas = notas;
+        movimiento.createdAt = createdAt;
+        movimiento.updatedAt = updatedAt;
+        return movimiento;
+    }
+
     // Métodos de negocio
     public void asignarCategoria(Long categoriaId) {
         this.categoriaId = categoriaId;
@@ -37,6 +37,32 @@ public class Usuario {
         validarEmail();
     }
 
+    /**
+     * Reconstruye un usuario ya persistido con todos sus campos.
+     * No aplica validaciones ni inicializa fechas: los datos vienen de la base de datos.
+     */
+    public static Usuario reconstituir(
+            Long id,
+            String username,
+            String email,
+            String passwordHash,
+            String fullName,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt,
+            boolean active
+    ) {
+        Usuario usuario = new Usuario();
+        usuario.id = id;
+        usuario.username = username;
+        usuario.email = email;
+        usuario.passwordHash = passwordHash;
+        usuario.fullName = fullName;
+        usuario.createdAt = createdAt;
+        usuario.updatedAt = updatedAt;
+        usuario.active = active;
+        return usuario;
+    }
+
     // Métodos de negocio
     public void actualizarInformacion(String fullName) {
         this.fullName = fullName;
@@ -3,7 +3,9 @@ package com.controfinanciero.domain.repository;
 import com.controfinanciero.domain.model.Categoria;
 import com.controfinanciero.domain.model.enums.TipoCategoria;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -23,6 +25,12 @@ public interface CategoriaRepository {
      */
     Optional<Categoria> findById(Long id);
 
+    /**
+     * Obtiene los nombres de varias categorías con una sola consulta.
+     * Los ids inexistentes no aparecen en el mapa.
+     */
+    Map<Long, String> findNombresByIds(Collection<Long> ids);
+
     /**
      * Lista todas las categorías de un usuario.
      */
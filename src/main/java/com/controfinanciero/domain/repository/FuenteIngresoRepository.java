@@ -3,7 +3,9 @@ package com.controfinanciero.domain.repository;
 import com.controfinanciero.domain.model.FuenteIngreso;
 import com.controfinanciero.domain.model.enums.TipoFuente;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -23,6 +25,12 @@ public interface FuenteIngresoRepository {
      */
     Optional<FuenteIngreso> findById(Long id);
 
+    /**
+     * Obtiene los nombres de varias fuentes de ingreso con una sola consulta.
+     * Los ids inexistentes no aparecen en el mapa.
+     */
+    Map<Long, String> findNombresByIds(Collection<Long> ids);
+
     /**
      * Lista todas las fuentes de ingreso de un usuario.
      */
@@ -4,7 +4,10 @@ import com.controfinanciero.domain.model.MetaFinanciera;
 import com.controfinanciero.domain.model.enums.EstadoMeta;
 import com.controfinanciero.domain.model.enums.Prioridad;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -24,6 +27,12 @@ public interface MetaFinancieraRepository {
      */
     Optional<MetaFinanciera> findById(Long id);
 
+    /**
+     * Obtiene los nombres de varias metas con una sola consulta.
+     * Los ids inexistentes no aparecen en el mapa.
+     */
+    Map<Long, String> findNombresByIds(Collection<Long> ids);
+
     /**
      * Lista todas las metas de un usuario.
      */
@@ -59,6 +68,19 @@ public interface MetaFinancieraRepository {
      */
     List<MetaFinanciera> findByUsuarioIdOrderByFechaObjetivo(Long usuarioId);
 
+    /**
+     * Suma un aporte a una meta activa de forma atómica (y la completa si alcanza el objetivo).
+     * Devuelve false si la meta no existe o no está activa.
+     */
+    boolean agregarMonto(Long id, BigDecimal monto);
+
+    /**
+     * Descuenta de forma atómica un aporte que se revierte (p. ej. se eliminó el ahorro).
+     * Una meta completada que queda por debajo del objetivo vuelve a estar activa.
+     * Devuelve false si la meta ya no existe.
+     */
+    boolean quitarMonto(Long id, BigDecimal monto);
+
     /**
      * Elimina una meta por su ID.
      */
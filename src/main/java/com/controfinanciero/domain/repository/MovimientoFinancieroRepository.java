@@ -2,11 +2,21 @@ package com.controfinanciero.domain.repository;
 
 import com.controfinanciero.domain.model.MovimientoFinanciero;
 import com.controfinanciero.domain.model.enums.TipoMovimiento;
+import com.controfinanciero.domain.valueobject.CursorMovimiento;
+import com.controfinanciero.domain.valueobject.FiltroMovimientos;
+import com.controfinanciero.domain.valueobject.TotalAgrupadoMovimientos;
+import com.controfinanciero.domain.valueobject.TotalesMovimientos;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Port: Repositorio de Movimiento Financiero.
@@ -20,6 +30,21 @@ public interface MovimientoFinancieroRepository {
      */
     MovimientoFinanciero save(MovimientoFinanciero movimiento);
 
+    /**
+     * Inserta un lote de movimientos nuevos (sin id) en una sola transacción,
+     * usando INSERT agrupados en lotes JDBC. Devuelve los movimientos guardados
+     * en el mismo orden recibido.
+     */
+    List<MovimientoFinanciero> saveAll(List<MovimientoFinanciero> movimientos);
+
+    /**
+     * Importación masiva de movimientos nuevos de un usuario (extractos bancarios).
+     * Se descartan los que ya existen con la misma huella (fecha, monto, descripción),
+     * respetando repeticiones legítimas dentro del extracto.
+     * Devuelve la cantidad de movimientos insertados.
+     */
+    long importarMovimientos(Long usuarioId, Stream<MovimientoFinanciero> movimientos);
+
     /**
      * Busca un movimiento por su ID.
      */
@@ -64,6 +89,51 @@ public interface MovimientoFinancieroRepository {
         return findByUsuarioIdAndFechaBetween(usuarioId, fechaInicio, fechaFin);
     }
 
+    /**
+     * Página de movimientos de un usuario con paginación por offset (incluye COUNT total).
+     * Si hay rango de fechas se filtra por él; si no, por tipo o por categoría.
+     */
+    Page<MovimientoFinanciero> findByUsuarioIdPaginado(
+            Long usuarioId,
+            FiltroMovimientos filtro,
+            Pageable pageable
+    );
+
+    /**
+     * Página de movimientos ordenados por (fecha, id) descendente, a partir de un cursor.
+     * Con cursor null devuelve la primera página (los más recientes).
+     * No ejecuta COUNT: {@link Slice#hasNext()} indica si hay movimientos más antiguos.
+     */
+    Slice<MovimientoFinanciero> findByUsuarioIdDespuesDeCursor(
+            Long usuarioId,
+            FiltroMovimientos filtro,
+            CursorMovimiento cursor,
+            int tamano
+    );
+
+    /**
+     * Página de movimientos más recientes que el cursor, en el mismo orden descendente.
+     * {@link Slice#hasNext()} indica si hay movimientos aún más recientes.
+     */
+    Slice<MovimientoFinanciero> findByUsuarioIdAntesDeCursor(
+            Long usuarioId,
+            FiltroMovimientos filtro,
+            CursorMovimiento cursor,
+            int tamano
+    );
+
+    /**
+     * Recorre uno a uno los movimientos de un usuario en un rango de fechas
+     * (fecha descendente) sin materializar la lista completa en memoria.
+     * Pensado para exportaciones grandes.
+     */
+    void recorrerByUsuarioIdAndFechaBetween(
+            Long usuarioId,
+            LocalDate fechaInicio,
+            LocalDate fechaFin,
+            Consumer<MovimientoFinanciero> consumidor
+    );
+
     /**
      * Lista movimientos de un usuario por tipo en un rango de fechas.
      */
@@ -116,6 +186,68 @@ public interface MovimientoFinancieroRepository {
             LocalDate fechaFin
     );
 
+    /**
+     * Calcula en una sola consulta los totales de ingresos, gastos y ahorros
+     * de un usuario en un rango de fechas.
+     */
+    TotalesMovimientos sumTotalesByUsuarioIdAndFechaBetween(
+            Long usuarioId,
+            LocalDate fechaInicio,
+            LocalDate fechaFin
+    );
+
+    /**
+     * Calcula los totales de un usuario agrupados por tipo de movimiento,
+     * categoría y mes calendario. La agregación se resuelve en la base de datos.
+     */
+    List<TotalAgrupadoMovimientos> sumTotalesAgrupadosByUsuarioIdAndFechaBetween(
+            Long usuarioId,
+            LocalDate fechaInicio,
+            LocalDate fechaFin
+    );
+
+    /**
+     * Lee del resumen mensual precalculado los totales de un usuario agrupados
+     * por tipo de movimiento, categoría y mes, entre dos meses (inclusive).
+     * Equivale a {@link #sumTotalesAgrupadosByUsuarioIdAndFechaBetween} sobre meses
+     * completos, sin recorrer los movimientos.
+     */
+    List<TotalAgrupadoMovimientos> findResumenMensualByUsuarioIdAndMesBetween(
+            Long usuarioId,
+            YearMonth mesInicio,
+            YearMonth mesFin
+    );
+
+    /**
+     * Reconstruye desde cero el resumen mensual de un usuario a partir de sus movimientos,
+     * desde el mes de 'desde'. Los meses anteriores (p. ej. archivados) conservan su resumen.
+     */
+    void reconstruirResumenMensual(Long usuarioId, LocalDate desde);
+
+    /**
+     * Reconstruye desde cero el resumen mensual de todos los usuarios, desde el mes de 'desde'.
+     */
+    void reconstruirResumenMensualCompleto(LocalDate desde);
+
+    /**
+     * Cuenta los días distintos con al menos un movimiento en un rango de fechas.
+     */
+    long countDiasConMovimientosByUsuarioIdAndFechaBetween(
+            Long usuarioId,
+            LocalDate fechaInicio,
+            LocalDate fechaFin
+    );
+
+    /**
+     * Lista los gastos de un usuario en un rango de fechas que se marcaron como inusuales
+     * para su categoría al registrarse (más recientes primero).
+     */
+    List<MovimientoFinanciero> findInusualesByUsuarioIdAndFechaBetween(
+            Long usuarioId,
+            LocalDate fechaInicio,
+            LocalDate fechaFin
+    );
+
     /**
      * Lista movimientos recurrentes de un usuario.
      */
@@ -1,10 +1,16 @@
 package com.controfinanciero.domain.repository;
 
 import com.controfinanciero.infrastructure.persistence.entity.NotificacionEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,11 +18,71 @@ public interface NotificacionRepository extends JpaRepository<NotificacionEntity
 
     List<NotificacionEntity> findByUsuarioIdOrderByCreatedAtDesc(Long usuarioId);
 
-    List<NotificacionEntity> findByUsuarioIdAndLeidaFalseOrderByCreatedAtDesc(Long usuarioId);
-
     @Query("SELECT COUNT(n) FROM NotificacionEntity n WHERE n.usuarioId = :usuarioId AND n.leida = false")
     long countNoLeidasByUsuarioId(Long usuarioId);
 
-    void deleteByUsuarioIdAndLeidaTrue(Long usuarioId);
+    /**
+     * Notificaciones de los tipos indicados sin meta asociada (filtradas en la base)
+     */
+    List<NotificacionEntity> findByTipoInAndMetaIdIsNull(Collection<String> tipos);
+
+    /**
+     * Notificaciones posteriores a un id (reenvío al reconectar el stream SSE)
+     */
+    List<NotificacionEntity> findTop100ByUsuarioIdAndIdGreaterThanOrderByIdAsc(Long usuarioId, Long id);
+
+    /**
+     * Notificaciones recientes de varios usuarios (sondeo compartido del stream SSE)
+     */
+    List<NotificacionEntity> findByUsuarioIdInAndCreatedAtGreaterThanEqualOrderByIdAsc(
+            Collection<Long> usuarioIds, LocalDateTime desde);
+
+    // ========== BANDEJA PAGINADA POR CURSOR (KEYSET) ==========
+    // Ordenan por (created_at, id) descendente y buscan a partir de la última fila vista:
+    // cada página cuesta lo mismo a cualquier profundidad (sin OFFSET ni COUNT).
+    // Todas usan idx_notificaciones_user_created; las de no leídas, el índice parcial
+    // idx_notificaciones_no_leidas (ver BandejaNotificacionesService).
+
+    @Query("SELECT n FROM NotificacionEntity n WHERE n.usuarioId = :usuarioId " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<NotificacionEntity> findPrimeraPagina(@Param("usuarioId") Long usuarioId, Pageable pageable);
+
+    @Query("SELECT n FROM NotificacionEntity n WHERE n.usuarioId = :usuarioId " +
+           "AND n.createdAt <= :cursorFecha " +
+           "AND (n.createdAt, n.id) < (:cursorFecha, :cursorId) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<NotificacionEntity> findPaginaDespuesDe(
+            @Param("usuarioId") Long usuarioId,
+            @Param("cursorFecha") LocalDateTime cursorFecha,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable
+    );
+
+    @Query("SELECT n FROM NotificacionEntity n WHERE n.usuarioId = :usuarioId AND n.leida = false " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<NotificacionEntity> findPrimeraPaginaNoLeidas(@Param("usuarioId") Long usuarioId, Pageable pageable);
+
+    @Query("SELECT n FROM NotificacionEntity n WHERE n.usuarioId = :usuarioId AND n.leida = false " +
+           "AND n.createdAt <= :cursorFecha " +
+           "AND (n.createdAt, n.id) < (:cursorFecha, :cursorId) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<NotificacionEntity> findPaginaNoLeidasDespuesDe(
+            @Param("usuarioId") Long usuarioId,
+            @Param("cursorFecha") LocalDateTime cursorFecha,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable
+    );
+
+    // ========== LECTURA ==========
+    // Devuelven las filas cambiadas: solo se descuenta del contador lo que realmente pasó a leído.
+
+    @Modifying
+    @Query("UPDATE NotificacionEntity n SET n.leida = true " +
+           "WHERE n.id = :id AND n.usuarioId = :usuarioId AND n.leida = false")
+    int marcarLeida(@Param("usuarioId") Long usuarioId, @Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE NotificacionEntity n SET n.leida = true WHERE n.usuarioId = :usuarioId AND n.leida = false")
+    int marcarTodasLeidas(@Param("usuarioId") Long usuarioId);
 }
 
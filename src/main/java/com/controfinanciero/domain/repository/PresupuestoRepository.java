@@ -2,7 +2,9 @@ package com.controfinanciero.domain.repository;
 
 import com.controfinanciero.infrastructure.persistence.entity.PresupuestoEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -23,5 +25,27 @@ public interface PresupuestoRepository extends JpaRepository<PresupuestoEntity,
     @Query("SELECT p FROM PresupuestoEntity p WHERE p.activo = true AND p.alertaEnviada = false " +
            "AND (p.gastoActual >= p.limiteMensual * 0.9)")
     List<PresupuestoEntity> findPresupuestosParaAlertar();
+
+    /**
+     * Presupuestos para alertar de un tramo de usuarios
+     */
+    @Query("SELECT p FROM PresupuestoEntity p WHERE p.activo = true AND p.alertaEnviada = false " +
+           "AND (p.gastoActual >= p.limiteMensual * 0.9) AND p.usuarioId BETWEEN :desde AND :hasta")
+    List<PresupuestoEntity> findPresupuestosParaAlertarEntre(Long desde, Long hasta);
+
+    /**
+     * Usuarios con presupuestos para alertar (para repartirlos en tramos)
+     */
+    @Query("SELECT DISTINCT p.usuarioId FROM PresupuestoEntity p WHERE p.activo = true AND p.alertaEnviada = false " +
+           "AND (p.gastoActual >= p.limiteMensual * 0.9)")
+    List<Long> findUsuariosConPresupuestosParaAlertar();
+
+    /**
+     * Marca la alerta como enviada sin reescribir la fila: 'gasto_actual' lo mantiene el libro
+     * de presupuestos (BudgetMonitorService) y un save() de la entidad pisaría sus incrementos.
+     */
+    @Modifying
+    @Query("UPDATE PresupuestoEntity p SET p.alertaEnviada = true WHERE p.id = :id")
+    int marcarAlertaEnviada(@Param("id") Long id);
 }
 
@@ -1,10 +1,12 @@
 package com.controfinanciero.domain.service;
 
 import com.controfinanciero.domain.model.MovimientoFinanciero;
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
 import com.controfinanciero.domain.valueobject.Dinero;
+import com.controfinanciero.domain.valueobject.MoneyAccumulator;
 import com.controfinanciero.domain.valueobject.Periodo;
+import com.controfinanciero.domain.valueobject.ResumenFinanciero;
 
-import java.math.BigDecimal;
 import java.util.Currency;
 import java.util.List;
 import java.util.Objects;
@@ -13,9 +15,13 @@ import java.util.Objects;
  * Domain Service: Calculador de Saldo.
  * Calcula el saldo actual a partir de los movimientos financieros.
  * El saldo NO se persiste, se calcula dinámicamente.
+ * Los totales se obtienen en un solo recorrido sobre MovimientoColumns, sumando en centavos
+ * con MoneyAccumulator en lugar de encadenar Dinero.sumar.
  */
 public class CalculadorSaldo {
 
+    private static final TipoMovimiento[] TIPOS = TipoMovimiento.values();
+
     /**
      * Calcula el saldo total del usuario basado en todos sus movimientos.
      * Fórmula: Ingresos - Gastos - Ahorros - Préstamos + Transferencias
@@ -24,17 +30,7 @@ public class CalculadorSaldo {
         Objects.requireNonNull(movimientos, "La lista de movimientos no puede ser null");
         Objects.requireNonNull(moneda, "La moneda no puede ser null");
 
-        BigDecimal saldo = movimientos.stream()
-                .map(movimiento -> {
-                    if (movimiento.incrementaSaldo()) {
-                        return movimiento.getMonto();
-                    } else {
-                        return movimiento.getMonto().negate();
-                    }
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return new Dinero(saldo, moneda);
+        return saldo(KernelMovimientos.totalesPorTipo(MovimientoColumns.desde(movimientos)), moneda);
     }
 
     /**
@@ -45,56 +41,28 @@ public class CalculadorSaldo {
         Objects.requireNonNull(periodo, "El periodo no puede ser null");
         Objects.requireNonNull(moneda, "La moneda no puede ser null");
 
-        List<MovimientoFinanciero> movimientosDelPeriodo = movimientos.stream()
-                .filter(m -> periodo.contiene(m.getFechaMovimiento()))
-                .toList();
-
-        return calcularSaldoTotal(movimientosDelPeriodo, moneda);
+        return saldo(totalesEnPeriodo(MovimientoColumns.desde(movimientos), periodo), moneda);
     }
 
     /**
      * Calcula el total de ingresos.
      */
     public Dinero calcularTotalIngresos(List<MovimientoFinanciero> movimientos, Currency moneda) {
-        Objects.requireNonNull(movimientos, "La lista de movimientos no puede ser null");
-        Objects.requireNonNull(moneda, "La moneda no puede ser null");
-
-        BigDecimal total = movimientos.stream()
-                .filter(MovimientoFinanciero::esIngreso)
-                .map(MovimientoFinanciero::getMonto)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return new Dinero(total, moneda);
+        return calcularTotal(movimientos, TipoMovimiento.INCOME, moneda);
     }
 
     /**
      * Calcula el total de gastos.
      */
     public Dinero calcularTotalGastos(List<MovimientoFinanciero> movimientos, Currency moneda) {
-        Objects.requireNonNull(movimientos, "La lista de movimientos no puede ser null");
-        Objects.requireNonNull(moneda, "La moneda no puede ser null");
-
-        BigDecimal total = movimientos.stream()
-                .filter(MovimientoFinanciero::esGasto)
-                .map(MovimientoFinanciero::getMonto)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return new Dinero(total, moneda);
+        return calcularTotal(movimientos, TipoMovimiento.EXPENSE, moneda);
     }
 
     /**
      * Calcula el total de ahorros.
      */
     public Dinero calcularTotalAhorros(List<MovimientoFinanciero> movimientos, Currency moneda) {
-        Objects.requireNonNull(movimientos, "La lista de movimientos no puede ser null");
-        Objects.requireNonNull(moneda, "La moneda no puede ser null");
-
-        BigDecimal total = movimientos.stream()
-                .filter(MovimientoFinanciero::esAhorro)
-                .map(MovimientoFinanciero::getMonto)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return new Dinero(total, moneda);
+        return calcularTotal(movimientos, TipoMovimiento.SAVINGS, moneda);
     }
 
     /**
@@ -102,11 +70,65 @@ public class CalculadorSaldo {
      * Útil para saber cuánto dinero puede gastar el usuario.
      */
     public Dinero calcularSaldoDisponible(List<MovimientoFinanciero> movimientos, Currency moneda) {
-        Dinero ingresos = calcularTotalIngresos(movimientos, moneda);
-        Dinero gastos = calcularTotalGastos(movimientos, moneda);
-        Dinero ahorros = calcularTotalAhorros(movimientos, moneda);
+        Objects.requireNonNull(movimientos, "La lista de movimientos no puede ser null");
+        Objects.requireNonNull(moneda, "La moneda no puede ser null");
 
-        return ingresos.restar(gastos).restar(ahorros);
+        MoneyAccumulator[] totales = KernelMovimientos.totalesPorTipo(MovimientoColumns.desde(movimientos));
+        return disponible(totales, moneda);
+    }
+
+    /**
+     * Ingresos, gastos, ahorros y saldo disponible de un período en un solo recorrido.
+     */
+    public ResumenFinanciero calcularResumen(List<MovimientoFinanciero> movimientos, Periodo periodo, Currency moneda) {
+        Objects.requireNonNull(movimientos, "La lista de movimientos no puede ser null");
+        Objects.requireNonNull(periodo, "El periodo no puede ser null");
+        Objects.requireNonNull(moneda, "La moneda no puede ser null");
+
+        MoneyAccumulator[] totales = totalesEnPeriodo(MovimientoColumns.desde(movimientos), periodo);
+        return new ResumenFinanciero(
+                total(totales, TipoMovimiento.INCOME, moneda),
+                total(totales, TipoMovimiento.EXPENSE, moneda),
+                total(totales, TipoMovimiento.SAVINGS, moneda),
+                disponible(totales, moneda),
+                periodo
+        );
     }
-}
 
+    private Dinero calcularTotal(List<MovimientoFinanciero> movimientos, TipoMovimiento tipo, Currency moneda) {
+        Objects.requireNonNull(movimientos, "La lista de movimientos no puede ser null");
+        Objects.requireNonNull(moneda, "La moneda no puede ser null");
+
+        return total(KernelMovimientos.totalesPorTipo(MovimientoColumns.desde(movimientos)), tipo, moneda);
+    }
+
+    private static MoneyAccumulator[] totalesEnPeriodo(MovimientoColumns columnas, Periodo periodo) {
+        return KernelMovimientos.totalesPorTipo(columnas,
+                (int) periodo.fechaInicio().toEpochDay(), (int) periodo.fechaFin().toEpochDay());
+    }
+
+    private static Dinero saldo(MoneyAccumulator[] totales, Currency moneda) {
+        MoneyAccumulator saldo = new MoneyAccumulator();
+        for (TipoMovimiento tipo : TIPOS) {
+            MoneyAccumulator total = totales[MovimientoColumns.codigo(tipo)];
+            if (tipo.incrementaSaldo()) {
+                saldo.sumar(total);
+            } else {
+                saldo.restar(total);
+            }
+        }
+        return saldo.comoDinero(moneda);
+    }
+
+    private static Dinero disponible(MoneyAccumulator[] totales, Currency moneda) {
+        return new MoneyAccumulator()
+                .sumar(totales[MovimientoColumns.codigo(TipoMovimiento.INCOME)])
+                .restar(totales[MovimientoColumns.codigo(TipoMovimiento.EXPENSE)])
+                .restar(totales[MovimientoColumns.codigo(TipoMovimiento.SAVINGS)])
+                .comoDinero(moneda);
+    }
+
+    private static Dinero total(MoneyAccumulator[] totales, TipoMovimiento tipo, Currency moneda) {
+        return totales[MovimientoColumns.codigo(tipo)].comoDinero(moneda);
+    }
+}
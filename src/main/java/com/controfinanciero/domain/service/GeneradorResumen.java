@@ -2,9 +2,12 @@ package com.controfinanciero.domain.service;
 
 import com.controfinanciero.domain.model.MovimientoFinanciero;
 import com.controfinanciero.domain.valueobject.Dinero;
+import com.controfinanciero.domain.valueobject.MoneyAccumulator;
 import com.controfinanciero.domain.valueobject.Periodo;
 import com.controfinanciero.domain.valueobject.ResumenFinanciero;
+import com.controfinanciero.domain.valueobject.TotalAgrupadoMovimientos;
 
+import java.time.YearMonth;
 import java.util.Currency;
 import java.util.List;
 import java.util.Objects;
@@ -30,23 +33,47 @@ public class GeneradorResumen {
         Objects.requireNonNull(periodo, "El periodo no puede ser null");
         Objects.requireNonNull(moneda, "La moneda no puede ser null");
 
-        // Filtrar movimientos del período
-        List<MovimientoFinanciero> movimientosDelPeriodo = movimientos.stream()
-                .filter(m -> periodo.contiene(m.getFechaMovimiento()))
-                .toList();
+        // Filtra el período y calcula los totales en un solo recorrido
+        return calculadorSaldo.calcularResumen(movimientos, periodo, moneda);
+    }
+
+    /**
+     * Genera el resumen de un mes calendario a partir de los totales precalculados
+     * (resumen mensual agrupado por tipo y categoría), sin recorrer los movimientos.
+     */
+    public ResumenFinanciero generarMensual(List<TotalAgrupadoMovimientos> totales, YearMonth mes, Currency moneda) {
+        Objects.requireNonNull(totales, "La lista de totales no puede ser null");
+        Objects.requireNonNull(mes, "El mes no puede ser null");
+        Objects.requireNonNull(moneda, "La moneda no puede ser null");
+
+        MoneyAccumulator ingresos = new MoneyAccumulator();
+        MoneyAccumulator gastos = new MoneyAccumulator();
+        MoneyAccumulator ahorros = new MoneyAccumulator();
+
+        for (TotalAgrupadoMovimientos total : totales) {
+            if (!mes.equals(total.mes())) {
+                continue;
+            }
+            if (total.tipoMovimiento().esIngreso()) {
+                ingresos.sumar(total.total());
+            } else if (total.tipoMovimiento().esGasto()) {
+                gastos.sumar(total.total());
+            } else if (total.tipoMovimiento().esAhorro()) {
+                ahorros.sumar(total.total());
+            }
+        }
 
-        // Calcular totales
-        Dinero totalIngresos = calculadorSaldo.calcularTotalIngresos(movimientosDelPeriodo, moneda);
-        Dinero totalGastos = calculadorSaldo.calcularTotalGastos(movimientosDelPeriodo, moneda);
-        Dinero totalAhorros = calculadorSaldo.calcularTotalAhorros(movimientosDelPeriodo, moneda);
-        Dinero saldoDisponible = calculadorSaldo.calcularSaldoDisponible(movimientosDelPeriodo, moneda);
+        Dinero totalIngresos = ingresos.comoDinero(moneda);
+        Dinero totalGastos = gastos.comoDinero(moneda);
+        Dinero totalAhorros = ahorros.comoDinero(moneda);
+        Dinero saldoDisponible = totalIngresos.restar(totalGastos).restar(totalAhorros);
 
         return new ResumenFinanciero(
                 totalIngresos,
                 totalGastos,
                 totalAhorros,
                 saldoDisponible,
-                periodo
+                Periodo.mes(mes.getYear(), mes.getMonthValue())
         );
     }
 
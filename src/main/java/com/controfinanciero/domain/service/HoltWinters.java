@@ -0,0 +1,156 @@
+package com.controfinanciero.domain.service;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Suavizado exponencial para series mensuales (Holt-Winters aditivo).
+ * Elige el modelo según la historia disponible:
+ * - Dos temporadas completas o más: nivel, tendencia y estacionalidad (HOLT_WINTERS).
+ * - Al menos 3 puntos: nivel y tendencia (HOLT).
+ * - Menos: promedio simple (PROMEDIO).
+ * Los parámetros de suavizado se eligen por búsqueda en una rejilla pequeña minimizando
+ * el error cuadrático de los pronósticos a un paso; con series de pocas decenas de meses
+ * el ajuste completo son unos miles de operaciones.
+ */
+public final class HoltWinters {
+
+    public static final String HOLT_WINTERS = "HW";
+    public static final String HOLT = "HOLT";
+    public static final String PROMEDIO = "PROMEDIO";
+
+    private static final double[] ALFAS = {0.1, 0.3, 0.5, 0.7, 0.9};
+    private static final double[] BETAS = {0.0, 0.05, 0.15, 0.3};
+    private static final double[] GAMMAS = {0.05, 0.2, 0.4};
+
+    private HoltWinters() {
+    }
+
+    /**
+     * Ajusta el modelo a la serie (un valor por mes, del más antiguo al más reciente).
+     */
+    public static Ajuste ajustar(double[] serie, int periodo) {
+        Objects.requireNonNull(serie, "La serie no puede ser null");
+        if (serie.length == 0) {
+            throw new IllegalArgumentException("La serie debe tener al menos un valor");
+        }
+        if (periodo < 2) {
+            throw new IllegalArgumentException("El periodo estacional debe ser al menos 2");
+        }
+
+        if (serie.length >= 2 * periodo) {
+            Ajuste mejor = null;
+            for (double alfa : ALFAS) {
+                for (double beta : BETAS) {
+                    for (double gamma : GAMMAS) {
+                        Ajuste ajuste = holtWinters(serie, periodo, alfa, beta, gamma);
+                        if (mejor == null || ajuste.rmse() < mejor.rmse()) {
+                            mejor = ajuste;
+                        }
+                    }
+                }
+            }
+            return mejor;
+        }
+
+        if (serie.length >= 3) {
+            Ajuste mejor = null;
+            for (double alfa : ALFAS) {
+                for (double beta : BETAS) {
+                    Ajuste ajuste = holt(serie, alfa, beta);
+                    if (mejor == null || ajuste.rmse() < mejor.rmse()) {
+                        mejor = ajuste;
+                    }
+                }
+            }
+            return mejor;
+        }
+
+        double media = Arrays.stream(serie).average().orElse(0);
+        double errores = 0;
+        for (double valor : serie) {
+            errores += (valor - media) * (valor - media);
+        }
+        return new Ajuste(PROMEDIO, media, 0, new double[0], 0, Math.sqrt(errores / serie.length));
+    }
+
+    /**
+     * Inicialización clásica: nivel = media de la primera temporada, tendencia = diferencia
+     * media entre la primera y la segunda temporada, estacionalidad = desvío de cada mes
+     * de la primera temporada respecto del nivel.
+     */
+    private static Ajuste holtWinters(double[] serie, int periodo, double alfa, double beta, double gamma) {
+        double primera = 0;
+        double segunda = 0;
+        for (int i = 0; i < periodo; i++) {
+            primera += serie[i];
+            segunda += serie[periodo + i];
+        }
+        double nivel = primera / periodo;
+        double tendencia = (segunda - primera) / ((double) periodo * periodo);
+
+        double[] estacionalidad = new double[periodo];
+        for (int i = 0; i < periodo; i++) {
+            estacionalidad[i] = serie[i] - nivel;
+        }
+
+        double errores = 0;
+        int pasos = 0;
+        for (int t = periodo; t < serie.length; t++) {
+            int fase = t % periodo;
+            double pronostico = nivel + tendencia + estacionalidad[fase];
+            double error = serie[t] - pronostico;
+            errores += error * error;
+            pasos++;
+
+            double nivelAnterior = nivel;
+            nivel = alfa * (serie[t] - estacionalidad[fase]) + (1 - alfa) * (nivel + tendencia);
+            tendencia = beta * (nivel - nivelAnterior) + (1 - beta) * tendencia;
+            estacionalidad[fase] = gamma * (serie[t] - nivel) + (1 - gamma) * estacionalidad[fase];
+        }
+
+        return new Ajuste(HOLT_WINTERS, nivel, tendencia, estacionalidad,
+                serie.length % periodo, Math.sqrt(errores / pasos));
+    }
+
+    private static Ajuste holt(double[] serie, double alfa, double beta) {
+        double nivel = serie[0];
+        double tendencia = serie[1] - serie[0];
+
+        double errores = 0;
+        int pasos = 0;
+        for (int t = 1; t < serie.length; t++) {
+            double pronostico = nivel + tendencia;
+            double error = serie[t] - pronostico;
+            errores += error * error;
+            pasos++;
+
+            double nivelAnterior = nivel;
+            nivel = alfa * serie[t] + (1 - alfa) * (nivel + tendencia);
+            tendencia = beta * (nivel - nivelAnterior) + (1 - beta) * tendencia;
+        }
+
+        return new Ajuste(HOLT, nivel, tendencia, new double[0], 0, Math.sqrt(errores / pasos));
+    }
+
+    /**
+     * Estado final del modelo. 'fase' es la posición estacional del mes siguiente al último dato.
+     */
+    public record Ajuste(String modelo, double nivel, double tendencia, double[] estacionalidad, int fase, double rmse) {
+
+        /**
+         * Pronóstico a 'horizonte' meses del último dato (1 = mes siguiente). Nunca negativo:
+         * las series son montos de ingresos o gastos.
+         */
+        public double pronosticar(int horizonte) {
+            if (horizonte < 1) {
+                throw new IllegalArgumentException("El horizonte debe ser al menos 1");
+            }
+            double valor = nivel + horizonte * tendencia;
+            if (estacionalidad.length > 0) {
+                valor += estacionalidad[(fase + horizonte - 1) % estacionalidad.length];
+            }
+            return Math.max(0, valor);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.controfinanciero.domain.service;
+
+import com.controfinanciero.domain.valueobject.MoneyAccumulator;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Cálculos analíticos sobre MovimientoColumns.
+ * Cada operación es un recorrido secuencial de los arreglos primitivos sin crear objetos
+ * por fila; solo se reservan los acumuladores del resultado. Las sumas son exactas
+ * (MoneyAccumulator: centavos en long, BigDecimal solo si desbordan).
+ */
+public final class KernelMovimientos {
+
+    /**
+     * Mayor diferencia en centavos cuyo cuadrado cabe exacto en un double (2^53).
+     */
+    private static final long MAXIMA_DIFERENCIA_EXACTA = 94_906_265L;
+
+    private KernelMovimientos() {
+    }
+
+    /**
+     * Total por tipo de movimiento (índice = código de tipo).
+     */
+    public static MoneyAccumulator[] totalesPorTipo(MovimientoColumns columnas) {
+        return totalesPorTipo(columnas, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Total por tipo de movimiento, solo filas con fecha (epoch day) en [desdeDia, hastaDia].
+     */
+    public static MoneyAccumulator[] totalesPorTipo(MovimientoColumns columnas, int desdeDia, int hastaDia) {
+        MoneyAccumulator[] totales = acumuladores(MovimientoColumns.CANTIDAD_TIPOS);
+        long[] centavos = columnas.centavos;
+        int[] dias = columnas.dias;
+        byte[] tipos = columnas.tipos;
+
+        for (int i = 0; i < columnas.filas(); i++) {
+            int dia = dias[i];
+            if (dia >= desdeDia && dia <= hastaDia) {
+                totales[tipos[i]].sumarCentavos(centavos[i]);
+            }
+        }
+        return totales;
+    }
+
+    /**
+     * Cantidad, suma, media (redondeada a centavos, HALF_UP) y varianza poblacional
+     * de los montos de un tipo. La varianza se mide respecto de la media redondeada,
+     * en unidades monetarias al cuadrado, sumando las filas en su orden original.
+     */
+    public static EstadisticasMonto estadisticas(MovimientoColumns columnas, byte tipo) {
+        long[] centavos = columnas.centavos;
+        byte[] tipos = columnas.tipos;
+
+        int cantidad = 0;
+        MoneyAccumulator suma = new MoneyAccumulator();
+        for (int i = 0; i < columnas.filas(); i++) {
+            if (tipos[i] == tipo) {
+                cantidad++;
+                suma.sumarCentavos(centavos[i]);
+            }
+        }
+        if (cantidad == 0) {
+            return new EstadisticasMonto(0, BigDecimal.ZERO, 0, 0);
+        }
+
+        long media = MovimientoColumns.aCentavos(
+                suma.total().divide(BigDecimal.valueOf(cantidad), 2, RoundingMode.HALF_UP));
+
+        double sumaCuadrados = 0;
+        for (int i = 0; i < columnas.filas(); i++) {
+            if (tipos[i] == tipo) {
+                sumaCuadrados += cuadradoEnUnidades(centavos[i] - media);
+            }
+        }
+        return new EstadisticasMonto(cantidad, suma.total(), media, sumaCuadrados / cantidad);
+    }
+
+    /**
+     * Suma por categoría para un tipo (índice = índice denso de categoría).
+     */
+    public static MoneyAccumulator[] totalesPorCategoria(MovimientoColumns columnas, byte tipo) {
+        MoneyAccumulator[] totales = acumuladores(columnas.cantidadCategorias());
+        long[] centavos = columnas.centavos;
+        byte[] tipos = columnas.tipos;
+        int[] indices = columnas.indicesCategoria;
+
+        for (int i = 0; i < columnas.filas(); i++) {
+            int indice = indices[i];
+            if (tipos[i] == tipo && indice != MovimientoColumns.SIN_INDICE_CATEGORIA) {
+                totales[indice].sumarCentavos(centavos[i]);
+            }
+        }
+        return totales;
+    }
+
+    /**
+     * Cantidad de movimientos por categoría para un tipo (índice = índice denso de categoría).
+     */
+    public static long[] conteoPorCategoria(MovimientoColumns columnas, byte tipo) {
+        long[] conteo = new long[columnas.cantidadCategorias()];
+        byte[] tipos = columnas.tipos;
+        int[] indices = columnas.indicesCategoria;
+
+        for (int i = 0; i < columnas.filas(); i++) {
+            int indice = indices[i];
+            if (tipos[i] == tipo && indice != MovimientoColumns.SIN_INDICE_CATEGORIA) {
+                conteo[indice]++;
+            }
+        }
+        return conteo;
+    }
+
+    /**
+     * Suma por mes para un tipo. La posición 0 es mesDesde (ver MovimientoColumns.mes);
+     * las filas fuera de los meses pedidos se ignoran.
+     */
+    public static MoneyAccumulator[] totalesPorMes(MovimientoColumns columnas, byte tipo, int mesDesde, int cantidadMeses) {
+        MoneyAccumulator[] totales = acumuladores(cantidadMeses);
+        long[] centavos = columnas.centavos;
+        int[] meses = columnas.meses;
+        byte[] tipos = columnas.tipos;
+
+        for (int i = 0; i < columnas.filas(); i++) {
+            int posicion = meses[i] - mesDesde;
+            if (tipos[i] == tipo && posicion >= 0 && posicion < cantidadMeses) {
+                totales[posicion].sumarCentavos(centavos[i]);
+            }
+        }
+        return totales;
+    }
+
+    /**
+     * Filas de un tipo cuyo monto es estrictamente mayor que el umbral, en su orden original.
+     */
+    public static int[] filasMayoresQue(MovimientoColumns columnas, byte tipo, BigDecimal umbral) {
+        // monto > umbral  <=>  centavos > piso(umbral * 100), porque los centavos son enteros
+        long limite = umbral.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValueExact();
+        long[] centavos = columnas.centavos;
+        byte[] tipos = columnas.tipos;
+
+        int[] filas = new int[columnas.filas()];
+        int cantidad = 0;
+        for (int i = 0; i < columnas.filas(); i++) {
+            if (tipos[i] == tipo && centavos[i] > limite) {
+                filas[cantidad++] = i;
+            }
+        }
+        return Arrays.copyOf(filas, cantidad);
+    }
+
+    /**
+     * Percentiles (0 a 100, método del rango más cercano) de los montos de un tipo, en centavos,
+     * en el orden pedido. Los montos del tipo se copian a un único long[] que se ordena una vez
+     * para todos los percentiles. Devuelve un arreglo vacío si no hay filas del tipo.
+     */
+    public static long[] percentiles(MovimientoColumns columnas, byte tipo, double... percentiles) {
+        for (double percentil : percentiles) {
+            if (!(percentil >= 0 && percentil <= 100)) {
+                throw new IllegalArgumentException("El percentil debe estar entre 0 y 100: " + percentil);
+            }
+        }
+        long[] centavos = columnas.centavos;
+        byte[] tipos = columnas.tipos;
+
+        long[] ordenados = new long[columnas.filas()];
+        int cantidad = 0;
+        for (int i = 0; i < columnas.filas(); i++) {
+            if (tipos[i] == tipo) {
+                ordenados[cantidad++] = centavos[i];
+            }
+        }
+        if (cantidad == 0) {
+            return new long[0];
+        }
+        Arrays.sort(ordenados, 0, cantidad);
+
+        long[] resultado = new long[percentiles.length];
+        for (int p = 0; p < percentiles.length; p++) {
+            // Rango más cercano: el menor valor con al menos p% de las filas en o por debajo de él
+            int rango = (int) Math.ceil(percentiles[p] * cantidad / 100.0);
+            resultado[p] = ordenados[Math.max(rango, 1) - 1];
+        }
+        return resultado;
+    }
+
+    /**
+     * Índice denso de la categoría con mayor valor; ante empate, la de menor id.
+     * Devuelve SIN_INDICE_CATEGORIA si no hay valores positivos.
+     */
+    public static int indiceMaximo(MovimientoColumns columnas, long[] valores) {
+        int mejor = MovimientoColumns.SIN_INDICE_CATEGORIA;
+        for (int i = 0; i < valores.length; i++) {
+            if (valores[i] <= 0) {
+                continue;
+            }
+            if (mejor == MovimientoColumns.SIN_INDICE_CATEGORIA || valores[i] > valores[mejor]
+                    || (valores[i] == valores[mejor] && columnas.categoriaId(i) < columnas.categoriaId(mejor))) {
+                mejor = i;
+            }
+        }
+        return mejor;
+    }
+
+    private static MoneyAccumulator[] acumuladores(int cantidad) {
+        MoneyAccumulator[] acumuladores = new MoneyAccumulator[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            acumuladores[i] = new MoneyAccumulator();
+        }
+        return acumuladores;
+    }
+
+    /**
+     * (diferencia / 100)^2 redondeado una sola vez, igual que BigDecimal.pow(2).doubleValue().
+     */
+    private static double cuadradoEnUnidades(long diferenciaCentavos) {
+        if (Math.abs(diferenciaCentavos) <= MAXIMA_DIFERENCIA_EXACTA) {
+            return (double) (diferenciaCentavos * diferenciaCentavos) / 10_000.0;
+        }
+        return BigDecimal.valueOf(diferenciaCentavos, 2).pow(2).doubleValue();
+    }
+
+    public record EstadisticasMonto(int cantidad, BigDecimal suma, long mediaCentavos, double varianza) {
+
+        public BigDecimal media() {
+            return MovimientoColumns.desdeCentavos(mediaCentavos);
+        }
+    }
+}
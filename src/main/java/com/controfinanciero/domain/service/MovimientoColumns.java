@@ -0,0 +1,139 @@
+package com.controfinanciero.domain.service;
+
+import com.controfinanciero.domain.model.MovimientoFinanciero;
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Representación columnar de una lista de movimientos para cálculos analíticos.
+ * Se construye una vez por petición; los recorridos de KernelMovimientos leen
+ * arreglos primitivos en lugar de objetos, BigDecimal y enums.
+ * Los montos se guardan en centavos (la columna 'amount' es numeric(15,2)).
+ * La fila i corresponde al elemento i de la lista original.
+ */
+public final class MovimientoColumns {
+
+    /**
+     * Valor de la columna de categorías para movimientos sin categoría.
+     */
+    public static final long SIN_CATEGORIA = 0L;
+
+    /**
+     * Índice denso de categoría para movimientos sin categoría.
+     */
+    public static final int SIN_INDICE_CATEGORIA = -1;
+
+    static final int CANTIDAD_TIPOS = TipoMovimiento.values().length;
+
+    private final List<MovimientoFinanciero> origen;
+    private final int filas;
+
+    final long[] centavos;
+    final int[] dias;
+    final int[] meses;
+    final byte[] tipos;
+    final long[] categorias;
+    final int[] indicesCategoria;
+    private final long[] categoriasDistintas;
+
+    private MovimientoColumns(List<MovimientoFinanciero> origen) {
+        this.origen = origen;
+        this.filas = origen.size();
+        this.centavos = new long[filas];
+        this.dias = new int[filas];
+        this.meses = new int[filas];
+        this.tipos = new byte[filas];
+        this.categorias = new long[filas];
+        this.indicesCategoria = new int[filas];
+
+        Map<Long, Integer> indices = new HashMap<>();
+        for (int i = 0; i < filas; i++) {
+            MovimientoFinanciero movimiento = origen.get(i);
+            LocalDate fecha = movimiento.getFechaMovimiento();
+
+            centavos[i] = aCentavos(movimiento.getMonto());
+            dias[i] = (int) fecha.toEpochDay();
+            meses[i] = mes(fecha);
+            tipos[i] = codigo(movimiento.getTipoMovimiento());
+
+            Long categoriaId = movimiento.getCategoriaId();
+            if (categoriaId == null) {
+                categorias[i] = SIN_CATEGORIA;
+                indicesCategoria[i] = SIN_INDICE_CATEGORIA;
+            } else {
+                categorias[i] = categoriaId;
+                indicesCategoria[i] = indices.computeIfAbsent(categoriaId, id -> indices.size());
+            }
+        }
+
+        this.categoriasDistintas = new long[indices.size()];
+        indices.forEach((id, indice) -> categoriasDistintas[indice] = id);
+    }
+
+    public static MovimientoColumns desde(List<MovimientoFinanciero> movimientos) {
+        Objects.requireNonNull(movimientos, "La lista de movimientos no puede ser null");
+        return new MovimientoColumns(movimientos);
+    }
+
+    public int filas() {
+        return filas;
+    }
+
+    /**
+     * Movimiento original de la fila (para devolver resultados de dominio).
+     */
+    public MovimientoFinanciero movimiento(int fila) {
+        return origen.get(fila);
+    }
+
+    public long centavos(int fila) {
+        return centavos[fila];
+    }
+
+    /**
+     * Código de tipo de la fila (ver codigo(TipoMovimiento)).
+     */
+    public byte tipo(int fila) {
+        return tipos[fila];
+    }
+
+    /**
+     * Cantidad de categorías distintas; los índices densos van de 0 a este valor - 1.
+     */
+    public int cantidadCategorias() {
+        return categoriasDistintas.length;
+    }
+
+    public long categoriaId(int indiceCategoria) {
+        return categoriasDistintas[indiceCategoria];
+    }
+
+    /**
+     * Código de tipo usado en la columna de tipos.
+     */
+    public static byte codigo(TipoMovimiento tipo) {
+        return (byte) tipo.ordinal();
+    }
+
+    /**
+     * Mes como entero consecutivo (año * 12 + mes - 1), para agrupar sin crear YearMonth.
+     */
+    public static int mes(LocalDate fecha) {
+        return fecha.getYear() * 12 + fecha.getMonthValue() - 1;
+    }
+
+    public static long aCentavos(BigDecimal monto) {
+        return monto.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal desdeCentavos(long centavos) {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+}
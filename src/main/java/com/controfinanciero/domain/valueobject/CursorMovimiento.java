@@ -0,0 +1,58 @@
+package com.controfinanciero.domain.valueobject;
+
+import com.controfinanciero.domain.exception.MovimientoInvalidoException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Value Object que representa la posición de un movimiento en el listado
+ * ordenado por (fecha de movimiento, id). Se usa para paginación por cursor (keyset):
+ * la siguiente página se busca a partir de esta posición, sin OFFSET.
+ */
+public record CursorMovimiento(LocalDate fechaMovimiento, Long id) {
+
+    private static final String SEPARADOR = "|";
+
+    /**
+     * Constructor compacto con validaciones.
+     */
+    public CursorMovimiento {
+        Objects.requireNonNull(fechaMovimiento, "La fecha del cursor no puede ser null");
+        Objects.requireNonNull(id, "El id del cursor no puede ser null");
+    }
+
+    /**
+     * Codifica el cursor como un token opaco para el cliente.
+     */
+    public String codificar() {
+        String valor = fechaMovimiento + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un token generado por {@link #codificar()}.
+     */
+    public static CursorMovimiento decodificar(String token) {
+        if (token == null || token.isBlank()) {
+            throw MovimientoInvalidoException.cursorInvalido("el cursor está vacío");
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separador = valor.indexOf(SEPARADOR);
+            if (separador < 0) {
+                throw MovimientoInvalidoException.cursorInvalido(token);
+            }
+            return new CursorMovimiento(
+                    LocalDate.parse(valor.substring(0, separador)),
+                    Long.parseLong(valor.substring(separador + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw MovimientoInvalidoException.cursorInvalido(token);
+        }
+    }
+}
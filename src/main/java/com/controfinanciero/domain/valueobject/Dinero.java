@@ -11,6 +11,11 @@ import java.util.Objects;
  */
 public record Dinero(BigDecimal cantidad, Currency moneda) {
 
+    /**
+     * Peso colombiano; se resuelve una sola vez en lugar de en cada Dinero.cop.
+     */
+    public static final Currency COP = Currency.getInstance("COP");
+
     /**
      * Constructor compacto con validaciones.
      */
@@ -26,7 +31,7 @@ public record Dinero(BigDecimal cantidad, Currency moneda) {
      * Constructor conveniente para moneda COP (pesos colombianos).
      */
     public static Dinero cop(BigDecimal cantidad) {
-        return new Dinero(cantidad, Currency.getInstance("COP"));
+        return new Dinero(cantidad, COP);
     }
 
     /**
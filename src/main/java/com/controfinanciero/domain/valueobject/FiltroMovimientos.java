@@ -0,0 +1,28 @@
+package com.controfinanciero.domain.valueobject;
+
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+
+import java.time.LocalDate;
+
+/**
+ * Value Object con los filtros opcionales para listar movimientos.
+ * Cualquier campo null significa "sin filtrar por ese criterio".
+ */
+public record FiltroMovimientos(
+    TipoMovimiento tipo,
+    LocalDate fechaInicio,
+    LocalDate fechaFin,
+    Long categoriaId
+) {
+
+    /**
+     * Filtro vacío (todos los movimientos del usuario).
+     */
+    public static FiltroMovimientos sinFiltros() {
+        return new FiltroMovimientos(null, null, null, null);
+    }
+
+    public boolean tieneRangoFechas() {
+        return fechaInicio != null && fechaFin != null;
+    }
+}
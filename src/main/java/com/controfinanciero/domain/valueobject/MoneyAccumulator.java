@@ -0,0 +1,102 @@
+package com.controfinanciero.domain.valueobject;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * Acumulador de montos en centavos para monedas con 2 decimales.
+ * Suma en un long sin crear objetos por operación; si la suma deja de caber en un long
+ * (o llega un monto con más de 2 decimales) continúa en BigDecimal sin perder exactitud.
+ * El resultado es la suma exacta y se redondea a 2 decimales solo al convertirlo en Dinero,
+ * igual que encadenar Dinero.sumar sobre montos de 2 decimales.
+ * No es un value object: es mutable y no es seguro entre hilos; se usa dentro de un cálculo.
+ */
+public final class MoneyAccumulator {
+
+    private long centavos;
+
+    /**
+     * Suma exacta en unidades monetarias; null mientras la suma cabe en centavos.
+     */
+    private BigDecimal desborde;
+
+    public MoneyAccumulator sumarCentavos(long monto) {
+        if (desborde != null) {
+            desborde = desborde.add(BigDecimal.valueOf(monto, 2));
+            return this;
+        }
+        long suma = centavos + monto;
+        // Desbordamiento solo si ambos operandos tienen el mismo signo y el resultado no
+        if (((centavos ^ suma) & (monto ^ suma)) < 0) {
+            desborde = BigDecimal.valueOf(centavos, 2).add(BigDecimal.valueOf(monto, 2));
+        } else {
+            centavos = suma;
+        }
+        return this;
+    }
+
+    public MoneyAccumulator restarCentavos(long monto) {
+        if (monto == Long.MIN_VALUE) {
+            return sumar(BigDecimal.valueOf(monto, 2).negate());
+        }
+        return sumarCentavos(-monto);
+    }
+
+    public MoneyAccumulator sumar(BigDecimal monto) {
+        if (desborde == null && monto.scale() <= 2 && monto.precision() - monto.scale() <= 16) {
+            // Hasta 16 dígitos enteros y 2 decimales caben en un long
+            return sumarCentavos(monto.movePointRight(2).longValue());
+        }
+        desborde = total().add(monto);
+        return this;
+    }
+
+    public MoneyAccumulator restar(BigDecimal monto) {
+        return sumar(monto.negate());
+    }
+
+    public MoneyAccumulator sumar(Dinero dinero) {
+        return sumar(dinero.cantidad());
+    }
+
+    public MoneyAccumulator sumar(MoneyAccumulator otro) {
+        return otro.desborde == null ? sumarCentavos(otro.centavos) : sumar(otro.desborde);
+    }
+
+    public MoneyAccumulator restar(MoneyAccumulator otro) {
+        return otro.desborde == null ? restarCentavos(otro.centavos) : restar(otro.desborde);
+    }
+
+    /**
+     * Suma exacta acumulada (escala 2 mientras no haya desborde).
+     */
+    public BigDecimal total() {
+        return desborde != null ? desborde : BigDecimal.valueOf(centavos, 2);
+    }
+
+    public Dinero comoDinero(Currency moneda) {
+        return new Dinero(total(), moneda);
+    }
+
+    /**
+     * Total en centavos (redondeado HALF_UP); lanza ArithmeticException si no cabe en un long.
+     */
+    public long centavos() {
+        if (desborde == null) {
+            return centavos;
+        }
+        return desborde.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public int compararCon(MoneyAccumulator otro) {
+        if (desborde == null && otro.desborde == null) {
+            return Long.compare(centavos, otro.centavos);
+        }
+        return total().compareTo(otro.total());
+    }
+
+    public boolean esCero() {
+        return desborde == null ? centavos == 0 : desborde.signum() == 0;
+    }
+}
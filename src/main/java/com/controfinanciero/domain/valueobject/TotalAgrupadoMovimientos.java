@@ -0,0 +1,35 @@
+package com.controfinanciero.domain.valueobject;
+
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Objects;
+
+/**
+ * Value Object que representa el total de movimientos de un usuario
+ * agrupado por tipo, categoría y mes calendario.
+ * Se calcula en la base de datos, no se persiste.
+ */
+public record TotalAgrupadoMovimientos(
+    TipoMovimiento tipoMovimiento,
+    Long categoriaId,
+    YearMonth mes,
+    BigDecimal total,
+    long cantidad
+) {
+
+    /**
+     * Constructor compacto con validaciones.
+     * La categoría puede ser null (movimientos sin categoría).
+     */
+    public TotalAgrupadoMovimientos {
+        Objects.requireNonNull(tipoMovimiento, "El tipo de movimiento no puede ser null");
+        Objects.requireNonNull(mes, "El mes no puede ser null");
+        total = total != null ? total : BigDecimal.ZERO;
+    }
+
+    public boolean tieneCategoria() {
+        return categoriaId != null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.controfinanciero.domain.valueobject;
+
+import java.math.BigDecimal;
+
+/**
+ * Value Object con los totales de ingresos, gastos y ahorros de un rango de fechas.
+ * Se calcula con una única consulta agregada, no se persiste.
+ */
+public record TotalesMovimientos(
+    BigDecimal totalIngresos,
+    BigDecimal totalGastos,
+    BigDecimal totalAhorros
+) {
+
+    /**
+     * Constructor compacto: los totales null (sin movimientos) se normalizan a cero.
+     */
+    public TotalesMovimientos {
+        totalIngresos = totalIngresos != null ? totalIngresos : BigDecimal.ZERO;
+        totalGastos = totalGastos != null ? totalGastos : BigDecimal.ZERO;
+        totalAhorros = totalAhorros != null ? totalAhorros : BigDecimal.ZERO;
+    }
+
+    /**
+     * Totales vacíos.
+     */
+    public static TotalesMovimientos vacios() {
+        return new TotalesMovimientos(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+}
@@ -3,6 +3,7 @@ package com.controfinanciero.infrastructure.config;
 import com.controfinanciero.application.usecase.Meta.CrearMetaFinancieraUseCase;
 import com.controfinanciero.application.usecase.Meta.ObtenerMetasFinancierasUseCase;
 import com.controfinanciero.application.usecase.movimiento.CrearMovimientoFinancieroUseCase;
+import com.controfinanciero.application.usecase.movimiento.CrearMovimientosLoteUseCase;
 import com.controfinanciero.application.usecase.movimiento.ObtenerMovimientosFinancierosUseCase;
 import com.controfinanciero.domain.repository.MetaFinancieraRepository;
 import com.controfinanciero.application.usecase.categoria.CrearCategoriaUseCase;
@@ -19,8 +20,6 @@ import com.controfinanciero.domain.repository.UsuarioRepository;
 import com.controfinanciero.domain.service.CalculadorProgresoMeta;
 import com.controfinanciero.domain.service.CalculadorSaldo;
 import com.controfinanciero.domain.service.GeneradorResumen;
-import com.controfinanciero.infrastructure.service.BudgetMonitorService;
-import com.controfinanciero.infrastructure.service.GoalMonitorService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -117,18 +116,25 @@ public class BeanConfiguration {
             UsuarioRepository usuarioRepository,
             CategoriaRepository categoriaRepository,
             FuenteIngresoRepository fuenteIngresoRepository,
-            MetaFinancieraRepository metaRepository,
-            BudgetMonitorService budgetMonitorService,
-            GoalMonitorService goalMonitorService
+            MetaFinancieraRepository metaRepository
     ) {
         return new CrearMovimientoFinancieroUseCase(
                 movimientoRepository,
                 usuarioRepository,
                 categoriaRepository,
                 fuenteIngresoRepository,
-                metaRepository,
-                budgetMonitorService,
-                goalMonitorService
+                metaRepository
+        );
+    }
+
+    @Bean
+    public CrearMovimientosLoteUseCase crearMovimientosLoteUseCase(
+            MovimientoFinancieroRepository movimientoRepository,
+            UsuarioRepository usuarioRepository
+    ) {
+        return new CrearMovimientosLoteUseCase(
+                movimientoRepository,
+                usuarioRepository
         );
     }
 
@@ -0,0 +1,107 @@
+package com.controfinanciero.infrastructure.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Configuración de caché en memoria (Caffeine).
+ * Datos de referencia por usuario (categorías, fuentes de ingreso y nombres de metas)
+ * y resultados de análisis (ver CacheAnalisisService).
+ * Las cachés son transaccionales: las invalidaciones hechas dentro de una transacción
+ * se aplican al confirmar, para no repoblar la caché con datos aún no confirmados.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Categorías de un usuario (clave: id de usuario).
+     */
+    public static final String CATEGORIAS_USUARIO = "categoriasUsuario";
+
+    /**
+     * Categoría individual (clave: id de categoría).
+     */
+    public static final String CATEGORIAS = "categorias";
+
+    /**
+     * Fuentes de ingreso de un usuario (clave: id de usuario).
+     */
+    public static final String FUENTES_INGRESO_USUARIO = "fuentesIngresoUsuario";
+
+    /**
+     * Fuente de ingreso individual (clave: id de fuente).
+     */
+    public static final String FUENTES_INGRESO = "fuentesIngreso";
+
+    /**
+     * Nombre de una meta (clave: id de meta). Solo el nombre: el progreso cambia con cada ahorro.
+     */
+    public static final String NOMBRES_METAS = "nombresMetas";
+
+    /**
+     * Resultados de análisis (clave: usuario, consulta, parámetros y versión de datos).
+     */
+    public static final String ANALISIS = "analisis";
+
+    @Value("${cache.referencia.peso-maximo:200000}")
+    private long pesoMaximo;
+
+    @Value("${cache.referencia.ttl-minutos:30}")
+    private long ttlMinutos;
+
+    @Value("${cache.analisis.maximo-entradas:20000}")
+    private long maximoEntradasAnalisis;
+
+    @Value("${cache.analisis.ttl-minutos:60}")
+    private long ttlMinutosAnalisis;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+
+        for (String nombre : new String[]{CATEGORIAS_USUARIO, CATEGORIAS, FUENTES_INGRESO_USUARIO, FUENTES_INGRESO, NOMBRES_METAS}) {
+            cacheManager.registerCustomCache(nombre, referencia().build());
+        }
+        cacheManager.registerCustomCache(ANALISIS, Caffeine.newBuilder()
+                .maximumSize(maximoEntradasAnalisis)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutosAnalisis))
+                .recordStats()
+                .build());
+        // CaffeineCacheManager no admite setTransactionAware: se envuelve en el proxy transaccional
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    /**
+     * Acotada por peso: una lista pesa tantas unidades como elementos tiene,
+     * así un usuario con cientos de categorías no cuenta igual que uno con cinco.
+     */
+    private Caffeine<Object, Object> referencia() {
+        return Caffeine.newBuilder()
+                .maximumWeight(pesoMaximo)
+                .weigher((Object clave, Object valor) -> pesar(valor))
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutos))
+                .recordStats();
+    }
+
+    private static int pesar(Object valor) {
+        if (valor instanceof Collection<?> coleccion) {
+            return coleccion.size() + 1;
+        }
+        if (valor instanceof Map<?, ?> mapa) {
+            return mapa.size() + 1;
+        }
+        return 1;
+    }
+}
@@ -4,7 +4,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import jakarta.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
@@ -13,18 +16,57 @@ import java.net.URI;
 
 /**
  * Configuración personalizada del DataSource para limpiar parámetros incompatibles
- * de la URL de conexión y parsear correctamente URLs de Neon/Heroku style
+ * de la URL de conexión y parsear correctamente URLs de Neon/Heroku style.
+ * Si se define DATABASE_REPLICA_URL, las transacciones de solo lectura etiquetadas
+ * LECTURA_REPLICA se envían a un pool separado contra la réplica (ver ReplicaRoutingDataSource).
  */
 @Configuration
 public class DataSourceConfig {
 
     @Bean
-    @Primary
-    public DataSource dataSource(
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
             @Value("${DATABASE_URL:${spring.datasource.url}}") String databaseUrl,
             @Value("${spring.datasource.username:}") String fallbackUsername,
-            @Value("${spring.datasource.password:}") String fallbackPassword
+            @Value("${spring.datasource.password:}") String fallbackPassword,
+            @Value("${DATABASE_REPLICA_URL:}") String replicaUrl,
+            @Value("${DATABASE_REPLICA_USERNAME:${spring.datasource.username:}}") String replicaUsername,
+            @Value("${DATABASE_REPLICA_PASSWORD:${spring.datasource.password:}}") String replicaPassword,
+            @Value("${datasource.replica.maximum-pool-size:5}") int replicaPoolSize,
+            @Value("${datasource.replica.max-lag-seconds:10}") long maximoRetrasoSegundos
     ) {
+        HikariDataSource primario = crearPool("primario", databaseUrl, fallbackUsername, fallbackPassword, 5, false);
+
+        HikariDataSource replica = null;
+        if (replicaUrl != null && !replicaUrl.isBlank()) {
+            replica = crearPool("replica", replicaUrl, replicaUsername, replicaPassword, replicaPoolSize, true);
+        } else {
+            System.out.println("🔀 Sin DATABASE_REPLICA_URL: lecturas y escrituras usan el primario");
+        }
+
+        return new ReplicaRoutingDataSource(primario, replica, maximoRetrasoSegundos);
+    }
+
+    /**
+     * La conexión física se obtiene en la primera sentencia SQL, cuando la transacción
+     * ya está marcada como readOnly y el enrutador puede elegir la réplica.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * Reemplaza al JpaTransactionManager autoconfigurado para marcar las transacciones
+     * etiquetadas como lectura de réplica (ver ReplicaJpaTransactionManager).
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new ReplicaJpaTransactionManager(entityManagerFactory);
+    }
+
+    private HikariDataSource crearPool(String nombre, String databaseUrl, String fallbackUsername,
+                                       String fallbackPassword, int maximumPoolSize, boolean soloLectura) {
         String url = databaseUrl;
         String username = null;
         String password = null;
@@ -74,11 +116,11 @@ public class DataSourceConfig {
                 System.out.println("🔧 Password de spring.datasource.password");
             }
 
-            System.out.println("📍 URL: " + (url != null ? url.replaceAll(":[^:@]+@", ":***@") : "null"));
-            System.out.println("👤 Usuario: " + (username != null ? username : "❌ NO CONFIGURADO"));
+            System.out.println("📍 URL (" + nombre + "): " + (url != null ? url.replaceAll(":[^:@]+@", ":***@") : "null"));
+            System.out.println("👤 Usuario (" + nombre + "): " + (username != null ? username : "❌ NO CONFIGURADO"));
 
         } catch (Exception e) {
-            System.err.println("❌ Error parseando DATABASE_URL: " + e.getMessage());
+            System.err.println("❌ Error parseando la URL (" + nombre + "): " + e.getMessage());
             e.printStackTrace();
             throw new RuntimeException("No se pudo parsear DATABASE_URL", e);
         }
@@ -88,10 +130,16 @@ public class DataSourceConfig {
         config.setJdbcUrl(url);
         config.setUsername(username);
         config.setPassword(password);
-        config.setDriverClassName("org.postgresql.Driver");
+        config.setPoolName("hikari-" + nombre);
+        config.setReadOnly(soloLectura);
+        if (url != null && url.startsWith("jdbc:postgresql:")) {
+            config.setDriverClassName("org.postgresql.Driver");
+            // El driver reescribe los lotes JDBC como INSERT multi-fila (carga por lotes de movimientos)
+            config.addDataSourceProperty("reWriteBatchedInserts", "true");
+        }
 
         // Pool settings optimizados para Render Free tier
-        config.setMaximumPoolSize(5);
+        config.setMaximumPoolSize(maximumPoolSize);
         config.setMinimumIdle(2);
         config.setConnectionTimeout(30000);
         config.setIdleTimeout(600000);
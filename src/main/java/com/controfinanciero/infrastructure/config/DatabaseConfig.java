@@ -1,16 +1,20 @@
 package com.controfinanciero.infrastructure.config;
 
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancieroEntity;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
 
 /**
  * Configuración de base de datos.
- * Incluye un bean de prueba para verificar la conexión a Neon PostgreSQL.
+ * Incluye un bean de prueba para verificar la conexión a Neon PostgreSQL
+ * y la preparación de la secuencia de ids de movimientos.
  */
 @Slf4j
 @Configuration
@@ -21,6 +25,7 @@ public class DatabaseConfig {
      * Útil para detectar problemas de conexión inmediatamente.
      */
     @Bean
+    @Order(1)
     public CommandLineRunner testDatabaseConnection(DataSource dataSource) {
         return args -> {
             try (Connection connection = dataSource.getConnection()) {
@@ -34,5 +39,35 @@ public class DatabaseConfig {
             }
         };
     }
+
+    /**
+     * Crea la secuencia pooled de 'financial_movements' si no existe y la adelanta
+     * por encima del máximo id actual (las filas antiguas se generaron con IDENTITY).
+     * Con el optimizador pooled cada nextval devuelve el extremo superior del bloque,
+     * así que basta con que el último valor sea mayor o igual al máximo id.
+     */
+    @Bean
+    @Order(2)
+    public CommandLineRunner prepararSecuenciaMovimientos(DataSource dataSource) {
+        return args -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            String secuencia = MovimientoFinancieroEntity.SECUENCIA;
+            try {
+                jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + secuencia +
+                        " INCREMENT BY " + MovimientoFinancieroEntity.ALLOCATION_SIZE);
+                Long ajustado = jdbcTemplate.query(
+                        "SELECT setval('" + secuencia + "', m.max_id) " +
+                        "FROM (SELECT MAX(id) AS max_id FROM financial_movements) m, " + secuencia + " s " +
+                        "WHERE m.max_id IS NOT NULL AND m.max_id >= s.last_value",
+                        rs -> rs.next() ? rs.getLong(1) : null);
+                if (ajustado != null) {
+                    log.info("🔢 Secuencia {} adelantada hasta {}", secuencia, ajustado);
+                }
+            } catch (Exception e) {
+                log.error("❌ Error preparando la secuencia {}: {}", secuencia, e.getMessage(), e);
+                throw new RuntimeException("No se pudo preparar la secuencia de movimientos", e);
+            }
+        };
+    }
 }
 
@@ -0,0 +1,94 @@
+package com.controfinanciero.infrastructure.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
+
+/**
+ * JpaTransactionManager que recuerda qué transacciones pidieron explícitamente la réplica:
+ * solo las declaradas con @Transactional(readOnly = true, label = LECTURA_REPLICA).
+ * El readOnly implícito de los repositorios Spring Data (findById, findBy...) no lleva la
+ * etiqueta, así que esas lecturas siguen en el primario y ven las escrituras recién hechas.
+ * Las transacciones anidadas (REQUIRES_NEW) apilan su propia marca.
+ */
+public class ReplicaJpaTransactionManager extends JpaTransactionManager {
+
+    /**
+     * Etiqueta de las transacciones de solo lectura que toleran el retraso de la réplica.
+     */
+    public static final String LECTURA_REPLICA = "lectura-replica";
+
+    private static final ThreadLocal<Deque<Boolean>> TRANSACCIONES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private static final ThreadLocal<Boolean> FORZAR_PRIMARIO = new ThreadLocal<>();
+
+    public ReplicaJpaTransactionManager(EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory);
+    }
+
+    /**
+     * True si la transacción actual es de solo lectura y pidió la réplica.
+     */
+    public static boolean enLecturaDeReplica() {
+        if (Boolean.TRUE.equals(FORZAR_PRIMARIO.get())) {
+            return false;
+        }
+        Boolean actual = TRANSACCIONES.get().peek();
+        return Boolean.TRUE.equals(actual) && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * Ejecuta el cálculo en el hilo actual con todas sus lecturas en el primario, aunque
+     * sus transacciones pidan la réplica (leer las escrituras propias recién confirmadas).
+     */
+    public static <T> T enPrimario(Supplier<T> calculo) {
+        Boolean anterior = FORZAR_PRIMARIO.get();
+        FORZAR_PRIMARIO.set(Boolean.TRUE);
+        try {
+            return calculo.get();
+        } finally {
+            if (anterior == null) {
+                FORZAR_PRIMARIO.remove();
+            } else {
+                FORZAR_PRIMARIO.set(anterior);
+            }
+        }
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        boolean replica = definition.isReadOnly()
+                && definition instanceof TransactionAttribute atributo
+                && atributo.getLabels().contains(LECTURA_REPLICA);
+        TRANSACCIONES.get().push(replica);
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error e) {
+            quitarMarca();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            quitarMarca();
+        }
+    }
+
+    private static void quitarMarca() {
+        Deque<Boolean> pila = TRANSACCIONES.get();
+        pila.poll();
+        if (pila.isEmpty()) {
+            TRANSACCIONES.remove();
+        }
+    }
+}
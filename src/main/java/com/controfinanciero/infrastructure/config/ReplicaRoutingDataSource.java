@@ -0,0 +1,135 @@
+package com.controfinanciero.infrastructure.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DataSource que enruta a la réplica de lectura solo las transacciones que la piden
+ * explícitamente (@Transactional(readOnly = true, label = ReplicaJpaTransactionManager.LECTURA_REPLICA))
+ * y todo lo demás al primario, incluido el readOnly implícito de los repositorios Spring Data.
+ * La réplica solo se usa mientras su retraso de replicación esté por debajo del máximo
+ * configurado; si se atrasa o no responde, las lecturas vuelven al primario.
+ * Debe envolverse en un LazyConnectionDataSourceProxy para que la conexión se pida
+ * cuando la transacción ya está marcada como de solo lectura.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    enum Destino { PRIMARIO, REPLICA }
+
+    /**
+     * Segundos de retraso de la réplica. Sin WAL pendiente de aplicar el retraso es 0
+     * aunque la última transacción replicada sea antigua (primario sin escrituras).
+     */
+    private static final String CONSULTA_RETRASO =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final HikariDataSource primario;
+    private final HikariDataSource replica;
+    private final long maximoRetrasoSegundos;
+
+    private volatile boolean replicaDisponible;
+
+    public ReplicaRoutingDataSource(HikariDataSource primario, HikariDataSource replica, long maximoRetrasoSegundos) {
+        this.primario = primario;
+        this.replica = replica;
+        this.maximoRetrasoSegundos = maximoRetrasoSegundos;
+
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(Destino.PRIMARIO, primario);
+        if (replica != null) {
+            destinos.put(Destino.REPLICA, replica);
+        }
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(primario);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return replicaDisponible && ReplicaJpaTransactionManager.enLecturaDeReplica()
+                ? Destino.REPLICA
+                : Destino.PRIMARIO;
+    }
+
+    /**
+     * Si la réplica no entrega conexión, la lectura se resuelve en el primario
+     * y la réplica queda deshabilitada hasta la siguiente verificación.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() != Destino.REPLICA) {
+            return primario.getConnection();
+        }
+        try {
+            return super.getConnection();
+        } catch (SQLException e) {
+            replicaDisponible = false;
+            log.warn("⚠️ Réplica sin conexión, lectura enviada al primario: {}", e.getMessage());
+            return primario.getConnection();
+        }
+    }
+
+    /**
+     * Mide el retraso de la réplica y la habilita o deshabilita para lecturas.
+     */
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-ms:5000}")
+    public void verificarRetrasoReplica() {
+        if (replica == null) {
+            return;
+        }
+
+        boolean disponible;
+        try (Connection connection = replica.getConnection()) {
+            double retraso = medirRetrasoSegundos(connection);
+            disponible = retraso <= maximoRetrasoSegundos;
+            if (!disponible) {
+                log.warn("⚠️ Réplica con {} s de retraso (máximo {} s)", String.format("%.1f", retraso), maximoRetrasoSegundos);
+            }
+        } catch (SQLException e) {
+            disponible = false;
+            log.warn("⚠️ No se pudo verificar la réplica: {}", e.getMessage());
+        }
+
+        if (disponible != replicaDisponible) {
+            log.info("🔀 Réplica de lectura {}", disponible ? "habilitada" : "deshabilitada (lecturas al primario)");
+        }
+        replicaDisponible = disponible;
+    }
+
+    /**
+     * Segundos de retraso de la réplica. En bases que no son PostgreSQL (H2 en pruebas locales)
+     * el retraso se considera 0.
+     */
+    double medirRetrasoSegundos(Connection connection) throws SQLException {
+        if (!"PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())) {
+            return 0;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(CONSULTA_RETRASO)) {
+            return rs.next() ? rs.getDouble(1) : 0;
+        }
+    }
+
+    public boolean isReplicaDisponible() {
+        return replicaDisponible;
+    }
+
+    @Override
+    public void close() {
+        primario.close();
+        if (replica != null) {
+            replica.close();
+        }
+    }
+}
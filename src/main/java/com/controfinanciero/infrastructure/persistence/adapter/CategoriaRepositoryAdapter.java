@@ -3,26 +3,40 @@ package com.controfinanciero.infrastructure.persistence.adapter;
 import com.controfinanciero.domain.model.Categoria;
 import com.controfinanciero.domain.model.enums.TipoCategoria;
 import com.controfinanciero.domain.repository.CategoriaRepository;
+import com.controfinanciero.infrastructure.config.CacheConfig;
 import com.controfinanciero.infrastructure.persistence.entity.CategoriaEntity;
 import com.controfinanciero.infrastructure.persistence.mapper.CategoriaEntityMapper;
 import com.controfinanciero.infrastructure.persistence.repository.CategoriaJpaRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
  * Adaptador que implementa CategoriaRepository.
  * Conecta el dominio con la infraestructura de persistencia.
+ * Las categorías de cada usuario se sirven desde caché (ver CacheConfig) y se invalidan
+ * al guardar o eliminar. Siempre se devuelven copias: modificar una categoría leída
+ * no altera la caché.
  */
 @Component
 public class CategoriaRepositoryAdapter implements CategoriaRepository {
 
     private final CategoriaJpaRepository jpaRepository;
+    private final Cache categoriasPorUsuario;
+    private final Cache categoriasPorId;
 
-    public CategoriaRepositoryAdapter(CategoriaJpaRepository jpaRepository) {
+    public CategoriaRepositoryAdapter(CategoriaJpaRepository jpaRepository, CacheManager cacheManager) {
         this.jpaRepository = jpaRepository;
+        this.categoriasPorUsuario = cacheManager.getCache(CacheConfig.CATEGORIAS_USUARIO);
+        this.categoriasPorId = cacheManager.getCache(CacheConfig.CATEGORIAS);
     }
 
     @Override
@@ -40,55 +54,132 @@ public class CategoriaRepositoryAdapter implements CategoriaRepository {
         }
 
         CategoriaEntity savedEntity = jpaRepository.save(entity);
+        invalidar(savedEntity.getId(), savedEntity.getUserId());
         return CategoriaEntityMapper.toDomain(savedEntity);
     }
 
     @Override
     public Optional<Categoria> findById(Long id) {
-        return jpaRepository.findById(id)
+        Categoria cacheada = categoriasPorId.get(id, Categoria.class);
+        if (cacheada != null) {
+            return Optional.of(copiar(cacheada));
+        }
+
+        Optional<Categoria> categoria = jpaRepository.findById(id)
                 .map(CategoriaEntityMapper::toDomain);
+        categoria.ifPresent(c -> categoriasPorId.put(id, c));
+        return categoria.map(this::copiar);
+    }
+
+    /**
+     * Los nombres se resuelven desde la caché por id; los faltantes se cargan
+     * de la base de datos en una sola consulta y quedan en caché.
+     */
+    @Override
+    public Map<Long, String> findNombresByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, String> nombres = new HashMap<>();
+        List<Long> faltantes = new ArrayList<>();
+        for (Long id : ids) {
+            Categoria cacheada = categoriasPorId.get(id, Categoria.class);
+            if (cacheada != null) {
+                nombres.put(id, cacheada.getNombre());
+            } else {
+                faltantes.add(id);
+            }
+        }
+
+        if (!faltantes.isEmpty()) {
+            for (CategoriaEntity entity : jpaRepository.findAllById(faltantes)) {
+                Categoria cargada = CategoriaEntityMapper.toDomain(entity);
+                categoriasPorId.put(cargada.getId(), cargada);
+                nombres.put(cargada.getId(), cargada.getNombre());
+            }
+        }
+        return nombres;
     }
 
     @Override
     public List<Categoria> findByUsuarioId(Long usuarioId) {
-        return jpaRepository.findByUserId(usuarioId).stream()
-                .map(CategoriaEntityMapper::toDomain)
+        return delUsuario(usuarioId).stream()
+                .map(this::copiar)
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<Categoria> findActivasByUsuarioId(Long usuarioId) {
-        return jpaRepository.findByUserIdAndIsActive(usuarioId, true).stream()
-                .map(CategoriaEntityMapper::toDomain)
+        return delUsuario(usuarioId).stream()
+                .filter(Categoria::estaActiva)
+                .map(this::copiar)
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<Categoria> findByUsuarioIdAndTipo(Long usuarioId, TipoCategoria tipo) {
-        return jpaRepository.findByUserIdAndCategoryType(usuarioId, tipo).stream()
-                .map(CategoriaEntityMapper::toDomain)
+        return delUsuario(usuarioId).stream()
+                .filter(categoria -> categoria.getTipoCategoria() == tipo)
+                .map(this::copiar)
                 .collect(Collectors.toList());
     }
 
     @Override
     public Optional<Categoria> findByUsuarioIdAndNombre(Long usuarioId, String nombre) {
-        return jpaRepository.findByUserIdAndName(usuarioId, nombre)
-                .map(CategoriaEntityMapper::toDomain);
+        return delUsuario(usuarioId).stream()
+                .filter(categoria -> categoria.getNombre().equals(nombre))
+                .findFirst()
+                .map(this::copiar);
     }
 
     @Override
     public boolean existsByUsuarioIdAndNombre(Long usuarioId, String nombre) {
-        return jpaRepository.existsByUserIdAndName(usuarioId, nombre);
+        return delUsuario(usuarioId).stream()
+                .anyMatch(categoria -> categoria.getNombre().equals(nombre));
     }
 
     @Override
     public void deleteById(Long id) {
+        Optional<Long> usuarioId = jpaRepository.findById(id).map(CategoriaEntity::getUserId);
         jpaRepository.deleteById(id);
+        usuarioId.ifPresent(usuario -> invalidar(id, usuario));
     }
 
     @Override
     public long countActivasByUsuarioId(Long usuarioId) {
-        return jpaRepository.countByUserIdAndIsActiveTrue(usuarioId);
+        return delUsuario(usuarioId).stream()
+                .filter(Categoria::estaActiva)
+                .count();
+    }
+
+    /**
+     * Categorías del usuario tal como están en caché (no deben modificarse ni devolverse).
+     */
+    private List<Categoria> delUsuario(Long usuarioId) {
+        return categoriasPorUsuario.get(usuarioId, () -> jpaRepository.findByUserId(usuarioId).stream()
+                .map(CategoriaEntityMapper::toDomain)
+                .toList());
+    }
+
+    private void invalidar(Long id, Long usuarioId) {
+        categoriasPorId.evict(id);
+        categoriasPorUsuario.evict(usuarioId);
+    }
+
+    private Categoria copiar(Categoria categoria) {
+        return Categoria.reconstituir(
+                categoria.getId(),
+                categoria.getUsuarioId(),
+                categoria.getNombre(),
+                categoria.getDescripcion(),
+                categoria.getColorHex(),
+                categoria.getIcono(),
+                categoria.getTipoCategoria(),
+                categoria.isActiva(),
+                categoria.getCreatedAt(),
+                categoria.getUpdatedAt()
+        );
     }
 }
 
@@ -3,26 +3,39 @@ package com.controfinanciero.infrastructure.persistence.adapter;
 import com.controfinanciero.domain.model.FuenteIngreso;
 import com.controfinanciero.domain.model.enums.TipoFuente;
 import com.controfinanciero.domain.repository.FuenteIngresoRepository;
+import com.controfinanciero.infrastructure.config.CacheConfig;
 import com.controfinanciero.infrastructure.persistence.entity.FuenteIngresoEntity;
 import com.controfinanciero.infrastructure.persistence.mapper.FuenteIngresoEntityMapper;
 import com.controfinanciero.infrastructure.persistence.repository.FuenteIngresoJpaRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
  * Adaptador que implementa FuenteIngresoRepository.
  * Conecta el dominio con la infraestructura de persistencia.
+ * Las fuentes de cada usuario se sirven desde caché (ver CacheConfig) y se invalidan
+ * al guardar o eliminar. Siempre se devuelven copias.
  */
 @Component
 public class FuenteIngresoRepositoryAdapter implements FuenteIngresoRepository {
 
     private final FuenteIngresoJpaRepository jpaRepository;
+    private final Cache fuentesPorUsuario;
+    private final Cache fuentesPorId;
 
-    public FuenteIngresoRepositoryAdapter(FuenteIngresoJpaRepository jpaRepository) {
+    public FuenteIngresoRepositoryAdapter(FuenteIngresoJpaRepository jpaRepository, CacheManager cacheManager) {
         this.jpaRepository = jpaRepository;
+        this.fuentesPorUsuario = cacheManager.getCache(CacheConfig.FUENTES_INGRESO_USUARIO);
+        this.fuentesPorId = cacheManager.getCache(CacheConfig.FUENTES_INGRESO);
     }
 
     @Override
@@ -40,47 +53,87 @@ public class FuenteIngresoRepositoryAdapter implements FuenteIngresoRepository {
         }
 
         FuenteIngresoEntity savedEntity = jpaRepository.save(entity);
+        invalidar(savedEntity.getId(), savedEntity.getUserId());
         return FuenteIngresoEntityMapper.toDomain(savedEntity);
     }
 
     @Override
     public Optional<FuenteIngreso> findById(Long id) {
-        return jpaRepository.findById(id)
+        FuenteIngreso cacheada = fuentesPorId.get(id, FuenteIngreso.class);
+        if (cacheada != null) {
+            return Optional.of(copiar(cacheada));
+        }
+
+        Optional<FuenteIngreso> fuente = jpaRepository.findById(id)
                 .map(FuenteIngresoEntityMapper::toDomain);
+        fuente.ifPresent(f -> fuentesPorId.put(id, f));
+        return fuente.map(this::copiar);
+    }
+
+    /**
+     * Los nombres se resuelven desde la caché por id; los faltantes se cargan
+     * de la base de datos en una sola consulta y quedan en caché.
+     */
+    @Override
+    public Map<Long, String> findNombresByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, String> nombres = new HashMap<>();
+        List<Long> faltantes = new ArrayList<>();
+        for (Long id : ids) {
+            FuenteIngreso cacheada = fuentesPorId.get(id, FuenteIngreso.class);
+            if (cacheada != null) {
+                nombres.put(id, cacheada.getNombre());
+            } else {
+                faltantes.add(id);
+            }
+        }
+
+        if (!faltantes.isEmpty()) {
+            for (FuenteIngresoEntity entity : jpaRepository.findAllById(faltantes)) {
+                FuenteIngreso cargada = FuenteIngresoEntityMapper.toDomain(entity);
+                fuentesPorId.put(cargada.getId(), cargada);
+                nombres.put(cargada.getId(), cargada.getNombre());
+            }
+        }
+        return nombres;
     }
 
     @Override
     public List<FuenteIngreso> findByUsuarioId(Long usuarioId) {
-        return jpaRepository.findByUserId(usuarioId).stream()
-                .map(FuenteIngresoEntityMapper::toDomain)
+        return delUsuario(usuarioId).stream()
+                .map(this::copiar)
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<FuenteIngreso> findActivasByUsuarioId(Long usuarioId) {
-        return jpaRepository.findByUserIdAndIsActiveTrue(usuarioId).stream()
-                .map(FuenteIngresoEntityMapper::toDomain)
-                .collect(Collectors.toList());
+        return findByUsuarioIdAndActiva(usuarioId, true);
     }
 
     @Override
     public List<FuenteIngreso> findByUsuarioIdAndActiva(Long usuarioId, boolean activa) {
-        return jpaRepository.findByUserIdAndIsActive(usuarioId, activa).stream()
-                .map(FuenteIngresoEntityMapper::toDomain)
+        return delUsuario(usuarioId).stream()
+                .filter(fuente -> fuente.isActiva() == activa)
+                .map(this::copiar)
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<FuenteIngreso> findByUsuarioIdAndTipo(Long usuarioId, TipoFuente tipo) {
-        return jpaRepository.findByUserIdAndSourceType(usuarioId, tipo).stream()
-                .map(FuenteIngresoEntityMapper::toDomain)
+        return delUsuario(usuarioId).stream()
+                .filter(fuente -> fuente.getTipoFuente() == tipo)
+                .map(this::copiar)
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<FuenteIngreso> findIngresosRealesByUsuarioId(Long usuarioId) {
-        return jpaRepository.findByUserIdAndIsRealIncomeTrue(usuarioId).stream()
-                .map(FuenteIngresoEntityMapper::toDomain)
+        return delUsuario(usuarioId).stream()
+                .filter(FuenteIngreso::isEsIngresoReal)
+                .map(this::copiar)
                 .collect(Collectors.toList());
     }
 
@@ -93,7 +146,9 @@ public class FuenteIngresoRepositoryAdapter implements FuenteIngresoRepository {
 
     @Override
     public void deleteById(Long id) {
+        Optional<Long> usuarioId = jpaRepository.findById(id).map(FuenteIngresoEntity::getUserId);
         jpaRepository.deleteById(id);
+        usuarioId.ifPresent(usuario -> invalidar(id, usuario));
     }
 
     @Override
@@ -104,7 +159,37 @@ public class FuenteIngresoRepositoryAdapter implements FuenteIngresoRepository {
 
     @Override
     public long countActivasByUsuarioId(Long usuarioId) {
-        return jpaRepository.findByUserIdAndIsActiveTrue(usuarioId).size();
+        return delUsuario(usuarioId).stream()
+                .filter(FuenteIngreso::isActiva)
+                .count();
+    }
+
+    /**
+     * Fuentes del usuario tal como están en caché (no deben modificarse ni devolverse).
+     */
+    private List<FuenteIngreso> delUsuario(Long usuarioId) {
+        return fuentesPorUsuario.get(usuarioId, () -> jpaRepository.findByUserId(usuarioId).stream()
+                .map(FuenteIngresoEntityMapper::toDomain)
+                .toList());
+    }
+
+    private void invalidar(Long id, Long usuarioId) {
+        fuentesPorId.evict(id);
+        fuentesPorUsuario.evict(usuarioId);
+    }
+
+    private FuenteIngreso copiar(FuenteIngreso fuente) {
+        return FuenteIngreso.reconstituir(
+                fuente.getId(),
+                fuente.getUsuarioId(),
+                fuente.getNombre(),
+                fuente.getDescripcion(),
+                fuente.getTipoFuente(),
+                fuente.isEsIngresoReal(),
+                fuente.isActiva(),
+                fuente.getCreatedAt(),
+                fuente.getUpdatedAt()
+        );
     }
 }
 
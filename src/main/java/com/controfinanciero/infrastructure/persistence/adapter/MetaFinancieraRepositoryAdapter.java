@@ -4,29 +4,48 @@ import com.controfinanciero.domain.model.MetaFinanciera;
 import com.controfinanciero.domain.model.enums.EstadoMeta;
 import com.controfinanciero.domain.model.enums.Prioridad;
 import com.controfinanciero.domain.repository.MetaFinancieraRepository;
+import com.controfinanciero.infrastructure.config.CacheConfig;
 import com.controfinanciero.infrastructure.persistence.entity.MetaFinancieraEntity;
 import com.controfinanciero.infrastructure.persistence.mapper.MetaFinancieraEntityMapper;
+import com.controfinanciero.infrastructure.persistence.projection.NombrePorIdProjection;
 import com.controfinanciero.infrastructure.persistence.repository.MetaFinancieraJpaRepository;
+import com.controfinanciero.infrastructure.service.CacheAnalisisService;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
  * Adaptador que implementa MetaFinancieraRepository.
  * Conecta el dominio con la infraestructura de persistencia.
+ * Solo los nombres de las metas se cachean: el progreso cambia con cada ahorro.
+ * Cada alta, modificación o baja invalida los análisis cacheados del dueño de la meta.
  */
 @Component
 public class MetaFinancieraRepositoryAdapter implements MetaFinancieraRepository {
 
     private final MetaFinancieraJpaRepository jpaRepository;
+    private final Cache nombresMetas;
+    private final CacheAnalisisService cacheAnalisis;
 
-    public MetaFinancieraRepositoryAdapter(MetaFinancieraJpaRepository jpaRepository) {
+    public MetaFinancieraRepositoryAdapter(MetaFinancieraJpaRepository jpaRepository, CacheManager cacheManager,
+                                           CacheAnalisisService cacheAnalisis) {
         this.jpaRepository = jpaRepository;
+        this.nombresMetas = cacheManager.getCache(CacheConfig.NOMBRES_METAS);
+        this.cacheAnalisis = cacheAnalisis;
     }
 
     @Override
+    @Transactional
     public MetaFinanciera save(MetaFinanciera meta) {
         MetaFinancieraEntity entity;
 
@@ -41,6 +60,8 @@ public class MetaFinancieraRepositoryAdapter implements MetaFinancieraRepository
         }
 
         MetaFinancieraEntity savedEntity = jpaRepository.save(entity);
+        nombresMetas.evict(savedEntity.getId());
+        cacheAnalisis.invalidarUsuario(savedEntity.getUserId());
         return MetaFinancieraEntityMapper.toDomain(savedEntity);
     }
 
@@ -50,6 +71,32 @@ public class MetaFinancieraRepositoryAdapter implements MetaFinancieraRepository
                 .map(MetaFinancieraEntityMapper::toDomain);
     }
 
+    @Override
+    public Map<Long, String> findNombresByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, String> nombres = new HashMap<>();
+        List<Long> faltantes = new ArrayList<>();
+        for (Long id : ids) {
+            String nombre = nombresMetas.get(id, String.class);
+            if (nombre != null) {
+                nombres.put(id, nombre);
+            } else {
+                faltantes.add(id);
+            }
+        }
+
+        if (!faltantes.isEmpty()) {
+            for (NombrePorIdProjection fila : jpaRepository.findNamesByIdIn(faltantes)) {
+                nombres.put(fila.id(), fila.name());
+                nombresMetas.put(fila.id(), fila.name());
+            }
+        }
+        return nombres;
+    }
+
     @Override
     public List<MetaFinanciera> findByUsuarioId(Long usuarioId) {
         // ✅ Ahora incluye metas propias Y metas compartidas donde es colaborador activo
@@ -108,8 +155,39 @@ public class MetaFinancieraRepositoryAdapter implements MetaFinancieraRepository
     }
 
     @Override
+    @Transactional
+    public boolean agregarMonto(Long id, BigDecimal monto) {
+        if (monto.signum() <= 0) {
+            throw new IllegalArgumentException("El monto debe ser positivo");
+        }
+        if (jpaRepository.addAmount(id, monto) == 0) {
+            return false;
+        }
+        jpaRepository.findById(id).ifPresent(entity -> cacheAnalisis.invalidarUsuario(entity.getUserId()));
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean quitarMonto(Long id, BigDecimal monto) {
+        if (monto.signum() <= 0) {
+            throw new IllegalArgumentException("El monto debe ser positivo");
+        }
+        if (jpaRepository.subtractAmount(id, monto) == 0) {
+            return false;
+        }
+        jpaRepository.findById(id).ifPresent(entity -> cacheAnalisis.invalidarUsuario(entity.getUserId()));
+        return true;
+    }
+
+    @Override
+    @Transactional
     public void deleteById(Long id) {
-        jpaRepository.deleteById(id);
+        jpaRepository.findById(id).ifPresent(entity -> {
+            jpaRepository.delete(entity);
+            cacheAnalisis.invalidarUsuario(entity.getUserId());
+        });
+        nombresMetas.evict(id);
     }
 
     @Override
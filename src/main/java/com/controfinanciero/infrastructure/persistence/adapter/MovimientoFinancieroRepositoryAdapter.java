@@ -3,36 +3,147 @@ package com.controfinanciero.infrastructure.persistence.adapter;
 import com.controfinanciero.domain.model.MovimientoFinanciero;
 import com.controfinanciero.domain.model.enums.TipoMovimiento;
 import com.controfinanciero.domain.repository.MovimientoFinancieroRepository;
+import com.controfinanciero.domain.valueobject.CursorMovimiento;
+import com.controfinanciero.domain.valueobject.FiltroMovimientos;
+import com.controfinanciero.domain.valueobject.TotalAgrupadoMovimientos;
+import com.controfinanciero.domain.valueobject.TotalesMovimientos;
 import com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancieroEntity;
+import com.controfinanciero.infrastructure.persistence.entity.ResumenMensualUsuarioEntity;
+import com.controfinanciero.infrastructure.persistence.event.MovimientoBorrado;
+import com.controfinanciero.infrastructure.persistence.event.MovimientoModificado;
+import com.controfinanciero.infrastructure.persistence.event.MovimientosImportados;
+import com.controfinanciero.infrastructure.persistence.event.MovimientosInsertados;
+import com.controfinanciero.infrastructure.persistence.event.ResumenMensualReconstruido;
 import com.controfinanciero.infrastructure.persistence.mapper.MovimientoFinancieroEntityMapper;
+import com.controfinanciero.infrastructure.persistence.projection.TotalAgrupadoMovimientoProjection;
+import com.controfinanciero.infrastructure.persistence.projection.TotalesPorTipoProjection;
+import com.controfinanciero.infrastructure.persistence.repository.MovimientoFinancieroImportacionRepository;
 import com.controfinanciero.infrastructure.persistence.repository.MovimientoFinancieroJpaRepository;
+import com.controfinanciero.infrastructure.persistence.repository.ResumenMensualUsuarioJpaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
- * Adapter que implementa el port MovimientoFinancieroRepository.
+ * Adapter que implementa el port MovimientoFinancieroRepository: mapeo y persistencia.
+ * Mantiene el resumen mensual ('user_monthly_rollup') en la misma transacción
+ * que cada alta, modificación o baja de movimientos.
+ * Cada cambio se publica (MovimientosInsertados, MovimientoModificado, MovimientoBorrado,
+ * MovimientosImportados, ResumenMensualReconstruido) y sus efectos en presupuestos,
+ * anomalías, caché y eventos de dominio los aplica EfectosMovimientosService antes de
+ * confirmar la misma transacción.
  */
+@Slf4j
 @Component
 public class MovimientoFinancieroRepositoryAdapter implements MovimientoFinancieroRepository {
 
     private final MovimientoFinancieroJpaRepository jpaRepository;
+    private final ResumenMensualUsuarioJpaRepository resumenMensualRepository;
+    private final MovimientoFinancieroImportacionRepository importacionRepository;
+    private final ApplicationEventPublisher cambios;
 
-    public MovimientoFinancieroRepositoryAdapter(MovimientoFinancieroJpaRepository jpaRepository) {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public MovimientoFinancieroRepositoryAdapter(MovimientoFinancieroJpaRepository jpaRepository,
+                                                 ResumenMensualUsuarioJpaRepository resumenMensualRepository,
+                                                 MovimientoFinancieroImportacionRepository importacionRepository,
+                                                 ApplicationEventPublisher cambios) {
         this.jpaRepository = jpaRepository;
+        this.resumenMensualRepository = resumenMensualRepository;
+        this.importacionRepository = importacionRepository;
+        this.cambios = cambios;
     }
 
     @Override
+    @Transactional
     public MovimientoFinanciero save(MovimientoFinanciero movimiento) {
+        // Si es una modificación, se descuenta primero la versión anterior del resumen.
+        // Se guarda una copia: save() fusiona la nueva versión sobre la entidad gestionada
+        boolean esNuevo = movimiento.getId() == null;
+        MovimientoFinancieroEntity anterior = null;
+        if (!esNuevo) {
+            anterior = jpaRepository.findById(movimiento.getId())
+                    .map(MovimientoFinancieroEntityMapper::toDomain)
+                    .map(MovimientoFinancieroEntityMapper::toEntity)
+                    .orElse(null);
+            if (anterior != null) {
+                resumenMensualRepository.aplicarMovimiento(anterior, -1);
+            }
+        }
+
         MovimientoFinancieroEntity entity = MovimientoFinancieroEntityMapper.toEntity(movimiento);
         MovimientoFinancieroEntity savedEntity = jpaRepository.save(entity);
+        resumenMensualRepository.aplicarMovimiento(savedEntity, 1);
+        cambios.publishEvent(esNuevo
+                ? new MovimientosInsertados(List.of(savedEntity))
+                : new MovimientoModificado(anterior, savedEntity));
         return MovimientoFinancieroEntityMapper.toDomain(savedEntity);
     }
 
+    @Override
+    @Transactional
+    public List<MovimientoFinanciero> saveAll(List<MovimientoFinanciero> movimientos) {
+        List<MovimientoFinancieroEntity> entities = new ArrayList<>(movimientos.size());
+        List<MovimientoFinanciero> guardados = new ArrayList<>(movimientos.size());
+        int desvinculadas = 0;
+
+        for (MovimientoFinanciero movimiento : movimientos) {
+            if (movimiento.getId() != null) {
+                throw new IllegalArgumentException("El lote solo admite movimientos nuevos (id " + movimiento.getId() + ")");
+            }
+            MovimientoFinancieroEntity entity = MovimientoFinancieroEntityMapper.toEntity(movimiento);
+            entityManager.persist(entity);
+            entities.add(entity);
+
+            // Sacar del contexto de persistencia cada lote JDBC para no acumular miles de entidades
+            if (entities.size() - desvinculadas == MovimientoFinancieroEntity.ALLOCATION_SIZE) {
+                desvincular(entities.subList(desvinculadas, entities.size()));
+                desvinculadas = entities.size();
+            }
+        }
+        desvincular(entities.subList(desvinculadas, entities.size()));
+
+        resumenMensualRepository.aplicarLote(entities);
+        cambios.publishEvent(new MovimientosInsertados(entities));
+        for (MovimientoFinancieroEntity entity : entities) {
+            guardados.add(MovimientoFinancieroEntityMapper.toDomain(entity));
+        }
+
+        log.info("📦 Lote de {} movimientos insertado", entities.size());
+        return guardados;
+    }
+
+    @Override
+    @Transactional
+    public long importarMovimientos(Long usuarioId, Stream<MovimientoFinanciero> movimientos) {
+        long importados = importacionRepository.importar(usuarioId, movimientos);
+        if (importados > 0) {
+            cambios.publishEvent(new MovimientosImportados(usuarioId, importados));
+        }
+        return importados;
+    }
+
     @Override
     public Optional<MovimientoFinanciero> findById(Long id) {
         return jpaRepository.findById(id)
@@ -53,6 +164,64 @@ public class MovimientoFinancieroRepositoryAdapter implements MovimientoFinancie
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Page<MovimientoFinanciero> findByUsuarioIdPaginado(Long usuarioId, FiltroMovimientos filtro, Pageable pageable) {
+        Page<MovimientoFinancieroEntity> entityPage;
+
+        if (filtro.tieneRangoFechas()) {
+            entityPage = jpaRepository.findByUserIdAndDateRange(usuarioId, filtro.fechaInicio(), filtro.fechaFin(), pageable);
+        } else if (filtro.tipo() != null) {
+            entityPage = jpaRepository.findByUserIdAndMovementType(usuarioId, filtro.tipo(), pageable);
+        } else if (filtro.categoriaId() != null) {
+            entityPage = jpaRepository.findByUserIdAndCategoryId(usuarioId, filtro.categoriaId(), pageable);
+        } else {
+            entityPage = jpaRepository.findByUserId(usuarioId, pageable);
+        }
+
+        return entityPage.map(MovimientoFinancieroEntityMapper::toDomain);
+    }
+
+    @Override
+    public Slice<MovimientoFinanciero> findByUsuarioIdDespuesDeCursor(
+            Long usuarioId, FiltroMovimientos filtro, CursorMovimiento cursor, int tamano) {
+        Pageable limite = PageRequest.of(0, tamano);
+        Slice<MovimientoFinancieroEntity> slice = cursor == null
+                ? jpaRepository.findFirstKeysetPage(usuarioId, tipos(filtro), filtro.categoriaId(),
+                        desde(filtro), hasta(filtro), limite)
+                : jpaRepository.findKeysetPageAfter(usuarioId, tipos(filtro), filtro.categoriaId(),
+                        desde(filtro), hasta(filtro), cursor.fechaMovimiento(), cursor.id(), limite);
+        return slice.map(MovimientoFinancieroEntityMapper::toDomain);
+    }
+
+    @Override
+    public Slice<MovimientoFinanciero> findByUsuarioIdAntesDeCursor(
+            Long usuarioId, FiltroMovimientos filtro, CursorMovimiento cursor, int tamano) {
+        Pageable limite = PageRequest.of(0, tamano);
+        Slice<MovimientoFinancieroEntity> slice = jpaRepository.findKeysetPageBefore(
+                usuarioId, tipos(filtro), filtro.categoriaId(),
+                desde(filtro), hasta(filtro), cursor.fechaMovimiento(), cursor.id(), limite);
+
+        // La consulta recorre el índice en orden ascendente; se devuelve en orden descendente
+        List<MovimientoFinanciero> contenido = new ArrayList<>(slice.getNumberOfElements());
+        slice.forEach(entity -> contenido.add(MovimientoFinancieroEntityMapper.toDomain(entity)));
+        Collections.reverse(contenido);
+        return new SliceImpl<>(contenido, limite, slice.hasNext());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void recorrerByUsuarioIdAndFechaBetween(Long usuarioId, LocalDate fechaInicio, LocalDate fechaFin,
+                                                   Consumer<MovimientoFinanciero> consumidor) {
+        try (Stream<MovimientoFinancieroEntity> stream =
+                     jpaRepository.streamByUserIdAndDateRange(usuarioId, fechaInicio, fechaFin)) {
+            stream.forEach(entity -> {
+                consumidor.accept(MovimientoFinancieroEntityMapper.toDomain(entity));
+                // Sacar la entidad del contexto de persistencia para que la memoria no crezca
+                entityManager.detach(entity);
+            });
+        }
+    }
+
     @Override
     public List<MovimientoFinanciero> findByUsuarioIdAndTipoMovimientoAndFechaMovimientoBetween(
             Long usuarioId, TipoMovimiento tipo, LocalDate fechaInicio, LocalDate fechaFin) {
@@ -86,26 +255,39 @@ public class MovimientoFinancieroRepositoryAdapter implements MovimientoFinancie
 
     @Override
     public BigDecimal sumIngresosByUsuarioIdAndFechaBetween(Long usuarioId, LocalDate fechaInicio, LocalDate fechaFin) {
-        return jpaRepository.findByUserIdAndDateRange(usuarioId, fechaInicio, fechaFin).stream()
-                .filter(m -> m.getMovementType().esIngreso())
-                .map(MovimientoFinancieroEntity::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return jpaRepository.sumTotalsByType(usuarioId, fechaInicio, fechaFin).totalIncome();
     }
 
     @Override
     public BigDecimal sumGastosByUsuarioIdAndFechaBetween(Long usuarioId, LocalDate fechaInicio, LocalDate fechaFin) {
-        return jpaRepository.findByUserIdAndDateRange(usuarioId, fechaInicio, fechaFin).stream()
-                .filter(m -> m.getMovementType().esGasto())
-                .map(MovimientoFinancieroEntity::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return jpaRepository.sumTotalsByType(usuarioId, fechaInicio, fechaFin).totalExpense();
     }
 
     @Override
     public BigDecimal sumAhorrosByUsuarioIdAndFechaBetween(Long usuarioId, LocalDate fechaInicio, LocalDate fechaFin) {
-        return jpaRepository.findByUserIdAndDateRange(usuarioId, fechaInicio, fechaFin).stream()
-                .filter(m -> m.getMovementType().esAhorro())
-                .map(MovimientoFinancieroEntity::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return jpaRepository.sumTotalsByType(usuarioId, fechaInicio, fechaFin).totalSavings();
+    }
+
+    @Override
+    public TotalesMovimientos sumTotalesByUsuarioIdAndFechaBetween(Long usuarioId, LocalDate fechaInicio, LocalDate fechaFin) {
+        TotalesPorTipoProjection totales = jpaRepository.sumTotalsByType(usuarioId, fechaInicio, fechaFin);
+        return new TotalesMovimientos(totales.totalIncome(), totales.totalExpense(), totales.totalSavings());
+    }
+
+    @Override
+    public List<TotalAgrupadoMovimientos> sumTotalesAgrupadosByUsuarioIdAndFechaBetween(
+            Long usuarioId, LocalDate fechaInicio, LocalDate fechaFin) {
+        return jpaRepository.sumGroupedByTypeCategoryAndMonth(usuarioId, fechaInicio, fechaFin).stream()
+                .map(this::toTotalAgrupado)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<MovimientoFinanciero> findInusualesByUsuarioIdAndFechaBetween(
+            Long usuarioId, LocalDate fechaInicio, LocalDate fechaFin) {
+        return jpaRepository.findInusualesByUserIdAndDateRange(usuarioId, fechaInicio, fechaFin).stream()
+                .map(MovimientoFinancieroEntityMapper::toDomain)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -116,13 +298,96 @@ public class MovimientoFinancieroRepositoryAdapter implements MovimientoFinancie
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<TotalAgrupadoMovimientos> findResumenMensualByUsuarioIdAndMesBetween(
+            Long usuarioId, YearMonth mesInicio, YearMonth mesFin) {
+        return resumenMensualRepository.findByUsuarioIdAndPeriodoBetween(
+                        usuarioId,
+                        mesInicio.format(ResumenMensualUsuarioJpaRepository.FORMATO_PERIODO),
+                        mesFin.format(ResumenMensualUsuarioJpaRepository.FORMATO_PERIODO)).stream()
+                .filter(r -> r.getCantidad() > 0)
+                .map(this::toTotalAgrupado)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public void reconstruirResumenMensual(Long usuarioId, LocalDate desde) {
+        resumenMensualRepository.deleteByUsuarioId(usuarioId, desde.format(ResumenMensualUsuarioJpaRepository.FORMATO_PERIODO));
+        int filas = resumenMensualRepository.rebuildByUsuarioId(usuarioId, desde);
+        log.info("🔄 Resumen mensual reconstruido para usuario {}: {} filas", usuarioId, filas);
+        cambios.publishEvent(new ResumenMensualReconstruido(usuarioId));
+    }
+
+    @Override
+    @Transactional
+    public void reconstruirResumenMensualCompleto(LocalDate desde) {
+        resumenMensualRepository.deleteTodo(desde.format(ResumenMensualUsuarioJpaRepository.FORMATO_PERIODO));
+        int filas = resumenMensualRepository.rebuildTodo(desde);
+        log.info("🔄 Resumen mensual reconstruido para todos los usuarios: {} filas", filas);
+        cambios.publishEvent(new ResumenMensualReconstruido(null));
+    }
+
+    @Override
+    public long countDiasConMovimientosByUsuarioIdAndFechaBetween(Long usuarioId, LocalDate fechaInicio, LocalDate fechaFin) {
+        return jpaRepository.countDistinctMovementDates(usuarioId, fechaInicio, fechaFin);
+    }
+
+    @Override
+    @Transactional
     public void deleteById(Long id) {
-        jpaRepository.deleteById(id);
+        jpaRepository.findById(id).ifPresent(entity -> {
+            resumenMensualRepository.aplicarMovimiento(entity, -1);
+            jpaRepository.delete(entity);
+            resumenMensualRepository.deleteVaciasByUsuarioId(entity.getUserId());
+            cambios.publishEvent(new MovimientoBorrado(entity));
+        });
     }
 
     @Override
     public long countByUsuarioId(Long usuarioId) {
-        return jpaRepository.findByUserIdOrderByMovementDateDesc(usuarioId).size();
+        return jpaRepository.countByUserId(usuarioId);
+    }
+
+    /**
+     * Envía los INSERT pendientes y desvincula solo las entidades del lote: clear() también
+     * desvincularía las que el llamador tenga cargadas en la misma transacción.
+     */
+    private void desvincular(List<MovimientoFinancieroEntity> lote) {
+        entityManager.flush();
+        lote.forEach(entityManager::detach);
+    }
+
+    private static EnumSet<TipoMovimiento> tipos(FiltroMovimientos filtro) {
+        return filtro.tipo() != null ? EnumSet.of(filtro.tipo()) : EnumSet.allOf(TipoMovimiento.class);
+    }
+
+    private static LocalDate desde(FiltroMovimientos filtro) {
+        return filtro.fechaInicio() != null ? filtro.fechaInicio() : MovimientoFinancieroJpaRepository.FECHA_MINIMA;
+    }
+
+    private static LocalDate hasta(FiltroMovimientos filtro) {
+        return filtro.fechaFin() != null ? filtro.fechaFin() : MovimientoFinancieroJpaRepository.FECHA_MAXIMA;
+    }
+
+    private TotalAgrupadoMovimientos toTotalAgrupado(TotalAgrupadoMovimientoProjection projection) {
+        return new TotalAgrupadoMovimientos(
+                projection.movementType(),
+                projection.categoryId(),
+                YearMonth.of(projection.year(), projection.month()),
+                projection.total(),
+                projection.count()
+        );
+    }
+
+    private TotalAgrupadoMovimientos toTotalAgrupado(ResumenMensualUsuarioEntity resumen) {
+        return new TotalAgrupadoMovimientos(
+                resumen.getTipoMovimiento(),
+                resumen.getCategoriaId() == ResumenMensualUsuarioEntity.SIN_CATEGORIA ? null : resumen.getCategoriaId(),
+                YearMonth.parse(resumen.getPeriodo(), ResumenMensualUsuarioJpaRepository.FORMATO_PERIODO),
+                resumen.getTotal(),
+                resumen.getCantidad()
+        );
     }
 }
 
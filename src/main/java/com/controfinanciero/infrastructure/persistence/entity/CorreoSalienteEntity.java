@@ -0,0 +1,81 @@
+package com.controfinanciero.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA: Correo pendiente de envío en la bandeja de salida ('email_outbox').
+ * Se inserta en la misma transacción que la notificación que lo origina, así que solo
+ * existe si la notificación se confirmó. El despachador lo reclama con FOR UPDATE SKIP LOCKED
+ * y un lease ('locked_until'), igual que la cola de trabajos.
+ * Las operaciones de la bandeja de salida son SQL nativo en CorreosSalientesService.
+ */
+@Entity
+@Table(name = "email_outbox",
+        indexes = @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status,next_attempt_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CorreoSalienteEntity {
+
+    public enum Estado {
+        PENDIENTE,
+        ENVIANDO,
+        ENVIADO,
+        FALLIDO
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "recipient", nullable = false, length = 100)
+    private String destinatario;
+
+    /**
+     * Dominio del destinatario (gmail.com, outlook.com...): cada proveedor tiene su propio límite de envío.
+     */
+    @Column(name = "provider", nullable = false, length = 100)
+    private String proveedor;
+
+    @Column(name = "notification_type", nullable = false, length = 50)
+    private String tipo;
+
+    @Column(name = "subject", nullable = false, length = 200)
+    private String asunto;
+
+    @Column(name = "body", nullable = false, columnDefinition = "TEXT")
+    private String mensaje;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Estado estado = Estado.PENDIENTE;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer intentos = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime proximoIntento;
+
+    @Column(name = "locked_by", length = 100)
+    private String bloqueadoPor;
+
+    @Column(name = "locked_until")
+    private LocalDateTime bloqueadoHasta;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String ultimoError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime enviadoAt;
+}
@@ -0,0 +1,42 @@
+package com.controfinanciero.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA: Efecto secundario ya aplicado por un evento de movimiento ('movement_event_effects').
+ * Los suscriptores insertan la marca con ON CONFLICT DO NOTHING en la misma transacción que el
+ * efecto: si el evento se entrega o reintenta otra vez, la marca existe y el efecto no se repite.
+ * 'amount' guarda lo aplicado (p. ej. el redondeo ahorrado) para revertirlo al eliminar el movimiento.
+ * Las operaciones son SQL nativo en SuscriptoresMovimientosService.
+ */
+@Entity
+@Table(name = "movement_event_effects",
+        uniqueConstraints = @UniqueConstraint(name = "uk_movement_event_effects_movement_effect",
+                columnNames = {"movement_id", "effect"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EfectoMovimientoEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "movement_id", nullable = false)
+    private Long movimientoId;
+
+    @Column(name = "effect", nullable = false, length = 30)
+    private String efecto;
+
+    @Column(name = "amount", precision = 15, scale = 2)
+    private BigDecimal monto;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,59 @@
+package com.controfinanciero.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA: Estadísticas móviles de gasto por (usuario, categoría).
+ * Media y varianza de los montos de gasto, actualizadas con cada gasto nuevo
+ * (Welford mientras hay pocas observaciones, luego media móvil exponencial).
+ * Puede reconstruirse desde 'financial_movements'.
+ */
+@Entity
+@Table(name = "category_running_stats",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_category_running_stats",
+                columnNames = {"user_id", "category_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticaCategoriaEntity {
+
+    /**
+     * Valor usado en 'category_id' para gastos sin categoría.
+     */
+    public static final long SIN_CATEGORIA = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoriaId = SIN_CATEGORIA;
+
+    @Column(name = "observation_count", nullable = false)
+    private Long cantidad = 0L;
+
+    @Column(name = "mean_amount", nullable = false)
+    private Double media = 0.0;
+
+    @Column(name = "variance", nullable = false)
+    private Double varianza = 0.0;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+        if (categoriaId == null) categoriaId = SIN_CATEGORIA;
+    }
+}
@@ -0,0 +1,61 @@
+package com.controfinanciero.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA: Estado de cuenta mensual precalculado por usuario.
+ * Totales del mes tomados de 'user_monthly_rollup' al generar el resumen mensual.
+ * La clave única (user_id, period) hace idempotente la generación: un reintento
+ * no duplica el estado de cuenta ni su notificación.
+ * Las filas se insertan por lotes con INSERT ... SELECT desde TareasAutomaticasService.
+ */
+@Entity
+@Table(name = "monthly_statements",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_monthly_statements",
+                columnNames = {"user_id", "period"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadoCuentaMensualEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long usuarioId;
+
+    /**
+     * Mes del estado de cuenta ("yyyy-MM").
+     */
+    @Column(name = "period", nullable = false, length = 7)
+    private String periodo;
+
+    @Column(name = "income_total", nullable = false, precision = 15, scale = 2)
+    private BigDecimal ingresos;
+
+    @Column(name = "expense_total", nullable = false, precision = 15, scale = 2)
+    private BigDecimal gastos;
+
+    @Column(name = "savings_total", nullable = false, precision = 15, scale = 2)
+    private BigDecimal ahorros;
+
+    /**
+     * Ingresos - gastos - ahorros del mes.
+     */
+    @Column(name = "available_balance", nullable = false, precision = 15, scale = 2)
+    private BigDecimal disponible;
+
+    @Column(name = "movement_count", nullable = false)
+    private Long cantidadMovimientos;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -22,8 +22,17 @@ import java.time.LocalDateTime;
 })
 public class MovimientoFinancieroEntity {
 
+    /**
+     * Secuencia con optimizador pooled: Hibernate reserva bloques de
+     * ALLOCATION_SIZE ids por cada nextval, lo que permite agrupar los INSERT
+     * en lotes JDBC (con IDENTITY Hibernate desactiva el batching).
+     */
+    public static final String SECUENCIA = "financial_movements_seq";
+    public static final int ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "financial_movements_seq")
+    @SequenceGenerator(name = "financial_movements_seq", sequenceName = SECUENCIA, allocationSize = ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -0,0 +1,60 @@
+package com.controfinanciero.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA: Marca de gasto inusual.
+ * Se guarda al registrar un gasto que supera el umbral de su categoría,
+ * con la media y el umbral vigentes en ese momento.
+ */
+@Entity
+@Table(name = "movement_anomalies",
+        indexes = @Index(name = "idx_movement_anomalies_user_date", columnList = "user_id,movement_date"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimientoInusualEntity {
+
+    @Id
+    @Column(name = "movement_id")
+    private Long movimientoId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoriaId;
+
+    @Column(name = "movement_date", nullable = false)
+    private LocalDate fechaMovimiento;
+
+    @Column(name = "amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal monto;
+
+    @Column(name = "expected_amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal media;
+
+    @Column(name = "threshold_amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal umbral;
+
+    /**
+     * Desviaciones estándar por encima de la media (null si la desviación era 0).
+     */
+    @Column(name = "score")
+    private Double puntaje;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) createdAt = LocalDateTime.now();
+    }
+}
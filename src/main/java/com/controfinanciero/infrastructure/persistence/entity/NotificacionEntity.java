@@ -11,7 +11,10 @@ import java.time.LocalDateTime;
  * Entidad JPA: Notificación
  */
 @Entity
-@Table(name = "notificaciones")
+@Table(name = "notificaciones", indexes = {
+    @Index(name = "idx_notificaciones_created_at", columnList = "created_at"),
+    @Index(name = "idx_notificaciones_user_created", columnList = "user_id, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
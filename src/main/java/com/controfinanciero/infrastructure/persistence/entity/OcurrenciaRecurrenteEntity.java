@@ -0,0 +1,39 @@
+package com.controfinanciero.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA: Ocurrencia ya generada de un movimiento recurrente.
+ * La clave única (recurrence_id, occurrence_date) hace idempotente la ejecución:
+ * un reintento o una segunda instancia no vuelve a crear el movimiento de esa fecha.
+ * Las filas se insertan por lotes desde MovimientosRecurrentesService.
+ */
+@Entity
+@Table(name = "recurring_occurrences",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_recurring_occurrences",
+                columnNames = {"recurrence_id", "occurrence_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcurrenciaRecurrenteEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recurrence_id", nullable = false)
+    private Long recurrenteId;
+
+    @Column(name = "occurrence_date", nullable = false)
+    private LocalDate fechaOcurrencia;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,69 @@
+package com.controfinanciero.infrastructure.persistence.entity;
+
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA: Pronóstico mensual por (usuario, tipo de movimiento, categoría).
+ * Una fila con los pronósticos del mes en curso y del siguiente, calculados con los meses
+ * completos hasta 'base_month'. Se recalcula cada noche (PronosticoService).
+ */
+@Entity
+@Table(name = "monthly_forecasts",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_monthly_forecasts",
+                columnNames = {"user_id", "movement_type", "category_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PronosticoMensualEntity {
+
+    /**
+     * Valor usado en 'category_id' para movimientos sin categoría.
+     */
+    public static final long SIN_CATEGORIA = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long usuarioId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false, length = 20)
+    private TipoMovimiento tipoMovimiento;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoriaId = SIN_CATEGORIA;
+
+    /**
+     * Último mes completo usado en el ajuste ("yyyy-MM").
+     */
+    @Column(name = "base_month", nullable = false, length = 7)
+    private String mesBase;
+
+    @Column(name = "forecast_current", nullable = false, precision = 15, scale = 2)
+    private BigDecimal pronosticoMesActual;
+
+    @Column(name = "forecast_next", nullable = false, precision = 15, scale = 2)
+    private BigDecimal pronosticoMesSiguiente;
+
+    @Column(name = "model", nullable = false, length = 10)
+    private String modelo;
+
+    /**
+     * Error cuadrático medio de los pronósticos a un paso durante el ajuste.
+     */
+    @Column(name = "rmse", nullable = false)
+    private Double rmse;
+
+    @Column(name = "fitted_at", nullable = false)
+    private LocalDateTime fittedAt;
+}
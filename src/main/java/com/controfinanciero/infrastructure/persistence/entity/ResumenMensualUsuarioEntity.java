@@ -0,0 +1,69 @@
+package com.controfinanciero.infrastructure.persistence.entity;
+
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA: Resumen mensual incremental de movimientos.
+ * Una fila por (usuario, mes "yyyy-MM", tipo de movimiento, categoría) con la suma y la cantidad.
+ * Se actualiza en la misma transacción que cada alta/baja de movimiento
+ * y puede reconstruirse completamente desde 'financial_movements'.
+ */
+@Entity
+@Table(name = "user_monthly_rollup",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_user_monthly_rollup",
+                columnNames = {"user_id", "period", "movement_type", "category_id"}),
+        indexes = @Index(name = "idx_user_monthly_rollup_user_period", columnList = "user_id,period"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenMensualUsuarioEntity {
+
+    /**
+     * Valor usado en 'category_id' para movimientos sin categoría
+     * (una columna NULL no participa en la restricción única).
+     */
+    public static final long SIN_CATEGORIA = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "period", nullable = false, length = 7)
+    private String periodo; // "2026-01", "2026-02"
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false, length = 20)
+    private TipoMovimiento tipoMovimiento;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoriaId = SIN_CATEGORIA;
+
+    @Column(name = "total_amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal total = BigDecimal.ZERO;
+
+    @Column(name = "movement_count", nullable = false)
+    private Long cantidad = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+        if (categoriaId == null) categoriaId = SIN_CATEGORIA;
+        if (total == null) total = BigDecimal.ZERO;
+        if (cantidad == null) cantidad = 0L;
+    }
+}
@@ -0,0 +1,93 @@
+package com.controfinanciero.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA: Trabajo en segundo plano de la cola persistente ('background_jobs').
+ * Cada instancia reclama trabajos con SELECT ... FOR UPDATE SKIP LOCKED y los retiene
+ * con un lease ('locked_until'); si la instancia cae, otro nodo lo retoma al vencer.
+ * La clave única (job_type, job_key) hace que encolar sea idempotente entre nodos.
+ * Las operaciones de la cola son SQL nativo en ColaTrabajosService.
+ */
+@Entity
+@Table(name = "background_jobs",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_background_jobs",
+                columnNames = {"job_type", "job_key"}),
+        indexes = @Index(name = "idx_background_jobs_status_run_at", columnList = "status,run_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrabajoProgramadoEntity {
+
+    public enum Tipo {
+        MOVIMIENTOS_RECURRENTES,
+        ALERTAS_PRESUPUESTO,
+        RESUMEN_MENSUAL,
+        LIMPIEZA_NOTIFICACIONES
+    }
+
+    public enum Estado {
+        PENDIENTE,
+        EN_CURSO,
+        COMPLETADO,
+        FALLIDO
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "job_type", nullable = false, length = 40)
+    private Tipo tipo;
+
+    /**
+     * Identifica la ejecución dentro del tipo (p. ej. fecha y tramo de usuarios).
+     */
+    @Column(name = "job_key", nullable = false, length = 120)
+    private String clave;
+
+    /**
+     * Tramo de usuarios [user_from, user_to] que procesa el trabajo; null = todos.
+     */
+    @Column(name = "user_from")
+    private Long usuarioDesde;
+
+    @Column(name = "user_to")
+    private Long usuarioHasta;
+
+    @Column(name = "reference_date", nullable = false)
+    private LocalDate fechaReferencia;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Estado estado = Estado.PENDIENTE;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer intentos = 0;
+
+    @Column(name = "run_at", nullable = false)
+    private LocalDateTime disponibleEn;
+
+    @Column(name = "locked_by", length = 100)
+    private String bloqueadoPor;
+
+    @Column(name = "locked_until")
+    private LocalDateTime bloqueadoHasta;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String ultimoError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,33 @@
+package com.controfinanciero.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA: Versión de los datos analizables de un usuario ('user_data_versions').
+ * Cada escritura de movimientos o metas la incrementa en su misma transacción; forma parte
+ * de la clave de los análisis cacheados, así que todos los nodos dejan de usar los resultados
+ * anteriores en cuanto la escritura se confirma. 'updated_at' marca la última escritura.
+ * Las operaciones son SQL nativo en CacheAnalisisService.
+ */
+@Entity
+@Table(name = "user_data_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionDatosUsuarioEntity {
+
+    @Id
+    @Column(name = "user_id")
+    private Long usuarioId;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,9 @@
+package com.controfinanciero.infrastructure.persistence.event;
+
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancieroEntity;
+
+/**
+ * Cambio de persistencia: se eliminó un movimiento (con los datos que tenía al eliminarse).
+ */
+public record MovimientoBorrado(MovimientoFinancieroEntity movimiento) {
+}
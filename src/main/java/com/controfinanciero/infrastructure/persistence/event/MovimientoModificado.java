@@ -0,0 +1,10 @@
+package com.controfinanciero.infrastructure.persistence.event;
+
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancieroEntity;
+
+/**
+ * Cambio de persistencia: se guardó una nueva versión de un movimiento existente.
+ * 'anterior' es una copia tomada antes de guardar (null si el movimiento ya no existía).
+ */
+public record MovimientoModificado(MovimientoFinancieroEntity anterior, MovimientoFinancieroEntity actual) {
+}
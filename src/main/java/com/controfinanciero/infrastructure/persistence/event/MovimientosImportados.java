@@ -0,0 +1,8 @@
+package com.controfinanciero.infrastructure.persistence.event;
+
+/**
+ * Cambio de persistencia: una importación masiva insertó movimientos de un usuario sin
+ * hidratar entidades (solo se conoce la cantidad).
+ */
+public record MovimientosImportados(Long usuarioId, long cantidad) {
+}
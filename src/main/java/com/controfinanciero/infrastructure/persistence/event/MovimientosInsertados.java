@@ -0,0 +1,12 @@
+package com.controfinanciero.infrastructure.persistence.event;
+
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancieroEntity;
+
+import java.util.List;
+
+/**
+ * Cambio de persistencia: se insertaron movimientos nuevos (save de un movimiento sin id o saveAll),
+ * con los ids ya asignados.
+ */
+public record MovimientosInsertados(List<MovimientoFinancieroEntity> movimientos) {
+}
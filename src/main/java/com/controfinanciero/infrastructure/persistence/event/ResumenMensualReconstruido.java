@@ -0,0 +1,8 @@
+package com.controfinanciero.infrastructure.persistence.event;
+
+/**
+ * Cambio de persistencia: se reconstruyó el resumen mensual de un usuario,
+ * o el de todos si usuarioId es null.
+ */
+public record ResumenMensualReconstruido(Long usuarioId) {
+}
@@ -9,53 +9,25 @@ import com.controfinanciero.infrastructure.persistence.entity.CategoriaEntity;
 public class CategoriaEntityMapper {
 
     /**
-     * Convierte de Entity a Domain.
+     * Convierte de Entity a Domain (sin reflexión).
      */
     public static Categoria toDomain(CategoriaEntity entity) {
         if (entity == null) {
             return null;
         }
 
-        Categoria categoria = new Categoria(
+        return Categoria.reconstituir(
+                entity.getId(),
                 entity.getUserId(),
                 entity.getName(),
-                entity.getCategoryType()
+                entity.getDescription(),
+                entity.getColorHex(),
+                entity.getIcon(),
+                entity.getCategoryType(),
+                Boolean.TRUE.equals(entity.getIsActive()),
+                entity.getCreatedAt(),
+                entity.getUpdatedAt()
         );
-
-        // Usar reflexión para establecer campos privados
-        try {
-            var idField = Categoria.class.getDeclaredField("id");
-            idField.setAccessible(true);
-            idField.set(categoria, entity.getId());
-
-            var descripcionField = Categoria.class.getDeclaredField("descripcion");
-            descripcionField.setAccessible(true);
-            descripcionField.set(categoria, entity.getDescription());
-
-            var colorHexField = Categoria.class.getDeclaredField("colorHex");
-            colorHexField.setAccessible(true);
-            colorHexField.set(categoria, entity.getColorHex());
-
-            var iconoField = Categoria.class.getDeclaredField("icono");
-            iconoField.setAccessible(true);
-            iconoField.set(categoria, entity.getIcon());
-
-            var activaField = Categoria.class.getDeclaredField("activa");
-            activaField.setAccessible(true);
-            activaField.set(categoria, entity.getIsActive());
-
-            var createdAtField = Categoria.class.getDeclaredField("createdAt");
-            createdAtField.setAccessible(true);
-            createdAtField.set(categoria, entity.getCreatedAt());
-
-            var updatedAtField = Categoria.class.getDeclaredField("updatedAt");
-            updatedAtField.setAccessible(true);
-            updatedAtField.set(categoria, entity.getUpdatedAt());
-        } catch (Exception e) {
-            throw new RuntimeException("Error al mapear CategoriaEntity a Categoria", e);
-        }
-
-        return categoria;
     }
 
     /**
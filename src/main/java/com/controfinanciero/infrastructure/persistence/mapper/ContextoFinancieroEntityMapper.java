@@ -9,56 +9,25 @@ import com.controfinanciero.infrastructure.persistence.entity.ContextoFinanciero
 public class ContextoFinancieroEntityMapper {
 
     /**
-     * Convierte de Entity a Domain.
+     * Convierte de Entity a Domain (sin reflexión).
      */
     public static ContextoFinanciero toDomain(ContextoFinancieroEntity entity) {
         if (entity == null) {
             return null;
         }
 
-        ContextoFinanciero contexto = new ContextoFinanciero(
+        return ContextoFinanciero.reconstituir(
+                entity.getId(),
                 entity.getUserId(),
-                entity.getIncomeType()
+                entity.getIncomeType(),
+                Boolean.TRUE.equals(entity.getHasVariableIncome()),
+                entity.getDesiredSavingsPercentage(),
+                entity.getAnalysisPeriod(),
+                entity.getCustomPeriodDays(),
+                entity.getCurrencyCode(),
+                entity.getCreatedAt(),
+                entity.getUpdatedAt()
         );
-
-        // Usar reflexión para establecer campos privados
-        try {
-            var idField = ContextoFinanciero.class.getDeclaredField("id");
-            idField.setAccessible(true);
-            idField.set(contexto, entity.getId());
-
-            var tieneIngresoVariableField = ContextoFinanciero.class.getDeclaredField("tieneIngresoVariable");
-            tieneIngresoVariableField.setAccessible(true);
-            tieneIngresoVariableField.set(contexto, entity.getHasVariableIncome());
-
-            var porcentajeField = ContextoFinanciero.class.getDeclaredField("porcentajeAhorroDeseado");
-            porcentajeField.setAccessible(true);
-            porcentajeField.set(contexto, entity.getDesiredSavingsPercentage());
-
-            var periodoField = ContextoFinanciero.class.getDeclaredField("periodoAnalisis");
-            periodoField.setAccessible(true);
-            periodoField.set(contexto, entity.getAnalysisPeriod());
-
-            var diasField = ContextoFinanciero.class.getDeclaredField("diasPeriodoPersonalizado");
-            diasField.setAccessible(true);
-            diasField.set(contexto, entity.getCustomPeriodDays());
-
-            var monedaField = ContextoFinanciero.class.getDeclaredField("codigoMoneda");
-            monedaField.setAccessible(true);
-            monedaField.set(contexto, entity.getCurrencyCode());
-
-            var createdAtField = ContextoFinanciero.class.getDeclaredField("createdAt");
-            createdAtField.setAccessible(true);
-            createdAtField.set(contexto, entity.getCreatedAt());
-
-            var updatedAtField = ContextoFinanciero.class.getDeclaredField("updatedAt");
-            updatedAtField.setAccessible(true);
-            updatedAtField.set(contexto, entity.getUpdatedAt());
-        } catch (Exception e) {
-            throw new RuntimeException("Error al mapear ContextoFinancieroEntity a ContextoFinanciero", e);
-        }
-
-        return contexto;
     }
 
     /**
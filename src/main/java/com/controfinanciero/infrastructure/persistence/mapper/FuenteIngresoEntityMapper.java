@@ -9,49 +9,24 @@ import com.controfinanciero.infrastructure.persistence.entity.FuenteIngresoEntit
 public class FuenteIngresoEntityMapper {
 
     /**
-     * Convierte de Entity a Domain.
+     * Convierte de Entity a Domain (sin reflexión).
      */
     public static FuenteIngreso toDomain(FuenteIngresoEntity entity) {
         if (entity == null) {
             return null;
         }
 
-        FuenteIngreso fuente = new FuenteIngreso(
+        return FuenteIngreso.reconstituir(
+                entity.getId(),
                 entity.getUserId(),
                 entity.getName(),
-                entity.getSourceType()
+                entity.getDescription(),
+                entity.getSourceType(),
+                Boolean.TRUE.equals(entity.getIsRealIncome()),
+                Boolean.TRUE.equals(entity.getIsActive()),
+                entity.getCreatedAt(),
+                entity.getUpdatedAt()
         );
-
-        // Usar reflexión para establecer campos privados
-        try {
-            var idField = FuenteIngreso.class.getDeclaredField("id");
-            idField.setAccessible(true);
-            idField.set(fuente, entity.getId());
-
-            var descripcionField = FuenteIngreso.class.getDeclaredField("descripcion");
-            descripcionField.setAccessible(true);
-            descripcionField.set(fuente, entity.getDescription());
-
-            var esIngresoRealField = FuenteIngreso.class.getDeclaredField("esIngresoReal");
-            esIngresoRealField.setAccessible(true);
-            esIngresoRealField.set(fuente, entity.getIsRealIncome());
-
-            var activaField = FuenteIngreso.class.getDeclaredField("activa");
-            activaField.setAccessible(true);
-            activaField.set(fuente, entity.getIsActive());
-
-            var createdAtField = FuenteIngreso.class.getDeclaredField("createdAt");
-            createdAtField.setAccessible(true);
-            createdAtField.set(fuente, entity.getCreatedAt());
-
-            var updatedAtField = FuenteIngreso.class.getDeclaredField("updatedAt");
-            updatedAtField.setAccessible(true);
-            updatedAtField.set(fuente, entity.getUpdatedAt());
-        } catch (Exception e) {
-            throw new RuntimeException("Error al mapear FuenteIngresoEntity a FuenteIngreso", e);
-        }
-
-        return fuente;
     }
 
     /**
@@ -9,55 +9,27 @@ import com.controfinanciero.infrastructure.persistence.entity.MetaFinancieraEnti
 public class MetaFinancieraEntityMapper {
 
     /**
-     * Convierte de Entity a Domain.
+     * Convierte de Entity a Domain (sin reflexión).
      */
     public static MetaFinanciera toDomain(MetaFinancieraEntity entity) {
         if (entity == null) {
             return null;
         }
 
-        MetaFinanciera meta = new MetaFinanciera(
+        return MetaFinanciera.reconstituir(
+                entity.getId(),
                 entity.getUserId(),
                 entity.getName(),
+                entity.getDescription(),
                 entity.getTargetAmount(),
+                entity.getCurrentAmount(),
                 entity.getTargetDate(),
-                entity.getPriority()
+                entity.getPriority(),
+                entity.getStatus(),
+                entity.getCreatedAt(),
+                entity.getUpdatedAt(),
+                entity.getCompletedAt()
         );
-
-        // Usar reflexión para establecer campos privados
-        try {
-            var idField = MetaFinanciera.class.getDeclaredField("id");
-            idField.setAccessible(true);
-            idField.set(meta, entity.getId());
-
-            var descripcionField = MetaFinanciera.class.getDeclaredField("descripcion");
-            descripcionField.setAccessible(true);
-            descripcionField.set(meta, entity.getDescription());
-
-            var montoActualField = MetaFinanciera.class.getDeclaredField("montoActual");
-            montoActualField.setAccessible(true);
-            montoActualField.set(meta, entity.getCurrentAmount());
-
-            var estadoField = MetaFinanciera.class.getDeclaredField("estado");
-            estadoField.setAccessible(true);
-            estadoField.set(meta, entity.getStatus());
-
-            var createdAtField = MetaFinanciera.class.getDeclaredField("createdAt");
-            createdAtField.setAccessible(true);
-            createdAtField.set(meta, entity.getCreatedAt());
-
-            var updatedAtField = MetaFinanciera.class.getDeclaredField("updatedAt");
-            updatedAtField.setAccessible(true);
-            updatedAtField.set(meta, entity.getUpdatedAt());
-
-            var completedAtField = MetaFinanciera.class.getDeclaredField("completedAt");
-            completedAtField.setAccessible(true);
-            completedAtField.set(meta, entity.getCompletedAt());
-        } catch (Exception e) {
-            throw new RuntimeException("Error al mapear MetaFinancieraEntity a MetaFinanciera", e);
-        }
-
-        return meta;
     }
 
     /**
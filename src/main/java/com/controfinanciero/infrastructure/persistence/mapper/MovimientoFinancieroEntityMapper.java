@@ -9,63 +9,29 @@ import com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancie
 public class MovimientoFinancieroEntityMapper {
 
     /**
-     * Convierte de Entity a Domain.
+     * Convierte de Entity a Domain (sin reflexión).
      */
     public static MovimientoFinanciero toDomain(MovimientoFinancieroEntity entity) {
         if (entity == null) {
             return null;
         }
 
-        MovimientoFinanciero movimiento = new MovimientoFinanciero(
+        return MovimientoFinanciero.reconstituir(
+                entity.getId(),
                 entity.getUserId(),
                 entity.getMovementType(),
                 entity.getAmount(),
                 entity.getDescription(),
-                entity.getMovementDate()
+                entity.getMovementDate(),
+                entity.getCategoryId(),
+                entity.getIncomeSourceId(),
+                entity.getGoalId(),
+                Boolean.TRUE.equals(entity.getIsRecurring()),
+                entity.getRecurrencePattern(),
+                entity.getNotes(),
+                entity.getCreatedAt(),
+                entity.getUpdatedAt()
         );
-
-        // Usar reflexión para establecer campos privados
-        try {
-            var idField = MovimientoFinanciero.class.getDeclaredField("id");
-            idField.setAccessible(true);
-            idField.set(movimiento, entity.getId());
-
-            var categoriaIdField = MovimientoFinanciero.class.getDeclaredField("categoriaId");
-            categoriaIdField.setAccessible(true);
-            categoriaIdField.set(movimiento, entity.getCategoryId());
-
-            var fuenteIngresoIdField = MovimientoFinanciero.class.getDeclaredField("fuenteIngresoId");
-            fuenteIngresoIdField.setAccessible(true);
-            fuenteIngresoIdField.set(movimiento, entity.getIncomeSourceId());
-
-            var metaIdField = MovimientoFinanciero.class.getDeclaredField("metaId");
-            metaIdField.setAccessible(true);
-            metaIdField.set(movimiento, entity.getGoalId());
-
-            var esRecurrenteField = MovimientoFinanciero.class.getDeclaredField("esRecurrente");
-            esRecurrenteField.setAccessible(true);
-            esRecurrenteField.set(movimiento, entity.getIsRecurring());
-
-            var patronRecurrenciaField = MovimientoFinanciero.class.getDeclaredField("patronRecurrencia");
-            patronRecurrenciaField.setAccessible(true);
-            patronRecurrenciaField.set(movimiento, entity.getRecurrencePattern());
-
-            var notasField = MovimientoFinanciero.class.getDeclaredField("notas");
-            notasField.setAccessible(true);
-            notasField.set(movimiento, entity.getNotes());
-
-            var createdAtField = MovimientoFinanciero.class.getDeclaredField("createdAt");
-            createdAtField.setAccessible(true);
-            createdAtField.set(movimiento, entity.getCreatedAt());
-
-            var updatedAtField = MovimientoFinanciero.class.getDeclaredField("updatedAt");
-            updatedAtField.setAccessible(true);
-            updatedAtField.set(movimiento, entity.getUpdatedAt());
-        } catch (Exception e) {
-            throw new RuntimeException("Error al mapear MovimientoFinancieroEntity a MovimientoFinanciero", e);
-        }
-
-        return movimiento;
     }
 
     /**
@@ -10,42 +10,23 @@ import com.controfinanciero.infrastructure.persistence.entity.UsuarioEntity;
 public class UsuarioEntityMapper {
 
     /**
-     * Convierte de Entity a Domain.
+     * Convierte de Entity a Domain (sin reflexión).
      */
     public static Usuario toDomain(UsuarioEntity entity) {
         if (entity == null) {
             return null;
         }
 
-        Usuario usuario = new Usuario(
+        return Usuario.reconstituir(
+                entity.getId(),
                 entity.getUsername(),
                 entity.getEmail(),
                 entity.getPasswordHash(),
-                entity.getFullName()
+                entity.getFullName(),
+                entity.getCreatedAt(),
+                entity.getUpdatedAt(),
+                Boolean.TRUE.equals(entity.getActive())
         );
-
-        // Usar reflexión para establecer el ID (porque no hay setter público)
-        try {
-            var idField = Usuario.class.getDeclaredField("id");
-            idField.setAccessible(true);
-            idField.set(usuario, entity.getId());
-
-            var createdAtField = Usuario.class.getDeclaredField("createdAt");
-            createdAtField.setAccessible(true);
-            createdAtField.set(usuario, entity.getCreatedAt());
-
-            var updatedAtField = Usuario.class.getDeclaredField("updatedAt");
-            updatedAtField.setAccessible(true);
-            updatedAtField.set(usuario, entity.getUpdatedAt());
-
-            var activeField = Usuario.class.getDeclaredField("active");
-            activeField.setAccessible(true);
-            activeField.set(usuario, entity.getActive());
-        } catch (Exception e) {
-            throw new RuntimeException("Error al mapear UsuarioEntity a Usuario", e);
-        }
-
-        return usuario;
     }
 
     /**
@@ -0,0 +1,10 @@
+package com.controfinanciero.infrastructure.persistence.projection;
+
+/**
+ * Proyección (id, nombre) para resolver nombres de varias filas con un solo IN.
+ */
+public record NombrePorIdProjection(
+    Long id,
+    String name
+) {
+}
@@ -0,0 +1,21 @@
+package com.controfinanciero.infrastructure.persistence.projection;
+
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección JPQL (constructor expression) para totales de movimientos
+ * agrupados por tipo, categoría y mes.
+ * Los tipos de los componentes coinciden con los que devuelve Hibernate
+ * para year(), month(), sum() y count().
+ */
+public record TotalAgrupadoMovimientoProjection(
+        TipoMovimiento movementType,
+        Long categoryId,
+        Integer year,
+        Integer month,
+        BigDecimal total,
+        Long count
+) {
+}
@@ -0,0 +1,14 @@
+package com.controfinanciero.infrastructure.persistence.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección JPQL (constructor expression) para los totales de ingresos,
+ * gastos y ahorros calculados con SUM ... FILTER en una sola fila.
+ */
+public record TotalesPorTipoProjection(
+        BigDecimal totalIncome,
+        BigDecimal totalExpense,
+        BigDecimal totalSavings
+) {
+}
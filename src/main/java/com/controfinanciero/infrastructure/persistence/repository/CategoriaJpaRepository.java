@@ -2,9 +2,13 @@ package com.controfinanciero.infrastructure.persistence.repository;
 
 import com.controfinanciero.domain.model.enums.TipoCategoria;
 import com.controfinanciero.infrastructure.persistence.entity.CategoriaEntity;
+import com.controfinanciero.infrastructure.persistence.projection.NombrePorIdProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -48,5 +52,12 @@ public interface CategoriaJpaRepository extends JpaRepository<CategoriaEntity, L
      * Cuenta categorías activas de un usuario.
      */
     long countByUserIdAndIsActiveTrue(Long userId);
+
+    /**
+     * Nombres de varias categorías en una sola consulta (id IN ...), sin hidratar entidades.
+     */
+    @Query("SELECT new com.controfinanciero.infrastructure.persistence.projection.NombrePorIdProjection(c.id, c.name) " +
+           "FROM CategoriaEntity c WHERE c.id IN :ids")
+    List<NombrePorIdProjection> findNamesByIdIn(@Param("ids") Collection<Long> ids);
 }
 
@@ -0,0 +1,53 @@
+package com.controfinanciero.infrastructure.persistence.repository;
+
+import com.controfinanciero.infrastructure.persistence.entity.EstadisticaCategoriaEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * JPA Repository para las estadísticas móviles de gasto ('category_running_stats').
+ * Cada actualización bloquea la fila de (usuario, categoría) hasta el fin de la transacción,
+ * así dos gastos concurrentes de la misma categoría no pierden observaciones.
+ */
+@Repository
+public interface EstadisticaCategoriaJpaRepository extends JpaRepository<EstadisticaCategoriaEntity, Long> {
+
+    /**
+     * Crea la fila vacía si no existe (sin fallar si otra transacción la creó antes).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO category_running_stats " +
+                   "(user_id, category_id, observation_count, mean_amount, variance, updated_at) " +
+                   "VALUES (:userId, :categoriaId, 0, 0, 0, now()) " +
+                   "ON CONFLICT (user_id, category_id) DO NOTHING",
+           nativeQuery = true)
+    int crearSiNoExiste(@Param("userId") Long userId, @Param("categoriaId") Long categoriaId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM EstadisticaCategoriaEntity e WHERE e.usuarioId = :userId AND e.categoriaId = :categoriaId")
+    Optional<EstadisticaCategoriaEntity> findParaActualizar(
+            @Param("userId") Long userId,
+            @Param("categoriaId") Long categoriaId
+    );
+
+    /**
+     * Fila de (usuario, categoría) bloqueada para actualizar; la crea si es el primer gasto.
+     */
+    default EstadisticaCategoriaEntity bloquear(Long userId, Long categoriaId) {
+        crearSiNoExiste(userId, categoriaId);
+        return findParaActualizar(userId, categoriaId)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Estadística de categoría no encontrada: usuario " + userId + ", categoría " + categoriaId));
+    }
+
+    @Modifying
+    @Query(value = "DELETE FROM category_running_stats WHERE user_id = :userId", nativeQuery = true)
+    int deleteByUsuarioId(@Param("userId") Long userId);
+}
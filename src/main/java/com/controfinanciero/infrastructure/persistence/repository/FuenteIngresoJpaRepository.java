@@ -2,9 +2,13 @@ package com.controfinanciero.infrastructure.persistence.repository;
 
 import com.controfinanciero.domain.model.enums.TipoFuente;
 import com.controfinanciero.infrastructure.persistence.entity.FuenteIngresoEntity;
+import com.controfinanciero.infrastructure.persistence.projection.NombrePorIdProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -38,4 +42,11 @@ public interface FuenteIngresoJpaRepository extends JpaRepository<FuenteIngresoE
      * Busca solo ingresos reales (excluye préstamos).
      */
     List<FuenteIngresoEntity> findByUserIdAndIsRealIncomeTrue(Long userId);
+
+    /**
+     * Nombres de varias fuentes de ingreso en una sola consulta (id IN ...), sin hidratar entidades.
+     */
+    @Query("SELECT new com.controfinanciero.infrastructure.persistence.projection.NombrePorIdProjection(f.id, f.name) " +
+           "FROM FuenteIngresoEntity f WHERE f.id IN :ids")
+    List<NombrePorIdProjection> findNamesByIdIn(@Param("ids") Collection<Long> ids);
 }
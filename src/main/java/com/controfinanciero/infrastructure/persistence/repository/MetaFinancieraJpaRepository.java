@@ -2,12 +2,16 @@ package com.controfinanciero.infrastructure.persistence.repository;
 
 import com.controfinanciero.domain.model.enums.EstadoMeta;
 import com.controfinanciero.infrastructure.persistence.entity.MetaFinancieraEntity;
+import com.controfinanciero.infrastructure.persistence.projection.NombrePorIdProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -63,5 +67,44 @@ public interface MetaFinancieraJpaRepository extends JpaRepository<MetaFinancier
            "WHERE m.userId = :userId " +
            "OR (c.usuarioId = :userId AND c.activo = true AND c.aceptadoAt IS NOT NULL)")
     List<MetaFinancieraEntity> findAllMetasIncludingShared(@Param("userId") Long userId);
+
+    /**
+     * Nombres de varias metas en una sola consulta (id IN ...), sin hidratar entidades.
+     */
+    @Query("SELECT new com.controfinanciero.infrastructure.persistence.projection.NombrePorIdProjection(m.id, m.name) " +
+           "FROM MetaFinancieraEntity m WHERE m.id IN :ids")
+    List<NombrePorIdProjection> findNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Suma un aporte a una meta activa en un solo UPDATE atómico (sin leerla antes): dos aportes
+     * simultáneos a una meta compartida no se pisan. La completa si alcanza el objetivo.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE financial_goals SET " +
+                   "current_amount = COALESCE(current_amount, 0) + :monto, " +
+                   "status = CASE WHEN COALESCE(current_amount, 0) + :monto >= target_amount " +
+                   "  THEN 'COMPLETED' ELSE status END, " +
+                   "completed_at = CASE WHEN COALESCE(current_amount, 0) + :monto >= target_amount " +
+                   "  THEN now() ELSE completed_at END, " +
+                   "updated_at = now() " +
+                   "WHERE id = :id AND status = 'ACTIVE'",
+           nativeQuery = true)
+    int addAmount(@Param("id") Long id, @Param("monto") BigDecimal monto);
+
+    /**
+     * Descuenta un aporte revertido en un solo UPDATE atómico (nunca por debajo de cero).
+     * Una meta completada que vuelve a quedar por debajo del objetivo se reabre.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE financial_goals SET " +
+                   "current_amount = GREATEST(COALESCE(current_amount, 0) - :monto, 0), " +
+                   "status = CASE WHEN status = 'COMPLETED' AND GREATEST(COALESCE(current_amount, 0) - :monto, 0) < target_amount " +
+                   "  THEN 'ACTIVE' ELSE status END, " +
+                   "completed_at = CASE WHEN status = 'COMPLETED' AND GREATEST(COALESCE(current_amount, 0) - :monto, 0) < target_amount " +
+                   "  THEN NULL ELSE completed_at END, " +
+                   "updated_at = now() " +
+                   "WHERE id = :id",
+           nativeQuery = true)
+    int subtractAmount(@Param("id") Long id, @Param("monto") BigDecimal monto);
 }
 
@@ -0,0 +1,202 @@
+package com.controfinanciero.infrastructure.persistence.repository;
+
+import com.controfinanciero.domain.model.MovimientoFinanciero;
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancieroEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Carga masiva de movimientos con COPY de PostgreSQL.
+ * Las filas se copian en streaming a una tabla temporal y una única sentencia
+ * las fusiona en 'financial_movements', descarta duplicados por huella
+ * (fecha, monto, descripción) y actualiza el resumen mensual.
+ * Debe ejecutarse dentro de una transacción: la tabla temporal se elimina al confirmar.
+ */
+@Slf4j
+@Repository
+public class MovimientoFinancieroImportacionRepository {
+
+    private static final String TABLA_STAGING = "financial_movements_import";
+
+    /**
+     * Tamaño del buffer que se envía al servidor en cada escritura del COPY.
+     */
+    private static final int TAMANO_BUFFER_COPY = 64 * 1024;
+
+    private static final String HUELLA =
+            "md5(%1$s.movement_date::text || '|' || %1$s.amount::text || '|' || COALESCE(%1$s.description, ''))";
+
+    /**
+     * Misma forma que la tabla real (incluido el tipo ENUM de 'movement_type'),
+     * sin las columnas que se completan en la fusión y con el número de línea del extracto.
+     */
+    private static final String SQL_CREAR_STAGING =
+            "CREATE TEMP TABLE " + TABLA_STAGING + " (LIKE financial_movements) ON COMMIT DROP";
+
+    private static final String SQL_AJUSTAR_STAGING =
+            "ALTER TABLE " + TABLA_STAGING + " " +
+            "ALTER COLUMN id DROP NOT NULL, " +
+            "ALTER COLUMN created_at DROP NOT NULL, " +
+            "ALTER COLUMN updated_at DROP NOT NULL, " +
+            "ADD COLUMN line_no bigint";
+
+    private static final String SQL_COPY =
+            "COPY " + TABLA_STAGING + " (line_no, user_id, movement_type, amount, description, movement_date, " +
+            "category_id, income_source_id, is_recurring, notes) FROM STDIN WITH (FORMAT csv)";
+
+    /**
+     * Fusión set-based: la n-ésima repetición de una huella en el extracto solo se inserta
+     * si el usuario tiene menos de n movimientos con esa huella en el rango de fechas.
+     * Los ids salen de la misma secuencia que usa Hibernate (cada nextval reserva un bloque).
+     */
+    private static final String SQL_FUSIONAR =
+            "WITH entrantes AS ( " +
+            "  SELECT s.*, " + HUELLA.formatted("s") + " AS huella, " +
+            "         row_number() OVER (PARTITION BY " + HUELLA.formatted("s") + " ORDER BY s.line_no) AS ocurrencia " +
+            "  FROM " + TABLA_STAGING + " s " +
+            "), existentes AS ( " +
+            "  SELECT " + HUELLA.formatted("m") + " AS huella, COUNT(*) AS cantidad " +
+            "  FROM financial_movements m " +
+            "  WHERE m.user_id = ? " +
+            "    AND m.movement_date BETWEEN (SELECT MIN(movement_date) FROM " + TABLA_STAGING + ") " +
+            "                            AND (SELECT MAX(movement_date) FROM " + TABLA_STAGING + ") " +
+            "  GROUP BY 1 " +
+            "), insertados AS ( " +
+            "  INSERT INTO financial_movements (id, user_id, movement_type, amount, description, movement_date, " +
+            "    category_id, income_source_id, is_recurring, notes, created_at, updated_at) " +
+            "  SELECT nextval('" + MovimientoFinancieroEntity.SECUENCIA + "'), e.user_id, e.movement_type, e.amount, " +
+            "    e.description, e.movement_date, e.category_id, e.income_source_id, e.is_recurring, e.notes, now(), now() " +
+            "  FROM entrantes e LEFT JOIN existentes x ON x.huella = e.huella " +
+            "  WHERE e.ocurrencia > COALESCE(x.cantidad, 0) " +
+            "  RETURNING user_id, movement_type, amount, movement_date, category_id " +
+            "), resumen AS ( " +
+            "  INSERT INTO user_monthly_rollup " +
+            "    (user_id, period, movement_type, category_id, total_amount, movement_count, updated_at) " +
+            "  SELECT i.user_id, to_char(i.movement_date, 'YYYY-MM'), CAST(i.movement_type AS text), " +
+            "    COALESCE(i.category_id, 0), SUM(i.amount), COUNT(*), now() " +
+            "  FROM insertados i " +
+            "  GROUP BY i.user_id, to_char(i.movement_date, 'YYYY-MM'), CAST(i.movement_type AS text), " +
+            "    COALESCE(i.category_id, 0) " +
+            "  ON CONFLICT (user_id, period, movement_type, category_id) DO UPDATE SET " +
+            "    total_amount = user_monthly_rollup.total_amount + EXCLUDED.total_amount, " +
+            "    movement_count = user_monthly_rollup.movement_count + EXCLUDED.movement_count, " +
+            "    updated_at = now() " +
+            ") " +
+            "SELECT COUNT(*) FROM insertados";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Copia los movimientos a la tabla temporal y los fusiona.
+     * Devuelve la cantidad de movimientos insertados (los duplicados se descartan).
+     */
+    public long importar(Long usuarioId, Stream<MovimientoFinanciero> movimientos) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            // Serializa importaciones concurrentes del mismo usuario (la deduplicación lee y luego escribe)
+            try (PreparedStatement bloqueo = connection.prepareStatement("SELECT pg_advisory_xact_lock(?)")) {
+                bloqueo.setLong(1, usuarioId);
+                bloqueo.execute();
+            }
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(SQL_CREAR_STAGING);
+                statement.execute(SQL_AJUSTAR_STAGING);
+            }
+
+            long copiadas = copiar(connection, usuarioId, movimientos);
+            if (copiadas == 0) {
+                return 0L;
+            }
+
+            try (PreparedStatement fusion = connection.prepareStatement(SQL_FUSIONAR)) {
+                fusion.setLong(1, usuarioId);
+                try (ResultSet rs = fusion.executeQuery()) {
+                    long insertados = rs.next() ? rs.getLong(1) : 0L;
+                    log.info("📥 Importación usuario {}: {} filas copiadas, {} insertadas, {} duplicadas",
+                            usuarioId, copiadas, insertados, copiadas - insertados);
+                    return insertados;
+                }
+            }
+        });
+    }
+
+    private long copiar(Connection connection, Long usuarioId, Stream<MovimientoFinanciero> movimientos)
+            throws SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(SQL_COPY);
+        try {
+            StringBuilder buffer = new StringBuilder(TAMANO_BUFFER_COPY + 1024);
+            long linea = 0;
+
+            Iterator<MovimientoFinanciero> iterador = movimientos.iterator();
+            while (iterador.hasNext()) {
+                MovimientoFinanciero movimiento = iterador.next();
+                if (!usuarioId.equals(movimiento.getUsuarioId())) {
+                    throw new IllegalArgumentException("El movimiento no pertenece al usuario " + usuarioId);
+                }
+                agregarFila(buffer, ++linea, movimiento);
+
+                if (buffer.length() >= TAMANO_BUFFER_COPY) {
+                    escribir(copyIn, buffer);
+                }
+            }
+            escribir(copyIn, buffer);
+            return copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void agregarFila(StringBuilder buffer, long linea, MovimientoFinanciero movimiento) {
+        buffer.append(linea).append(',')
+                .append(movimiento.getUsuarioId()).append(',')
+                .append(movimiento.getTipoMovimiento().name()).append(',')
+                .append(movimiento.getMonto().toPlainString()).append(',')
+                .append(texto(movimiento.getDescripcion())).append(',')
+                .append(movimiento.getFechaMovimiento()).append(',')
+                .append(numero(movimiento.getCategoriaId())).append(',')
+                .append(numero(movimiento.getFuenteIngresoId())).append(',')
+                .append(movimiento.isEsRecurrente()).append(',')
+                .append(texto(movimiento.getNotas()))
+                .append('\n');
+    }
+
+    private void escribir(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    /**
+     * En formato CSV de COPY un campo vacío sin comillas es NULL y "" es la cadena vacía.
+     */
+    private String texto(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    private String numero(Long valor) {
+        return valor != null ? valor.toString() : "";
+    }
+}
@@ -2,15 +2,23 @@ package com.controfinanciero.infrastructure.persistence.repository;
 
 import com.controfinanciero.domain.model.enums.TipoMovimiento;
 import com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancieroEntity;
+import com.controfinanciero.infrastructure.persistence.projection.TotalAgrupadoMovimientoProjection;
+import com.controfinanciero.infrastructure.persistence.projection.TotalesPorTipoProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * JPA Repository para Movimiento Financiero.
@@ -71,6 +79,120 @@ public interface MovimientoFinancieroJpaRepository extends JpaRepository<Movimie
      */
     List<MovimientoFinancieroEntity> findByUserIdAndIsRecurringTrue(Long userId);
 
+    /**
+     * Cuenta los movimientos de un usuario (COUNT en la base de datos).
+     */
+    long countByUserId(Long userId);
+
+    /**
+     * Cuenta los días distintos con movimientos de un usuario en un rango de fechas.
+     */
+    @Query("SELECT count(DISTINCT m.movementDate) FROM MovimientoFinancieroEntity m " +
+           "WHERE m.userId = :userId AND m.movementDate BETWEEN :startDate AND :endDate")
+    long countDistinctMovementDates(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Recorre los movimientos de un usuario en un rango de fechas sin cargarlos todos en memoria.
+     * Con fetch size el driver de PostgreSQL usa un cursor y trae las filas por lotes;
+     * debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT m FROM MovimientoFinancieroEntity m WHERE m.userId = :userId " +
+           "AND m.movementDate BETWEEN :startDate AND :endDate " +
+           "ORDER BY m.movementDate DESC, m.id DESC")
+    Stream<MovimientoFinancieroEntity> streamByUserIdAndDateRange(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Recorre los movimientos de un tipo en orden cronológico (para reconstruir estadísticas móviles).
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT m FROM MovimientoFinancieroEntity m WHERE m.userId = :userId " +
+           "AND m.movementType = :movementType " +
+           "ORDER BY m.movementDate ASC, m.id ASC")
+    Stream<MovimientoFinancieroEntity> streamByUserIdAndMovementTypeChronological(
+            @Param("userId") Long userId,
+            @Param("movementType") TipoMovimiento movementType
+    );
+
+    /**
+     * Usuarios con al menos un movimiento del tipo indicado.
+     */
+    @Query("SELECT DISTINCT m.userId FROM MovimientoFinancieroEntity m WHERE m.movementType = :movementType")
+    List<Long> findDistinctUserIdsByMovementType(@Param("movementType") TipoMovimiento movementType);
+
+    /**
+     * Movimientos de un usuario en un rango de fechas marcados como inusuales.
+     */
+    @Query("SELECT m FROM MovimientoFinancieroEntity m WHERE m.userId = :userId " +
+           "AND m.movementDate BETWEEN :startDate AND :endDate " +
+           "AND EXISTS (SELECT 1 FROM MovimientoInusualEntity a WHERE a.movimientoId = m.id) " +
+           "ORDER BY m.movementDate DESC, m.id DESC")
+    List<MovimientoFinancieroEntity> findInusualesByUserIdAndDateRange(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // ========== MÉTODOS DE AGREGACIÓN ==========
+
+    /**
+     * Totales de un usuario agrupados por tipo, categoría y mes calendario.
+     * Una sola consulta GROUP BY: no se hidrata ninguna entidad.
+     */
+    @Query("SELECT new com.controfinanciero.infrastructure.persistence.projection.TotalAgrupadoMovimientoProjection(" +
+           "m.movementType, m.categoryId, year(m.movementDate), month(m.movementDate), sum(m.amount), count(m)) " +
+           "FROM MovimientoFinancieroEntity m WHERE m.userId = :userId " +
+           "AND m.movementDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY m.movementType, m.categoryId, year(m.movementDate), month(m.movementDate) " +
+           "ORDER BY year(m.movementDate), month(m.movementDate)")
+    List<TotalAgrupadoMovimientoProjection> sumGroupedByTypeCategoryAndMonth(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Totales de ingresos, gastos y ahorros de un usuario en un solo recorrido (SUM ... FILTER).
+     */
+    @Query("SELECT new com.controfinanciero.infrastructure.persistence.projection.TotalesPorTipoProjection(" +
+           "coalesce(sum(m.amount) filter (where m.movementType = :income), 0), " +
+           "coalesce(sum(m.amount) filter (where m.movementType = :expense), 0), " +
+           "coalesce(sum(m.amount) filter (where m.movementType = :savings), 0)) " +
+           "FROM MovimientoFinancieroEntity m WHERE m.userId = :userId " +
+           "AND m.movementDate BETWEEN :startDate AND :endDate")
+    TotalesPorTipoProjection sumTotalsByType(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("income") TipoMovimiento income,
+            @Param("expense") TipoMovimiento expense,
+            @Param("savings") TipoMovimiento savings
+    );
+
+    /**
+     * Totales de ingresos, gastos y ahorros de un usuario en un rango de fechas.
+     */
+    default TotalesPorTipoProjection sumTotalsByType(Long userId, LocalDate startDate, LocalDate endDate) {
+        return sumTotalsByType(userId, startDate, endDate,
+                TipoMovimiento.INCOME, TipoMovimiento.EXPENSE, TipoMovimiento.SAVINGS);
+    }
+
     // ========== MÉTODOS CON PAGINACIÓN ==========
 
     /**
@@ -99,4 +221,71 @@ public interface MovimientoFinancieroJpaRepository extends JpaRepository<Movimie
      * Busca movimientos de un usuario por categoría con paginación.
      */
     Page<MovimientoFinancieroEntity> findByUserIdAndCategoryId(Long userId, Long categoryId, Pageable pageable);
+
+    // ========== PAGINACIÓN POR CURSOR (KEYSET) ==========
+    // Ordenan por (movement_date, id) y buscan a partir de la última fila vista,
+    // usando idx_financial_movements_user_date. No hay OFFSET ni consulta COUNT:
+    // Spring Data pide size + 1 filas para saber si hay más.
+    // El rango de fechas es obligatorio (FECHA_MINIMA/FECHA_MAXIMA si no hay filtro) y el cursor
+    // se repite como condición simple sobre movement_date: PostgreSQL no poda particiones con
+    // "(:x IS NULL OR ...)" en planes genéricos ni con comparaciones de tuplas.
+
+    LocalDate FECHA_MINIMA = LocalDate.of(1900, 1, 1);
+    LocalDate FECHA_MAXIMA = LocalDate.of(9999, 12, 31);
+
+    String FILTROS_KEYSET = "m.userId = :userId " +
+            "AND m.movementType IN :types " +
+            "AND (:categoryId IS NULL OR m.categoryId = :categoryId) " +
+            "AND m.movementDate BETWEEN :startDate AND :endDate ";
+
+    /**
+     * Primera página (movimientos más recientes).
+     */
+    @Query("SELECT m FROM MovimientoFinancieroEntity m WHERE " + FILTROS_KEYSET +
+           "ORDER BY m.movementDate DESC, m.id DESC")
+    Slice<MovimientoFinancieroEntity> findFirstKeysetPage(
+            @Param("userId") Long userId,
+            @Param("types") Collection<TipoMovimiento> types,
+            @Param("categoryId") Long categoryId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            Pageable pageable
+    );
+
+    /**
+     * Movimientos anteriores (más antiguos) a la posición (cursorDate, cursorId).
+     */
+    @Query("SELECT m FROM MovimientoFinancieroEntity m WHERE " + FILTROS_KEYSET +
+           "AND m.movementDate <= :cursorDate " +
+           "AND (m.movementDate, m.id) < (:cursorDate, :cursorId) " +
+           "ORDER BY m.movementDate DESC, m.id DESC")
+    Slice<MovimientoFinancieroEntity> findKeysetPageAfter(
+            @Param("userId") Long userId,
+            @Param("types") Collection<TipoMovimiento> types,
+            @Param("categoryId") Long categoryId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("cursorDate") LocalDate cursorDate,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable
+    );
+
+    /**
+     * Movimientos posteriores (más recientes) a la posición (cursorDate, cursorId),
+     * en orden ascendente: el adapter invierte el resultado.
+     */
+    @Query("SELECT m FROM MovimientoFinancieroEntity m WHERE " + FILTROS_KEYSET +
+           "AND m.movementDate >= :cursorDate " +
+           "AND (m.movementDate, m.id) > (:cursorDate, :cursorId) " +
+           "ORDER BY m.movementDate ASC, m.id ASC")
+    Slice<MovimientoFinancieroEntity> findKeysetPageBefore(
+            @Param("userId") Long userId,
+            @Param("types") Collection<TipoMovimiento> types,
+            @Param("categoryId") Long categoryId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("cursorDate") LocalDate cursorDate,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable
+    );
 }
@@ -0,0 +1,35 @@
+package com.controfinanciero.infrastructure.persistence.repository;
+
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoInusualEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * JPA Repository para las marcas de gastos inusuales ('movement_anomalies').
+ */
+@Repository
+public interface MovimientoInusualJpaRepository extends JpaRepository<MovimientoInusualEntity, Long> {
+
+    @Query("SELECT a FROM MovimientoInusualEntity a WHERE a.usuarioId = :userId " +
+           "AND a.fechaMovimiento BETWEEN :startDate AND :endDate " +
+           "ORDER BY a.fechaMovimiento DESC, a.movimientoId DESC")
+    List<MovimientoInusualEntity> findByUsuarioIdAndFechaBetween(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    @Modifying
+    @Query(value = "DELETE FROM movement_anomalies WHERE movement_id = :movimientoId", nativeQuery = true)
+    int deleteByMovimientoId(@Param("movimientoId") Long movimientoId);
+
+    @Modifying
+    @Query(value = "DELETE FROM movement_anomalies WHERE user_id = :userId", nativeQuery = true)
+    int deleteByUsuarioId(@Param("userId") Long userId);
+}
@@ -1,8 +1,13 @@
 package com.controfinanciero.infrastructure.persistence.repository;
 
 import com.controfinanciero.infrastructure.persistence.entity.MovimientoRecurrenteEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -23,5 +28,36 @@ public interface MovimientoRecurrenteJpaRepository extends JpaRepository<Movimie
      * Encuentra todos los movimientos recurrentes activos
      */
     List<MovimientoRecurrenteEntity> findByActivoTrue();
+
+    /**
+     * Usuarios con movimientos recurrentes pendientes (para repartirlos en tramos)
+     */
+    @Query("SELECT DISTINCT m.usuarioId FROM MovimientoRecurrenteEntity m " +
+           "WHERE m.activo = true AND m.proximaEjecucion <= :fecha")
+    List<Long> findUsuariosConPendientes(@Param("fecha") LocalDate fecha);
+
+    /**
+     * Pendientes de un tramo de usuarios, agrupados por usuario
+     */
+    @Query("SELECT m FROM MovimientoRecurrenteEntity m WHERE m.activo = true AND m.proximaEjecucion <= :fecha " +
+           "AND m.usuarioId BETWEEN :desde AND :hasta ORDER BY m.usuarioId, m.id")
+    List<MovimientoRecurrenteEntity> findPendientesByUsuarioIdBetween(
+            @Param("desde") Long desde,
+            @Param("hasta") Long hasta,
+            @Param("fecha") LocalDate fecha
+    );
+
+    /**
+     * Bloquea los pendientes indicados para procesarlos (FOR UPDATE SKIP LOCKED):
+     * los que otra transacción ya tiene bloqueados se omiten en lugar de esperar.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM MovimientoRecurrenteEntity m WHERE m.id IN :ids " +
+           "AND m.activo = true AND m.proximaEjecucion <= :fecha ORDER BY m.id")
+    List<MovimientoRecurrenteEntity> findPendientesParaProcesar(
+            @Param("ids") List<Long> ids,
+            @Param("fecha") LocalDate fecha
+    );
 }
 
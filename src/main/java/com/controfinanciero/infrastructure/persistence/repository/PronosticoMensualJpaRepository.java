@@ -0,0 +1,17 @@
+package com.controfinanciero.infrastructure.persistence.repository;
+
+import com.controfinanciero.infrastructure.persistence.entity.PronosticoMensualEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * JPA Repository para los pronósticos mensuales ('monthly_forecasts').
+ * Las escrituras masivas se hacen por lotes JDBC en PronosticoService.
+ */
+@Repository
+public interface PronosticoMensualJpaRepository extends JpaRepository<PronosticoMensualEntity, Long> {
+
+    List<PronosticoMensualEntity> findByUsuarioId(Long usuarioId);
+}
@@ -0,0 +1,158 @@
+package com.controfinanciero.infrastructure.persistence.repository;
+
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancieroEntity;
+import com.controfinanciero.infrastructure.persistence.entity.ResumenMensualUsuarioEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JPA Repository para el resumen mensual incremental ('user_monthly_rollup').
+ * Las escrituras son upserts atómicos (INSERT ... ON CONFLICT) para que
+ * dos movimientos concurrentes del mismo mes no pierdan actualizaciones.
+ */
+@Repository
+public interface ResumenMensualUsuarioJpaRepository extends JpaRepository<ResumenMensualUsuarioEntity, Long> {
+
+    DateTimeFormatter FORMATO_PERIODO = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    /**
+     * Filas de un usuario entre dos periodos "yyyy-MM" (inclusive).
+     */
+    @Query("SELECT r FROM ResumenMensualUsuarioEntity r WHERE r.usuarioId = :userId " +
+           "AND r.periodo BETWEEN :periodoInicio AND :periodoFin " +
+           "ORDER BY r.periodo ASC")
+    List<ResumenMensualUsuarioEntity> findByUsuarioIdAndPeriodoBetween(
+            @Param("userId") Long userId,
+            @Param("periodoInicio") String periodoInicio,
+            @Param("periodoFin") String periodoFin
+    );
+
+    /**
+     * Suma un delta (positivo o negativo) a la fila del mes, tipo y categoría indicados.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_monthly_rollup " +
+                   "(user_id, period, movement_type, category_id, total_amount, movement_count, updated_at) " +
+                   "VALUES (:userId, :periodo, :tipo, :categoriaId, :monto, :cantidad, now()) " +
+                   "ON CONFLICT (user_id, period, movement_type, category_id) DO UPDATE SET " +
+                   "total_amount = user_monthly_rollup.total_amount + EXCLUDED.total_amount, " +
+                   "movement_count = user_monthly_rollup.movement_count + EXCLUDED.movement_count, " +
+                   "updated_at = now()",
+           nativeQuery = true)
+    int upsertDelta(
+            @Param("userId") Long userId,
+            @Param("periodo") String periodo,
+            @Param("tipo") String tipo,
+            @Param("categoriaId") Long categoriaId,
+            @Param("monto") BigDecimal monto,
+            @Param("cantidad") long cantidad
+    );
+
+    /**
+     * Aplica un movimiento al resumen: signo 1 al crearlo, -1 al eliminarlo.
+     */
+    default void aplicarMovimiento(MovimientoFinancieroEntity movimiento, int signo) {
+        upsertDelta(
+                movimiento.getUserId(),
+                movimiento.getMovementDate().format(FORMATO_PERIODO),
+                movimiento.getMovementType().name(),
+                movimiento.getCategoryId() != null ? movimiento.getCategoryId() : ResumenMensualUsuarioEntity.SIN_CATEGORIA,
+                signo < 0 ? movimiento.getAmount().negate() : movimiento.getAmount(),
+                signo < 0 ? -1 : 1
+        );
+    }
+
+    /**
+     * Aplica un lote de movimientos nuevos agrupando los deltas por fila del resumen:
+     * un upsert por (mes, tipo, categoría) en lugar de uno por movimiento.
+     * Los upserts van en el orden de la clave única, así dos lotes concurrentes bloquean
+     * sus filas en el mismo orden y no se interbloquean.
+     */
+    default void aplicarLote(List<MovimientoFinancieroEntity> movimientos) {
+        Comparator<List<Object>> orden = Comparator.<List<Object>, Long>comparing(clave -> (Long) clave.get(0))
+                .thenComparing(clave -> (String) clave.get(1))
+                .thenComparing(clave -> (String) clave.get(2))
+                .thenComparing(clave -> (Long) clave.get(3));
+        Map<List<Object>, BigDecimal> totales = new TreeMap<>(orden);
+        Map<List<Object>, Long> cantidades = new TreeMap<>(orden);
+        for (MovimientoFinancieroEntity movimiento : movimientos) {
+            List<Object> clave = List.of(
+                    movimiento.getUserId(),
+                    movimiento.getMovementDate().format(FORMATO_PERIODO),
+                    movimiento.getMovementType().name(),
+                    movimiento.getCategoryId() != null ? movimiento.getCategoryId() : ResumenMensualUsuarioEntity.SIN_CATEGORIA
+            );
+            totales.merge(clave, movimiento.getAmount(), BigDecimal::add);
+            cantidades.merge(clave, 1L, Long::sum);
+        }
+        totales.forEach((clave, total) -> upsertDelta(
+                (Long) clave.get(0),
+                (String) clave.get(1),
+                (String) clave.get(2),
+                (Long) clave.get(3),
+                total,
+                cantidades.get(clave)
+        ));
+    }
+
+    /**
+     * Elimina filas que quedaron vacías tras eliminar movimientos.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM user_monthly_rollup WHERE user_id = :userId AND movement_count <= 0",
+           nativeQuery = true)
+    int deleteVaciasByUsuarioId(@Param("userId") Long userId);
+
+    // ========== RECONSTRUCCIÓN OFFLINE ==========
+
+    // Solo desde ':periodoDesde' / ':fechaDesde': los meses archivados (particiones desvinculadas)
+    // ya no están en 'financial_movements' y su resumen se conserva.
+
+    @Modifying
+    @Query(value = "DELETE FROM user_monthly_rollup WHERE user_id = :userId AND period >= :periodoDesde",
+           nativeQuery = true)
+    int deleteByUsuarioId(@Param("userId") Long userId, @Param("periodoDesde") String periodoDesde);
+
+    /**
+     * Recalcula el resumen de un usuario a partir de 'financial_movements'.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_monthly_rollup " +
+                   "(user_id, period, movement_type, category_id, total_amount, movement_count, updated_at) " +
+                   "SELECT m.user_id, to_char(m.movement_date, 'YYYY-MM'), CAST(m.movement_type AS text), " +
+                   "COALESCE(m.category_id, 0), SUM(m.amount), COUNT(*), now() " +
+                   "FROM financial_movements m WHERE m.user_id = :userId AND m.movement_date >= :fechaDesde " +
+                   "GROUP BY m.user_id, to_char(m.movement_date, 'YYYY-MM'), CAST(m.movement_type AS text), " +
+                   "COALESCE(m.category_id, 0)",
+           nativeQuery = true)
+    int rebuildByUsuarioId(@Param("userId") Long userId, @Param("fechaDesde") LocalDate fechaDesde);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_monthly_rollup WHERE period >= :periodoDesde", nativeQuery = true)
+    int deleteTodo(@Param("periodoDesde") String periodoDesde);
+
+    /**
+     * Recalcula el resumen de todos los usuarios.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_monthly_rollup " +
+                   "(user_id, period, movement_type, category_id, total_amount, movement_count, updated_at) " +
+                   "SELECT m.user_id, to_char(m.movement_date, 'YYYY-MM'), CAST(m.movement_type AS text), " +
+                   "COALESCE(m.category_id, 0), SUM(m.amount), COUNT(*), now() " +
+                   "FROM financial_movements m WHERE m.movement_date >= :fechaDesde " +
+                   "GROUP BY m.user_id, to_char(m.movement_date, 'YYYY-MM'), CAST(m.movement_type AS text), " +
+                   "COALESCE(m.category_id, 0)",
+           nativeQuery = true)
+    int rebuildTodo(@Param("fechaDesde") LocalDate fechaDesde);
+}
@@ -0,0 +1,42 @@
+package com.controfinanciero.infrastructure.scheduler;
+
+import com.controfinanciero.infrastructure.service.ParticionesMovimientosService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 🗂️ MANTENIMIENTO DE PARTICIONES
+ * Crea por adelantado las particiones mensuales de movimientos y archiva las antiguas.
+ * No hace nada mientras 'financial_movements' no esté particionada.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ParticionesMovimientosScheduler {
+
+    private final ParticionesMovimientosService particionesService;
+
+    /**
+     * 🗂️ Cada día a las 02:30 (idempotente: solo crea lo que falta)
+     */
+    @Scheduled(cron = "0 30 2 * * *")
+    public void mantenerParticiones() {
+        try {
+            if (!particionesService.estaParticionada()) {
+                log.debug("🗂️ financial_movements no está particionada, se omite el mantenimiento");
+                return;
+            }
+
+            List<String> creadas = particionesService.crearParticionesFuturas();
+            List<String> archivadas = particionesService.archivarParticionesAntiguas();
+
+            log.info("✅ Mantenimiento de particiones: {} creadas, {} archivadas", creadas.size(), archivadas.size());
+        } catch (Exception e) {
+            log.error("❌ Error en el mantenimiento de particiones: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.controfinanciero.infrastructure.scheduler;
+
+import com.controfinanciero.infrastructure.service.PronosticoService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * 🔮 PRONÓSTICOS MENSUALES
+ * Reajusta cada noche los pronósticos de ingresos y gastos por categoría con los meses
+ * completos más recientes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PronosticosScheduler {
+
+    private final PronosticoService pronosticoService;
+
+    /**
+     * 🔮 Cada día a las 03:00 (configurable con pronosticos.cron)
+     */
+    @Scheduled(cron = "${pronosticos.cron:0 0 3 * * *}")
+    public void recalcularPronosticos() {
+        try {
+            int pronosticos = pronosticoService.recalcularTodos();
+            log.info("✅ Pronósticos mensuales recalculados: {}", pronosticos);
+        } catch (Exception e) {
+            log.error("❌ Error recalculando pronósticos: {}", e.getMessage(), e);
+        }
+    }
+}
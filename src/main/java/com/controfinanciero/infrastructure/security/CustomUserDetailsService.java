@@ -2,16 +2,20 @@ package com.controfinanciero.infrastructure.security;
 
 import com.controfinanciero.domain.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Servicio para cargar detalles del usuario para autenticación
+ * Los usuarios listados en 'seguridad.administradores' reciben ROLE_ADMIN (mantenimiento)
  */
 @Service
 @RequiredArgsConstructor
@@ -19,6 +23,9 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     private final UsuarioRepository usuarioRepository;
 
+    @Value("${seguridad.administradores:}")
+    private Set<String> administradores;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         var usuario = usuarioRepository.findByUsername(username)
@@ -31,7 +38,9 @@ public class CustomUserDetailsService implements UserDetailsService {
         return new User(
                 usuario.getUsername(),
                 usuario.getPasswordHash(),
-                new ArrayList<>()
+                administradores.contains(usuario.getUsername())
+                        ? List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))
+                        : List.of()
         );
     }
 }
@@ -1,5 +1,6 @@
 package com.controfinanciero.infrastructure.security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -35,9 +36,22 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // Despachos asíncronos (SSE) ya autorizados en la petición original
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Endpoints públicos
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/health", "/api/ping").permitAll() // ⚡ Warmup endpoints
+                        // 🔧 Mantenimiento pesado o destructivo: solo administradores autenticados
+                        .requestMatchers(
+                                "/api/maintenance/particionar-movimientos",
+                                "/api/maintenance/mantener-particiones",
+                                "/api/maintenance/reconstruir-resumen-mensual",
+                                "/api/maintenance/reconstruir-estadisticas-gasto",
+                                "/api/maintenance/recalcular-pronosticos",
+                                "/api/maintenance/limpiar-cache",
+                                "/api/maintenance/cache-estadisticas",
+                                "/api/maintenance/aplicar-retencion-notificaciones"
+                        ).hasRole("ADMIN")
                         .requestMatchers("/api/maintenance/**").permitAll() // 🔧 Mantenimiento (temporal)
                         .requestMatchers("/actuator/**").permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
@@ -55,6 +55,21 @@ public class AutomaticSavingsService {
                 .orElse(BigDecimal.ZERO);
     }
 
+    /**
+     * Descuenta el redondeo ahorrado por un gasto que se eliminó
+     */
+    @Transactional
+    public void revertirRedondeo(Long usuarioId, BigDecimal redondeo) {
+        ahorroRepository.findByUsuarioId(usuarioId)
+                .ifPresent(config -> {
+                    config.setTotalAhorrado(config.getTotalAhorrado().subtract(redondeo).max(BigDecimal.ZERO));
+                    config.setMovimientosProcesados(Math.max(config.getMovimientosProcesados() - 1, 0));
+                    ahorroRepository.save(config);
+
+                    log.info("Ahorro automático: ${} revertido para usuario {}", redondeo, usuarioId);
+                });
+    }
+
     public AhorroAutomaticoEntity obtenerEstadisticas(Long usuarioId) {
         return ahorroRepository.findByUsuarioId(usuarioId)
                 .orElseGet(() -> {
@@ -0,0 +1,300 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.domain.exception.DomainException;
+import com.controfinanciero.domain.repository.NotificacionRepository;
+import com.controfinanciero.infrastructure.config.ReplicaJpaTransactionManager;
+import com.controfinanciero.infrastructure.persistence.entity.NotificacionEntity;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🔔 Bandeja de Notificaciones
+ * - Contador de no leídas por usuario en memoria (Caffeine): el badge es O(1), sin COUNT por consulta.
+ *   Se carga con un COUNT la primera vez, se ajusta al confirmar cada creación, lectura o borrado
+ *   y se reconcilia periódicamente con la base (notificaciones de otras instancias, retención).
+ * - Páginas por cursor (created_at, id) sobre índices por usuario: mismo costo a cualquier profundidad.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BandejaNotificacionesService {
+
+    /**
+     * Índice parcial para las no leídas (JPA no permite declarar índices parciales en la entidad).
+     * CONCURRENTLY para no bloquear escrituras mientras se crea sobre una tabla existente.
+     */
+    private static final String CREAR_INDICE_NO_LEIDAS =
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notificaciones_no_leidas " +
+            "ON notificaciones (user_id, created_at) WHERE leida = false";
+
+    private static final String CONTAR_NO_LEIDAS =
+            "SELECT user_id, COUNT(*) AS no_leidas FROM notificaciones " +
+            "WHERE leida = false AND user_id = ANY (?) GROUP BY user_id";
+
+    /**
+     * Usuarios por consulta al reconciliar contadores.
+     */
+    private static final int USUARIOS_POR_CONSULTA = 1000;
+
+    private static final int TAMANO_MAXIMO_PAGINA = 100;
+
+    private final NotificacionRepository notificacionRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${notificaciones.contador.maximo-usuarios:100000}")
+    private long maximoUsuarios;
+
+    /**
+     * Minutos sin consultas tras los que se descarta el contador de un usuario
+     */
+    @Value("${notificaciones.contador.inactividad-minutos:60}")
+    private long inactividadMinutos;
+
+    private Cache<Long, AtomicLong> contadores;
+
+    @PostConstruct
+    void inicializar() {
+        contadores = Caffeine.newBuilder()
+                .maximumSize(maximoUsuarios)
+                .expireAfterAccess(Duration.ofMinutes(inactividadMinutos))
+                .build();
+    }
+
+    /**
+     * Crea el índice parcial de no leídas al arrancar (idempotente).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void crearIndiceNoLeidas() {
+        try {
+            jdbcTemplate.execute(CREAR_INDICE_NO_LEIDAS);
+        } catch (Exception e) {
+            log.warn("⚠️ No se pudo crear el índice parcial de notificaciones no leídas: {}", e.getMessage());
+        }
+    }
+
+    // ========== CONTADOR DE NO LEÍDAS ==========
+
+    /**
+     * Contador de no leídas. El COUNT inicial se lee siempre del primario (también si se llama
+     * dentro de una lectura de réplica): un contador cargado con retraso se quedaría desfasado
+     * hasta la siguiente reconciliación.
+     */
+    public long contarNoLeidas(Long usuarioId) {
+        return contadores.get(usuarioId, id -> new AtomicLong(
+                ReplicaJpaTransactionManager.enPrimario(() -> notificacionRepository.countNoLeidasByUsuarioId(id)))).get();
+    }
+
+    /**
+     * Suma una no leída al confirmar la transacción que insertó la notificación.
+     */
+    public void registrarNueva(Long usuarioId) {
+        alConfirmar(() -> ajustar(usuarioId, 1));
+    }
+
+    /**
+     * Suma al confirmar las notificaciones insertadas por lotes (una entrada por notificación).
+     */
+    public void registrarNuevas(Collection<Long> usuarioIds) {
+        alConfirmar(() -> usuarioIds.forEach(usuarioId -> ajustar(usuarioId, 1)));
+    }
+
+    /**
+     * Descarta el contador del usuario; se recarga con un COUNT en la próxima consulta.
+     */
+    public void invalidarContador(Long usuarioId) {
+        contadores.invalidate(usuarioId);
+    }
+
+    /**
+     * Descarta todos los contadores (p. ej. tras borrar no leídas en masa); se recargan al consultarlos.
+     */
+    public void invalidarContadores() {
+        contadores.invalidateAll();
+    }
+
+    /**
+     * 🔄 Reconcilia los contadores en memoria con la base
+     * Cada minuto (configurable con notificaciones.contador.reconciliar-ms)
+     */
+    @Scheduled(fixedDelayString = "${notificaciones.contador.reconciliar-ms:60000}")
+    public void reconciliar() {
+        List<Long> usuarios = new ArrayList<>(contadores.asMap().keySet());
+        if (usuarios.isEmpty()) {
+            return;
+        }
+
+        try {
+            int corregidos = 0;
+            for (int i = 0; i < usuarios.size(); i += USUARIOS_POR_CONSULTA) {
+                List<Long> tramo = usuarios.subList(i, Math.min(i + USUARIOS_POR_CONSULTA, usuarios.size()));
+                Map<Long, Long> reales = contarEnBase(tramo);
+                for (Long usuarioId : tramo) {
+                    AtomicLong contador = contadores.getIfPresent(usuarioId);
+                    long real = reales.getOrDefault(usuarioId, 0L);
+                    if (contador != null && contador.getAndSet(real) != real) {
+                        corregidos++;
+                    }
+                }
+            }
+            if (corregidos > 0) {
+                log.debug("🔄 {} contadores de notificaciones corregidos de {}", corregidos, usuarios.size());
+            }
+        } catch (Exception e) {
+            log.error("❌ Error reconciliando contadores de notificaciones: {}", e.getMessage(), e);
+        }
+    }
+
+    // ========== BANDEJA ==========
+
+    /**
+     * Página de la bandeja (más recientes primero) a partir del cursor (null = primera página).
+     * Se lee del primario (transacción de lectura-escritura, nunca enrutada a la réplica):
+     * una notificación recién enviada por el stream debe aparecer ya en la bandeja.
+     */
+    @Transactional
+    public Slice<NotificacionEntity> pagina(Long usuarioId, boolean soloNoLeidas, CursorNotificacion cursor, int tamano) {
+        Pageable limite = PageRequest.of(0, Math.max(1, Math.min(tamano, TAMANO_MAXIMO_PAGINA)));
+        if (soloNoLeidas) {
+            return cursor == null
+                    ? notificacionRepository.findPrimeraPaginaNoLeidas(usuarioId, limite)
+                    : notificacionRepository.findPaginaNoLeidasDespuesDe(usuarioId, cursor.createdAt(), cursor.id(), limite);
+        }
+        return cursor == null
+                ? notificacionRepository.findPrimeraPagina(usuarioId, limite)
+                : notificacionRepository.findPaginaDespuesDe(usuarioId, cursor.createdAt(), cursor.id(), limite);
+    }
+
+    @Transactional
+    public NotificacionEntity marcarLeida(Long usuarioId, Long id) {
+        NotificacionEntity notificacion = buscarDelUsuario(usuarioId, id);
+        if (notificacionRepository.marcarLeida(usuarioId, id) > 0) {
+            alConfirmar(() -> ajustar(usuarioId, -1));
+        }
+        notificacion.setLeida(true);
+        return notificacion;
+    }
+
+    @Transactional
+    public int marcarTodasLeidas(Long usuarioId) {
+        int marcadas = notificacionRepository.marcarTodasLeidas(usuarioId);
+        alConfirmar(() -> {
+            AtomicLong contador = contadores.getIfPresent(usuarioId);
+            if (contador != null) {
+                contador.set(0);
+            }
+        });
+        return marcadas;
+    }
+
+    @Transactional
+    public void eliminar(Long usuarioId, Long id) {
+        NotificacionEntity notificacion = buscarDelUsuario(usuarioId, id);
+        notificacionRepository.delete(notificacion);
+        if (!Boolean.TRUE.equals(notificacion.getLeida())) {
+            alConfirmar(() -> ajustar(usuarioId, -1));
+        }
+    }
+
+    private NotificacionEntity buscarDelUsuario(Long usuarioId, Long id) {
+        NotificacionEntity notificacion = notificacionRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Notificación no encontrada"));
+        if (!notificacion.getUsuarioId().equals(usuarioId)) {
+            throw new RuntimeException("No autorizado");
+        }
+        return notificacion;
+    }
+
+    /**
+     * Solo ajusta contadores ya cargados: los demás se cargan con un COUNT al consultarlos.
+     */
+    private void ajustar(Long usuarioId, long delta) {
+        AtomicLong contador = contadores.getIfPresent(usuarioId);
+        if (contador != null) {
+            contador.updateAndGet(valor -> Math.max(0, valor + delta));
+        }
+    }
+
+    private void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    private Map<Long, Long> contarEnBase(List<Long> usuarioIds) {
+        Map<Long, Long> reales = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(CONTAR_NO_LEIDAS);
+            ps.setArray(1, connection.createArrayOf("bigint", usuarioIds.toArray()));
+            return ps;
+        }, rs -> {
+            reales.put(rs.getLong("user_id"), rs.getLong("no_leidas"));
+        });
+        return reales;
+    }
+
+    // ========== DTOs ==========
+
+    /**
+     * Posición en la bandeja: última notificación vista. Se envía al cliente como token opaco.
+     */
+    public record CursorNotificacion(LocalDateTime createdAt, Long id) {
+
+        private static final String SEPARADOR = "|";
+
+        public static CursorNotificacion de(NotificacionEntity notificacion) {
+            return new CursorNotificacion(notificacion.getCreatedAt(), notificacion.getId());
+        }
+
+        public String codificar() {
+            String valor = createdAt + SEPARADOR + id;
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static CursorNotificacion decodificar(String token) {
+            try {
+                String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separador = valor.indexOf(SEPARADOR);
+                if (separador < 0) {
+                    throw new DomainException("Cursor de notificaciones inválido: " + token);
+                }
+                return new CursorNotificacion(
+                        LocalDateTime.parse(valor.substring(0, separador)),
+                        Long.parseLong(valor.substring(separador + 1))
+                );
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new DomainException("Cursor de notificaciones inválido: " + token);
+            }
+        }
+    }
+}
@@ -1,73 +1,239 @@
 package com.controfinanciero.infrastructure.service;
 
-import com.controfinanciero.domain.repository.PresupuestoRepository;
-import com.controfinanciero.infrastructure.persistence.entity.PresupuestoEntity;
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancieroEntity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * 🚨 Servicio de Monitoreo de Presupuestos
- * Verifica automáticamente si los usuarios exceden sus presupuestos
+ * Libro de presupuestos: cada gasto (y cada baja) se suma al presupuesto de su
+ * (usuario, categoría, periodo) con un UPDATE atómico 'gasto_actual = gasto_actual + ?' en la
+ * misma transacción que guarda el movimiento, sin leer antes el presupuesto: dos gastos
+ * simultáneos nunca se pisan. El cruce de umbrales (80% y 100%) se detecta con la fila que
+ * devuelve RETURNING, así que verificar un presupuesto cuesta un solo viaje a la base.
+ * Las alertas se envían solo para el periodo actual; 'alerta_enviada' se marca en el mismo
+ * UPDATE para que la verificación nocturna no las repita.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BudgetMonitorService {
 
-    private final PresupuestoRepository presupuestoRepository;
+    private static final DateTimeFormatter FORMATO_PERIODO = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final BigDecimal UMBRAL_ALERTA = new BigDecimal("0.8");
+    private static final BigDecimal CIEN = BigDecimal.valueOf(100);
+
+    /**
+     * Orden de los deltas por (usuario, categoría, periodo): dos lotes concurrentes actualizan
+     * sus presupuestos en el mismo orden y no se interbloquean.
+     */
+    private static final Comparator<List<Object>> ORDEN_PRESUPUESTO =
+            Comparator.<List<Object>, Long>comparing(clave -> (Long) clave.get(0))
+                    .thenComparing(clave -> (Long) clave.get(1))
+                    .thenComparing(clave -> (String) clave.get(2));
+
+    /**
+     * Aplica los deltas de un lote a sus presupuestos (un solo UPDATE con unnest).
+     * En las expresiones de SET, 'gasto_actual' es el valor anterior a la actualización:
+     * 'alerta_enviada' se marca si el delta cruza un umbral y se desmarca si el gasto
+     * vuelve a quedar por debajo del 80% (p. ej. al eliminar un movimiento).
+     */
+    private static final String APLICAR_GASTOS =
+            "UPDATE presupuestos p SET gasto_actual = p.gasto_actual + d.monto, " +
+            "alerta_enviada = CASE " +
+            "  WHEN p.gasto_actual + d.monto < p.limite_mensual * 0.8 THEN false " +
+            "  WHEN p.activo AND p.periodo = ? AND (p.gasto_actual < p.limite_mensual * 0.8 " +
+            "    OR (p.gasto_actual < p.limite_mensual AND p.gasto_actual + d.monto >= p.limite_mensual)) THEN true " +
+            "  ELSE p.alerta_enviada END, " +
+            "updated_at = now() " +
+            "FROM unnest(?::bigint[], ?::bigint[], ?::varchar[], ?::numeric[]) AS d(user_id, categoria_id, periodo, monto) " +
+            "WHERE p.user_id = d.user_id AND p.categoria_id = d.categoria_id AND p.periodo = d.periodo " +
+            "RETURNING p.user_id, p.categoria_id, p.categoria_nombre, p.limite_mensual, p.gasto_actual, " +
+            "p.periodo, p.activo, d.monto";
+
+    /**
+     * Recalcula 'gasto_actual' desde el resumen mensual (user_monthly_rollup) para los
+     * presupuestos de un usuario, o de todos si el usuario es NULL.
+     */
+    private static final String RECALCULAR =
+            "UPDATE presupuestos p SET gasto_actual = COALESCE((SELECT r.total_amount FROM user_monthly_rollup r " +
+            "  WHERE r.user_id = p.user_id AND r.period = p.periodo AND r.movement_type = 'EXPENSE' " +
+            "  AND r.category_id = p.categoria_id), 0), updated_at = now() " +
+            "WHERE (CAST(? AS bigint) IS NULL OR p.user_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
     private final NotificationService notificationService;
 
     /**
-     * Verifica el presupuesto de una categoría después de agregar un gasto
+     * Suma (signo 1) o descuenta (signo -1) los gastos con categoría de los movimientos a sus
+     * presupuestos y alerta de los umbrales cruzados. Debe llamarse en la transacción que
+     * guarda o elimina los movimientos.
      */
-    public void verificarPresupuestoDespuesDeGasto(Long usuarioId, Long categoriaId, BigDecimal montoGasto) {
-        // Obtener periodo actual (formato: "2026-02")
-        String periodoActual = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM"));
+    public void aplicarGastos(Collection<MovimientoFinancieroEntity> movimientos, int signo) {
+        // Agregar por (usuario, categoría, periodo): un lote toca cada presupuesto una sola vez
+        Map<List<Object>, BigDecimal> deltas = new TreeMap<>(ORDEN_PRESUPUESTO);
+        for (MovimientoFinancieroEntity movimiento : movimientos) {
+            acumular(deltas, movimiento, signo);
+        }
+        aplicarDeltas(deltas);
+    }
 
-        // Buscar presupuesto activo para esta categoría en el periodo actual
-        Optional<PresupuestoEntity> presupuestoOpt = presupuestoRepository
-                .findByUsuarioIdAndCategoriaIdAndPeriodo(usuarioId, categoriaId, periodoActual);
+    /**
+     * Aplica la edición de un movimiento como un único delta neto (nueva versión menos la
+     * anterior) por presupuesto: editar un gasto sin cambiar su importe no toca el presupuesto
+     * y no vuelve a enviar alertas ya enviadas. 'anterior' debe ser una copia tomada antes
+     * de guardar la nueva versión.
+     */
+    public void aplicarEdicion(MovimientoFinancieroEntity anterior, MovimientoFinancieroEntity nuevo) {
+        Map<List<Object>, BigDecimal> deltas = new TreeMap<>(ORDEN_PRESUPUESTO);
+        acumular(deltas, anterior, -1);
+        acumular(deltas, nuevo, 1);
+        aplicarDeltas(deltas);
+    }
 
-        if (presupuestoOpt.isEmpty() || !presupuestoOpt.get().getActivo()) {
-            return; // No hay presupuesto configurado
+    private static void acumular(Map<List<Object>, BigDecimal> deltas, MovimientoFinancieroEntity movimiento, int signo) {
+        if (movimiento.getMovementType() != TipoMovimiento.EXPENSE || movimiento.getCategoryId() == null) {
+            return;
         }
+        BigDecimal monto = signo < 0 ? movimiento.getAmount().negate() : movimiento.getAmount();
+        deltas.merge(
+                List.of(movimiento.getUserId(), movimiento.getCategoryId(),
+                        movimiento.getMovementDate().format(FORMATO_PERIODO)),
+                monto,
+                BigDecimal::add);
+    }
 
-        PresupuestoEntity presupuesto = presupuestoOpt.get();
+    private void aplicarDeltas(Map<List<Object>, BigDecimal> deltas) {
+        // Los deltas que se anulan (mismo importe, categoría y periodo) no generan UPDATE
+        deltas.values().removeIf(monto -> monto.signum() == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
 
-        // Obtener datos del presupuesto
-        Double gastado = presupuesto.getGastoActual().doubleValue();
-        Double limite = presupuesto.getLimiteMensual().doubleValue();
-        double porcentaje = (gastado / limite) * 100;
+        Long[] usuarios = new Long[deltas.size()];
+        Long[] categorias = new Long[deltas.size()];
+        String[] periodos = new String[deltas.size()];
+        BigDecimal[] montos = new BigDecimal[deltas.size()];
+        int i = 0;
+        for (Map.Entry<List<Object>, BigDecimal> delta : deltas.entrySet()) {
+            usuarios[i] = (Long) delta.getKey().get(0);
+            categorias[i] = (Long) delta.getKey().get(1);
+            periodos[i] = (String) delta.getKey().get(2);
+            montos[i] = delta.getValue();
+            i++;
+        }
 
-        log.info("💰 Presupuesto - Usuario: {}, Categoría: {}, Gastado: {}/{} ({}%)",
-                usuarioId, categoriaId, gastado, limite, String.format("%.1f", porcentaje));
+        String periodoActual = LocalDate.now().format(FORMATO_PERIODO);
+        List<PresupuestoActualizado> actualizados = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(APLICAR_GASTOS);
+            ps.setString(1, periodoActual);
+            ps.setArray(2, connection.createArrayOf("bigint", usuarios));
+            ps.setArray(3, connection.createArrayOf("bigint", categorias));
+            ps.setArray(4, connection.createArrayOf("varchar", periodos));
+            ps.setArray(5, connection.createArrayOf("numeric", montos));
+            return ps;
+        }, (rs, fila) -> new PresupuestoActualizado(
+                rs.getLong("user_id"),
+                rs.getLong("categoria_id"),
+                rs.getString("categoria_nombre"),
+                rs.getBigDecimal("limite_mensual"),
+                rs.getBigDecimal("gasto_actual"),
+                rs.getString("periodo"),
+                rs.getBoolean("activo"),
+                rs.getBigDecimal("monto")
+        ));
 
-        // Alerta si se excede el 100%
-        if (porcentaje >= 100) {
-            String categoriaNombre = presupuesto.getCategoriaNombre() != null
-                    ? presupuesto.getCategoriaNombre()
-                    : "Categoría #" + categoriaId;
+        for (PresupuestoActualizado presupuesto : actualizados) {
+            if (presupuesto.activo() && presupuesto.periodo().equals(periodoActual)) {
+                alertarSiCruzaUmbral(presupuesto);
+            }
+        }
+    }
 
-            notificationService.alertarPresupuestoExcedido(
-                    usuarioId, categoriaNombre, gastado, limite, porcentaje
-            );
+    /**
+     * Recalcula el gasto de los presupuestos de un usuario desde el resumen mensual
+     * (importaciones masivas o reparación de datos). No genera alertas.
+     */
+    public int recalcularUsuario(Long usuarioId) {
+        int presupuestos = jdbcTemplate.update(RECALCULAR, usuarioId, usuarioId);
+        log.info("💰 Gasto de {} presupuestos recalculado para usuario {}", presupuestos, usuarioId);
+        return presupuestos;
+    }
+
+    /**
+     * Recalcula el gasto de todos los presupuestos desde el resumen mensual.
+     */
+    public int recalcularTodos() {
+        int presupuestos = jdbcTemplate.update(RECALCULAR, null, null);
+        log.info("💰 Gasto de {} presupuestos recalculado", presupuestos);
+        return presupuestos;
+    }
+
+    /**
+     * Alerta solo cuando el delta cruza un umbral (el gasto anterior era gasto_actual - monto):
+     * los gastos siguientes dentro de la misma franja no repiten la alerta.
+     */
+    private void alertarSiCruzaUmbral(PresupuestoActualizado presupuesto) {
+        if (presupuesto.monto().signum() <= 0 || presupuesto.limite().signum() <= 0) {
+            return;
         }
-        // Alerta si está entre 80% y 99%
-        else if (porcentaje >= 80) {
-            String categoriaNombre = presupuesto.getCategoriaNombre() != null
-                    ? presupuesto.getCategoriaNombre()
-                    : "Categoría #" + categoriaId;
+        BigDecimal nuevo = presupuesto.gastado();
+        BigDecimal anterior = nuevo.subtract(presupuesto.monto());
+        BigDecimal limite = presupuesto.limite();
+        BigDecimal umbralAlerta = limite.multiply(UMBRAL_ALERTA);
 
+        boolean cruzaLimite = anterior.compareTo(limite) < 0 && nuevo.compareTo(limite) >= 0;
+        boolean cruzaAlerta = anterior.compareTo(umbralAlerta) < 0 && nuevo.compareTo(umbralAlerta) >= 0;
+        if (!cruzaLimite && !cruzaAlerta) {
+            return;
+        }
+
+        double gastado = nuevo.doubleValue();
+        double limiteMensual = limite.doubleValue();
+        double porcentaje = nuevo.multiply(CIEN).doubleValue() / limiteMensual;
+        String categoriaNombre = presupuesto.categoriaNombre() != null
+                ? presupuesto.categoriaNombre()
+                : "Categoría #" + presupuesto.categoriaId();
+
+        log.info("💰 Presupuesto - Usuario: {}, Categoría: {}, Gastado: {}/{} ({}%)",
+                presupuesto.usuarioId(), presupuesto.categoriaId(), gastado, limiteMensual,
+                String.format("%.1f", porcentaje));
+
+        if (nuevo.compareTo(limite) >= 0) {
+            notificationService.alertarPresupuestoExcedido(
+                    presupuesto.usuarioId(), categoriaNombre, gastado, limiteMensual, porcentaje
+            );
+        } else {
             notificationService.alertarPresupuestoCercaLimite(
-                    usuarioId, categoriaNombre, gastado, limite, porcentaje
+                    presupuesto.usuarioId(), categoriaNombre, gastado, limiteMensual, porcentaje
             );
         }
     }
-}
 
+    // ========== DTOs ==========
+
+    private record PresupuestoActualizado(
+            Long usuarioId,
+            Long categoriaId,
+            String categoriaNombre,
+            BigDecimal limite,
+            BigDecimal gastado,
+            String periodo,
+            boolean activo,
+            BigDecimal monto
+    ) {
+    }
+}
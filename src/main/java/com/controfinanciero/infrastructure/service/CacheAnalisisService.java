@@ -0,0 +1,134 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.infrastructure.config.CacheConfig;
+import com.controfinanciero.infrastructure.config.ReplicaJpaTransactionManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 🗃️ Caché de resultados de análisis
+ * Guarda el resultado de cada consulta analítica (tendencias, inteligencia, coach, metas)
+ * con clave (usuario, consulta, parámetros, versión de datos, fecha).
+ * Cada escritura de movimientos o metas incrementa la versión del usuario en
+ * 'user_data_versions', en su misma transacción, así que sus resultados anteriores dejan de
+ * coincidir sin recorrer la caché. La versión vive en la base y no en la JVM: la caché de
+ * resultados es local a cada nodo, pero una escritura atendida por cualquier nodo invalida
+ * los resultados de todos. Cuesta una lectura por clave primaria en el primario por consulta.
+ * La fecha forma parte de la clave porque los análisis son relativos al día actual.
+ * Los análisis se leen de la réplica, que puede ir hasta datasource.replica.max-lag-seconds
+ * por detrás: durante ese margen tras una escritura del usuario (medido con el reloj de la
+ * base, común a todos los nodos) se calculan en el primario y no se cachean, para no guardar
+ * una hora un resultado sin la escritura.
+ */
+@Slf4j
+@Service
+public class CacheAnalisisService {
+
+    /**
+     * Crea la versión en 1 o le suma 1. clock_timestamp() y no now(): la marca debe quedar
+     * cerca de la confirmación, no del inicio de una transacción larga.
+     */
+    private static final String INCREMENTAR_VERSION =
+            "INSERT INTO user_data_versions (user_id, version, updated_at) VALUES (?, 1, clock_timestamp()) " +
+            "ON CONFLICT (user_id) DO UPDATE SET version = user_data_versions.version + 1, " +
+            "updated_at = clock_timestamp()";
+
+    /**
+     * Versión actual y si la última escritura cae dentro del margen de retraso de la réplica.
+     */
+    private static final String LEER_VERSION =
+            "SELECT version, updated_at > clock_timestamp() - make_interval(secs => ?) AS reciente " +
+            "FROM user_data_versions WHERE user_id = ?";
+
+    private static final VersionDatos SIN_ESCRITURAS = new VersionDatos(0, false);
+
+    private final Cache resultados;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Retraso máximo tolerado de la réplica más el intervalo en que se mide.
+     */
+    private final double margenEscrituraSegundos;
+
+    public CacheAnalisisService(CacheManager cacheManager,
+                                JdbcTemplate jdbcTemplate,
+                                @Value("${datasource.replica.max-lag-seconds:10}") long maximoRetrasoSegundos,
+                                @Value("${datasource.replica.lag-check-ms:5000}") long intervaloRetrasoMs) {
+        this.resultados = cacheManager.getCache(CacheConfig.ANALISIS);
+        this.jdbcTemplate = jdbcTemplate;
+        this.margenEscrituraSegundos = maximoRetrasoSegundos + intervaloRetrasoMs / 1000.0;
+    }
+
+    /**
+     * Devuelve el resultado cacheado o lo calcula. Peticiones simultáneas del mismo nodo con la
+     * misma clave esperan un único cálculo. La versión se lee antes de calcular: si una escritura
+     * llega durante el cálculo, el resultado queda guardado con la versión anterior y no se reutiliza.
+     */
+    public <T> T obtener(Long usuarioId, String consulta, Supplier<T> calculo, Object... parametros) {
+        VersionDatos version = leerVersion(usuarioId);
+        if (version.reciente()) {
+            return ReplicaJpaTransactionManager.enPrimario(calculo);
+        }
+        ClaveAnalisis clave = new ClaveAnalisis(
+                usuarioId, consulta, Arrays.asList(parametros), version.numero(), LocalDate.now());
+        try {
+            return resultados.get(clave, calculo::get);
+        } catch (Cache.ValueRetrievalException e) {
+            // Se propaga la excepción original para que el manejador global la traduzca igual que sin caché
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Ejecuta una lectura analítica sin caché (p. ej. el PDF) en el primario si el usuario
+     * escribió dentro del margen de retraso de la réplica; si no, donde la pida su transacción.
+     */
+    public <T> T leerEscriturasPropias(Long usuarioId, Supplier<T> calculo) {
+        if (leerVersion(usuarioId).reciente()) {
+            return ReplicaJpaTransactionManager.enPrimario(calculo);
+        }
+        return calculo.get();
+    }
+
+    /**
+     * Invalida los resultados del usuario en todos los nodos. Debe llamarse en la transacción
+     * de la escritura: la nueva versión se ve al confirmarse, junto con los datos (los análisis
+     * calculados mientras tanto quedan con la versión anterior) y un rollback no invalida nada.
+     */
+    public void invalidarUsuario(Long usuarioId) {
+        if (usuarioId == null) {
+            return;
+        }
+        jdbcTemplate.update(INCREMENTAR_VERSION, usuarioId);
+        log.debug("🗃️ Análisis cacheados del usuario {} invalidados", usuarioId);
+    }
+
+    /**
+     * Se llama sin transacción (desde los controladores), así que la lectura va al primario
+     * y ve siempre la última versión confirmada.
+     */
+    private VersionDatos leerVersion(Long usuarioId) {
+        List<VersionDatos> filas = jdbcTemplate.query(LEER_VERSION,
+                (rs, fila) -> new VersionDatos(rs.getLong("version"), rs.getBoolean("reciente")),
+                margenEscrituraSegundos, usuarioId);
+        return filas.isEmpty() ? SIN_ESCRITURAS : filas.get(0);
+    }
+
+    record ClaveAnalisis(Long usuarioId, String consulta, List<Object> parametros, long version, LocalDate fecha) {
+    }
+
+    private record VersionDatos(long numero, boolean reciente) {
+    }
+}
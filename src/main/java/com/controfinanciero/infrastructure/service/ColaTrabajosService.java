@@ -0,0 +1,258 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.infrastructure.persistence.entity.TrabajoProgramadoEntity;
+import com.controfinanciero.infrastructure.persistence.entity.TrabajoProgramadoEntity.Estado;
+import com.controfinanciero.infrastructure.persistence.entity.TrabajoProgramadoEntity.Tipo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 📬 Cola persistente de trabajos en segundo plano (PostgreSQL)
+ * Permite correr varias instancias sin duplicar tareas programadas:
+ * - Encolar es idempotente: la clave única (job_type, job_key) descarta el mismo trabajo
+ *   encolado por otro nodo.
+ * - Cada nodo reclama trabajos con FOR UPDATE SKIP LOCKED, así que ninguno espera ni
+ *   toma un trabajo ya reclamado. Un latido en un hilo propio renueva el lease de los
+ *   trabajos en curso; si el nodo cae, el lease vence y el trabajo se retoma.
+ * - Los fallos se reintentan con espera exponencial hasta agotar los intentos.
+ * Los trabajos por usuarios se dividen en tramos de ids con hora de inicio aleatoria
+ * dentro de una ventana, para repartirlos entre nodos y no arrancarlos todos a la vez.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ColaTrabajosService {
+
+    private static final String ENCOLAR =
+            "INSERT INTO background_jobs (job_type, job_key, user_from, user_to, reference_date, status, " +
+            "attempts, run_at, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, 'PENDIENTE', 0, now() + make_interval(secs => ?), now(), now()) " +
+            "ON CONFLICT (job_type, job_key) DO NOTHING";
+
+    /**
+     * Reclama trabajos disponibles o con el lease vencido (su nodo dejó de responder) a los
+     * que aún les quedan intentos.
+     */
+    private static final String RECLAMAR =
+            "UPDATE background_jobs SET status = 'EN_CURSO', attempts = attempts + 1, locked_by = ?, " +
+            "locked_until = now() + make_interval(secs => ?), updated_at = now() " +
+            "WHERE id IN (SELECT id FROM background_jobs " +
+            "WHERE (status = 'PENDIENTE' AND run_at <= now()) " +
+            "OR (status = 'EN_CURSO' AND locked_until < now() AND attempts < ?) " +
+            "ORDER BY run_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, job_type, job_key, user_from, user_to, reference_date, status, attempts, run_at, " +
+            "locked_by, locked_until, last_error, created_at, updated_at";
+
+    /**
+     * Marca FALLIDO los trabajos con el lease vencido que ya agotaron los intentos
+     * (p. ej. un trabajo que tumba a su nodo cada vez que se ejecuta).
+     */
+    private static final String FALLAR_AGOTADOS =
+            "UPDATE background_jobs SET status = 'FALLIDO', last_error = 'Lease vencido en el último intento', " +
+            "locked_by = NULL, locked_until = NULL, updated_at = now() " +
+            "WHERE status = 'EN_CURSO' AND locked_until < now() AND attempts >= ?";
+
+    private static final String RENOVAR_LEASES =
+            "UPDATE background_jobs SET locked_until = now() + make_interval(secs => ?), updated_at = now() " +
+            "WHERE id = ANY (?) AND locked_by = ? AND status = 'EN_CURSO'";
+
+    private static final String COMPLETAR =
+            "UPDATE background_jobs SET status = 'COMPLETADO', locked_by = NULL, locked_until = NULL, " +
+            "last_error = NULL, updated_at = now() WHERE id = ? AND locked_by = ?";
+
+    private static final String FALLAR =
+            "UPDATE background_jobs SET status = CASE WHEN attempts >= ? THEN 'FALLIDO' ELSE 'PENDIENTE' END, " +
+            "run_at = now() + make_interval(secs => ? * power(2, attempts - 1)), last_error = ?, " +
+            "locked_by = NULL, locked_until = NULL, updated_at = now() WHERE id = ? AND locked_by = ?";
+
+    private static final RowMapper<TrabajoProgramadoEntity> MAPEO_TRABAJO = (rs, fila) -> new TrabajoProgramadoEntity(
+            rs.getLong("id"),
+            Tipo.valueOf(rs.getString("job_type")),
+            rs.getString("job_key"),
+            rs.getObject("user_from", Long.class),
+            rs.getObject("user_to", Long.class),
+            rs.getObject("reference_date", LocalDate.class),
+            Estado.valueOf(rs.getString("status")),
+            rs.getInt("attempts"),
+            rs.getTimestamp("run_at").toLocalDateTime(),
+            rs.getString("locked_by"),
+            rs.getTimestamp("locked_until").toLocalDateTime(),
+            rs.getString("last_error"),
+            rs.getTimestamp("created_at").toLocalDateTime(),
+            rs.getTimestamp("updated_at").toLocalDateTime()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Identificador de esta instancia en 'locked_by' (pid@host más un sufijo aleatorio).
+     */
+    private final String trabajador = ManagementFactory.getRuntimeMXBean().getName()
+            + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    @Value("${trabajos.usuarios-por-tramo:1000}")
+    private long usuariosPorTramo;
+
+    @Value("${trabajos.dispersion-segundos:600}")
+    private int dispersionSegundos;
+
+    @Value("${trabajos.lease-segundos:300}")
+    private int leaseSegundos;
+
+    @Value("${trabajos.latido-segundos:60}")
+    private int latidoSegundos;
+
+    @Value("${trabajos.max-intentos:5}")
+    private int maxIntentos;
+
+    @Value("${trabajos.espera-reintento-segundos:30}")
+    private int esperaReintentoSegundos;
+
+    /**
+     * Trabajos reclamados por esta instancia y aún sin completar ni fallar.
+     */
+    private final Set<Long> enCurso = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Hilo propio para el latido: el planificador de Spring tiene un solo hilo y está
+     * ocupado mientras se ejecuta un trabajo.
+     */
+    private ScheduledExecutorService latido;
+
+    @PostConstruct
+    void iniciarLatido() {
+        latido = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("cola-trabajos-latido").daemon(true).factory());
+        latido.scheduleWithFixedDelay(this::renovarLeases, latidoSegundos, latidoSegundos, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void detenerLatido() {
+        latido.shutdownNow();
+    }
+
+    /**
+     * Encola un trabajo sin tramo de usuarios. Devuelve false si ya estaba encolado.
+     */
+    public boolean encolar(Tipo tipo, String clave, LocalDate fechaReferencia) {
+        return insertar(tipo, clave, null, null, fechaReferencia, 0) > 0;
+    }
+
+    /**
+     * Encola un trabajo por cada tramo de ids que contiene al menos uno de los usuarios.
+     * Los tramos están alineados a múltiplos de usuariosPorTramo para que todos los nodos
+     * generen las mismas claves. Devuelve la cantidad de trabajos nuevos.
+     */
+    public int encolarPorTramos(Tipo tipo, LocalDate fechaReferencia, Collection<Long> usuarios) {
+        TreeSet<Long> tramos = new TreeSet<>();
+        for (Long usuarioId : usuarios) {
+            tramos.add(Math.floorDiv(usuarioId, usuariosPorTramo));
+        }
+
+        int encolados = 0;
+        for (long tramo : tramos) {
+            long desde = tramo * usuariosPorTramo;
+            long hasta = desde + usuariosPorTramo - 1;
+            String clave = fechaReferencia + ":" + desde + "-" + hasta;
+            int retraso = dispersionSegundos > 0 ? ThreadLocalRandom.current().nextInt(dispersionSegundos) : 0;
+            encolados += insertar(tipo, clave, desde, hasta, fechaReferencia, retraso);
+        }
+        if (encolados > 0) {
+            log.info("📬 {} trabajos {} encolados ({} tramos)", encolados, tipo, tramos.size());
+        }
+        return encolados;
+    }
+
+    /**
+     * Reclama hasta 'limite' trabajos para esta instancia.
+     */
+    public List<TrabajoProgramadoEntity> reclamar(int limite) {
+        int agotados = jdbcTemplate.update(FALLAR_AGOTADOS, maxIntentos);
+        if (agotados > 0) {
+            log.error("❌ {} trabajos marcados FALLIDO: su lease venció en el último intento", agotados);
+        }
+        List<TrabajoProgramadoEntity> trabajos =
+                jdbcTemplate.query(RECLAMAR, MAPEO_TRABAJO, trabajador, leaseSegundos, maxIntentos, limite);
+        trabajos.forEach(trabajo -> enCurso.add(trabajo.getId()));
+        return trabajos;
+    }
+
+    /**
+     * 💓 Extiende el lease de los trabajos que esta instancia sigue ejecutando, para que otra
+     * no los retome mientras tanto. Cada trabajos.latido-segundos (menor que el lease).
+     */
+    void renovarLeases() {
+        if (enCurso.isEmpty()) {
+            return;
+        }
+        try {
+            Long[] ids = enCurso.toArray(Long[]::new);
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(RENOVAR_LEASES);
+                ps.setInt(1, leaseSegundos);
+                ps.setArray(2, connection.createArrayOf("bigint", ids));
+                ps.setString(3, trabajador);
+                return ps;
+            });
+        } catch (Exception e) {
+            log.error("❌ Error renovando el lease de los trabajos en curso: {}", e.getMessage(), e);
+        }
+    }
+
+    public void completar(TrabajoProgramadoEntity trabajo) {
+        enCurso.remove(trabajo.getId());
+        if (jdbcTemplate.update(COMPLETAR, trabajo.getId(), trabajador) == 0) {
+            log.warn("⚠️ El trabajo #{} ya no pertenece a esta instancia (lease vencido)", trabajo.getId());
+        }
+    }
+
+    /**
+     * Registra el error y reprograma el trabajo con espera exponencial,
+     * o lo marca FALLIDO si agotó los intentos.
+     */
+    public void fallar(TrabajoProgramadoEntity trabajo, Exception error) {
+        enCurso.remove(trabajo.getId());
+        String mensaje = error.getClass().getSimpleName() + ": " + error.getMessage();
+        jdbcTemplate.update(FALLAR, maxIntentos, esperaReintentoSegundos, mensaje, trabajo.getId(), trabajador);
+        if (trabajo.getIntentos() >= maxIntentos) {
+            log.error("❌ Trabajo #{} {} ({}) fallido tras {} intentos: {}",
+                    trabajo.getId(), trabajo.getTipo(), trabajo.getClave(), trabajo.getIntentos(), mensaje);
+        } else {
+            log.warn("⚠️ Trabajo #{} {} ({}) falló en el intento {}, se reintentará: {}",
+                    trabajo.getId(), trabajo.getTipo(), trabajo.getClave(), trabajo.getIntentos(), mensaje);
+        }
+    }
+
+    /**
+     * Elimina trabajos completados hace más de 'dias' días. Los fallidos se conservan para revisión.
+     */
+    public int purgarCompletados(int dias) {
+        return jdbcTemplate.update(
+                "DELETE FROM background_jobs WHERE status = 'COMPLETADO' AND updated_at < now() - make_interval(days => ?)",
+                dias);
+    }
+
+    private int insertar(Tipo tipo, String clave, Long desde, Long hasta, LocalDate fechaReferencia, int retrasoSegundos) {
+        return jdbcTemplate.update(ENCOLAR, tipo.name(), clave, desde, hasta, fechaReferencia, retrasoSegundos);
+    }
+}
@@ -0,0 +1,220 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.infrastructure.persistence.entity.CorreoSalienteEntity;
+import com.controfinanciero.infrastructure.persistence.entity.CorreoSalienteEntity.Estado;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * ✉️ Bandeja de salida de correos (PostgreSQL)
+ * - Encolar usa el JdbcTemplate de la transacción actual: el correo se guarda junto con la
+ *   notificación que lo origina, o no se guarda (sin correos de notificaciones revertidas).
+ * - El despachador (DespachadorCorreosService) reclama lotes con FOR UPDATE SKIP LOCKED y un
+ *   lease, así que varias instancias reparten los envíos sin duplicarlos.
+ * - Los fallos se reintentan con espera exponencial hasta agotar los intentos.
+ * Solo se encolan los tipos de notificación configurados en 'correo.tipos'.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CorreosSalientesService {
+
+    /**
+     * Destinatario y proveedor (dominio del correo) salen de la tabla de usuarios; un usuario
+     * inactivo no genera fila.
+     */
+    private static final String ENCOLAR =
+            "INSERT INTO email_outbox (user_id, recipient, provider, notification_type, subject, body, " +
+            "status, attempts, next_attempt_at, created_at) " +
+            "SELECT u.id, u.email, lower(split_part(u.email, '@', 2)), ?, ?, ?, 'PENDIENTE', 0, now(), now() " +
+            "FROM users u WHERE u.id = ? AND u.active = true";
+
+    /**
+     * Reclama correos pendientes o con el lease vencido (su nodo dejó de responder) a los
+     * que aún les quedan intentos.
+     */
+    private static final String RECLAMAR =
+            "UPDATE email_outbox SET status = 'ENVIANDO', attempts = attempts + 1, locked_by = ?, " +
+            "locked_until = now() + make_interval(secs => ?) " +
+            "WHERE id IN (SELECT id FROM email_outbox " +
+            "WHERE (status = 'PENDIENTE' AND next_attempt_at <= now()) " +
+            "OR (status = 'ENVIANDO' AND locked_until < now() AND attempts < ?) " +
+            "ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, user_id, recipient, provider, notification_type, subject, body, status, attempts, " +
+            "next_attempt_at, locked_by, locked_until, last_error, created_at, sent_at";
+
+    /**
+     * Marca FALLIDO los correos con el lease vencido que ya agotaron los intentos
+     * (p. ej. un mensaje que tumba al nodo en cada envío).
+     */
+    private static final String FALLAR_AGOTADOS =
+            "UPDATE email_outbox SET status = 'FALLIDO', last_error = 'Lease vencido en el último intento', " +
+            "locked_by = NULL, locked_until = NULL " +
+            "WHERE status = 'ENVIANDO' AND locked_until < now() AND attempts >= ?";
+
+    private static final String MARCAR_ENVIADOS =
+            "UPDATE email_outbox SET status = 'ENVIADO', sent_at = now(), locked_by = NULL, locked_until = NULL, " +
+            "last_error = NULL WHERE id = ANY (?) AND locked_by = ?";
+
+    /**
+     * Devuelve correos a la cola sin contar el intento (límite del proveedor alcanzado).
+     */
+    private static final String POSPONER =
+            "UPDATE email_outbox SET status = 'PENDIENTE', attempts = attempts - 1, " +
+            "next_attempt_at = now() + make_interval(secs => ?), locked_by = NULL, locked_until = NULL " +
+            "WHERE id = ANY (?) AND locked_by = ?";
+
+    private static final String FALLAR =
+            "UPDATE email_outbox SET status = CASE WHEN ? OR attempts >= ? THEN 'FALLIDO' ELSE 'PENDIENTE' END, " +
+            "next_attempt_at = now() + make_interval(secs => ? * power(2, attempts - 1)), last_error = ?, " +
+            "locked_by = NULL, locked_until = NULL WHERE id = ? AND locked_by = ?";
+
+    private static final RowMapper<CorreoSalienteEntity> MAPEO_CORREO = (rs, fila) -> new CorreoSalienteEntity(
+            rs.getLong("id"),
+            rs.getLong("user_id"),
+            rs.getString("recipient"),
+            rs.getString("provider"),
+            rs.getString("notification_type"),
+            rs.getString("subject"),
+            rs.getString("body"),
+            Estado.valueOf(rs.getString("status")),
+            rs.getInt("attempts"),
+            rs.getTimestamp("next_attempt_at").toLocalDateTime(),
+            rs.getString("locked_by"),
+            rs.getTimestamp("locked_until").toLocalDateTime(),
+            rs.getString("last_error"),
+            rs.getTimestamp("created_at").toLocalDateTime(),
+            null
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Identificador de esta instancia en 'locked_by' (pid@host más un sufijo aleatorio).
+     */
+    private final String trabajador = ManagementFactory.getRuntimeMXBean().getName()
+            + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    @Value("${correo.habilitado:false}")
+    private boolean habilitado;
+
+    /**
+     * Tipos de notificación que también se envían por correo
+     */
+    @Value("${correo.tipos:PRESUPUESTO_ALERTA,PRESUPUESTO_EXCEDIDO,RESUMEN_MENSUAL,META_COMPLETADA,MOVIMIENTO_INUSUAL}")
+    private Set<String> tipos;
+
+    @Value("${correo.lease-segundos:300}")
+    private int leaseSegundos;
+
+    @Value("${correo.max-intentos:6}")
+    private int maxIntentos;
+
+    @Value("${correo.espera-reintento-segundos:60}")
+    private int esperaReintentoSegundos;
+
+    /**
+     * Encola el correo de una notificación en la transacción actual (si su tipo se envía por correo).
+     */
+    public void encolar(Long usuarioId, String tipo, String asunto, String mensaje) {
+        if (!seEnvia(tipo)) {
+            return;
+        }
+        jdbcTemplate.update(ENCOLAR, tipo, asunto, mensaje, usuarioId);
+    }
+
+    /**
+     * Encola en un solo lote JDBC los correos de notificaciones insertadas por lotes.
+     */
+    public void encolarLote(String tipo, List<CorreoPendiente> correos) {
+        if (!seEnvia(tipo) || correos.isEmpty()) {
+            return;
+        }
+        List<Object[]> filas = new ArrayList<>(correos.size());
+        for (CorreoPendiente correo : correos) {
+            filas.add(new Object[]{tipo, correo.asunto(), correo.mensaje(), correo.usuarioId()});
+        }
+        jdbcTemplate.batchUpdate(ENCOLAR, filas);
+    }
+
+    /**
+     * Reclama hasta 'limite' correos para esta instancia.
+     */
+    public List<CorreoSalienteEntity> reclamar(int limite) {
+        int agotados = jdbcTemplate.update(FALLAR_AGOTADOS, maxIntentos);
+        if (agotados > 0) {
+            log.error("❌ {} correos marcados FALLIDO: su lease venció en el último intento", agotados);
+        }
+        return jdbcTemplate.query(RECLAMAR, MAPEO_CORREO, trabajador, leaseSegundos, maxIntentos, limite);
+    }
+
+    public void marcarEnviados(Collection<Long> ids) {
+        actualizarVarios(MARCAR_ENVIADOS, null, ids);
+    }
+
+    public void posponer(Collection<Long> ids, int segundos) {
+        actualizarVarios(POSPONER, segundos, ids);
+    }
+
+    /**
+     * Registra el error y reprograma el correo con espera exponencial, o lo marca FALLIDO
+     * si agotó los intentos o el error es permanente (p. ej. dirección rechazada).
+     */
+    public void fallar(CorreoSalienteEntity correo, Exception error, boolean permanente) {
+        String mensaje = error.getClass().getSimpleName() + ": " + error.getMessage();
+        jdbcTemplate.update(FALLAR, permanente, maxIntentos, esperaReintentoSegundos, mensaje, correo.getId(), trabajador);
+        if (permanente || correo.getIntentos() >= maxIntentos) {
+            log.error("❌ Correo #{} a {} fallido tras {} intentos: {}",
+                    correo.getId(), correo.getProveedor(), correo.getIntentos(), mensaje);
+        } else {
+            log.warn("⚠️ Correo #{} a {} falló en el intento {}, se reintentará: {}",
+                    correo.getId(), correo.getProveedor(), correo.getIntentos(), mensaje);
+        }
+    }
+
+    /**
+     * Elimina correos enviados hace más de 'dias' días. Los fallidos se conservan para revisión.
+     */
+    public int purgarEnviados(int dias) {
+        return jdbcTemplate.update(
+                "DELETE FROM email_outbox WHERE status = 'ENVIADO' AND sent_at < now() - make_interval(days => ?)",
+                dias);
+    }
+
+    private boolean seEnvia(String tipo) {
+        return habilitado && tipos.contains(tipo);
+    }
+
+    private void actualizarVarios(String sql, Integer segundos, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            int indice = 1;
+            if (segundos != null) {
+                ps.setInt(indice++, segundos);
+            }
+            ps.setArray(indice++, connection.createArrayOf("bigint", ids.toArray()));
+            ps.setString(indice, trabajador);
+            return ps;
+        });
+    }
+
+    // ========== DTOs ==========
+
+    public record CorreoPendiente(Long usuarioId, String asunto, String mensaje) {
+    }
+}
@@ -0,0 +1,269 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.infrastructure.persistence.entity.CorreoSalienteEntity;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ✉️ Despachador de correos
+ * Vacía la bandeja de salida (CorreosSalientesService) fuera de los hilos de las peticiones:
+ * - Reclama lotes de correos y los reparte por proveedor (dominio del destinatario), cada uno
+ *   con su propio límite por minuto (bucket4j); lo que excede el límite vuelve a la cola sin
+ *   contar como intento.
+ * - Renderiza con Thymeleaf (plantillas compiladas en caché, spring.thymeleaf.cache).
+ * - Envía en lotes de 'correo.lote-smtp' mensajes por conexión SMTP (JavaMailSender.send con
+ *   varios mensajes abre una sola conexión) y 'correo.conexiones' conexiones en paralelo.
+ * - Los fallos se reintentan con espera exponencial; las direcciones rechazadas fallan sin reintento.
+ * Solo depende de JavaMailSender y spring.mail.*: se prueba apuntando a un SMTP local (p. ej. GreenMail).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DespachadorCorreosService {
+
+    private static final String PLANTILLA = "correo/notificacion";
+
+    private final CorreosSalientesService correosSalientes;
+    private final ObjectProvider<JavaMailSender> mailSenderProvider;
+    private final ITemplateEngine templateEngine;
+
+    private final Map<String, Bucket> limitesPorProveedor = new ConcurrentHashMap<>();
+
+    @Value("${correo.habilitado:false}")
+    private boolean habilitado;
+
+    @Value("${correo.remitente:no-reply@controlfinanciero.app}")
+    private String remitente;
+
+    @Value("${correo.nombre-remitente:Control Financiero}")
+    private String nombreRemitente;
+
+    /**
+     * Correos reclamados por ronda
+     */
+    @Value("${correo.lote-reclamo:500}")
+    private int loteReclamo;
+
+    /**
+     * Mensajes enviados por conexión SMTP
+     */
+    @Value("${correo.lote-smtp:50}")
+    private int loteSmtp;
+
+    /**
+     * Conexiones SMTP simultáneas
+     */
+    @Value("${correo.conexiones:2}")
+    private int conexiones;
+
+    /**
+     * Tiempo máximo vaciando la cola en una ejecución, para liberar el planificador
+     */
+    @Value("${correo.duracion-maxima-ms:50000}")
+    private long duracionMaximaMs;
+
+    /**
+     * Envíos por minuto a cada proveedor, salvo los configurados en 'correo.limites-por-proveedor'
+     */
+    @Value("${correo.limite-por-minuto:600}")
+    private int limitePorMinuto;
+
+    /**
+     * Límites propios por proveedor (mapa SpEL), p. ej. {'gmail.com': 1200, 'outlook.com': 300}
+     */
+    @Value("#{${correo.limites-por-proveedor:{:}}}")
+    private Map<String, Integer> limitesPropios;
+
+    /**
+     * Espera antes de reintentar los correos que superaron el límite de su proveedor
+     */
+    @Value("${correo.espera-limite-segundos:30}")
+    private int esperaLimiteSegundos;
+
+    /**
+     * ✉️ Envía los correos pendientes de la bandeja de salida
+     * Cada 5 segundos tras terminar la ronda anterior (configurable con correo.intervalo-ms)
+     */
+    @Scheduled(fixedDelayString = "${correo.intervalo-ms:5000}")
+    public void despachar() {
+        if (!habilitado) {
+            return;
+        }
+        JavaMailSender mailSender = mailSenderProvider.getIfAvailable();
+        if (mailSender == null) {
+            log.warn("⚠️ Correo habilitado pero sin servidor SMTP configurado (spring.mail.host)");
+            return;
+        }
+
+        long limite = System.currentTimeMillis() + duracionMaximaMs;
+        int enviados = 0;
+        List<CorreoSalienteEntity> correos;
+        try (ExecutorService executor = Executors.newFixedThreadPool(conexiones, Thread.ofVirtual().name("correo-", 0).factory())) {
+            do {
+                correos = correosSalientes.reclamar(loteReclamo);
+                enviados += procesar(correos, mailSender, executor);
+            } while (correos.size() == loteReclamo && System.currentTimeMillis() < limite);
+        } catch (Exception e) {
+            log.error("❌ Error despachando correos: {}", e.getMessage(), e);
+        }
+
+        if (enviados > 0) {
+            log.info("✉️ {} correos enviados", enviados);
+        }
+    }
+
+    /**
+     * Aplica los límites por proveedor y envía los correos permitidos en lotes paralelos.
+     */
+    private int procesar(List<CorreoSalienteEntity> correos, JavaMailSender mailSender, ExecutorService executor) {
+        List<CorreoSalienteEntity> permitidos = new ArrayList<>(correos.size());
+        List<Long> pospuestos = new ArrayList<>();
+        for (CorreoSalienteEntity correo : correos) {
+            if (limiteDe(correo.getProveedor()).tryConsume(1)) {
+                permitidos.add(correo);
+            } else {
+                pospuestos.add(correo.getId());
+            }
+        }
+        if (!pospuestos.isEmpty()) {
+            correosSalientes.posponer(pospuestos, esperaLimiteSegundos);
+            log.debug("⏳ {} correos pospuestos por límite del proveedor", pospuestos.size());
+        }
+
+        List<Future<Integer>> resultados = new ArrayList<>();
+        for (int i = 0; i < permitidos.size(); i += loteSmtp) {
+            List<CorreoSalienteEntity> lote = permitidos.subList(i, Math.min(i + loteSmtp, permitidos.size()));
+            resultados.add(executor.submit(() -> enviarLote(lote, mailSender)));
+        }
+
+        int enviados = 0;
+        for (Future<Integer> resultado : resultados) {
+            try {
+                enviados += resultado.get();
+            } catch (ExecutionException e) {
+                log.error("❌ Error en lote de correos: {}", e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Despacho de correos interrumpido", e);
+            }
+        }
+        return enviados;
+    }
+
+    /**
+     * Envía el lote por una sola conexión SMTP y registra el resultado de cada correo.
+     */
+    private int enviarLote(List<CorreoSalienteEntity> lote, JavaMailSender mailSender) {
+        Map<MimeMessage, CorreoSalienteEntity> mensajes = new LinkedHashMap<>();
+        for (CorreoSalienteEntity correo : lote) {
+            try {
+                mensajes.put(construir(correo, mailSender), correo);
+            } catch (MessagingException | RuntimeException e) {
+                correosSalientes.fallar(correo, e, true);
+            }
+        }
+        if (mensajes.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            mailSender.send(mensajes.keySet().toArray(new MimeMessage[0]));
+            correosSalientes.marcarEnviados(mensajes.values().stream().map(CorreoSalienteEntity::getId).toList());
+            return mensajes.size();
+        } catch (MailSendException e) {
+            // Fallaron algunos mensajes (o la conexión, y con ella el resto del lote)
+            Map<Object, Exception> fallidos = e.getFailedMessages();
+            List<Long> enviados = new ArrayList<>();
+            mensajes.forEach((mensaje, correo) -> {
+                Exception error = fallidos.get(mensaje);
+                if (error == null) {
+                    enviados.add(correo.getId());
+                } else {
+                    correosSalientes.fallar(correo, error, esPermanente(error));
+                }
+            });
+            correosSalientes.marcarEnviados(enviados);
+            return enviados.size();
+        } catch (MailException e) {
+            // Autenticación u otro error del servidor: se reintenta el lote completo
+            if (e instanceof MailAuthenticationException) {
+                log.error("❌ El servidor SMTP rechazó las credenciales: {}", e.getMessage());
+            }
+            mensajes.values().forEach(correo -> correosSalientes.fallar(correo, e, false));
+            return 0;
+        }
+    }
+
+    private MimeMessage construir(CorreoSalienteEntity correo, JavaMailSender mailSender) throws MessagingException {
+        Context contexto = new Context(Locale.of("es"));
+        contexto.setVariable("titulo", correo.getAsunto());
+        contexto.setVariable("lineas", correo.getMensaje().split("\n"));
+        contexto.setVariable("tipo", correo.getTipo());
+        String html = templateEngine.process(PLANTILLA, contexto);
+
+        MimeMessage mensaje = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mensaje, true, StandardCharsets.UTF_8.name());
+        try {
+            helper.setFrom(remitente, nombreRemitente);
+        } catch (UnsupportedEncodingException e) {
+            helper.setFrom(remitente);
+        }
+        helper.setTo(correo.getDestinatario());
+        helper.setSubject(correo.getAsunto());
+        helper.setText(correo.getMensaje(), html);
+        return mensaje;
+    }
+
+    /**
+     * Dirección inválida o rechazada por el servidor: reintentar no cambia el resultado.
+     */
+    private boolean esPermanente(Throwable error) {
+        for (Throwable causa = error; causa != null; causa = causa.getCause()) {
+            if (causa instanceof AddressException) {
+                return true;
+            }
+            if (causa instanceof SendFailedException envio
+                    && envio.getInvalidAddresses() != null && envio.getInvalidAddresses().length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Bucket limiteDe(String proveedor) {
+        return limitesPorProveedor.computeIfAbsent(proveedor, clave -> {
+            int porMinuto = limitesPropios.getOrDefault(clave, limitePorMinuto);
+            return Bucket.builder()
+                    .addLimit(Bandwidth.classic(porMinuto, Refill.greedy(porMinuto, Duration.ofMinutes(1))))
+                    .build();
+        });
+    }
+}
@@ -0,0 +1,245 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+import com.controfinanciero.infrastructure.persistence.entity.EstadisticaCategoriaEntity;
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancieroEntity;
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoInusualEntity;
+import com.controfinanciero.infrastructure.persistence.repository.EstadisticaCategoriaJpaRepository;
+import com.controfinanciero.infrastructure.persistence.repository.MovimientoFinancieroJpaRepository;
+import com.controfinanciero.infrastructure.persistence.repository.MovimientoInusualJpaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * 🚨 Servicio de Detección de Anomalías
+ * Mantiene media y varianza de los gastos por (usuario, categoría) y evalúa cada gasto nuevo
+ * en O(1) contra las estadísticas de su categoría, en la misma transacción que lo guarda.
+ * Un gasto es inusual si supera la media en más de N desviaciones estándar; se marca en
+ * 'movement_anomalies' y, si es reciente, se notifica (MOVIMIENTO_INUSUAL).
+ * Las estadísticas usan Welford (media y varianza exactas) durante las primeras 1/alfa
+ * observaciones y luego una media móvil exponencial, para seguir cambios de hábito.
+ * Las modificaciones y bajas no se descuentan de las estadísticas (solo se quita la marca);
+ * reconstruirUsuario las recalcula desde el historial.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeteccionAnomaliasService {
+
+    private final EstadisticaCategoriaJpaRepository estadisticaRepository;
+    private final MovimientoInusualJpaRepository inusualRepository;
+    private final MovimientoFinancieroJpaRepository movimientoJpaRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Peso mínimo de cada gasto nuevo en la media móvil (0.05 ≈ últimos 20 gastos).
+     */
+    @Value("${anomalias.alfa-minimo:0.05}")
+    private double alfaMinimo;
+
+    /**
+     * Gastos previos de la categoría necesarios antes de marcar anomalías.
+     */
+    @Value("${anomalias.minimo-observaciones:5}")
+    private long minimoObservaciones;
+
+    @Value("${anomalias.desviaciones:2.0}")
+    private double desviaciones;
+
+    /**
+     * Solo se notifican gastos con fecha dentro de estos días (no el historial cargado tarde).
+     */
+    @Value("${anomalias.dias-notificacion:7}")
+    private int diasNotificacion;
+
+    /**
+     * Evalúa y registra un gasto nuevo. Otros tipos de movimiento se ignoran.
+     */
+    @Transactional
+    public void registrarGasto(MovimientoFinancieroEntity movimiento) {
+        if (movimiento.getMovementType() != TipoMovimiento.EXPENSE) {
+            return;
+        }
+        EstadisticaCategoriaEntity estadistica = estadisticaRepository.bloquear(
+                movimiento.getUserId(), categoria(movimiento));
+        evaluar(estadistica, movimiento);
+    }
+
+    /**
+     * Evalúa y registra un lote de movimientos nuevos: una fila bloqueada por (usuario, categoría),
+     * en orden de clave para que dos lotes concurrentes no se bloqueen mutuamente.
+     */
+    @Transactional
+    public void registrarLote(List<MovimientoFinancieroEntity> movimientos) {
+        Map<List<Long>, List<MovimientoFinancieroEntity>> porCategoria = new TreeMap<>(
+                Comparator.<List<Long>, Long>comparing(clave -> clave.get(0)).thenComparing(clave -> clave.get(1)));
+        for (MovimientoFinancieroEntity movimiento : movimientos) {
+            if (movimiento.getMovementType() == TipoMovimiento.EXPENSE) {
+                porCategoria.computeIfAbsent(List.of(movimiento.getUserId(), categoria(movimiento)),
+                        clave -> new ArrayList<>()).add(movimiento);
+            }
+        }
+
+        porCategoria.forEach((clave, gastos) -> {
+            EstadisticaCategoriaEntity estadistica = estadisticaRepository.bloquear(clave.get(0), clave.get(1));
+            gastos.sort(Comparator.comparing(MovimientoFinancieroEntity::getMovementDate)
+                    .thenComparing(MovimientoFinancieroEntity::getId));
+            for (MovimientoFinancieroEntity gasto : gastos) {
+                evaluar(estadistica, gasto);
+            }
+        });
+    }
+
+    /**
+     * Quita la marca de un movimiento modificado o eliminado.
+     */
+    @Transactional
+    public void descartar(Long movimientoId) {
+        inusualRepository.deleteByMovimientoId(movimientoId);
+    }
+
+    /**
+     * Marcas de gastos inusuales de un usuario en un rango de fechas (más recientes primero).
+     */
+    @Transactional(readOnly = true)
+    public List<MovimientoInusualEntity> findMarcas(Long usuarioId, LocalDate fechaInicio, LocalDate fechaFin) {
+        return inusualRepository.findByUsuarioIdAndFechaBetween(usuarioId, fechaInicio, fechaFin);
+    }
+
+    /**
+     * Recalcula estadísticas y marcas de un usuario recorriendo sus gastos en orden cronológico.
+     * No genera notificaciones. Devuelve la cantidad de gastos marcados.
+     */
+    @Transactional
+    public int reconstruirUsuario(Long usuarioId) {
+        inusualRepository.deleteByUsuarioId(usuarioId);
+        estadisticaRepository.deleteByUsuarioId(usuarioId);
+
+        Map<Long, EstadisticaCategoriaEntity> porCategoria = new HashMap<>();
+        List<MovimientoInusualEntity> marcas = new ArrayList<>();
+        try (Stream<MovimientoFinancieroEntity> gastos = movimientoJpaRepository
+                .streamByUserIdAndMovementTypeChronological(usuarioId, TipoMovimiento.EXPENSE)) {
+            gastos.forEach(gasto -> {
+                EstadisticaCategoriaEntity estadistica = porCategoria.computeIfAbsent(categoria(gasto), categoriaId -> {
+                    EstadisticaCategoriaEntity nueva = new EstadisticaCategoriaEntity();
+                    nueva.setUsuarioId(usuarioId);
+                    nueva.setCategoriaId(categoriaId);
+                    return nueva;
+                });
+                MovimientoInusualEntity marca = puntuar(estadistica, gasto);
+                if (marca != null) {
+                    marcas.add(marca);
+                }
+                observar(estadistica, gasto.getAmount().doubleValue());
+                entityManager.detach(gasto);
+            });
+        }
+
+        estadisticaRepository.saveAll(porCategoria.values());
+        marcas.forEach(entityManager::persist);
+        log.info("🔄 Estadísticas de gasto reconstruidas para usuario {}: {} categorías, {} gastos inusuales",
+                usuarioId, porCategoria.size(), marcas.size());
+        return marcas.size();
+    }
+
+    /**
+     * Reconstruye las estadísticas de todos los usuarios con gastos, una transacción por usuario.
+     */
+    public int reconstruirTodos() {
+        List<Long> usuarios = movimientoJpaRepository.findDistinctUserIdsByMovementType(TipoMovimiento.EXPENSE);
+        int marcados = 0;
+        for (Long usuarioId : usuarios) {
+            Integer marcadosUsuario = transactionTemplate.execute(status -> reconstruirUsuario(usuarioId));
+            marcados += marcadosUsuario != null ? marcadosUsuario : 0;
+        }
+        return marcados;
+    }
+
+    private void evaluar(EstadisticaCategoriaEntity estadistica, MovimientoFinancieroEntity gasto) {
+        MovimientoInusualEntity marca = puntuar(estadistica, gasto);
+        observar(estadistica, gasto.getAmount().doubleValue());
+
+        if (marca == null) {
+            return;
+        }
+        // El id es el del movimiento: persist evita el SELECT previo que haría save (merge)
+        entityManager.persist(marca);
+        log.info("🚨 Gasto inusual {} del usuario {}: ${} (media de la categoría ${})",
+                gasto.getId(), gasto.getUserId(), gasto.getAmount(), marca.getMedia());
+
+        if (!gasto.getMovementDate().isBefore(LocalDate.now().minusDays(diasNotificacion))) {
+            notificationService.alertarMovimientoInusual(
+                    gasto.getUserId(),
+                    gasto.getDescription(),
+                    gasto.getAmount().doubleValue(),
+                    String.format("Supera el gasto habitual de su categoría ($%.2f en promedio)", marca.getMedia())
+            );
+        }
+    }
+
+    /**
+     * Marca el gasto si supera media + N desviaciones de las observaciones previas; null si es normal.
+     */
+    private MovimientoInusualEntity puntuar(EstadisticaCategoriaEntity estadistica, MovimientoFinancieroEntity gasto) {
+        if (estadistica.getCantidad() < minimoObservaciones) {
+            return null;
+        }
+        double monto = gasto.getAmount().doubleValue();
+        double desviacion = Math.sqrt(estadistica.getVarianza());
+        double umbral = estadistica.getMedia() + desviaciones * desviacion;
+        if (monto <= umbral) {
+            return null;
+        }
+
+        MovimientoInusualEntity marca = new MovimientoInusualEntity();
+        marca.setMovimientoId(gasto.getId());
+        marca.setUsuarioId(gasto.getUserId());
+        marca.setCategoriaId(estadistica.getCategoriaId());
+        marca.setFechaMovimiento(gasto.getMovementDate());
+        marca.setMonto(gasto.getAmount());
+        marca.setMedia(BigDecimal.valueOf(estadistica.getMedia()).setScale(2, RoundingMode.HALF_UP));
+        marca.setUmbral(BigDecimal.valueOf(umbral).setScale(2, RoundingMode.HALF_UP));
+        marca.setPuntaje(desviacion > 0 ? (monto - estadistica.getMedia()) / desviacion : null);
+        return marca;
+    }
+
+    /**
+     * Actualización incremental de media y varianza poblacional. Con alfa = 1/n coincide con
+     * Welford; a partir de n = 1/alfaMinimo cada gasto pesa alfaMinimo (media móvil exponencial).
+     */
+    private void observar(EstadisticaCategoriaEntity estadistica, double monto) {
+        long n = estadistica.getCantidad() + 1;
+        double alfa = Math.max(1.0 / n, alfaMinimo);
+        double diferencia = monto - estadistica.getMedia();
+        double incremento = alfa * diferencia;
+
+        estadistica.setMedia(estadistica.getMedia() + incremento);
+        estadistica.setVarianza((1 - alfa) * (estadistica.getVarianza() + diferencia * incremento));
+        estadistica.setCantidad(n);
+    }
+
+    private static Long categoria(MovimientoFinancieroEntity movimiento) {
+        return movimiento.getCategoryId() != null ? movimiento.getCategoryId() : EstadisticaCategoriaEntity.SIN_CATEGORIA;
+    }
+}
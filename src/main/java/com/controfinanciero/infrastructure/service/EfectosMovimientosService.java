@@ -0,0 +1,103 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.domain.event.MovimientoCreado;
+import com.controfinanciero.domain.event.MovimientoEliminado;
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancieroEntity;
+import com.controfinanciero.infrastructure.persistence.event.MovimientoBorrado;
+import com.controfinanciero.infrastructure.persistence.event.MovimientoModificado;
+import com.controfinanciero.infrastructure.persistence.event.MovimientosImportados;
+import com.controfinanciero.infrastructure.persistence.event.MovimientosInsertados;
+import com.controfinanciero.infrastructure.persistence.event.ResumenMensualReconstruido;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * 🔗 Efectos de los cambios de movimientos
+ * MovimientoFinancieroRepositoryAdapter solo mapea y persiste (movimientos y resumen mensual) y
+ * publica qué cambió; aquí se aplica el resto en la misma transacción, justo antes de confirmarla
+ * (BEFORE_COMMIT: si un efecto falla, la transacción completa hace rollback, igual que antes):
+ * - gasto de los presupuestos afectados (BudgetMonitorService),
+ * - estadísticas y marcas de gastos inusuales (DeteccionAnomaliasService),
+ * - invalidación de los análisis cacheados del usuario (CacheAnalisisService),
+ * - eventos de dominio MovimientoCreado / MovimientoEliminado, que EventosMovimientoService
+ *   entrega fuera de la petición una vez confirmada la transacción.
+ * Los cambios se procesan en el orden en que se publicaron.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EfectosMovimientosService {
+
+    private final BudgetMonitorService budgetMonitor;
+    private final DeteccionAnomaliasService deteccionAnomalias;
+    private final CacheAnalisisService cacheAnalisis;
+    private final EventosMovimientoService eventos;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void alInsertar(MovimientosInsertados cambio) {
+        List<MovimientoFinancieroEntity> movimientos = cambio.movimientos();
+        budgetMonitor.aplicarGastos(movimientos, 1);
+        deteccionAnomalias.registrarLote(movimientos);
+        eventos.publicar(movimientos.stream().map(EfectosMovimientosService::creado).toList());
+        movimientos.stream()
+                .map(MovimientoFinancieroEntity::getUserId)
+                .distinct()
+                .forEach(cacheAnalisis::invalidarUsuario);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void alModificar(MovimientoModificado cambio) {
+        MovimientoFinancieroEntity actual = cambio.actual();
+        // En una edición el presupuesto recibe solo el delta neto (sin alertas repetidas)
+        if (cambio.anterior() != null) {
+            budgetMonitor.aplicarEdicion(cambio.anterior(), actual);
+        } else {
+            budgetMonitor.aplicarGastos(List.of(actual), 1);
+        }
+        deteccionAnomalias.descartar(actual.getId());
+        cacheAnalisis.invalidarUsuario(actual.getUserId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void alBorrar(MovimientoBorrado cambio) {
+        MovimientoFinancieroEntity movimiento = cambio.movimiento();
+        budgetMonitor.aplicarGastos(List.of(movimiento), -1);
+        deteccionAnomalias.descartar(movimiento.getId());
+        cacheAnalisis.invalidarUsuario(movimiento.getUserId());
+        eventos.publicar(new MovimientoEliminado(movimiento.getId(), movimiento.getUserId(),
+                movimiento.getMovementType(), movimiento.getAmount(), movimiento.getCategoryId(),
+                movimiento.getGoalId(), movimiento.getMovementDate()));
+    }
+
+    /**
+     * La importación no hidrata entidades: las estadísticas de gasto se recalculan del historial
+     * y el gasto de los presupuestos, del resumen mensual (sin alertas por movimientos históricos).
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void alImportar(MovimientosImportados cambio) {
+        deteccionAnomalias.reconstruirUsuario(cambio.usuarioId());
+        budgetMonitor.recalcularUsuario(cambio.usuarioId());
+        cacheAnalisis.invalidarUsuario(cambio.usuarioId());
+        log.debug("🔗 Efectos de {} movimientos importados aplicados al usuario {}",
+                cambio.cantidad(), cambio.usuarioId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void alReconstruirResumen(ResumenMensualReconstruido cambio) {
+        if (cambio.usuarioId() != null) {
+            budgetMonitor.recalcularUsuario(cambio.usuarioId());
+        } else {
+            budgetMonitor.recalcularTodos();
+        }
+    }
+
+    private static MovimientoCreado creado(MovimientoFinancieroEntity entity) {
+        return new MovimientoCreado(entity.getId(), entity.getUserId(), entity.getMovementType(),
+                entity.getAmount(), entity.getCategoryId(), entity.getGoalId(), entity.getMovementDate());
+    }
+}
@@ -0,0 +1,124 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.domain.event.EventoMovimiento;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 📣 Publicador de eventos de movimientos
+ * Los efectos secundarios de un movimiento (racha, redondeo, progreso de metas) salen de la
+ * petición: EfectosMovimientosService publica MovimientoCreado / MovimientoEliminado y este
+ * servicio los entrega cuando la transacción se confirma (un rollback no genera eventos).
+ * - Se entregan en 'eventos.carriles' hilos virtuales; los eventos de un usuario van siempre
+ *   al mismo carril, en orden, así que sus efectos nunca corren en paralelo.
+ * - Cada carril tiene una cola acotada ('eventos.capacidad'); si se llena, el evento se entrega
+ *   en el hilo que confirmó (contrapresión en lugar de descartar eventos).
+ * Los suscriptores son @EventListener de EventoMovimiento (SuscriptoresMovimientosService) y
+ * deben ser idempotentes. Los eventos viven en memoria: si el nodo cae antes de entregarlos,
+ * se pierden esos efectos secundarios, no el movimiento.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventosMovimientoService {
+
+    private final ApplicationEventPublisher publicador;
+
+    /**
+     * Hilos de entrega; cada efecto usa una conexión del pool primario mientras corre
+     */
+    @Value("${eventos.carriles:2}")
+    private int carriles;
+
+    /**
+     * Lotes de eventos en espera por carril
+     */
+    @Value("${eventos.capacidad:1000}")
+    private int capacidad;
+
+    private ThreadPoolExecutor[] ejecutores;
+
+    @PostConstruct
+    void iniciar() {
+        ejecutores = new ThreadPoolExecutor[carriles];
+        for (int i = 0; i < carriles; i++) {
+            ejecutores[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(capacidad),
+                    Thread.ofVirtual().name("eventos-" + i + "-", 0).factory(),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+    }
+
+    /**
+     * Entrega los eventos pendientes antes de cerrar (hasta 10 segundos).
+     */
+    @PreDestroy
+    void detener() throws InterruptedException {
+        for (ThreadPoolExecutor ejecutor : ejecutores) {
+            ejecutor.shutdown();
+        }
+        for (ThreadPoolExecutor ejecutor : ejecutores) {
+            if (!ejecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("⚠️ {} lotes de eventos sin entregar al cerrar", ejecutor.getQueue().size());
+            }
+        }
+    }
+
+    public void publicar(EventoMovimiento evento) {
+        publicar(List.of(evento));
+    }
+
+    /**
+     * Publica los eventos al confirmarse la transacción actual (o en el momento si no hay).
+     */
+    public void publicar(List<? extends EventoMovimiento> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    despachar(eventos);
+                }
+            });
+        } else {
+            despachar(eventos);
+        }
+    }
+
+    private void despachar(List<? extends EventoMovimiento> eventos) {
+        Map<Long, List<EventoMovimiento>> porUsuario = new LinkedHashMap<>();
+        for (EventoMovimiento evento : eventos) {
+            porUsuario.computeIfAbsent(evento.usuarioId(), id -> new ArrayList<>()).add(evento);
+        }
+        porUsuario.forEach((usuarioId, delUsuario) ->
+                ejecutores[Math.floorMod(usuarioId, carriles)].execute(() -> entregar(delUsuario)));
+    }
+
+    private void entregar(List<EventoMovimiento> eventos) {
+        for (EventoMovimiento evento : eventos) {
+            try {
+                publicador.publishEvent(evento);
+            } catch (RuntimeException e) {
+                log.error("❌ Error entregando {} del movimiento #{}: {}",
+                        evento.getClass().getSimpleName(), evento.movimientoId(), e.getMessage(), e);
+            }
+        }
+    }
+}
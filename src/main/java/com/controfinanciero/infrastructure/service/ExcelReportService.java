@@ -3,15 +3,18 @@ package com.controfinanciero.infrastructure.service;
 import com.controfinanciero.domain.model.Categoria;
 import com.controfinanciero.domain.model.MovimientoFinanciero;
 import com.controfinanciero.domain.model.Usuario;
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
 import com.controfinanciero.domain.repository.CategoriaRepository;
 import com.controfinanciero.domain.repository.MovimientoFinancieroRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -20,25 +23,44 @@ import java.util.Map;
 
 /**
  * 📊 Servicio de Generación de Excel
- * Exporta datos a hojas de cálculo
+ * Exporta datos a hojas de cálculo en modo streaming (SXSSF):
+ * solo una ventana de filas vive en memoria, el resto se vuelca a disco temporal.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ExcelReportService {
 
+    /**
+     * Filas que SXSSF mantiene en memoria antes de volcarlas al archivo temporal.
+     */
+    private static final int VENTANA_FILAS = 100;
+
+    private static final String[] HEADERS = {"Fecha", "Tipo", "Categoría", "Descripción", "Monto", "Notas"};
+
+    /**
+     * Anchos fijos por columna (en caracteres): autoSizeColumn recorrería todas las filas.
+     */
+    private static final int[] ANCHOS_COLUMNAS = {12, 12, 22, 45, 18, 40};
+
     private final MovimientoFinancieroRepository movimientoRepo;
     private final CategoriaRepository categoriaRepo;
 
     /**
-     * Genera un archivo Excel con los movimientos del periodo
+     * Escribe directamente en el OutputStream un archivo Excel con los movimientos del periodo.
+     * El consumo de memoria es constante sin importar la cantidad de movimientos.
      */
-    public byte[] generarReporteExcel(Usuario usuario, LocalDate fechaInicio, LocalDate fechaFin) {
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+    public void escribirReporteExcel(Usuario usuario, LocalDate fechaInicio, LocalDate fechaFin,
+                                     OutputStream outputStream) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(VENTANA_FILAS);
+        workbook.setCompressTempFiles(true);
 
+        try {
             // Hoja de Movimientos
-            Sheet sheet = workbook.createSheet("Movimientos");
+            SXSSFSheet sheet = workbook.createSheet("Movimientos");
+            for (int i = 0; i < ANCHOS_COLUMNAS.length; i++) {
+                sheet.setColumnWidth(i, ANCHOS_COLUMNAS[i] * 256);
+            }
 
             // Estilos
             CellStyle headerStyle = createHeaderStyle(workbook);
@@ -46,18 +68,12 @@ public class ExcelReportService {
 
             // Encabezado
             Row headerRow = sheet.createRow(0);
-            String[] headers = {"Fecha", "Tipo", "Categoría", "Descripción", "Monto", "Notas"};
-            for (int i = 0; i < headers.length; i++) {
+            for (int i = 0; i < HEADERS.length; i++) {
                 Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
+                cell.setCellValue(HEADERS[i]);
                 cell.setCellStyle(headerStyle);
             }
 
-            // Obtener datos
-            List<MovimientoFinanciero> movimientos = movimientoRepo
-                    .findByUsuarioIdAndFechaMovimientoBetween(
-                            usuario.getId(), fechaInicio, fechaFin);
-
             // Obtener categorías para mapeo
             List<Categoria> categorias = categoriaRepo.findByUsuarioId(usuario.getId());
             Map<Long, String> categoriasMap = new HashMap<>();
@@ -65,72 +81,82 @@ public class ExcelReportService {
                 categoriasMap.put(cat.getId(), cat.getNombre());
             }
 
-            // Llenar datos
-            int rowNum = 1;
-            BigDecimal totalIngresos = BigDecimal.ZERO;
-            BigDecimal totalGastos = BigDecimal.ZERO;
+            // Llenar datos fila por fila desde la base de datos
+            ExportacionEnCurso exportacion = new ExportacionEnCurso(sheet, currencyStyle, categoriasMap);
+            movimientoRepo.recorrerByUsuarioIdAndFechaBetween(
+                    usuario.getId(), fechaInicio, fechaFin, exportacion::agregar);
 
-            for (MovimientoFinanciero movimiento : movimientos) {
-                Row row = sheet.createRow(rowNum++);
-
-                row.createCell(0).setCellValue(movimiento.getFechaMovimiento().toString());
-                row.createCell(1).setCellValue(movimiento.getTipoMovimiento().name());
+            // Fila de totales
+            int rowNum = exportacion.rowNum + 1;
+            escribirTotal(sheet.createRow(rowNum++), "TOTAL INGRESOS:", exportacion.totalIngresos, currencyStyle);
+            escribirTotal(sheet.createRow(rowNum++), "TOTAL GASTOS:", exportacion.totalGastos, currencyStyle);
+            escribirTotal(sheet.createRow(rowNum), "BALANCE:",
+                    exportacion.totalIngresos.subtract(exportacion.totalGastos), currencyStyle);
+
+            workbook.write(outputStream);
+            outputStream.flush();
+
+            log.info("✅ Excel generado exitosamente para usuario #{} ({} movimientos)",
+                    usuario.getId(), exportacion.rowNum - 1);
+
+        } catch (IOException e) {
+            log.error("❌ Error al escribir Excel para usuario #{}: {}", usuario.getId(), e.getMessage(), e);
+            throw e;
+        } finally {
+            // Elimina los archivos temporales de SXSSF
+            workbook.dispose();
+            workbook.close();
+        }
+    }
 
-                String categoriaNombre = movimiento.getCategoriaId() != null
-                        ? categoriasMap.getOrDefault(movimiento.getCategoriaId(), "Sin categoría")
-                        : "Sin categoría";
-                row.createCell(2).setCellValue(categoriaNombre);
-                row.createCell(3).setCellValue(movimiento.getDescripcion());
+    private void escribirTotal(Row row, String etiqueta, BigDecimal valor, CellStyle currencyStyle) {
+        row.createCell(3).setCellValue(etiqueta);
+        Cell cell = row.createCell(4);
+        cell.setCellValue(valor.doubleValue());
+        cell.setCellStyle(currencyStyle);
+    }
 
-                Cell montoCell = row.createCell(4);
-                montoCell.setCellValue(movimiento.getMonto().doubleValue());
-                montoCell.setCellStyle(currencyStyle);
+    /**
+     * Estado de una exportación: siguiente fila y totales acumulados.
+     */
+    private static final class ExportacionEnCurso {
+        private final Sheet sheet;
+        private final CellStyle currencyStyle;
+        private final Map<Long, String> categoriasMap;
+        private int rowNum = 1;
+        private BigDecimal totalIngresos = BigDecimal.ZERO;
+        private BigDecimal totalGastos = BigDecimal.ZERO;
+
+        private ExportacionEnCurso(Sheet sheet, CellStyle currencyStyle, Map<Long, String> categoriasMap) {
+            this.sheet = sheet;
+            this.currencyStyle = currencyStyle;
+            this.categoriasMap = categoriasMap;
+        }
 
-                row.createCell(5).setCellValue(movimiento.getNotas() != null ? movimiento.getNotas() : "");
+        private void agregar(MovimientoFinanciero movimiento) {
+            Row row = sheet.createRow(rowNum++);
 
-                // Acumular totales
-                if (movimiento.getTipoMovimiento().name().equals("INCOME")) {
-                    totalIngresos = totalIngresos.add(movimiento.getMonto());
-                } else if (movimiento.getTipoMovimiento().name().equals("EXPENSE")) {
-                    totalGastos = totalGastos.add(movimiento.getMonto());
-                }
-            }
+            row.createCell(0).setCellValue(movimiento.getFechaMovimiento().toString());
+            row.createCell(1).setCellValue(movimiento.getTipoMovimiento().name());
 
-            // Fila de totales
-            rowNum++;
-            Row totalRow = sheet.createRow(rowNum);
-            totalRow.createCell(3).setCellValue("TOTAL INGRESOS:");
-            Cell totalIngresosCell = totalRow.createCell(4);
-            totalIngresosCell.setCellValue(totalIngresos.doubleValue());
-            totalIngresosCell.setCellStyle(currencyStyle);
-
-            rowNum++;
-            Row totalGastosRow = sheet.createRow(rowNum);
-            totalGastosRow.createCell(3).setCellValue("TOTAL GASTOS:");
-            Cell totalGastosCell = totalGastosRow.createCell(4);
-            totalGastosCell.setCellValue(totalGastos.doubleValue());
-            totalGastosCell.setCellStyle(currencyStyle);
-
-            rowNum++;
-            Row balanceRow = sheet.createRow(rowNum);
-            balanceRow.createCell(3).setCellValue("BALANCE:");
-            Cell balanceCell = balanceRow.createCell(4);
-            balanceCell.setCellValue(totalIngresos.subtract(totalGastos).doubleValue());
-            balanceCell.setCellStyle(currencyStyle);
-
-            // Ajustar anchos de columna
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
+            String categoriaNombre = movimiento.getCategoriaId() != null
+                    ? categoriasMap.getOrDefault(movimiento.getCategoriaId(), "Sin categoría")
+                    : "Sin categoría";
+            row.createCell(2).setCellValue(categoriaNombre);
+            row.createCell(3).setCellValue(movimiento.getDescripcion());
 
-            workbook.write(baos);
+            Cell montoCell = row.createCell(4);
+            montoCell.setCellValue(movimiento.getMonto().doubleValue());
+            montoCell.setCellStyle(currencyStyle);
 
-            log.info("✅ Excel generado exitosamente para usuario #{}", usuario.getId());
-            return baos.toByteArray();
+            row.createCell(5).setCellValue(movimiento.getNotas() != null ? movimiento.getNotas() : "");
 
-        } catch (Exception e) {
-            log.error("❌ Error al generar Excel para usuario #{}: {}", usuario.getId(), e.getMessage(), e);
-            throw new RuntimeException("Error al generar Excel", e);
+            // Acumular totales
+            if (movimiento.getTipoMovimiento() == TipoMovimiento.INCOME) {
+                totalIngresos = totalIngresos.add(movimiento.getMonto());
+            } else if (movimiento.getTipoMovimiento() == TipoMovimiento.EXPENSE) {
+                totalGastos = totalGastos.add(movimiento.getMonto());
+            }
         }
     }
 
@@ -0,0 +1,30 @@
+package com.controfinanciero.infrastructure.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Fila leída de un extracto bancario.
+ * El monto conserva el signo del banco: negativo = gasto, positivo = ingreso.
+ * Si la fila no pudo interpretarse, 'error' describe el motivo y el resto puede ser null.
+ */
+record FilaExtracto(
+        long linea,
+        LocalDate fecha,
+        BigDecimal monto,
+        String descripcion,
+        String error
+) {
+
+    static FilaExtracto valida(long linea, LocalDate fecha, BigDecimal monto, String descripcion) {
+        return new FilaExtracto(linea, fecha, monto, descripcion, null);
+    }
+
+    static FilaExtracto invalida(long linea, String error) {
+        return new FilaExtracto(linea, null, null, null, error);
+    }
+
+    boolean esValida() {
+        return error == null;
+    }
+}
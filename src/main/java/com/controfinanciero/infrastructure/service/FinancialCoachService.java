@@ -5,12 +5,16 @@ import com.controfinanciero.domain.model.enums.TipoMovimiento;
 import com.controfinanciero.domain.repository.MetaFinancieraRepository;
 import com.controfinanciero.domain.repository.MovimientoFinancieroRepository;
 import com.controfinanciero.domain.repository.PresupuestoRepository;
+import com.controfinanciero.domain.service.KernelMovimientos;
+import com.controfinanciero.domain.service.MovimientoColumns;
+import com.controfinanciero.domain.valueobject.TotalAgrupadoMovimientos;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +29,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class FinancialCoachService {
 
+    private static final byte GASTO = MovimientoColumns.codigo(TipoMovimiento.EXPENSE);
+
     private final MovimientoFinancieroRepository movimientoRepository;
     private final PresupuestoRepository presupuestoRepository;
     private final MetaFinancieraRepository metaRepository;
@@ -39,11 +45,14 @@ public class FinancialCoachService {
                 .findByUsuarioIdAndFechaMovimientoBetweenOrderByFechaMovimientoDesc(
                         usuarioId, hace30Dias, LocalDate.now());
 
-        // Analizar patrones
-        String consejo = analizarPatronesYGenerarConsejo(usuarioId, movimientos);
-        String categoria = determinarCategoria(movimientos);
-        double impacto = calcularImpacto(movimientos);
-        double ahorroPotencial = calcularAhorroPotencial(movimientos);
+        // Analizar patrones sobre una sola representación columnar
+        MovimientoColumns columnas = MovimientoColumns.desde(movimientos);
+        long[] gastosPorCategoria = KernelMovimientos.conteoPorCategoria(columnas, GASTO);
+
+        String consejo = analizarPatronesYGenerarConsejo(columnas, gastosPorCategoria);
+        String categoria = determinarCategoria(columnas, gastosPorCategoria);
+        double impacto = calcularImpacto(columnas);
+        double ahorroPotencial = calcularAhorroPotencial(columnas);
 
         return new ConsejoDelDia(
                 consejo,
@@ -59,35 +68,31 @@ public class FinancialCoachService {
      */
     public AnalisisHabitos analizarHabitos(Long usuarioId) {
         LocalDate hace90Dias = LocalDate.now().minusDays(90);
-        List<MovimientoFinanciero> movimientos = movimientoRepository
-                .findByUsuarioIdAndFechaMovimientoBetweenOrderByFechaMovimientoDesc(
-                        usuarioId, hace90Dias, LocalDate.now());
-
-        // Separar por tipo
-        var gastos = movimientos.stream()
-                .filter(m -> m.getTipoMovimiento() == TipoMovimiento.EXPENSE)
-                .collect(Collectors.toList());
+        YearMonth mesActual = YearMonth.now();
 
-        var ingresos = movimientos.stream()
-                .filter(m -> m.getTipoMovimiento().esIngreso())
-                .collect(Collectors.toList());
+        // Totales de los últimos 3 meses desde el resumen mensual precalculado
+        List<TotalAgrupadoMovimientos> resumen = movimientoRepository
+                .findResumenMensualByUsuarioIdAndMesBetween(usuarioId, mesActual.minusMonths(2), mesActual);
 
         // Calcular totales
-        BigDecimal totalGastos = gastos.stream()
-                .map(MovimientoFinanciero::getMonto)
+        BigDecimal totalGastos = resumen.stream()
+                .filter(t -> t.tipoMovimiento() == TipoMovimiento.EXPENSE)
+                .map(TotalAgrupadoMovimientos::total)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        BigDecimal totalIngresos = ingresos.stream()
-                .map(MovimientoFinanciero::getMonto)
+        BigDecimal totalIngresos = resumen.stream()
+                .filter(t -> t.tipoMovimiento().esIngreso())
+                .map(TotalAgrupadoMovimientos::total)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         // Análisis por categoría
-        Map<Long, BigDecimal> gastosPorCategoria = gastos.stream()
-                .filter(g -> g.getCategoriaId() != null)
+        Map<Long, BigDecimal> gastosPorCategoria = resumen.stream()
+                .filter(t -> t.tipoMovimiento() == TipoMovimiento.EXPENSE)
+                .filter(TotalAgrupadoMovimientos::tieneCategoria)
                 .collect(Collectors.groupingBy(
-                        MovimientoFinanciero::getCategoriaId,
+                        TotalAgrupadoMovimientos::categoriaId,
                         Collectors.reducing(BigDecimal.ZERO,
-                                MovimientoFinanciero::getMonto,
+                                TotalAgrupadoMovimientos::total,
                                 BigDecimal::add)
                 ));
 
@@ -116,10 +121,8 @@ public class FinancialCoachService {
         }
 
         // Frecuencia de registro
-        int diasConMovimientos = (int) movimientos.stream()
-                .map(MovimientoFinanciero::getFechaMovimiento)
-                .distinct()
-                .count();
+        int diasConMovimientos = (int) movimientoRepository
+                .countDiasConMovimientosByUsuarioIdAndFechaBetween(usuarioId, hace90Dias, LocalDate.now());
 
         if (diasConMovimientos < 30) {
             insights.add("📝 Has registrado movimientos solo " + diasConMovimientos + " días en los últimos 90. La constancia mejora el control.");
@@ -138,81 +141,66 @@ public class FinancialCoachService {
 
     // Métodos auxiliares
 
-    private String analizarPatronesYGenerarConsejo(Long usuarioId, List<MovimientoFinanciero> movimientos) {
-        if (movimientos.isEmpty()) {
+    private String analizarPatronesYGenerarConsejo(MovimientoColumns columnas, long[] gastosPorCategoria) {
+        if (columnas.filas() == 0) {
             return "👋 ¡Comienza registrando tus movimientos diarios para obtener consejos personalizados!";
         }
 
         // Análisis de gastos recientes
-        var gastos = movimientos.stream()
-                .filter(m -> m.getTipoMovimiento() == TipoMovimiento.EXPENSE)
-                .collect(Collectors.toList());
-
-        if (gastos.isEmpty()) {
+        if (!tieneGastos(columnas)) {
             return "💡 No olvides registrar tus gastos diarios para mantener el control de tus finanzas.";
         }
 
         // Detectar categoría con más gastos
-        Map<Long, Long> frecuenciaPorCategoria = gastos.stream()
-                .filter(g -> g.getCategoriaId() != null)
-                .collect(Collectors.groupingBy(
-                        MovimientoFinanciero::getCategoriaId,
-                        Collectors.counting()
-                ));
-
-        if (!frecuenciaPorCategoria.isEmpty()) {
-            var categoriaTop = frecuenciaPorCategoria.entrySet().stream()
-                    .max(Map.Entry.comparingByValue())
-                    .get();
-
+        int categoriaTop = KernelMovimientos.indiceMaximo(columnas, gastosPorCategoria);
+        if (categoriaTop != MovimientoColumns.SIN_INDICE_CATEGORIA) {
             return String.format("💰 Has realizado %d gastos en una categoría este mes. Considera establecer un presupuesto para controlar mejor estos gastos.",
-                    categoriaTop.getValue());
+                    gastosPorCategoria[categoriaTop]);
         }
 
         return "✅ Mantén el buen trabajo registrando tus movimientos. La disciplina es clave para el éxito financiero.";
     }
 
-    private String determinarCategoria(List<MovimientoFinanciero> movimientos) {
-        var gastos = movimientos.stream()
-                .filter(m -> m.getTipoMovimiento() == TipoMovimiento.EXPENSE && m.getCategoriaId() != null)
-                .collect(Collectors.toList());
-
-        if (gastos.isEmpty()) return "General";
+    private String determinarCategoria(MovimientoColumns columnas, long[] gastosPorCategoria) {
+        int categoriaFrecuente = KernelMovimientos.indiceMaximo(columnas, gastosPorCategoria);
+        if (categoriaFrecuente == MovimientoColumns.SIN_INDICE_CATEGORIA) return "General";
 
-        var categoriaFrecuente = gastos.stream()
-                .collect(Collectors.groupingBy(
-                        MovimientoFinanciero::getCategoriaId,
-                        Collectors.counting()
-                ))
-                .entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(e -> "Categoría #" + e.getKey())
-                .orElse("General");
-
-        return categoriaFrecuente;
+        return "Categoría #" + columnas.categoriaId(categoriaFrecuente);
     }
 
-    private double calcularImpacto(List<MovimientoFinanciero> movimientos) {
-        return movimientos.stream()
-                .filter(m -> m.getTipoMovimiento() == TipoMovimiento.EXPENSE)
-                .map(MovimientoFinanciero::getMonto)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .doubleValue();
+    private double calcularImpacto(MovimientoColumns columnas) {
+        return KernelMovimientos.totalesPorTipo(columnas)[GASTO].total().doubleValue();
     }
 
-    private double calcularAhorroPotencial(List<MovimientoFinanciero> movimientos) {
+    private double calcularAhorroPotencial(MovimientoColumns columnas) {
         // Identificar gastos no esenciales (simplificado)
-        long gastosNoEsenciales = movimientos.stream()
-                .filter(m -> m.getTipoMovimiento() == TipoMovimiento.EXPENSE)
-                .filter(m -> m.getDescripcion() != null &&
-                        (m.getDescripcion().toLowerCase().contains("entret") ||
-                         m.getDescripcion().toLowerCase().contains("restaur") ||
-                         m.getDescripcion().toLowerCase().contains("comida")))
-                .count();
+        long gastosNoEsenciales = 0;
+        for (int fila = 0; fila < columnas.filas(); fila++) {
+            if (columnas.tipo(fila) == GASTO && esNoEsencial(columnas.movimiento(fila).getDescripcion())) {
+                gastosNoEsenciales++;
+            }
+        }
 
         return gastosNoEsenciales * 100.0; // Estimación simple
     }
 
+    private boolean tieneGastos(MovimientoColumns columnas) {
+        for (int fila = 0; fila < columnas.filas(); fila++) {
+            if (columnas.tipo(fila) == GASTO) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean esNoEsencial(String descripcion) {
+        if (descripcion == null) {
+            return false;
+        }
+        String texto = descripcion.toLowerCase();
+        return texto.contains("entret") || texto.contains("restaur") || texto.contains("comida");
+    }
+
     private String generarAccionSugerida(String categoria, double ahorroPotencial) {
         if (ahorroPotencial > 500) {
             return "Reduce gastos en " + categoria + " y podrías ahorrar $" + String.format("%.0f", ahorroPotencial) + " este mes";
@@ -1,7 +1,9 @@
 package com.controfinanciero.infrastructure.service;
 
 import com.controfinanciero.domain.model.MovimientoFinanciero;
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
 import com.controfinanciero.domain.repository.MovimientoFinancieroRepository;
+import com.controfinanciero.domain.valueobject.TotalAgrupadoMovimientos;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -9,9 +11,15 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * 🧠 Servicio de Inteligencia Financiera
@@ -23,54 +31,121 @@ import java.util.Map;
 public class FinancialIntelligenceService {
 
     private final MovimientoFinancieroRepository movimientoRepo;
+    private final PronosticoService pronosticoService;
 
     /**
      * 📈 Predice el gasto probable del mes actual basado en historial
      */
     public Map<String, Object> predecirGastosMesActual(Long usuarioId) {
         log.info("🧠 Generando predicción de gastos para usuario #{}", usuarioId);
+        LocalDate hoy = LocalDate.now();
+        return calcularPrediccion(cargarResumenPrediccion(usuarioId, hoy), pronosticoService.obtener(usuarioId), hoy);
+    }
 
+    /**
+     * 🚨 Movimientos anómalos de los últimos 3 meses (gastos inusualmente altos para su categoría).
+     * Se marcan al registrarse (DeteccionAnomaliasService); aquí solo se leen.
+     */
+    public List<MovimientoFinanciero> detectarAnomalias(Long usuarioId) {
+        log.info("🚨 Detectando anomalías para usuario #{}", usuarioId);
+        return cargarAnomalias(usuarioId, LocalDate.now());
+    }
+
+    /**
+     * 💡 Genera recomendaciones personalizadas
+     */
+    public List<String> generarRecomendaciones(Long usuarioId) {
+        return generarSnapshot(usuarioId).recomendaciones();
+    }
+
+    /**
+     * 📸 Snapshot financiero del usuario: predicción, anomalías y recomendaciones.
+     * Cada ventana de datos se carga una sola vez; las dos cargas son independientes y
+     * corren en paralelo en hilos virtuales, así que la latencia es la de la más lenta.
+     * Las recomendaciones se derivan de la predicción y las anomalías ya calculadas.
+     */
+    public SnapshotFinanciero generarSnapshot(Long usuarioId) {
+        log.info("📸 Generando snapshot financiero para usuario #{}", usuarioId);
         LocalDate hoy = LocalDate.now();
-        LocalDate inicioMesActual = hoy.withDayOfMonth(1);
 
-        // Obtener gastos de los últimos 6 meses
-        LocalDate hace6Meses = hoy.minusMonths(6);
-        List<MovimientoFinanciero> movimientosHistoricos = movimientoRepo
-                .findByUsuarioIdAndFechaMovimientoBetweenOrderByFechaMovimientoDesc(
-                        usuarioId, hace6Meses, hoy);
+        Map<String, Object> prediccion;
+        List<MovimientoFinanciero> anomalias;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<Map<String, Object>> prediccionFutura = CompletableFuture.supplyAsync(
+                    () -> calcularPrediccion(cargarResumenPrediccion(usuarioId, hoy),
+                            pronosticoService.obtener(usuarioId), hoy), executor);
+            CompletableFuture<List<MovimientoFinanciero>> anomaliasFuturas = CompletableFuture.supplyAsync(
+                    () -> cargarAnomalias(usuarioId, hoy), executor);
+
+            prediccion = esperar(prediccionFutura);
+            anomalias = esperar(anomaliasFuturas);
+        }
+
+        List<String> recomendaciones = construirRecomendaciones(prediccion, anomalias);
+        log.info("💡 {} recomendaciones generadas", recomendaciones.size());
+
+        return new SnapshotFinanciero(prediccion, anomalias, recomendaciones);
+    }
+
+    /**
+     * Gastos de los últimos 6 meses completos y del mes en curso, desde el resumen mensual.
+     */
+    private List<TotalAgrupadoMovimientos> cargarResumenPrediccion(Long usuarioId, LocalDate hoy) {
+        YearMonth mesActual = YearMonth.from(hoy);
+        return movimientoRepo.findResumenMensualByUsuarioIdAndMesBetween(usuarioId, mesActual.minusMonths(6), mesActual);
+    }
+
+    private List<MovimientoFinanciero> cargarAnomalias(Long usuarioId, LocalDate hoy) {
+        List<MovimientoFinanciero> anomalias = movimientoRepo.findInusualesByUsuarioIdAndFechaBetween(
+                usuarioId, hoy.minusMonths(3), hoy);
+        log.info("🚨 Detectadas {} anomalías", anomalias.size());
+        return anomalias;
+    }
+
+    private Map<String, Object> calcularPrediccion(List<TotalAgrupadoMovimientos> resumen,
+                                                   PronosticoService.PronosticoUsuario pronostico,
+                                                   LocalDate hoy) {
+        YearMonth mesActual = YearMonth.from(hoy);
 
         // Filtrar solo gastos y calcular promedio mensual
         BigDecimal sumaGastos = BigDecimal.ZERO;
+        BigDecimal gastoMesActual = BigDecimal.ZERO;
         int mesesContados = 6;
 
-        for (MovimientoFinanciero m : movimientosHistoricos) {
-            if (m.getTipoMovimiento().name().equals("EXPENSE")) {
-                sumaGastos = sumaGastos.add(m.getMonto());
+        for (TotalAgrupadoMovimientos t : resumen) {
+            if (t.tipoMovimiento() != TipoMovimiento.EXPENSE) {
+                continue;
+            }
+            if (t.mes().equals(mesActual)) {
+                gastoMesActual = gastoMesActual.add(t.total());
+            } else {
+                sumaGastos = sumaGastos.add(t.total());
             }
         }
 
         BigDecimal promedioMensual = sumaGastos.divide(BigDecimal.valueOf(mesesContados), 2, RoundingMode.HALF_UP);
 
-        // Obtener gasto actual del mes
-        List<MovimientoFinanciero> movimientosMesActual = movimientoRepo
-                .findByUsuarioIdAndFechaMovimientoBetweenOrderByFechaMovimientoDesc(
-                        usuarioId, inicioMesActual, hoy);
-
-        BigDecimal gastoMesActual = movimientosMesActual.stream()
-                .filter(m -> m.getTipoMovimiento().name().equals("EXPENSE"))
-                .map(MovimientoFinanciero::getMonto)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Calcular proyección
+        // Calcular proyección: lo gastado más la parte restante del pronóstico del mes.
+        // Sin historia para pronosticar se extrapola linealmente el gasto del mes.
         int diasTranscurridos = hoy.getDayOfMonth();
         int diasTotalesMes = hoy.lengthOfMonth();
-        BigDecimal tasaDiaria = gastoMesActual.divide(BigDecimal.valueOf(diasTranscurridos), 2, RoundingMode.HALF_UP);
-        BigDecimal proyeccionFinMes = tasaDiaria.multiply(BigDecimal.valueOf(diasTotalesMes));
+        BigDecimal pronosticoMes = pronostico.mesActual(TipoMovimiento.EXPENSE);
+        BigDecimal proyeccionFinMes;
+        if (pronostico.tiene(TipoMovimiento.EXPENSE)) {
+            BigDecimal restante = pronosticoMes
+                    .multiply(BigDecimal.valueOf(diasTotalesMes - diasTranscurridos))
+                    .divide(BigDecimal.valueOf(diasTotalesMes), 2, RoundingMode.HALF_UP);
+            proyeccionFinMes = gastoMesActual.add(restante);
+        } else {
+            BigDecimal tasaDiaria = gastoMesActual.divide(BigDecimal.valueOf(diasTranscurridos), 2, RoundingMode.HALF_UP);
+            proyeccionFinMes = tasaDiaria.multiply(BigDecimal.valueOf(diasTotalesMes));
+        }
 
         Map<String, Object> resultado = new HashMap<>();
         resultado.put("promedioMensualHistorico", promedioMensual);
         resultado.put("gastoActualMes", gastoMesActual);
         resultado.put("proyeccionFinMes", proyeccionFinMes);
+        resultado.put("pronosticoMes", pronosticoMes);
         resultado.put("diasTranscurridos", diasTranscurridos);
         resultado.put("diasTotalesMes", diasTotalesMes);
         resultado.put("mensaje", generarMensajePrediccion(promedioMensual, proyeccionFinMes));
@@ -80,62 +155,9 @@ public class FinancialIntelligenceService {
         return resultado;
     }
 
-    /**
-     * 🚨 Detecta movimientos anómalos (gastos inusualmente altos)
-     */
-    public List<MovimientoFinanciero> detectarAnomalias(Long usuarioId) {
-        log.info("🚨 Detectando anomalías para usuario #{}", usuarioId);
-
-        LocalDate hace3Meses = LocalDate.now().minusMonths(3);
-        List<MovimientoFinanciero> movimientos = movimientoRepo
-                .findByUsuarioIdAndFechaMovimientoBetweenOrderByFechaMovimientoDesc(
-                        usuarioId, hace3Meses, LocalDate.now());
-
-        // Calcular promedio y desviación estándar de gastos
-        List<BigDecimal> gastosHistoricos = movimientos.stream()
-                .filter(m -> m.getTipoMovimiento().name().equals("EXPENSE"))
-                .map(MovimientoFinanciero::getMonto)
-                .toList();
-
-        if (gastosHistoricos.isEmpty()) {
-            return List.of();
-        }
-
-        BigDecimal promedio = gastosHistoricos.stream()
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(gastosHistoricos.size()), 2, RoundingMode.HALF_UP);
-
-        // Calcular desviación estándar (simplificada)
-        double sumaCuadrados = gastosHistoricos.stream()
-                .mapToDouble(g -> Math.pow(g.subtract(promedio).doubleValue(), 2))
-                .sum();
-        double desviacionEstandar = Math.sqrt(sumaCuadrados / gastosHistoricos.size());
-
-        // Umbral: Promedio + 2 desviaciones estándar
-        BigDecimal umbralAnomalia = promedio.add(BigDecimal.valueOf(desviacionEstandar * 2));
-
-        // Filtrar movimientos anómalos
-        List<MovimientoFinanciero> anomalias = movimientos.stream()
-                .filter(m -> m.getTipoMovimiento().name().equals("EXPENSE"))
-                .filter(m -> m.getMonto().compareTo(umbralAnomalia) > 0)
-                .toList();
-
-        log.info("🚨 Detectadas {} anomalías. Umbral: ${}", anomalias.size(), umbralAnomalia);
-
-        return anomalias;
-    }
-
-    /**
-     * 💡 Genera recomendaciones personalizadas
-     */
-    public List<String> generarRecomendaciones(Long usuarioId) {
-        log.info("💡 Generando recomendaciones para usuario #{}", usuarioId);
-
-        Map<String, Object> prediccion = predecirGastosMesActual(usuarioId);
-        List<MovimientoFinanciero> anomalias = detectarAnomalias(usuarioId);
-
+    private List<String> construirRecomendaciones(Map<String, Object> prediccion, List<MovimientoFinanciero> anomalias) {
         // TODO: Implementar lógica más sofisticada
-        List<String> recomendaciones = new java.util.ArrayList<>();
+        List<String> recomendaciones = new ArrayList<>();
 
         BigDecimal proyeccion = (BigDecimal) prediccion.get("proyeccionFinMes");
         BigDecimal promedio = (BigDecimal) prediccion.get("promedioMensualHistorico");
@@ -152,11 +174,23 @@ public class FinancialIntelligenceService {
             recomendaciones.add("✅ ¡Vas por buen camino! Tus gastos están dentro de lo normal.");
         }
 
-        log.info("💡 {} recomendaciones generadas", recomendaciones.size());
-
         return recomendaciones;
     }
 
+    /**
+     * Espera el resultado y propaga la excepción original del cálculo.
+     */
+    private static <T> T esperar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
     private String generarMensajePrediccion(BigDecimal promedioHistorico, BigDecimal proyeccion) {
         if (proyeccion.compareTo(promedioHistorico) > 0) {
             BigDecimal diferencia = proyeccion.subtract(promedioHistorico);
@@ -168,5 +202,12 @@ public class FinancialIntelligenceService {
             return "✅ Tus gastos proyectados están dentro de tu promedio histórico";
         }
     }
-}
 
+    // ========== DTOs ==========
+
+    public record SnapshotFinanciero(
+            Map<String, Object> prediccion,
+            List<MovimientoFinanciero> anomalias,
+            List<String> recomendaciones
+    ) {}
+}
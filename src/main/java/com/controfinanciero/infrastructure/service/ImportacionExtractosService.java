@@ -0,0 +1,205 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.domain.exception.DomainException;
+import com.controfinanciero.domain.model.MovimientoFinanciero;
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+import com.controfinanciero.domain.repository.MovimientoFinancieroRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * 📥 Servicio de Importación de Extractos Bancarios (CSV / OFX)
+ * Lee cada archivo en streaming, valida las filas con el modelo de dominio y
+ * las carga con COPY + una fusión set-based que descarta duplicados.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImportacionExtractosService {
+
+    /**
+     * Cada cuántas filas se actualiza el progreso visible para el usuario.
+     */
+    private static final int INTERVALO_PROGRESO = 1000;
+
+    private static final int MAXIMO_ERRORES_REPORTADOS = 20;
+
+    /**
+     * numeric(15,2): como máximo 13 dígitos enteros.
+     */
+    private static final int MAXIMO_DIGITOS_ENTEROS = 13;
+
+    private final MovimientoFinancieroRepository movimientoRepository;
+
+    private final Map<Long, ProgresoImportacion> progresoPorUsuario = new ConcurrentHashMap<>();
+
+    /**
+     * Importa los archivos en orden y devuelve un resumen por archivo.
+     * Cada archivo se confirma en su propia transacción.
+     */
+    public List<ResumenImportacion> importar(Long usuarioId, List<MultipartFile> archivos) {
+        List<ResumenImportacion> resumenes = new ArrayList<>();
+        for (int i = 0; i < archivos.size(); i++) {
+            MultipartFile archivo = archivos.get(i);
+            String nombre = archivo.getOriginalFilename();
+            try (InputStream contenido = archivo.getInputStream()) {
+                resumenes.add(importarArchivo(usuarioId, nombre, contenido, i + 1, archivos.size()));
+            } catch (IOException e) {
+                resumenes.add(ResumenImportacion.fallido(nombre, e.getMessage()));
+            }
+        }
+
+        ProgresoImportacion ultimo = progresoPorUsuario.get(usuarioId);
+        if (ultimo != null) {
+            progresoPorUsuario.put(usuarioId, ultimo.finalizar());
+        }
+        return resumenes;
+    }
+
+    /**
+     * Progreso de la importación en curso (o la última) del usuario.
+     */
+    public Optional<ProgresoImportacion> obtenerProgreso(Long usuarioId) {
+        return Optional.ofNullable(progresoPorUsuario.get(usuarioId));
+    }
+
+    private ResumenImportacion importarArchivo(Long usuarioId, String nombre, InputStream contenido,
+                                               int numeroArchivo, int totalArchivos) {
+        long inicio = System.currentTimeMillis();
+        ContadorArchivo contador = new ContadorArchivo();
+        progresoPorUsuario.put(usuarioId, new ProgresoImportacion(nombre, numeroArchivo, totalArchivos, 0, false));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(contenido, StandardCharsets.UTF_8))) {
+            LectorExtracto lector = LectorExtracto.para(nombre, reader);
+
+            Stream<MovimientoFinanciero> movimientos = lector.filas()
+                    .peek(fila -> {
+                        if (++contador.leidas % INTERVALO_PROGRESO == 0) {
+                            progresoPorUsuario.put(usuarioId, new ProgresoImportacion(
+                                    nombre, numeroArchivo, totalArchivos, contador.leidas, false));
+                            log.debug("📥 {}: {} filas procesadas", nombre, contador.leidas);
+                        }
+                    })
+                    .map(fila -> aMovimiento(usuarioId, fila, contador))
+                    .filter(Objects::nonNull);
+
+            long importadas = movimientoRepository.importarMovimientos(usuarioId, movimientos);
+            long validas = contador.leidas - contador.invalidas;
+            progresoPorUsuario.put(usuarioId, new ProgresoImportacion(
+                    nombre, numeroArchivo, totalArchivos, contador.leidas, false));
+
+            ResumenImportacion resumen = new ResumenImportacion(
+                    nombre,
+                    lector.formato(),
+                    contador.leidas,
+                    contador.invalidas,
+                    validas - importadas,
+                    importadas,
+                    System.currentTimeMillis() - inicio,
+                    contador.errores,
+                    null
+            );
+            log.info("📥 Extracto {} importado para usuario {}: {} leídas, {} importadas, {} duplicadas, {} inválidas ({} ms)",
+                    nombre, usuarioId, resumen.filasLeidas(), resumen.importadas(), resumen.duplicadas(),
+                    resumen.filasInvalidas(), resumen.duracionMs());
+            return resumen;
+
+        } catch (DomainException | IOException | UncheckedIOException e) {
+            log.warn("⚠️ No se pudo importar el extracto {}: {}", nombre, e.getMessage());
+            return ResumenImportacion.fallido(nombre, e.getMessage());
+        }
+    }
+
+    /**
+     * Convierte la fila en un movimiento validado por el dominio; las inválidas
+     * se cuentan y se descartan (devuelve null).
+     */
+    private MovimientoFinanciero aMovimiento(Long usuarioId, FilaExtracto fila, ContadorArchivo contador) {
+        if (!fila.esValida()) {
+            contador.registrarInvalida(fila.linea(), fila.error());
+            return null;
+        }
+        if (fila.monto().signum() == 0) {
+            contador.registrarInvalida(fila.linea(), "monto en cero");
+            return null;
+        }
+
+        BigDecimal monto = fila.monto().abs().setScale(2, RoundingMode.HALF_UP);
+        if (monto.precision() - monto.scale() > MAXIMO_DIGITOS_ENTEROS) {
+            contador.registrarInvalida(fila.linea(), "monto fuera de rango: " + fila.monto());
+            return null;
+        }
+
+        TipoMovimiento tipo = fila.monto().signum() < 0 ? TipoMovimiento.EXPENSE : TipoMovimiento.INCOME;
+        try {
+            return new MovimientoFinanciero(usuarioId, tipo, monto, fila.descripcion(), fila.fecha());
+        } catch (DomainException | IllegalArgumentException e) {
+            contador.registrarInvalida(fila.linea(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Contadores de un archivo mientras se recorre (el stream es secuencial).
+     */
+    private static final class ContadorArchivo {
+        private long leidas;
+        private long invalidas;
+        private final List<String> errores = new ArrayList<>();
+
+        void registrarInvalida(long linea, String error) {
+            invalidas++;
+            if (errores.size() < MAXIMO_ERRORES_REPORTADOS) {
+                errores.add("Línea " + linea + ": " + error);
+            }
+        }
+    }
+
+    // ========== DTOs ==========
+
+    public record ResumenImportacion(
+            String archivo,
+            String formato,
+            long filasLeidas,
+            long filasInvalidas,
+            long duplicadas,
+            long importadas,
+            long duracionMs,
+            List<String> errores,
+            String error
+    ) {
+        static ResumenImportacion fallido(String archivo, String error) {
+            return new ResumenImportacion(archivo, null, 0, 0, 0, 0, 0, List.of(), error);
+        }
+    }
+
+    public record ProgresoImportacion(
+            String archivo,
+            int archivoActual,
+            int totalArchivos,
+            long filasProcesadas,
+            boolean finalizada
+    ) {
+        ProgresoImportacion finalizar() {
+            return new ProgresoImportacion(archivo, archivoActual, totalArchivos, filasProcesadas, true);
+        }
+    }
+}
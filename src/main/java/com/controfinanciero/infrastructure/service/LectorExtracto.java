@@ -0,0 +1,122 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.domain.exception.MovimientoInvalidoException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lector incremental de extractos bancarios: entrega las filas de una en una
+ * sin cargar el archivo completo en memoria.
+ */
+abstract class LectorExtracto implements Iterator<FilaExtracto> {
+
+    private FilaExtracto siguiente;
+    private boolean terminado;
+
+    /**
+     * Crea el lector adecuado según la extensión del archivo (.csv/.txt u .ofx/.qfx).
+     */
+    static LectorExtracto para(String nombreArchivo, BufferedReader reader) throws IOException {
+        String nombre = nombreArchivo != null ? nombreArchivo.toLowerCase(Locale.ROOT) : "";
+        if (nombre.endsWith(".ofx") || nombre.endsWith(".qfx")) {
+            return new LectorExtractoOfx(reader);
+        }
+        if (nombre.endsWith(".csv") || nombre.endsWith(".txt")) {
+            return new LectorExtractoCsv(reader);
+        }
+        throw MovimientoInvalidoException.extractoInvalido("formato no soportado (" + nombreArchivo + "), use CSV u OFX");
+    }
+
+    /**
+     * Lee la siguiente fila o devuelve null al final del archivo.
+     */
+    protected abstract FilaExtracto leerSiguiente() throws IOException;
+
+    /**
+     * Nombre del formato para el resumen de importación.
+     */
+    abstract String formato();
+
+    @Override
+    public boolean hasNext() {
+        if (siguiente == null && !terminado) {
+            try {
+                siguiente = leerSiguiente();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            terminado = siguiente == null;
+        }
+        return siguiente != null;
+    }
+
+    @Override
+    public FilaExtracto next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        FilaExtracto fila = siguiente;
+        siguiente = null;
+        return fila;
+    }
+
+    Stream<FilaExtracto> filas() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Interpreta montos con separadores de miles y decimales de cualquier convención
+     * ("1.234,56", "1,234.56", "-$ 50.000", "(120.00)"). El último separador seguido
+     * de uno o dos dígitos se toma como decimal. Devuelve null si no hay dígitos.
+     */
+    static BigDecimal parsearMonto(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String limpio = texto.trim().replaceAll("[^0-9,.\\-()]", "");
+        boolean negativo = limpio.contains("-") || limpio.startsWith("(");
+        limpio = limpio.replaceAll("[\\-()]", "");
+        if (limpio.isEmpty() || !limpio.matches(".*\\d.*")) {
+            return null;
+        }
+
+        int punto = limpio.lastIndexOf('.');
+        int coma = limpio.lastIndexOf(',');
+        int decimal = -1;
+        if (punto >= 0 && coma >= 0) {
+            decimal = Math.max(punto, coma);
+        } else if (punto >= 0 || coma >= 0) {
+            int posicion = Math.max(punto, coma);
+            char separador = limpio.charAt(posicion);
+            boolean unico = limpio.indexOf(separador) == posicion;
+            if (unico && limpio.length() - posicion - 1 <= 2) {
+                decimal = posicion;
+            }
+        }
+
+        StringBuilder numero = new StringBuilder(limpio.length() + 1);
+        if (negativo) {
+            numero.append('-');
+        }
+        for (int i = 0; i < limpio.length(); i++) {
+            char c = limpio.charAt(i);
+            if (Character.isDigit(c)) {
+                numero.append(c);
+            } else if (i == decimal) {
+                numero.append('.');
+            }
+        }
+        return new BigDecimal(numero.toString());
+    }
+}
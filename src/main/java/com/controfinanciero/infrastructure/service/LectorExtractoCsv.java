@@ -0,0 +1,190 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.domain.exception.MovimientoInvalidoException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lector de extractos CSV con encabezado.
+ * Detecta el separador (',', ';' o tabulador) y las columnas por nombre:
+ * fecha, descripción y monto, o bien débito/crédito en columnas separadas.
+ */
+final class LectorExtractoCsv extends LectorExtracto {
+
+    private static final List<DateTimeFormatter> FORMATOS_FECHA = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("d/M/yyyy"),
+            DateTimeFormatter.ofPattern("d-M-yyyy"),
+            DateTimeFormatter.ofPattern("yyyy/M/d"),
+            DateTimeFormatter.BASIC_ISO_DATE
+    );
+
+    private final BufferedReader reader;
+    private final char separador;
+    private int columnaFecha = -1;
+    private int columnaDescripcion = -1;
+    private int columnaMonto = -1;
+    private int columnaDebito = -1;
+    private int columnaCredito = -1;
+    private long linea = 1;
+
+    LectorExtractoCsv(BufferedReader reader) throws IOException {
+        this.reader = reader;
+
+        String encabezado = reader.readLine();
+        if (encabezado == null) {
+            throw MovimientoInvalidoException.extractoInvalido("el archivo CSV está vacío");
+        }
+        encabezado = encabezado.replace("\uFEFF", "");
+        this.separador = detectarSeparador(encabezado);
+
+        List<String> columnas = separar(encabezado);
+        for (int i = 0; i < columnas.size(); i++) {
+            asignarColumna(normalizar(columnas.get(i)), i);
+        }
+
+        if (columnaFecha < 0 || (columnaMonto < 0 && columnaDebito < 0 && columnaCredito < 0)) {
+            throw MovimientoInvalidoException.extractoInvalido(
+                    "el encabezado CSV debe incluir columnas de fecha y monto (o débito/crédito): " + encabezado);
+        }
+    }
+
+    @Override
+    String formato() {
+        return "CSV";
+    }
+
+    @Override
+    protected FilaExtracto leerSiguiente() throws IOException {
+        String texto;
+        while ((texto = reader.readLine()) != null) {
+            linea++;
+            if (!texto.isBlank()) {
+                return interpretar(separar(texto));
+            }
+        }
+        return null;
+    }
+
+    private FilaExtracto interpretar(List<String> campos) {
+        LocalDate fecha = parsearFecha(campo(campos, columnaFecha));
+        if (fecha == null) {
+            return FilaExtracto.invalida(linea, "fecha no reconocida: " + campo(campos, columnaFecha));
+        }
+
+        BigDecimal monto;
+        if (columnaMonto >= 0) {
+            monto = parsearMonto(campo(campos, columnaMonto));
+        } else {
+            BigDecimal credito = parsearMonto(campo(campos, columnaCredito));
+            BigDecimal debito = parsearMonto(campo(campos, columnaDebito));
+            monto = credito == null && debito == null ? null
+                    : (credito != null ? credito.abs() : BigDecimal.ZERO)
+                            .subtract(debito != null ? debito.abs() : BigDecimal.ZERO);
+        }
+        if (monto == null) {
+            return FilaExtracto.invalida(linea, "monto no reconocido");
+        }
+
+        String descripcion = columnaDescripcion >= 0 ? campo(campos, columnaDescripcion) : null;
+        return FilaExtracto.valida(linea, fecha, monto, descripcion != null && !descripcion.isBlank() ? descripcion : null);
+    }
+
+    private void asignarColumna(String nombre, int indice) {
+        if (nombre.contains("fecha") || nombre.contains("date")) {
+            // "Fecha valor" no debe confundirse con la columna de monto
+            if (columnaFecha < 0) {
+                columnaFecha = indice;
+            }
+        } else if (columnaDescripcion < 0 && (nombre.contains("descripcion") || nombre.contains("concepto")
+                || nombre.contains("detalle") || nombre.contains("description") || nombre.contains("memo"))) {
+            columnaDescripcion = indice;
+        } else if (columnaMonto < 0 && (nombre.contains("monto") || nombre.contains("importe")
+                || nombre.contains("valor") || nombre.contains("amount"))) {
+            columnaMonto = indice;
+        } else if (columnaDebito < 0 && (nombre.contains("debito") || nombre.contains("cargo") || nombre.contains("debit"))) {
+            columnaDebito = indice;
+        } else if (columnaCredito < 0 && (nombre.contains("credito") || nombre.contains("abono") || nombre.contains("credit"))) {
+            columnaCredito = indice;
+        }
+    }
+
+    private LocalDate parsearFecha(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        String limpio = texto.trim();
+        // Fechas con hora ("2024-03-01 10:15:00"): solo interesa el día
+        int espacio = limpio.indexOf(' ');
+        if (espacio > 0) {
+            limpio = limpio.substring(0, espacio);
+        }
+        for (DateTimeFormatter formato : FORMATOS_FECHA) {
+            try {
+                return LocalDate.parse(limpio, formato);
+            } catch (DateTimeParseException ignored) {
+                // probar el siguiente formato
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Divide una línea respetando campos entre comillas (con "" como comilla escapada).
+     * No se admiten saltos de línea dentro de un campo.
+     */
+    private List<String> separar(String texto) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"') {
+                if (entreComillas && i + 1 < texto.length() && texto.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else {
+                    entreComillas = !entreComillas;
+                }
+            } else if (c == separador && !entreComillas) {
+                campos.add(actual.toString().trim());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        campos.add(actual.toString().trim());
+        return campos;
+    }
+
+    private static String campo(List<String> campos, int indice) {
+        return indice >= 0 && indice < campos.size() ? campos.get(indice) : null;
+    }
+
+    private static char detectarSeparador(String encabezado) {
+        long puntoYComa = encabezado.chars().filter(c -> c == ';').count();
+        long tabuladores = encabezado.chars().filter(c -> c == '\t').count();
+        long comas = encabezado.chars().filter(c -> c == ',').count();
+        if (tabuladores > puntoYComa && tabuladores > comas) {
+            return '\t';
+        }
+        return puntoYComa > comas ? ';' : ',';
+    }
+
+    private static String normalizar(String texto) {
+        return Normalizer.normalize(texto, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .trim();
+    }
+}
@@ -0,0 +1,123 @@
+package com.controfinanciero.infrastructure.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lector de extractos OFX/QFX.
+ * Recorre las etiquetas en streaming y sirve tanto para OFX 1.x (SGML, sin etiquetas
+ * de cierre en los valores) como para OFX 2.x (XML). Cada bloque STMTTRN es una fila.
+ */
+final class LectorExtractoOfx extends LectorExtracto {
+
+    private final BufferedReader reader;
+    private int pendiente = -1;
+    private long transaccion;
+
+    private String etiqueta;
+    private String valor;
+
+    LectorExtractoOfx(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    String formato() {
+        return "OFX";
+    }
+
+    @Override
+    protected FilaExtracto leerSiguiente() throws IOException {
+        Map<String, String> campos = null;
+        while (avanzar()) {
+            if ("STMTTRN".equals(etiqueta)) {
+                campos = new HashMap<>();
+            } else if ("/STMTTRN".equals(etiqueta) && campos != null) {
+                return interpretar(++transaccion, campos);
+            } else if (campos != null && !etiqueta.startsWith("/") && !valor.isEmpty()) {
+                campos.put(etiqueta, valor);
+            }
+        }
+        return null;
+    }
+
+    private FilaExtracto interpretar(long numero, Map<String, String> campos) {
+        String fechaTexto = campos.get("DTPOSTED");
+        LocalDate fecha = null;
+        if (fechaTexto != null && fechaTexto.length() >= 8) {
+            try {
+                // Formato OFX: AAAAMMDD[HHMMSS[.XXX][TZ]]
+                fecha = LocalDate.parse(fechaTexto.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE);
+            } catch (DateTimeParseException ignored) {
+                // se reporta como fila inválida
+            }
+        }
+        if (fecha == null) {
+            return FilaExtracto.invalida(numero, "DTPOSTED no reconocido: " + fechaTexto);
+        }
+
+        BigDecimal monto = parsearMonto(campos.get("TRNAMT"));
+        if (monto == null) {
+            return FilaExtracto.invalida(numero, "TRNAMT no reconocido: " + campos.get("TRNAMT"));
+        }
+
+        String nombre = campos.get("NAME");
+        String memo = campos.get("MEMO");
+        String descripcion;
+        if (nombre != null && memo != null && !memo.equalsIgnoreCase(nombre)) {
+            descripcion = nombre + " - " + memo;
+        } else {
+            descripcion = nombre != null ? nombre : memo;
+        }
+        return FilaExtracto.valida(numero, fecha, monto, descripcion);
+    }
+
+    /**
+     * Avanza a la siguiente etiqueta y captura el texto que la sigue hasta el próximo '<'.
+     */
+    private boolean avanzar() throws IOException {
+        int c;
+        while ((c = leer()) != -1 && c != '<') {
+            // descartar el encabezado OFX y el texto fuera de etiquetas
+        }
+        if (c == -1) {
+            return false;
+        }
+
+        StringBuilder nombre = new StringBuilder();
+        while ((c = leer()) != -1 && c != '>') {
+            nombre.append((char) c);
+        }
+
+        StringBuilder contenido = new StringBuilder();
+        while ((c = leer()) != -1 && c != '<') {
+            contenido.append((char) c);
+        }
+        if (c == '<') {
+            pendiente = c;
+        }
+
+        etiqueta = nombre.toString().trim().toUpperCase(Locale.ROOT);
+        valor = contenido.toString().trim()
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&amp;", "&");
+        return true;
+    }
+
+    private int leer() throws IOException {
+        if (pendiente != -1) {
+            int c = pendiente;
+            pendiente = -1;
+            return c;
+        }
+        return reader.read();
+    }
+}
@@ -0,0 +1,303 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.domain.model.MovimientoFinanciero;
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+import com.controfinanciero.domain.repository.MovimientoFinancieroRepository;
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoRecurrenteEntity;
+import com.controfinanciero.infrastructure.persistence.repository.MovimientoRecurrenteJpaRepository;
+import com.controfinanciero.infrastructure.service.CorreosSalientesService.CorreoPendiente;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 🔄 Motor de Movimientos Recurrentes
+ * Genera los movimientos de las recurrencias vencidas de un tramo de usuarios:
+ * - Todas las ocurrencias atrasadas, no solo una (el servidor pudo estar dormido días).
+ * - Lotes de recurrencias con una transacción por lote, procesados en un pool acotado
+ *   de hilos virtuales (cada lote usa una conexión).
+ * - Idempotente: cada (recurrencia, fecha) se reclama en 'recurring_occurrences' antes de
+ *   crear su movimiento; un reintento o una segunda instancia no lo duplica.
+ * - Movimientos por el puerto de dominio (lote JDBC, resumen mensual y detección de
+ *   anomalías incluidos) y notificaciones en un lote JDBC.
+ * Los lotes no parten a un usuario: así dos lotes nunca actualizan las mismas filas
+ * del resumen mensual en distinto orden.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MovimientosRecurrentesService {
+
+    private static final String RECLAMAR_OCURRENCIAS =
+            "INSERT INTO recurring_occurrences (recurrence_id, occurrence_date, created_at) " +
+            "SELECT o.recurrence_id, o.occurrence_date, now() FROM unnest(?, ?) AS o(recurrence_id, occurrence_date) " +
+            "ON CONFLICT (recurrence_id, occurrence_date) DO NOTHING " +
+            "RETURNING recurrence_id, occurrence_date";
+
+    private static final String INSERTAR_NOTIFICACION =
+            "INSERT INTO notificaciones (user_id, tipo, titulo, mensaje, leida, fecha_envio, created_at, version) " +
+            "VALUES (?, 'MOVIMIENTO_AUTOMATICO', ?, ?, false, ?, ?, '1.6.0')";
+
+    private final MovimientoRecurrenteJpaRepository recurrenteRepository;
+    private final MovimientoFinancieroRepository movimientoRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BandejaNotificacionesService bandeja;
+    private final CorreosSalientesService correosSalientes;
+
+    @Value("${recurrentes.tamano-lote:100}")
+    private int tamanoLote;
+
+    /**
+     * Lotes procesados a la vez; cada uno usa una conexión del pool primario.
+     */
+    @Value("${recurrentes.paralelismo:2}")
+    private int paralelismo;
+
+    /**
+     * Tope de ocurrencias generadas por recurrencia en una ejecución; el resto sigue en la próxima.
+     */
+    @Value("${recurrentes.maximo-ocurrencias:400}")
+    private int maximoOcurrencias;
+
+    /**
+     * Procesa las recurrencias vencidas hasta 'hoy' de los usuarios con id en [desde, hasta].
+     * Devuelve la cantidad de movimientos creados. Si algún lote falla, los demás se
+     * completan y se relanza el primer error para que el trabajo se reintente.
+     */
+    public int procesar(long desde, long hasta, LocalDate hoy) {
+        List<List<Long>> lotes = dividirEnLotes(recurrenteRepository.findPendientesByUsuarioIdBetween(desde, hasta, hoy));
+        if (lotes.isEmpty()) {
+            return 0;
+        }
+
+        int creados = 0;
+        RuntimeException primerError = null;
+        try (ExecutorService executor = Executors.newFixedThreadPool(paralelismo, Thread.ofVirtual().name("recurrentes-", 0).factory())) {
+            List<Future<Integer>> resultados = new ArrayList<>(lotes.size());
+            for (List<Long> lote : lotes) {
+                resultados.add(executor.submit(() -> procesarLote(lote, hoy)));
+            }
+            for (Future<Integer> resultado : resultados) {
+                try {
+                    creados += resultado.get();
+                } catch (ExecutionException e) {
+                    log.error("❌ Error en lote de movimientos recurrentes: {}", e.getCause().getMessage(), e.getCause());
+                    if (primerError == null) {
+                        primerError = e.getCause() instanceof RuntimeException runtime
+                                ? runtime
+                                : new IllegalStateException(e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Procesamiento de recurrentes interrumpido", e);
+                }
+            }
+        }
+
+        log.info("🔄 Usuarios {}-{}: {} movimientos recurrentes creados en {} lotes", desde, hasta, creados, lotes.size());
+        if (primerError != null) {
+            throw primerError;
+        }
+        return creados;
+    }
+
+    /**
+     * Agrupa los ids en lotes de al menos tamanoLote sin repartir un usuario entre dos lotes.
+     */
+    private List<List<Long>> dividirEnLotes(List<MovimientoRecurrenteEntity> pendientes) {
+        List<List<Long>> lotes = new ArrayList<>();
+        List<Long> actual = new ArrayList<>();
+        Long usuarioActual = null;
+        for (MovimientoRecurrenteEntity recurrente : pendientes) {
+            if (actual.size() >= tamanoLote && !recurrente.getUsuarioId().equals(usuarioActual)) {
+                lotes.add(actual);
+                actual = new ArrayList<>();
+            }
+            actual.add(recurrente.getId());
+            usuarioActual = recurrente.getUsuarioId();
+        }
+        if (!actual.isEmpty()) {
+            lotes.add(actual);
+        }
+        return lotes;
+    }
+
+    private int procesarLote(List<Long> ids, LocalDate hoy) {
+        Integer creados = transactionTemplate.execute(status -> {
+            List<MovimientoRecurrenteEntity> recurrentes = recurrenteRepository.findPendientesParaProcesar(ids, hoy);
+            LocalDateTime ahora = LocalDateTime.now();
+
+            // 1. Ocurrencias atrasadas de cada recurrencia y su movimiento
+            Map<Ocurrencia, MovimientoFinanciero> candidatos = new LinkedHashMap<>();
+            for (MovimientoRecurrenteEntity recurrente : recurrentes) {
+                try {
+                    List<LocalDate> fechas = fechasVencidas(recurrente, hoy);
+                    Map<Ocurrencia, MovimientoFinanciero> propios = new LinkedHashMap<>();
+                    for (LocalDate fecha : fechas) {
+                        propios.put(new Ocurrencia(recurrente.getId(), fecha), crearMovimiento(recurrente, fecha));
+                    }
+                    candidatos.putAll(propios);
+                    programarSiguiente(recurrente, fechas);
+                    recurrente.setUltimaEjecucion(ahora);
+                } catch (RuntimeException e) {
+                    // Datos inválidos en una recurrencia: se omite sin frenar el lote
+                    log.error("❌ Error al procesar movimiento recurrente #{}: {}", recurrente.getId(), e.getMessage());
+                }
+            }
+            if (candidatos.isEmpty()) {
+                return 0;
+            }
+
+            // 2. Reclamar las ocurrencias: solo las nuevas generan movimiento
+            Set<Ocurrencia> nuevas = reclamarOcurrencias(candidatos.keySet());
+            List<MovimientoFinanciero> movimientos = new ArrayList<>(nuevas.size());
+            Map<Long, Integer> creadosPorRecurrente = new LinkedHashMap<>();
+            candidatos.forEach((ocurrencia, movimiento) -> {
+                if (nuevas.contains(ocurrencia)) {
+                    movimientos.add(movimiento);
+                    creadosPorRecurrente.merge(ocurrencia.recurrenteId(), 1, Integer::sum);
+                }
+            });
+
+            // 3. Movimientos y notificaciones en lote; las recurrencias se actualizan al confirmar
+            if (!movimientos.isEmpty()) {
+                movimientoRepository.saveAll(movimientos);
+                notificar(recurrentes, creadosPorRecurrente, ahora);
+            }
+            return movimientos.size();
+        });
+        return creados != null ? creados : 0;
+    }
+
+    /**
+     * Fechas vencidas de la recurrencia hasta 'hoy', respetando la fecha fin y el tope por ejecución.
+     */
+    private List<LocalDate> fechasVencidas(MovimientoRecurrenteEntity recurrente, LocalDate hoy) {
+        List<LocalDate> fechas = new ArrayList<>();
+        LocalDate fecha = recurrente.getProximaEjecucion();
+        while (!fecha.isAfter(hoy) && fechas.size() < maximoOcurrencias
+                && (recurrente.getFechaFin() == null || !fecha.isAfter(recurrente.getFechaFin()))) {
+            fechas.add(fecha);
+            fecha = siguienteFecha(recurrente, fecha);
+        }
+        return fechas;
+    }
+
+    /**
+     * Deja la próxima ejecución tras la última fecha generada y desactiva la recurrencia si terminó.
+     */
+    private void programarSiguiente(MovimientoRecurrenteEntity recurrente, List<LocalDate> fechas) {
+        LocalDate proxima = fechas.isEmpty()
+                ? recurrente.getProximaEjecucion()
+                : siguienteFecha(recurrente, fechas.get(fechas.size() - 1));
+        recurrente.setProximaEjecucion(proxima);
+        if (recurrente.getFechaFin() != null && proxima.isAfter(recurrente.getFechaFin())) {
+            recurrente.setActivo(false);
+        }
+    }
+
+    /**
+     * Fecha siguiente según la frecuencia. Las mensuales vuelven al día del mes configurado
+     * (o al último día si el mes es más corto) para no correrse tras un mes de 28 días.
+     */
+    private LocalDate siguienteFecha(MovimientoRecurrenteEntity recurrente, LocalDate fecha) {
+        return switch (recurrente.getFrecuencia()) {
+            case "DIARIA" -> fecha.plusDays(1);
+            case "SEMANAL" -> fecha.plusWeeks(1);
+            case "QUINCENAL" -> fecha.plusDays(15);
+            case "ANUAL" -> fecha.plusYears(1);
+            default -> {
+                LocalDate siguiente = fecha.plusMonths(1);
+                Integer diaMes = recurrente.getDiaMes();
+                yield diaMes != null
+                        ? siguiente.withDayOfMonth(Math.min(diaMes, siguiente.lengthOfMonth()))
+                        : siguiente;
+            }
+        };
+    }
+
+    private MovimientoFinanciero crearMovimiento(MovimientoRecurrenteEntity recurrente, LocalDate fecha) {
+        MovimientoFinanciero movimiento = new MovimientoFinanciero(
+                recurrente.getUsuarioId(),
+                TipoMovimiento.valueOf(recurrente.getTipoMovimiento()),
+                recurrente.getMonto(),
+                "🤖 AUTOMÁTICO: " + recurrente.getDescripcion(),
+                fecha
+        );
+        movimiento.asignarCategoria(recurrente.getCategoriaId());
+        if (recurrente.getFuenteIngresoId() != null && movimiento.esIngreso()) {
+            movimiento.asignarFuenteIngreso(recurrente.getFuenteIngresoId());
+        }
+        if (recurrente.getMetaId() != null && movimiento.getTipoMovimiento() == TipoMovimiento.SAVINGS) {
+            movimiento.vincularAMeta(recurrente.getMetaId());
+        }
+        movimiento.agregarNotas("Generado automáticamente desde movimiento recurrente #" + recurrente.getId());
+        return movimiento;
+    }
+
+    /**
+     * Inserta las ocurrencias en una sola sentencia y devuelve las que no existían.
+     */
+    private Set<Ocurrencia> reclamarOcurrencias(Collection<Ocurrencia> ocurrencias) {
+        Long[] recurrentes = new Long[ocurrencias.size()];
+        Date[] fechas = new Date[ocurrencias.size()];
+        int i = 0;
+        for (Ocurrencia ocurrencia : ocurrencias) {
+            recurrentes[i] = ocurrencia.recurrenteId();
+            fechas[i] = Date.valueOf(ocurrencia.fecha());
+            i++;
+        }
+
+        return new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(RECLAMAR_OCURRENCIAS);
+            ps.setArray(1, connection.createArrayOf("bigint", recurrentes));
+            ps.setArray(2, connection.createArrayOf("date", fechas));
+            return ps;
+        }, (rs, fila) -> new Ocurrencia(rs.getLong("recurrence_id"), rs.getDate("occurrence_date").toLocalDate())));
+    }
+
+    /**
+     * Una notificación por recurrencia con movimientos nuevos.
+     */
+    private void notificar(List<MovimientoRecurrenteEntity> recurrentes, Map<Long, Integer> creadosPorRecurrente,
+                           LocalDateTime ahora) {
+        List<Object[]> notificaciones = new ArrayList<>(creadosPorRecurrente.size());
+        Timestamp momento = Timestamp.valueOf(ahora);
+        for (MovimientoRecurrenteEntity recurrente : recurrentes) {
+            Integer creados = creadosPorRecurrente.get(recurrente.getId());
+            if (creados == null) {
+                continue;
+            }
+            String mensaje = creados == 1
+                    ? String.format("Se ha registrado automáticamente: %s por $%s",
+                            recurrente.getDescripcion(), recurrente.getMonto())
+                    : String.format("Se han registrado automáticamente %d movimientos: %s por $%s cada uno",
+                            creados, recurrente.getDescripcion(), recurrente.getMonto());
+            notificaciones.add(new Object[]{
+                    recurrente.getUsuarioId(), "Movimiento automático registrado", mensaje, momento, momento});
+        }
+        jdbcTemplate.batchUpdate(INSERTAR_NOTIFICACION, notificaciones);
+        bandeja.registrarNuevas(notificaciones.stream().map(fila -> (Long) fila[0]).toList());
+        correosSalientes.encolarLote("MOVIMIENTO_AUTOMATICO", notificaciones.stream()
+                .map(fila -> new CorreoPendiente((Long) fila[0], (String) fila[1], (String) fila[2]))
+                .toList());
+    }
+
+    private record Ocurrencia(Long recurrenteId, LocalDate fecha) {
+    }
+}
@@ -0,0 +1,215 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.domain.repository.NotificacionRepository;
+import com.controfinanciero.infrastructure.persistence.entity.NotificacionEntity;
+import com.controfinanciero.infrastructure.web.dto.response.NotificacionResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 📡 Notificaciones en vivo (Server-Sent Events)
+ * Mantiene en memoria las conexiones SSE abiertas de cada usuario y les envía sus notificaciones:
+ * - Al confirmarse la transacción que crea la notificación (NotificationService), en milisegundos.
+ * - Con un sondeo compartido de la tabla cada pocos segundos, que cubre las notificaciones
+ *   insertadas por lotes (recurrentes, resumen mensual) y las creadas en otras instancias.
+ *   Es una sola consulta por instancia para todos los usuarios conectados, en lugar de una
+ *   consulta por cliente y por sondeo.
+ * - Al reconectar con Last-Event-ID se reenvían desde la tabla las notificaciones posteriores.
+ * Un latido periódico mantiene abiertas las conexiones a través de proxies.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificacionesPushService {
+
+    private static final String EVENTO_NOTIFICACION = "notificacion";
+    private static final String EVENTO_CONTADOR = "contador";
+
+    /**
+     * Ids recientes recordados por conexión para no enviar dos veces la misma notificación.
+     */
+    private static final int IDS_RECORDADOS = 500;
+
+    /**
+     * Usuarios por consulta en el sondeo de la tabla.
+     */
+    private static final int USUARIOS_POR_CONSULTA = 1000;
+
+    private final NotificacionRepository notificacionRepository;
+    private final BandejaNotificacionesService bandeja;
+
+    private final Map<Long, Set<Suscripcion>> suscripciones = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime ultimoSondeo = LocalDateTime.now();
+
+    @Value("${notificaciones.push.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    /**
+     * Margen hacia atrás de cada sondeo para cubrir transacciones confirmadas con retraso.
+     */
+    @Value("${notificaciones.push.solape-segundos:30}")
+    private long solapeSegundos;
+
+    /**
+     * Abre una conexión SSE para el usuario. Envía primero el contador de no leídas y,
+     * si el cliente reconecta con Last-Event-ID, las notificaciones posteriores a ese id.
+     * No es transaccional: cada consulta toma y devuelve su conexión al momento, y con
+     * spring.jpa.open-in-view=false la petición no retiene ninguna mientras el stream
+     * sigue abierto (hasta notificaciones.push.timeout-ms). Las entidades no tienen
+     * asociaciones lazy, así que nada se carga después de cerrar la sesión.
+     */
+    public SseEmitter suscribir(Long usuarioId, Long ultimoEventoId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Suscripcion suscripcion = new Suscripcion(usuarioId, emitter);
+
+        suscripciones.computeIfAbsent(usuarioId, id -> ConcurrentHashMap.newKeySet()).add(suscripcion);
+        emitter.onCompletion(() -> quitar(suscripcion));
+        emitter.onTimeout(() -> quitar(suscripcion));
+        emitter.onError(error -> quitar(suscripcion));
+
+        enviar(suscripcion, SseEmitter.event()
+                .name(EVENTO_CONTADOR)
+                .data(Map.of("noLeidas", bandeja.contarNoLeidas(usuarioId))));
+
+        if (ultimoEventoId != null) {
+            List<NotificacionEntity> perdidas = notificacionRepository
+                    .findTop100ByUsuarioIdAndIdGreaterThanOrderByIdAsc(usuarioId, ultimoEventoId);
+            perdidas.forEach(notificacion -> enviarNotificacion(suscripcion, notificacion));
+            log.debug("📡 Usuario {} reconectado: {} notificaciones reenviadas", usuarioId, perdidas.size());
+        }
+        return emitter;
+    }
+
+    /**
+     * Envía la notificación a las conexiones del usuario cuando la transacción actual
+     * se confirme (o en el momento si no hay transacción).
+     */
+    public void publicarAlConfirmar(NotificacionEntity notificacion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publicar(notificacion);
+                }
+            });
+        } else {
+            publicar(notificacion);
+        }
+    }
+
+    public int conexionesAbiertas() {
+        return suscripciones.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * 📡 Busca notificaciones nuevas de los usuarios conectados
+     * Cada 5 segundos (configurable con notificaciones.push.sondeo-ms)
+     */
+    @Scheduled(fixedDelayString = "${notificaciones.push.sondeo-ms:5000}")
+    public void sondearNuevas() {
+        LocalDateTime ahora = LocalDateTime.now();
+        if (suscripciones.isEmpty()) {
+            ultimoSondeo = ahora;
+            return;
+        }
+
+        try {
+            LocalDateTime desde = ultimoSondeo.minusSeconds(solapeSegundos);
+            List<Long> usuarios = new ArrayList<>(suscripciones.keySet());
+            for (int i = 0; i < usuarios.size(); i += USUARIOS_POR_CONSULTA) {
+                List<Long> tramo = usuarios.subList(i, Math.min(i + USUARIOS_POR_CONSULTA, usuarios.size()));
+                notificacionRepository.findByUsuarioIdInAndCreatedAtGreaterThanEqualOrderByIdAsc(tramo, desde)
+                        .forEach(this::publicar);
+            }
+            ultimoSondeo = ahora;
+        } catch (Exception e) {
+            log.error("❌ Error buscando notificaciones nuevas: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 💓 Latido para que proxies y balanceadores no cierren conexiones inactivas
+     * Cada 25 segundos (configurable con notificaciones.push.latido-ms)
+     */
+    @Scheduled(fixedRateString = "${notificaciones.push.latido-ms:25000}")
+    public void latido() {
+        for (Set<Suscripcion> delUsuario : suscripciones.values()) {
+            for (Suscripcion suscripcion : delUsuario) {
+                enviar(suscripcion, SseEmitter.event().comment("ping"));
+            }
+        }
+    }
+
+    private void publicar(NotificacionEntity notificacion) {
+        Set<Suscripcion> delUsuario = suscripciones.get(notificacion.getUsuarioId());
+        if (delUsuario == null) {
+            return;
+        }
+        for (Suscripcion suscripcion : delUsuario) {
+            enviarNotificacion(suscripcion, notificacion);
+        }
+    }
+
+    private void enviarNotificacion(Suscripcion suscripcion, NotificacionEntity notificacion) {
+        if (!suscripcion.marcarEnviada(notificacion.getId())) {
+            return;
+        }
+        enviar(suscripcion, SseEmitter.event()
+                .id(String.valueOf(notificacion.getId()))
+                .name(EVENTO_NOTIFICACION)
+                .data(NotificacionResponse.from(notificacion)));
+    }
+
+    private void enviar(Suscripcion suscripcion, SseEmitter.SseEventBuilder evento) {
+        try {
+            suscripcion.emitter().send(evento);
+        } catch (IOException | IllegalStateException e) {
+            // El cliente se desconectó: se descarta la conexión
+            quitar(suscripcion);
+            suscripcion.emitter().completeWithError(e);
+        }
+    }
+
+    private void quitar(Suscripcion suscripcion) {
+        suscripciones.computeIfPresent(suscripcion.usuarioId(), (id, delUsuario) -> {
+            delUsuario.remove(suscripcion);
+            return delUsuario.isEmpty() ? null : delUsuario;
+        });
+    }
+
+    /**
+     * Conexión SSE abierta de un usuario con los ids que ya recibió.
+     */
+    private record Suscripcion(Long usuarioId, SseEmitter emitter, Set<Long> enviadas) {
+
+        private Suscripcion(Long usuarioId, SseEmitter emitter) {
+            this(usuarioId, emitter, Collections.newSetFromMap(new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Boolean> mayor) {
+                    return size() > IDS_RECORDADOS;
+                }
+            }));
+        }
+
+        /**
+         * Devuelve false si la notificación ya se envió por esta conexión.
+         */
+        private boolean marcarEnviada(Long notificacionId) {
+            synchronized (enviadas) {
+                return enviadas.add(notificacionId);
+            }
+        }
+    }
+}
@@ -19,6 +19,9 @@ import java.time.LocalDateTime;
 public class NotificationService {
 
     private final NotificacionRepository notificacionRepository;
+    private final NotificacionesPushService pushService;
+    private final BandejaNotificacionesService bandeja;
+    private final CorreosSalientesService correosSalientes;
 
     /**
      * Tipos de notificación
@@ -53,6 +56,9 @@ public class NotificationService {
         notificacion.setFechaEnvio(LocalDateTime.now());
 
         NotificacionEntity saved = notificacionRepository.save(notificacion);
+        pushService.publicarAlConfirmar(saved);
+        bandeja.registrarNueva(usuarioId);
+        correosSalientes.encolar(usuarioId, tipo, titulo, mensaje);
         log.info("📬 Notificación creada - Usuario: {}, Tipo: {}", usuarioId, tipo);
 
         return saved;
@@ -91,6 +97,9 @@ public class NotificationService {
         }
 
         NotificacionEntity saved = notificacionRepository.save(notificacion);
+        pushService.publicarAlConfirmar(saved);
+        bandeja.registrarNueva(usuarioId);
+        correosSalientes.encolar(usuarioId, tipo, titulo, mensaje);
         log.info("📬 Notificación con metadata creada - Usuario: {}, Tipo: {}, MetaId: {}",
                 usuarioId, tipo, metadata.get("metaId"));
 
@@ -0,0 +1,219 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancieroEntity;
+import com.controfinanciero.infrastructure.persistence.repository.MovimientoFinancieroJpaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 🗂️ Servicio de Particionado de Movimientos
+ * Gestiona el particionado declarativo por rango mensual de 'financial_movements'
+ * (PARTITION BY RANGE (movement_date)): conversión inicial de la tabla, creación
+ * de particiones futuras y archivado (DETACH) de particiones antiguas.
+ * La entidad JPA no cambia: los ids siguen siendo únicos por la secuencia pooled.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ParticionesMovimientosService {
+
+    private static final String TABLA = "financial_movements";
+    private static final String PARTICION_DEFAULT = TABLA + "_default";
+    private static final String PREFIJO_PARTICION = TABLA + "_p";
+
+    /**
+     * Meses hacia atrás que reciben partición propia en la conversión;
+     * los movimientos más antiguos quedan en la partición DEFAULT.
+     */
+    private static final int MAXIMO_MESES_HISTORICOS = 240;
+
+    /**
+     * Índices de la entidad; se crean sobre la tabla padre y se propagan a cada partición.
+     */
+    private static final String[] INDICES = {
+            "CREATE INDEX IF NOT EXISTS idx_financial_movements_user_date ON " + TABLA + " (user_id, movement_date)",
+            "CREATE INDEX IF NOT EXISTS idx_financial_movements_user_type ON " + TABLA + " (user_id, movement_type)",
+            "CREATE INDEX IF NOT EXISTS idx_financial_movements_date ON " + TABLA + " (movement_date)",
+            "CREATE INDEX IF NOT EXISTS idx_financial_movements_category ON " + TABLA + " (category_id)",
+            "CREATE INDEX IF NOT EXISTS idx_financial_movements_goal ON " + TABLA + " (goal_id)"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${particiones.movimientos.meses-adelante:3}")
+    private int mesesAdelante;
+
+    /**
+     * Meses completos que se conservan en la tabla; 0 desactiva el archivado.
+     */
+    @Value("${particiones.movimientos.meses-retencion:0}")
+    private int mesesRetencion;
+
+    @Value("${particiones.movimientos.esquema-archivo:archivo}")
+    private String esquemaArchivo;
+
+    public boolean estaParticionada() {
+        Boolean particionada = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))",
+                Boolean.class, TABLA);
+        return Boolean.TRUE.equals(particionada);
+    }
+
+    /**
+     * Convierte la tabla actual en una tabla particionada por mes, en una sola transacción:
+     * renombra la tabla, crea la nueva con la misma estructura, copia las filas y elimina la anterior.
+     * Bloquea la tabla durante la copia; pensado para una ventana de mantenimiento.
+     * Devuelve la cantidad de filas migradas (0 si ya estaba particionada).
+     */
+    public long convertirATablaParticionada() {
+        if (estaParticionada()) {
+            log.info("🗂️ {} ya está particionada", TABLA);
+            return 0;
+        }
+
+        Long migradas = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("LOCK TABLE " + TABLA + " IN ACCESS EXCLUSIVE MODE");
+            jdbcTemplate.execute("ALTER TABLE " + TABLA + " RENAME TO " + TABLA + "_legacy");
+
+            // Estructura idéntica (tipo ENUM y restricciones CHECK); el id deja de ser IDENTITY y usa la secuencia pooled
+            jdbcTemplate.execute("CREATE TABLE " + TABLA + " (LIKE " + TABLA + "_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING STORAGE) " +
+                    "PARTITION BY RANGE (movement_date)");
+            jdbcTemplate.execute("ALTER TABLE " + TABLA + " ALTER COLUMN id SET DEFAULT nextval('" +
+                    MovimientoFinancieroEntity.SECUENCIA + "')");
+            jdbcTemplate.execute("CREATE TABLE " + PARTICION_DEFAULT + " PARTITION OF " + TABLA + " DEFAULT");
+
+            YearMonth actual = YearMonth.now();
+            LocalDate minima = jdbcTemplate.queryForObject(
+                    "SELECT MIN(movement_date) FROM " + TABLA + "_legacy", LocalDate.class);
+            YearMonth desde = minima != null ? YearMonth.from(minima) : actual;
+            if (desde.isBefore(actual.minusMonths(MAXIMO_MESES_HISTORICOS))) {
+                desde = actual.minusMonths(MAXIMO_MESES_HISTORICOS);
+            }
+            for (YearMonth mes = desde; !mes.isAfter(actual.plusMonths(mesesAdelante)); mes = mes.plusMonths(1)) {
+                jdbcTemplate.execute("CREATE TABLE " + nombreParticion(mes) + " PARTITION OF " + TABLA +
+                        " FOR VALUES FROM ('" + mes.atDay(1) + "') TO ('" + mes.plusMonths(1).atDay(1) + "')");
+            }
+
+            int filas = jdbcTemplate.update("INSERT INTO " + TABLA + " SELECT * FROM " + TABLA + "_legacy");
+            jdbcTemplate.execute("DROP TABLE " + TABLA + "_legacy");
+
+            // La clave primaria de una tabla particionada debe incluir la columna de partición
+            jdbcTemplate.execute("ALTER TABLE " + TABLA + " ADD CONSTRAINT " + TABLA + "_pkey PRIMARY KEY (id, movement_date)");
+            for (String indice : INDICES) {
+                jdbcTemplate.execute(indice);
+            }
+            return (long) filas;
+        });
+
+        jdbcTemplate.execute("ANALYZE " + TABLA);
+        log.info("🗂️ {} convertida a tabla particionada por mes: {} filas migradas", TABLA, migradas);
+        return migradas != null ? migradas : 0;
+    }
+
+    /**
+     * Crea las particiones del mes actual y de los próximos meses que aún no existen.
+     * Las filas de esos meses que hubieran caído en la partición DEFAULT se trasladan a la nueva.
+     */
+    public List<String> crearParticionesFuturas() {
+        List<String> creadas = new ArrayList<>();
+        YearMonth actual = YearMonth.now();
+        for (YearMonth mes = actual; !mes.isAfter(actual.plusMonths(mesesAdelante)); mes = mes.plusMonths(1)) {
+            String nombre = nombreParticion(mes);
+            if (existeTabla(nombre)) {
+                continue;
+            }
+
+            LocalDate inicio = mes.atDay(1);
+            LocalDate fin = mes.plusMonths(1).atDay(1);
+            // ATTACH exige que la partición tenga las mismas restricciones CHECK que la tabla padre
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("CREATE TABLE " + nombre + " (LIKE " + TABLA + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING STORAGE)");
+                int trasladadas = jdbcTemplate.update(
+                        "WITH movidas AS (DELETE FROM " + PARTICION_DEFAULT +
+                        " WHERE movement_date >= ? AND movement_date < ? RETURNING *) " +
+                        "INSERT INTO " + nombre + " SELECT * FROM movidas",
+                        inicio, fin);
+                jdbcTemplate.execute("ALTER TABLE " + TABLA + " ATTACH PARTITION " + nombre +
+                        " FOR VALUES FROM ('" + inicio + "') TO ('" + fin + "')");
+                if (trasladadas > 0) {
+                    log.info("🗂️ {} filas trasladadas desde {} a {}", trasladadas, PARTICION_DEFAULT, nombre);
+                }
+            });
+            creadas.add(nombre);
+            log.info("🗂️ Partición {} creada", nombre);
+        }
+        return creadas;
+    }
+
+    /**
+     * Desvincula (DETACH) las particiones mensuales anteriores al periodo de retención y las mueve
+     * al esquema de archivo. Sus filas dejan de aparecer en las consultas pero se conservan;
+     * el resumen mensual ('user_monthly_rollup') mantiene los totales de esos meses porque su
+     * reconstrucción solo recalcula desde inicioHistorialVigente().
+     */
+    public List<String> archivarParticionesAntiguas() {
+        List<String> archivadas = new ArrayList<>();
+        if (mesesRetencion <= 0) {
+            return archivadas;
+        }
+
+        YearMonth limite = YearMonth.now().minusMonths(mesesRetencion);
+        List<String> particiones = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = to_regclass(?) AND c.relname ~ '^" + PREFIJO_PARTICION + "[0-9]{4}_[0-9]{2}$' " +
+                "ORDER BY c.relname",
+                String.class, TABLA);
+
+        for (String particion : particiones) {
+            YearMonth mes = YearMonth.parse(particion.substring(PREFIJO_PARTICION.length()).replace('_', '-'));
+            if (!mes.isBefore(limite)) {
+                continue;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + esquemaArchivo);
+                jdbcTemplate.execute("ALTER TABLE " + TABLA + " DETACH PARTITION " + particion);
+                jdbcTemplate.execute("ALTER TABLE " + particion + " SET SCHEMA " + esquemaArchivo);
+            });
+            archivadas.add(particion);
+            log.info("📦 Partición {} archivada en el esquema {}", particion, esquemaArchivo);
+        }
+        return archivadas;
+    }
+
+    /**
+     * Primer día del historial que sigue en 'financial_movements': el mes siguiente a la última
+     * partición archivada, o FECHA_MINIMA si no se archivó ninguna. Los meses anteriores solo
+     * existen ya en el resumen mensual y no deben reconstruirse desde la tabla.
+     */
+    public LocalDate inicioHistorialVigente() {
+        String ultima = jdbcTemplate.queryForObject(
+                "SELECT max(c.relname) FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                "WHERE n.nspname = ? AND c.relname ~ '^" + PREFIJO_PARTICION + "[0-9]{4}_[0-9]{2}$'",
+                String.class, esquemaArchivo);
+        if (ultima == null) {
+            return MovimientoFinancieroJpaRepository.FECHA_MINIMA;
+        }
+        return YearMonth.parse(ultima.substring(PREFIJO_PARTICION.length()).replace('_', '-'))
+                .plusMonths(1)
+                .atDay(1);
+    }
+
+    private boolean existeTabla(String nombre) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, nombre));
+    }
+
+    private static String nombreParticion(YearMonth mes) {
+        return PREFIJO_PARTICION + String.format("%04d_%02d", mes.getYear(), mes.getMonthValue());
+    }
+}
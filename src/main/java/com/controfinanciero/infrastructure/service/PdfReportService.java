@@ -14,9 +14,11 @@ import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
+import com.controfinanciero.infrastructure.config.ReplicaJpaTransactionManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
@@ -29,10 +31,12 @@ import java.util.Map;
 /**
  * 📄 Servicio de Generación de PDFs
  * Crea reportes profesionales en PDF
+ * Solo lectura: se ejecuta contra la réplica cuando está configurada
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true, label = ReplicaJpaTransactionManager.LECTURA_REPLICA)
 public class PdfReportService {
 
     private final MovimientoFinancieroRepository movimientoRepo;
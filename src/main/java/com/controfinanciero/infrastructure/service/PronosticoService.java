@@ -0,0 +1,326 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+import com.controfinanciero.domain.service.HoltWinters;
+import com.controfinanciero.infrastructure.persistence.entity.PronosticoMensualEntity;
+import com.controfinanciero.infrastructure.persistence.repository.PronosticoMensualJpaRepository;
+import com.controfinanciero.infrastructure.persistence.repository.ResumenMensualUsuarioJpaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 🔮 Servicio de Pronósticos
+ * Ajusta un modelo de suavizado exponencial (Holt-Winters con estacionalidad anual) por
+ * usuario, tipo de movimiento (ingresos y gastos) y categoría sobre los totales mensuales
+ * precalculados ('user_monthly_rollup'), y guarda los pronósticos del mes en curso y del
+ * siguiente en 'monthly_forecasts'.
+ * El recálculo nocturno reparte los usuarios activos en tramos de ids y los procesa en
+ * paralelo con ForkJoin; cada tramo lee sus series en una consulta y escribe sus
+ * pronósticos en un lote JDBC. Las lecturas sirven la fila guardada y solo reajustan
+ * al usuario (una consulta y un lote) si su pronóstico no existe o es de un mes anterior.
+ */
+@Slf4j
+@Service
+public class PronosticoService {
+
+    private static final int PERIODO_ESTACIONAL = 12;
+
+    private static final String CONSULTA_USUARIOS_ACTIVOS =
+            "SELECT DISTINCT user_id FROM user_monthly_rollup WHERE period BETWEEN ? AND ? ORDER BY user_id";
+
+    private static final String CONSULTA_SERIES =
+            "SELECT user_id, movement_type, category_id, period, total_amount FROM user_monthly_rollup " +
+            "WHERE user_id BETWEEN ? AND ? AND period BETWEEN ? AND ? " +
+            "AND movement_type IN ('INCOME', 'EXPENSE') AND movement_count > 0 " +
+            "ORDER BY user_id, movement_type, category_id, period";
+
+    private static final String INSERTAR_PRONOSTICO =
+            "INSERT INTO monthly_forecasts (user_id, movement_type, category_id, base_month, " +
+            "forecast_current, forecast_next, model, rmse, fitted_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PronosticoMensualJpaRepository pronosticoRepository;
+
+    /**
+     * Transacción propia para escribir pronósticos aunque el llamador esté en una
+     * transacción de solo lectura (enrutada a la réplica).
+     */
+    private final TransactionTemplate transaccionEscritura;
+
+    @Value("${pronosticos.meses-historia:36}")
+    private int mesesHistoria;
+
+    /**
+     * Tramos procesados a la vez; cada uno usa una conexión del pool primario.
+     */
+    @Value("${pronosticos.paralelismo:3}")
+    private int paralelismo;
+
+    @Value("${pronosticos.usuarios-por-tramo:200}")
+    private int usuariosPorTramo;
+
+    public PronosticoService(JdbcTemplate jdbcTemplate,
+                             PronosticoMensualJpaRepository pronosticoRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pronosticoRepository = pronosticoRepository;
+        this.transaccionEscritura = new TransactionTemplate(transactionManager);
+        this.transaccionEscritura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Pronósticos vigentes del usuario. Si no hay o se calcularon antes del último mes
+     * completo, se reajustan en el momento.
+     */
+    public PronosticoUsuario obtener(Long usuarioId) {
+        YearMonth mesBase = YearMonth.now().minusMonths(1);
+        String periodoBase = mesBase.format(ResumenMensualUsuarioJpaRepository.FORMATO_PERIODO);
+
+        List<PronosticoMensualEntity> filas = pronosticoRepository.findByUsuarioId(usuarioId);
+        if (filas.isEmpty() || filas.stream().anyMatch(f -> !periodoBase.equals(f.getMesBase()))) {
+            filas = reajustarUsuario(usuarioId);
+        }
+        return new PronosticoUsuario(mesBase, filas);
+    }
+
+    /**
+     * Reajusta los pronósticos de un usuario y devuelve las filas calculadas
+     * (sin releerlas: la lectura podría ir a una réplica todavía sin ellas).
+     */
+    public List<PronosticoMensualEntity> reajustarUsuario(Long usuarioId) {
+        return ajustarTramo(usuarioId, usuarioId, YearMonth.now().minusMonths(1));
+    }
+
+    /**
+     * 🌙 Recalcula los pronósticos de todos los usuarios con movimientos en la ventana de historia.
+     * Devuelve la cantidad de pronósticos guardados.
+     */
+    public int recalcularTodos() {
+        long inicio = System.currentTimeMillis();
+        YearMonth mesBase = YearMonth.now().minusMonths(1);
+        String periodoBase = mesBase.format(ResumenMensualUsuarioJpaRepository.FORMATO_PERIODO);
+
+        long[] usuarios = jdbcTemplate.queryForList(CONSULTA_USUARIOS_ACTIVOS, Long.class,
+                        periodoInicial(mesBase), periodoBase).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+
+        int guardados = 0;
+        if (usuarios.length > 0) {
+            try (ForkJoinPool pool = new ForkJoinPool(paralelismo)) {
+                guardados = pool.invoke(new TramoUsuarios(usuarios, 0, usuarios.length, mesBase));
+            }
+        }
+
+        // Usuarios que salieron de la ventana de historia
+        int obsoletos = jdbcTemplate.update("DELETE FROM monthly_forecasts WHERE base_month <> ?", periodoBase);
+
+        log.info("🔮 Pronósticos recalculados: {} usuarios, {} pronósticos, {} obsoletos eliminados en {} ms",
+                usuarios.length, guardados, obsoletos, System.currentTimeMillis() - inicio);
+        return guardados;
+    }
+
+    /**
+     * Ajusta todas las series de los usuarios con id en [desdeUsuario, hastaUsuario]
+     * y reemplaza sus pronósticos en una transacción.
+     */
+    private List<PronosticoMensualEntity> ajustarTramo(long desdeUsuario, long hastaUsuario, YearMonth mesBase) {
+        YearMonth mesInicial = mesBase.minusMonths(mesesHistoria - 1L);
+        String periodoBase = mesBase.format(ResumenMensualUsuarioJpaRepository.FORMATO_PERIODO);
+        LocalDateTime ahora = LocalDateTime.now();
+
+        List<PronosticoMensualEntity> pronosticos = new ArrayList<>();
+        SerieEnCurso serie = new SerieEnCurso(mesInicial);
+
+        // Las filas llegan ordenadas por serie: cada serie se ajusta al empezar la siguiente
+        jdbcTemplate.query(CONSULTA_SERIES, rs -> {
+            long usuarioId = rs.getLong("user_id");
+            TipoMovimiento tipo = TipoMovimiento.valueOf(rs.getString("movement_type"));
+            long categoriaId = rs.getLong("category_id");
+
+            if (!serie.es(usuarioId, tipo, categoriaId)) {
+                serie.ajustar(periodoBase, ahora, pronosticos);
+                serie.reiniciar(usuarioId, tipo, categoriaId);
+            }
+            serie.agregar(YearMonth.parse(rs.getString("period"), ResumenMensualUsuarioJpaRepository.FORMATO_PERIODO),
+                    rs.getBigDecimal("total_amount"));
+        }, desdeUsuario, hastaUsuario, mesInicial.format(ResumenMensualUsuarioJpaRepository.FORMATO_PERIODO), periodoBase);
+        serie.ajustar(periodoBase, ahora, pronosticos);
+
+        transaccionEscritura.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM monthly_forecasts WHERE user_id BETWEEN ? AND ?", desdeUsuario, hastaUsuario);
+            if (pronosticos.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(INSERTAR_PRONOSTICO, pronosticos, pronosticos.size(), (ps, p) -> {
+                ps.setLong(1, p.getUsuarioId());
+                ps.setString(2, p.getTipoMovimiento().name());
+                ps.setLong(3, p.getCategoriaId());
+                ps.setString(4, p.getMesBase());
+                ps.setBigDecimal(5, p.getPronosticoMesActual());
+                ps.setBigDecimal(6, p.getPronosticoMesSiguiente());
+                ps.setString(7, p.getModelo());
+                ps.setDouble(8, p.getRmse());
+                ps.setTimestamp(9, Timestamp.valueOf(p.getFittedAt()));
+            });
+        });
+        return pronosticos;
+    }
+
+    private String periodoInicial(YearMonth mesBase) {
+        return mesBase.minusMonths(mesesHistoria - 1L).format(ResumenMensualUsuarioJpaRepository.FORMATO_PERIODO);
+    }
+
+    /**
+     * Tramo de usuarios activos (posiciones [desde, hasta) del arreglo ordenado de ids).
+     * Se divide hasta tener como mucho usuariosPorTramo usuarios; un tramo que falla
+     * se registra y no detiene a los demás.
+     */
+    private final class TramoUsuarios extends RecursiveTask<Integer> {
+
+        private final long[] usuarios;
+        private final int desde;
+        private final int hasta;
+        private final YearMonth mesBase;
+
+        private TramoUsuarios(long[] usuarios, int desde, int hasta, YearMonth mesBase) {
+            this.usuarios = usuarios;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.mesBase = mesBase;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (hasta - desde <= usuariosPorTramo) {
+                try {
+                    return ajustarTramo(usuarios[desde], usuarios[hasta - 1], mesBase).size();
+                } catch (Exception e) {
+                    log.error("❌ Error pronosticando usuarios {}-{}: {}",
+                            usuarios[desde], usuarios[hasta - 1], e.getMessage(), e);
+                    return 0;
+                }
+            }
+
+            int medio = (desde + hasta) >>> 1;
+            TramoUsuarios izquierda = new TramoUsuarios(usuarios, desde, medio, mesBase);
+            TramoUsuarios derecha = new TramoUsuarios(usuarios, medio, hasta, mesBase);
+            izquierda.fork();
+            int guardadosDerecha = derecha.compute();
+            return izquierda.join() + guardadosDerecha;
+        }
+    }
+
+    /**
+     * Serie mensual que se está leyendo (una por usuario, tipo y categoría).
+     * Los meses sin fila en el resumen cuentan como 0.
+     */
+    private final class SerieEnCurso {
+
+        private final YearMonth mesInicial;
+        private final double[] valores = new double[mesesHistoria];
+        private Long usuarioId;
+        private TipoMovimiento tipo;
+        private long categoriaId;
+        private int primerMes = Integer.MAX_VALUE;
+
+        private SerieEnCurso(YearMonth mesInicial) {
+            this.mesInicial = mesInicial;
+        }
+
+        private boolean es(long usuarioId, TipoMovimiento tipo, long categoriaId) {
+            return this.usuarioId != null && this.usuarioId == usuarioId
+                    && this.tipo == tipo && this.categoriaId == categoriaId;
+        }
+
+        private void reiniciar(long usuarioId, TipoMovimiento tipo, long categoriaId) {
+            this.usuarioId = usuarioId;
+            this.tipo = tipo;
+            this.categoriaId = categoriaId;
+            this.primerMes = Integer.MAX_VALUE;
+            Arrays.fill(valores, 0);
+        }
+
+        private void agregar(YearMonth mes, BigDecimal total) {
+            int posicion = (int) ChronoUnit.MONTHS.between(mesInicial, mes);
+            valores[posicion] = total.doubleValue();
+            primerMes = Math.min(primerMes, posicion);
+        }
+
+        /**
+         * Ajusta la serie desde su primer mes con datos y agrega el pronóstico a la lista.
+         */
+        private void ajustar(String periodoBase, LocalDateTime ahora, List<PronosticoMensualEntity> pronosticos) {
+            if (usuarioId == null || primerMes == Integer.MAX_VALUE) {
+                return;
+            }
+            HoltWinters.Ajuste ajuste = HoltWinters.ajustar(
+                    Arrays.copyOfRange(valores, primerMes, valores.length), PERIODO_ESTACIONAL);
+
+            PronosticoMensualEntity pronostico = new PronosticoMensualEntity();
+            pronostico.setUsuarioId(usuarioId);
+            pronostico.setTipoMovimiento(tipo);
+            pronostico.setCategoriaId(categoriaId);
+            pronostico.setMesBase(periodoBase);
+            pronostico.setPronosticoMesActual(monto(ajuste.pronosticar(1)));
+            pronostico.setPronosticoMesSiguiente(monto(ajuste.pronosticar(2)));
+            pronostico.setModelo(ajuste.modelo());
+            pronostico.setRmse(ajuste.rmse());
+            pronostico.setFittedAt(ahora);
+            pronosticos.add(pronostico);
+        }
+
+        private BigDecimal monto(double valor) {
+            return BigDecimal.valueOf(valor).setScale(2, RoundingMode.HALF_UP);
+        }
+    }
+
+    // ========== DTOs ==========
+
+    /**
+     * Pronósticos de un usuario calculados con los meses completos hasta mesBase.
+     */
+    public record PronosticoUsuario(YearMonth mesBase, List<PronosticoMensualEntity> categorias) {
+
+        public boolean tiene(TipoMovimiento tipo) {
+            return categorias.stream().anyMatch(p -> p.getTipoMovimiento() == tipo);
+        }
+
+        /**
+         * Total pronosticado del mes en curso (suma de las categorías).
+         */
+        public BigDecimal mesActual(TipoMovimiento tipo) {
+            return categorias.stream()
+                    .filter(p -> p.getTipoMovimiento() == tipo)
+                    .map(PronosticoMensualEntity::getPronosticoMesActual)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+
+        /**
+         * Total pronosticado del mes siguiente (suma de las categorías).
+         */
+        public BigDecimal mesSiguiente(TipoMovimiento tipo) {
+            return categorias.stream()
+                    .filter(p -> p.getTipoMovimiento() == tipo)
+                    .map(PronosticoMensualEntity::getPronosticoMesSiguiente)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+    }
+}
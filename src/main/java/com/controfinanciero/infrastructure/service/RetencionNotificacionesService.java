@@ -0,0 +1,153 @@
+package com.controfinanciero.infrastructure.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🧹 Retención de Notificaciones
+ * Aplica políticas de retención por antigüedad y estado de lectura directamente en la base:
+ * cada política borra en lotes de 'tamano-lote' filas (DELETE por ctid de un SELECT ... LIMIT),
+ * cada lote en su propia transacción corta. Nunca se cargan notificaciones en la JVM ni se
+ * bloquea la tabla entera; los lotes siguen hasta que no quedan filas que cumplan la política.
+ * Métricas (actuator): 'notificaciones.retencion.eliminadas' (contador) y
+ * 'notificaciones.retencion.duracion' (timer), con la etiqueta 'politica'.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RetencionNotificacionesService {
+
+    public static final String LEIDAS = "leidas";
+    public static final String NO_LEIDAS = "no-leidas";
+    public static final String METAS_SIN_META = "metas-sin-meta";
+
+    /**
+     * Tipos de notificación de metas compartidas; sin meta_id no se pueden abrir.
+     */
+    public static final List<String> TIPOS_METAS_COMPARTIDAS = List.of(
+            "META_COMPARTIDA", "APORTE_META_COMPARTIDA", "META_COMPLETADA", "RECORDATORIO_META");
+
+    private static final String CONDICION_LEIDAS =
+            "leida = true AND created_at < now() - make_interval(days => ?)";
+    private static final String CONDICION_NO_LEIDAS =
+            "leida = false AND created_at < now() - make_interval(days => ?)";
+    private static final String CONDICION_METAS_SIN_META =
+            "tipo IN ('" + String.join("', '", TIPOS_METAS_COMPARTIDAS) + "') AND meta_id IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final BandejaNotificacionesService bandeja;
+
+    /**
+     * Días que se conservan las notificaciones leídas
+     */
+    @Value("${notificaciones.retencion.dias-leidas:30}")
+    private int diasLeidas;
+
+    /**
+     * Días que se conservan las notificaciones sin leer; 0 las conserva siempre
+     */
+    @Value("${notificaciones.retencion.dias-no-leidas:180}")
+    private int diasNoLeidas;
+
+    @Value("${notificaciones.retencion.tamano-lote:5000}")
+    private int tamanoLote;
+
+    /**
+     * Pausa entre lotes para no competir con el tráfico normal
+     */
+    @Value("${notificaciones.retencion.pausa-ms:50}")
+    private long pausaMs;
+
+    /**
+     * Aplica todas las políticas de retención.
+     */
+    public List<ResultadoRetencion> aplicarPoliticas() {
+        List<ResultadoRetencion> resultados = new ArrayList<>();
+        resultados.add(eliminarEnLotes(LEIDAS, CONDICION_LEIDAS, diasLeidas));
+        if (diasNoLeidas > 0) {
+            resultados.add(eliminarEnLotes(NO_LEIDAS, CONDICION_NO_LEIDAS, diasNoLeidas));
+        }
+        resultados.add(eliminarMetasSinMeta());
+        return resultados;
+    }
+
+    /**
+     * Elimina las notificaciones de metas compartidas sin meta_id (corruptas).
+     */
+    public ResultadoRetencion eliminarMetasSinMeta() {
+        return eliminarEnLotes(METAS_SIN_META, CONDICION_METAS_SIN_META);
+    }
+
+    /**
+     * Borra por lotes las filas que cumplen la condición hasta agotarlas.
+     */
+    private ResultadoRetencion eliminarEnLotes(String politica, String condicion, Object... parametros) {
+        String sql = "DELETE FROM notificaciones WHERE ctid = ANY (ARRAY(" +
+                "SELECT ctid FROM notificaciones WHERE " + condicion + " LIMIT " + tamanoLote + "))";
+        Counter eliminadasCounter = Counter.builder("notificaciones.retencion.eliminadas")
+                .description("Notificaciones eliminadas por la política de retención")
+                .tag("politica", politica)
+                .register(meterRegistry);
+
+        long inicio = System.nanoTime();
+        long eliminadas = 0;
+        int lotes = 0;
+        int eliminadasLote;
+        do {
+            eliminadasLote = jdbcTemplate.update(sql, parametros);
+            eliminadas += eliminadasLote;
+            lotes++;
+            eliminadasCounter.increment(eliminadasLote);
+
+            if (eliminadasLote == tamanoLote) {
+                log.debug("🧹 Retención '{}': lote {} ({} eliminadas hasta ahora)", politica, lotes, eliminadas);
+                pausar();
+            }
+        } while (eliminadasLote == tamanoLote);
+
+        // Pudo borrar notificaciones sin leer: los contadores en memoria se recargan de la base
+        if (eliminadas > 0 && !LEIDAS.equals(politica)) {
+            bandeja.invalidarContadores();
+        }
+
+        long duracion = System.nanoTime() - inicio;
+        Timer.builder("notificaciones.retencion.duracion")
+                .description("Duración de cada política de retención de notificaciones")
+                .tag("politica", politica)
+                .register(meterRegistry)
+                .record(duracion, TimeUnit.NANOSECONDS);
+
+        ResultadoRetencion resultado = new ResultadoRetencion(politica, eliminadas, lotes, TimeUnit.NANOSECONDS.toMillis(duracion));
+        log.info("🧹 Retención '{}': {} notificaciones eliminadas en {} lotes ({} ms)",
+                politica, eliminadas, lotes, resultado.milisegundos());
+        return resultado;
+    }
+
+    private void pausar() {
+        if (pausaMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pausaMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Retención de notificaciones interrumpida", e);
+        }
+    }
+
+    // ========== DTOs ==========
+
+    public record ResultadoRetencion(String politica, long eliminadas, int lotes, long milisegundos) {
+    }
+}
@@ -0,0 +1,188 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.domain.event.EventoMovimiento;
+import com.controfinanciero.domain.event.MovimientoCreado;
+import com.controfinanciero.domain.event.MovimientoEliminado;
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+import com.controfinanciero.domain.repository.MetaFinancieraRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 🧩 Suscriptores de eventos de movimientos
+ * Efectos secundarios que antes corrían dentro de la petición (o no corrían):
+ * - MovimientoCreado: racha de actividad (GamificationService), redondeo de gastos
+ *   (AutomaticSavingsService) y progreso de la meta vinculada a un ahorro (GoalMonitorService).
+ * - MovimientoEliminado: revierte el redondeo ahorrado por el gasto eliminado y el aporte
+ *   que un ahorro eliminado había sumado a su meta.
+ * Cada efecto corre en su propia transacción (REQUIRES_NEW: también se entregan desde
+ * afterCommit) y se reintenta con espera exponencial. Los efectos que no son idempotentes
+ * por sí mismos se marcan en 'movement_event_effects' en la misma transacción, así que un
+ * evento entregado dos veces no ahorra ni suma a la meta dos veces.
+ */
+@Slf4j
+@Service
+public class SuscriptoresMovimientosService {
+
+    private static final String EFECTO_REDONDEO = "REDONDEO";
+    private static final String EFECTO_META = "META";
+
+    private static final String MARCAR =
+            "INSERT INTO movement_event_effects (movement_id, effect, created_at) VALUES (?, ?, now()) " +
+            "ON CONFLICT (movement_id, effect) DO NOTHING";
+
+    private static final String REGISTRAR_MONTO =
+            "UPDATE movement_event_effects SET amount = ? WHERE movement_id = ? AND effect = ?";
+
+    private static final String DESMARCAR =
+            "DELETE FROM movement_event_effects WHERE movement_id = ? AND effect = ?";
+
+    /**
+     * Deja el monto en 0 (la marca se conserva para que una entrega tardía de MovimientoCreado
+     * no vuelva a aplicarlo) y devuelve el monto que se había aplicado.
+     */
+    private static final String REVERTIR =
+            "UPDATE movement_event_effects e SET amount = 0 " +
+            "FROM (SELECT id, amount FROM movement_event_effects " +
+            "WHERE movement_id = ? AND effect = ? AND amount > 0 FOR UPDATE) previo " +
+            "WHERE e.id = previo.id RETURNING previo.amount";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccion;
+    private final GamificationService gamificationService;
+    private final AutomaticSavingsService automaticSavingsService;
+    private final MetaFinancieraRepository metaRepository;
+    private final GoalMonitorService goalMonitorService;
+
+    @Value("${eventos.max-intentos:3}")
+    private int maxIntentos;
+
+    @Value("${eventos.espera-reintento-ms:200}")
+    private long esperaReintentoMs;
+
+    public SuscriptoresMovimientosService(JdbcTemplate jdbcTemplate,
+                                          PlatformTransactionManager transactionManager,
+                                          GamificationService gamificationService,
+                                          AutomaticSavingsService automaticSavingsService,
+                                          MetaFinancieraRepository metaRepository,
+                                          GoalMonitorService goalMonitorService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.transaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.gamificationService = gamificationService;
+        this.automaticSavingsService = automaticSavingsService;
+        this.metaRepository = metaRepository;
+        this.goalMonitorService = goalMonitorService;
+    }
+
+    @EventListener
+    public void alCrearMovimiento(MovimientoCreado evento) {
+        // La racha avanza una vez por día (última actividad): repetirla no cambia nada
+        aplicar("racha", evento, () -> gamificationService.registrarActividad(evento.usuarioId()));
+
+        if (evento.tipo() == TipoMovimiento.EXPENSE) {
+            aplicar("redondeo", evento, () -> {
+                if (!marcar(evento, EFECTO_REDONDEO)) {
+                    return;
+                }
+                BigDecimal redondeo = automaticSavingsService.procesarRedondeo(evento.usuarioId(), evento.monto());
+                if (redondeo.signum() > 0) {
+                    jdbcTemplate.update(REGISTRAR_MONTO, redondeo, evento.movimientoId(), EFECTO_REDONDEO);
+                } else {
+                    // Sin ahorro automático activo no queda nada que revertir: no se guarda la marca
+                    jdbcTemplate.update(DESMARCAR, evento.movimientoId(), EFECTO_REDONDEO);
+                }
+            });
+        }
+
+        if (evento.tipo() == TipoMovimiento.SAVINGS && evento.metaId() != null) {
+            aplicar("meta", evento, () -> {
+                if (!marcar(evento, EFECTO_META)) {
+                    return;
+                }
+                // UPDATE atómico: los aportes a una meta compartida llegan por carriles distintos
+                if (!metaRepository.agregarMonto(evento.metaId(), evento.monto())) {
+                    log.warn("⚠️ Meta #{} inexistente o no activa: no se suma el ahorro del movimiento #{}",
+                            evento.metaId(), evento.movimientoId());
+                    return;
+                }
+                jdbcTemplate.update(REGISTRAR_MONTO, evento.monto(), evento.movimientoId(), EFECTO_META);
+
+                // ✅ Verificar progreso de la meta y generar notificación si aplica
+                goalMonitorService.verificarProgresoMeta(evento.metaId());
+            });
+        }
+    }
+
+    @EventListener
+    public void alEliminarMovimiento(MovimientoEliminado evento) {
+        if (evento.tipo() == TipoMovimiento.EXPENSE) {
+            aplicar("reversión de redondeo", evento, () -> {
+                List<BigDecimal> revertido = jdbcTemplate.queryForList(
+                        REVERTIR, BigDecimal.class, evento.movimientoId(), EFECTO_REDONDEO);
+                if (!revertido.isEmpty()) {
+                    automaticSavingsService.revertirRedondeo(evento.usuarioId(), revertido.get(0));
+                }
+            });
+        }
+
+        if (evento.tipo() == TipoMovimiento.SAVINGS && evento.metaId() != null) {
+            aplicar("reversión de meta", evento, () -> {
+                // Solo se descuenta lo que realmente se sumó (la marca guarda el monto aplicado)
+                List<BigDecimal> revertido = jdbcTemplate.queryForList(
+                        REVERTIR, BigDecimal.class, evento.movimientoId(), EFECTO_META);
+                if (revertido.isEmpty()) {
+                    return;
+                }
+                if (!metaRepository.quitarMonto(evento.metaId(), revertido.get(0))) {
+                    log.warn("⚠️ Meta #{} inexistente: no se descuenta el ahorro eliminado #{}",
+                            evento.metaId(), evento.movimientoId());
+                }
+            });
+        }
+    }
+
+    /**
+     * Registra la marca del efecto; false si el efecto ya se había aplicado.
+     */
+    private boolean marcar(EventoMovimiento evento, String efecto) {
+        return jdbcTemplate.update(MARCAR, evento.movimientoId(), efecto) == 1;
+    }
+
+    /**
+     * Ejecuta el efecto en su propia transacción, con reintentos ante errores transitorios.
+     * Un efecto fallido no impide los demás efectos del evento.
+     */
+    private void aplicar(String efecto, EventoMovimiento evento, Runnable accion) {
+        for (int intento = 1; ; intento++) {
+            try {
+                transaccion.executeWithoutResult(status -> accion.run());
+                return;
+            } catch (RuntimeException e) {
+                if (intento >= maxIntentos) {
+                    log.error("❌ Efecto '{}' del movimiento #{} fallido tras {} intentos: {}",
+                            efecto, evento.movimientoId(), intento, e.getMessage(), e);
+                    return;
+                }
+                log.warn("⚠️ Efecto '{}' del movimiento #{} falló en el intento {}, se reintentará: {}",
+                        efecto, evento.movimientoId(), intento, e.getMessage());
+            }
+
+            try {
+                Thread.sleep(esperaReintentoMs * (1L << (intento - 1)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
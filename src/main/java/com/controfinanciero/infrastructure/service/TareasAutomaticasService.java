@@ -0,0 +1,218 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.domain.repository.NotificacionRepository;
+import com.controfinanciero.domain.repository.PresupuestoRepository;
+import com.controfinanciero.infrastructure.persistence.entity.NotificacionEntity;
+import com.controfinanciero.infrastructure.persistence.entity.PresupuestoEntity;
+import com.controfinanciero.infrastructure.persistence.repository.ResumenMensualUsuarioJpaRepository;
+import com.controfinanciero.infrastructure.service.CorreosSalientesService.CorreoPendiente;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 🤖 Tareas automáticas: alertas de presupuesto y resumen mensual.
+ * Las ejecuta la cola de trabajos (AutomationScheduler); las alertas, por tramo de usuarios.
+ * El resumen mensual es por conjuntos: pocas sentencias por lote de usuarios, no una por usuario.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TareasAutomaticasService {
+
+    private static final String SIGUIENTE_LOTE_USUARIOS =
+            "SELECT id FROM users WHERE active = true AND id > ? ORDER BY id LIMIT ?";
+
+    /**
+     * Totales del mes por usuario desde el resumen mensual (usuarios sin movimientos en 0).
+     */
+    private static final String INSERTAR_ESTADOS_DE_CUENTA =
+            "INSERT INTO monthly_statements (user_id, period, income_total, expense_total, savings_total, " +
+            "available_balance, movement_count, created_at) " +
+            "SELECT u.id, ?, " +
+            "COALESCE(SUM(r.total_amount) FILTER (WHERE r.movement_type = 'INCOME'), 0), " +
+            "COALESCE(SUM(r.total_amount) FILTER (WHERE r.movement_type = 'EXPENSE'), 0), " +
+            "COALESCE(SUM(r.total_amount) FILTER (WHERE r.movement_type = 'SAVINGS'), 0), " +
+            "COALESCE(SUM(CASE r.movement_type WHEN 'INCOME' THEN r.total_amount " +
+            "WHEN 'EXPENSE' THEN -r.total_amount WHEN 'SAVINGS' THEN -r.total_amount ELSE 0 END), 0), " +
+            "COALESCE(SUM(r.movement_count), 0), now() " +
+            "FROM users u LEFT JOIN user_monthly_rollup r ON r.user_id = u.id AND r.period = ? " +
+            "WHERE u.active = true AND u.id > ? AND u.id <= ? " +
+            "GROUP BY u.id " +
+            "ON CONFLICT (user_id, period) DO NOTHING " +
+            "RETURNING user_id, income_total, expense_total, savings_total, available_balance, movement_count";
+
+    private static final String INSERTAR_NOTIFICACION_RESUMEN =
+            "INSERT INTO notificaciones (user_id, tipo, titulo, mensaje, leida, fecha_envio, created_at, version) " +
+            "VALUES (?, 'RESUMEN_MENSUAL', ?, ?, false, ?, ?, '1.6.0')";
+
+    private final PresupuestoRepository presupuestoRepo;
+    private final NotificacionRepository notificacionRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BandejaNotificacionesService bandeja;
+    private final CorreosSalientesService correosSalientes;
+
+    /**
+     * Usuarios por lote del resumen mensual (una transacción por lote)
+     */
+    @Value("${resumenes.usuarios-por-lote:1000}")
+    private int usuariosPorLote;
+
+    /**
+     * 🚨 Envía alertas de los presupuestos excedidos o cerca del límite de los usuarios con id en [desde, hasta]
+     */
+    @Transactional
+    public void verificarPresupuestos(Long desde, Long hasta) {
+        List<PresupuestoEntity> presupuestosParaAlertar = presupuestoRepo.findPresupuestosParaAlertarEntre(desde, hasta);
+
+        log.info("📊 Encontrados {} presupuestos que requieren alerta (usuarios {}-{})",
+                presupuestosParaAlertar.size(), desde, hasta);
+
+        for (PresupuestoEntity presupuesto : presupuestosParaAlertar) {
+            try {
+                BigDecimal porcentaje = calcularPorcentajeUso(presupuesto);
+                boolean excedido = presupuesto.getGastoActual().compareTo(presupuesto.getLimiteMensual()) >= 0;
+
+                String titulo = excedido
+                        ? "⚠️ Presupuesto excedido"
+                        : "⚠️ Cerca del límite de presupuesto";
+
+                String mensaje = String.format(
+                        "Has gastado $%s de $%s en %s (%s%%). %s",
+                        presupuesto.getGastoActual(),
+                        presupuesto.getLimiteMensual(),
+                        presupuesto.getCategoriaNombre(),
+                        porcentaje.intValue(),
+                        excedido ? "¡Has superado tu límite!" : "Estás cerca de tu límite."
+                );
+
+                crearNotificacion(
+                        presupuesto.getUsuarioId(),
+                        "PRESUPUESTO_ALERTA",
+                        titulo,
+                        mensaje
+                );
+
+                presupuestoRepo.marcarAlertaEnviada(presupuesto.getId());
+
+                log.info("🚨 Alerta enviada para presupuesto #{}: {} ({}%)",
+                        presupuesto.getId(), presupuesto.getCategoriaNombre(), porcentaje.intValue());
+
+            } catch (Exception e) {
+                log.error("❌ Error al verificar presupuesto #{}: {}", presupuesto.getId(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Calcula el porcentaje de uso del presupuesto
+     */
+    private BigDecimal calcularPorcentajeUso(PresupuestoEntity presupuesto) {
+        if (presupuesto.getLimiteMensual() == null || presupuesto.getLimiteMensual().compareTo(BigDecimal.ZERO) == 0) {
+            return BigDecimal.ZERO;
+        }
+        return presupuesto.getGastoActual()
+                .divide(presupuesto.getLimiteMensual(), 4, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100));
+    }
+
+    /**
+     * 📧 Genera el estado de cuenta del mes de cada usuario activo y lo notifica.
+     * Recorre los usuarios activos por lotes de ids; cada lote es una transacción con un
+     * INSERT ... SELECT agrupado sobre el resumen mensual y un lote JDBC de notificaciones.
+     * Solo se notifican los estados de cuenta recién creados, así que reintentar es seguro.
+     * Devuelve la cantidad de estados de cuenta generados.
+     */
+    public int enviarResumenMensual(YearMonth mes) {
+        long inicio = System.currentTimeMillis();
+        String periodo = mes.format(ResumenMensualUsuarioJpaRepository.FORMATO_PERIODO);
+        String titulo = "📊 Resumen financiero de " + mes.getMonth();
+
+        int generados = 0;
+        long ultimoId = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(SIGUIENTE_LOTE_USUARIOS, Long.class, ultimoId, usuariosPorLote);
+            if (ids.isEmpty()) {
+                break;
+            }
+            long desde = ultimoId;
+            long hasta = ids.get(ids.size() - 1);
+
+            Integer creados = transactionTemplate.execute(status -> generarEstadosDeCuenta(periodo, titulo, desde, hasta));
+            generados += creados != null ? creados : 0;
+            ultimoId = hasta;
+        }
+
+        log.info("📧 Resumen de {} enviado: {} estados de cuenta en {} ms",
+                periodo, generados, System.currentTimeMillis() - inicio);
+        return generados;
+    }
+
+    /**
+     * Estados de cuenta de los usuarios activos con id en (desde, hasta] y sus notificaciones.
+     */
+    private int generarEstadosDeCuenta(String periodo, String titulo, long desde, long hasta) {
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> notificaciones = new ArrayList<>();
+
+        jdbcTemplate.query(INSERTAR_ESTADOS_DE_CUENTA, rs -> {
+            notificaciones.add(new Object[]{
+                    rs.getLong("user_id"),
+                    titulo,
+                    mensajeResumen(rs.getBigDecimal("income_total"), rs.getBigDecimal("expense_total"),
+                            rs.getBigDecimal("savings_total"), rs.getBigDecimal("available_balance"),
+                            rs.getLong("movement_count")),
+                    ahora,
+                    ahora
+            });
+        }, periodo, periodo, desde, hasta);
+
+        jdbcTemplate.batchUpdate(INSERTAR_NOTIFICACION_RESUMEN, notificaciones);
+        bandeja.registrarNuevas(notificaciones.stream().map(fila -> (Long) fila[0]).toList());
+        correosSalientes.encolarLote("RESUMEN_MENSUAL", notificaciones.stream()
+                .map(fila -> new CorreoPendiente((Long) fila[0], (String) fila[1], (String) fila[2]))
+                .toList());
+        return notificaciones.size();
+    }
+
+    private String mensajeResumen(BigDecimal ingresos, BigDecimal gastos, BigDecimal ahorros,
+                                  BigDecimal disponible, long movimientos) {
+        if (movimientos == 0) {
+            return "No registraste movimientos el mes pasado. Revisa tus metas y presupuestos para este mes.";
+        }
+        return String.format(
+                "Ingresos: $%s | Gastos: $%s | Ahorros: $%s | Disponible: $%s (%d movimientos). " +
+                "Revisa tus ingresos, gastos y progreso de metas.",
+                ingresos, gastos, ahorros, disponible, movimientos);
+    }
+
+    /**
+     * Helper para crear notificaciones
+     */
+    private void crearNotificacion(Long usuarioId, String tipo, String titulo, String mensaje) {
+        NotificacionEntity notificacion = new NotificacionEntity();
+        notificacion.setUsuarioId(usuarioId);
+        notificacion.setTipo(tipo);
+        notificacion.setTitulo(titulo);
+        notificacion.setMensaje(mensaje);
+        notificacion.setLeida(false);
+        notificacion.setFechaEnvio(LocalDateTime.now());
+
+        notificacionRepo.save(notificacion);
+        bandeja.registrarNueva(usuarioId);
+        correosSalientes.encolar(usuarioId, tipo, titulo, mensaje);
+    }
+}
@@ -3,62 +3,74 @@ package com.controfinanciero.infrastructure.service;
 import com.controfinanciero.domain.model.MovimientoFinanciero;
 import com.controfinanciero.domain.model.enums.TipoMovimiento;
 import com.controfinanciero.domain.repository.MovimientoFinancieroRepository;
+import com.controfinanciero.domain.service.KernelMovimientos;
+import com.controfinanciero.domain.service.MovimientoColumns;
+import com.controfinanciero.domain.valueobject.MoneyAccumulator;
+import com.controfinanciero.domain.valueobject.TotalAgrupadoMovimientos;
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoInusualEntity;
+import com.controfinanciero.infrastructure.config.ReplicaJpaTransactionManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * 📊 Servicio de Análisis de Tendencias Financieras
  * Analiza patrones de gasto, predicciones y comparaciones entre períodos
+ * Solo lectura: se ejecuta contra la réplica cuando está configurada
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional(readOnly = true, label = ReplicaJpaTransactionManager.LECTURA_REPLICA)
 public class TrendAnalysisService {
 
     private final MovimientoFinancieroRepository movimientoRepository;
+    private final DeteccionAnomaliasService deteccionAnomalias;
+    private final PronosticoService pronosticoService;
 
     /**
-     * Analiza tendencias de gasto por categoría en los últimos meses
+     * Analiza tendencias de gasto por categoría en los últimos meses.
+     * La ventana son los 'mesesAtras' meses completos anteriores al actual: el mes en curso
+     * está incompleto y bajaría los promedios y la tendencia al principio de cada mes.
      */
     public TrendAnalysisResult analizarTendencias(Long usuarioId, int mesesAtras) {
-        LocalDate hoy = LocalDate.now();
-        LocalDate fechaInicio = hoy.minusMonths(mesesAtras);
-
-        List<MovimientoFinanciero> movimientos = movimientoRepository
-                .findByUsuarioIdAndFechaMovimientoBetweenOrderByFechaMovimientoDesc(
-                        usuarioId, fechaInicio, hoy);
+        YearMonth mesFin = YearMonth.now().minusMonths(1);
+        YearMonth mesInicio = mesFin.minusMonths(mesesAtras - 1L);
 
-        // Separar por tipo
-        List<MovimientoFinanciero> ingresos = movimientos.stream()
-                .filter(m -> m.getTipoMovimiento().esIngreso())
-                .collect(Collectors.toList());
+        // Totales mensuales precalculados (user_monthly_rollup), sin cargar movimientos
+        List<TotalAgrupadoMovimientos> resumen = movimientoRepository
+                .findResumenMensualByUsuarioIdAndMesBetween(usuarioId, mesInicio, mesFin);
 
-        List<MovimientoFinanciero> gastos = movimientos.stream()
-                .filter(m -> m.getTipoMovimiento() == TipoMovimiento.EXPENSE)
-                .collect(Collectors.toList());
+        // Separar por tipo, acumulando por mes
+        SortedMap<YearMonth, BigDecimal> ingresosPorMes = totalesPorMes(resumen, mesInicio, mesFin,
+                t -> t.tipoMovimiento().esIngreso());
+        SortedMap<YearMonth, BigDecimal> gastosPorMes = totalesPorMes(resumen, mesInicio, mesFin,
+                t -> t.tipoMovimiento() == TipoMovimiento.EXPENSE);
 
         // Calcular promedios mensuales
-        BigDecimal promedioIngresosMensual = calcularPromedioMensual(ingresos, mesesAtras);
-        BigDecimal promedioGastosMensual = calcularPromedioMensual(gastos, mesesAtras);
+        BigDecimal promedioIngresosMensual = calcularPromedioMensual(ingresosPorMes);
+        BigDecimal promedioGastosMensual = calcularPromedioMensual(gastosPorMes);
 
         // Calcular tendencia (crecimiento/decrecimiento)
-        TendenciaInfo tendenciaIngresos = calcularTendencia(ingresos, mesesAtras);
-        TendenciaInfo tendenciaGastos = calcularTendencia(gastos, mesesAtras);
+        TendenciaInfo tendenciaIngresos = calcularTendencia(ingresosPorMes);
+        TendenciaInfo tendenciaGastos = calcularTendencia(gastosPorMes);
 
         // Análisis por categoría
-        Map<String, BigDecimal> gastosPorCategoria = analizarPorCategoria(gastos);
+        Map<String, BigDecimal> gastosPorCategoria = analizarPorCategoria(resumen);
 
-        // Predicción para próximo mes
-        BigDecimal prediccionIngresos = predecirProximoMes(ingresos);
-        BigDecimal prediccionGastos = predecirProximoMes(gastos);
+        // Predicción para próximo mes (Holt-Winters por categoría, recalculado cada noche)
+        PronosticoService.PronosticoUsuario pronostico = pronosticoService.obtener(usuarioId);
+        BigDecimal prediccionIngresos = pronostico.mesSiguiente(TipoMovimiento.INCOME);
+        BigDecimal prediccionGastos = pronostico.mesSiguiente(TipoMovimiento.EXPENSE);
 
         // Categoría con mayor gasto
         Map.Entry<String, BigDecimal> categoriaTopGasto = gastosPorCategoria.entrySet().stream()
@@ -97,12 +109,14 @@ public class TrendAnalysisService {
                 .findByUsuarioIdAndFechaMovimientoBetweenOrderByFechaMovimientoDesc(
                         usuarioId, inicio2, fin2);
 
-        BigDecimal ingresos1 = calcularTotalPorTipo(periodo1, true);
-        BigDecimal gastos1 = calcularTotalPorTipo(periodo1, false);
+        MoneyAccumulator[] totales1 = KernelMovimientos.totalesPorTipo(MovimientoColumns.desde(periodo1));
+        BigDecimal ingresos1 = totalPorTipo(totales1, TipoMovimiento.INCOME);
+        BigDecimal gastos1 = totalPorTipo(totales1, TipoMovimiento.EXPENSE);
         BigDecimal balance1 = ingresos1.subtract(gastos1);
 
-        BigDecimal ingresos2 = calcularTotalPorTipo(periodo2, true);
-        BigDecimal gastos2 = calcularTotalPorTipo(periodo2, false);
+        MoneyAccumulator[] totales2 = KernelMovimientos.totalesPorTipo(MovimientoColumns.desde(periodo2));
+        BigDecimal ingresos2 = totalPorTipo(totales2, TipoMovimiento.INCOME);
+        BigDecimal gastos2 = totalPorTipo(totales2, TipoMovimiento.EXPENSE);
         BigDecimal balance2 = ingresos2.subtract(gastos2);
 
         // Calcular diferencias porcentuales
@@ -118,44 +132,34 @@ public class TrendAnalysisService {
     }
 
     /**
-     * Detecta patrones inusuales de gasto
+     * Detecta patrones inusuales de gasto.
+     * Lee las marcas calculadas al registrar cada gasto contra la media de su categoría
+     * (DeteccionAnomaliasService), sin recorrer el historial.
      */
     public List<PatronInusual> detectarPatronesInusuales(Long usuarioId, int diasAtras) {
-        LocalDate fechaInicio = LocalDate.now().minusDays(diasAtras);
-        List<MovimientoFinanciero> movimientos = movimientoRepository
-                .findByUsuarioIdAndFechaMovimientoBetweenOrderByFechaMovimientoDesc(
-                        usuarioId, fechaInicio, LocalDate.now());
-
-        List<MovimientoFinanciero> gastos = movimientos.stream()
-                .filter(m -> m.getTipoMovimiento() == TipoMovimiento.EXPENSE)
-                .collect(Collectors.toList());
+        LocalDate hoy = LocalDate.now();
+        LocalDate fechaInicio = hoy.minusDays(diasAtras);
 
-        if (gastos.isEmpty()) {
+        Map<Long, MovimientoInusualEntity> marcas = deteccionAnomalias.findMarcas(usuarioId, fechaInicio, hoy).stream()
+                .collect(Collectors.toMap(MovimientoInusualEntity::getMovimientoId, marca -> marca));
+        if (marcas.isEmpty()) {
             return Collections.emptyList();
         }
 
-        // Calcular promedio y desviación estándar
-        BigDecimal promedio = gastos.stream()
-                .map(MovimientoFinanciero::getMonto)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(gastos.size()), 2, RoundingMode.HALF_UP);
-
-        BigDecimal desviacion = calcularDesviacionEstandar(gastos, promedio);
-        BigDecimal umbralSuperior = promedio.add(desviacion.multiply(BigDecimal.valueOf(2)));
-
-        // Detectar gastos inusuales (más de 2 desviaciones estándar)
         List<PatronInusual> patrones = new ArrayList<>();
-        for (MovimientoFinanciero gasto : gastos) {
-            if (gasto.getMonto().compareTo(umbralSuperior) > 0) {
-                patrones.add(new PatronInusual(
-                        gasto.getId(),
-                        gasto.getDescripcion(),
-                        gasto.getMonto(),
-                        gasto.getFechaMovimiento(),
-                        "Gasto inusualmente alto",
-                        promedio
-                ));
+        for (MovimientoFinanciero gasto : movimientoRepository.findInusualesByUsuarioIdAndFechaBetween(usuarioId, fechaInicio, hoy)) {
+            MovimientoInusualEntity marca = marcas.get(gasto.getId());
+            if (marca == null) {
+                continue;
             }
+            patrones.add(new PatronInusual(
+                    gasto.getId(),
+                    gasto.getDescripcion(),
+                    gasto.getMonto(),
+                    gasto.getFechaMovimiento(),
+                    "Gasto inusualmente alto para su categoría",
+                    marca.getMedia()
+            ));
         }
 
         log.info("🚨 Detectados {} patrones inusuales para usuario {}", patrones.size(), usuarioId);
@@ -164,34 +168,50 @@ public class TrendAnalysisService {
 
     // Métodos auxiliares
 
-    private BigDecimal calcularPromedioMensual(List<MovimientoFinanciero> movimientos, int meses) {
-        if (movimientos.isEmpty() || meses == 0) {
+    /**
+     * Totales por mes (todos los meses del rango, con cero si no hubo movimientos).
+     */
+    private SortedMap<YearMonth, BigDecimal> totalesPorMes(List<TotalAgrupadoMovimientos> resumen,
+                                                           YearMonth desde, YearMonth hasta,
+                                                           Predicate<TotalAgrupadoMovimientos> filtro) {
+        SortedMap<YearMonth, BigDecimal> porMes = new TreeMap<>();
+        for (YearMonth mes = desde; !mes.isAfter(hasta); mes = mes.plusMonths(1)) {
+            porMes.put(mes, BigDecimal.ZERO);
+        }
+        resumen.stream()
+                .filter(filtro)
+                .forEach(t -> porMes.merge(t.mes(), t.total(), BigDecimal::add));
+        return porMes;
+    }
+
+    /**
+     * Promedio sobre los meses de la ventana (los meses sin movimientos cuentan como cero).
+     */
+    private BigDecimal calcularPromedioMensual(SortedMap<YearMonth, BigDecimal> porMes) {
+        if (porMes.isEmpty()) {
             return BigDecimal.ZERO;
         }
 
-        BigDecimal total = movimientos.stream()
-                .map(MovimientoFinanciero::getMonto)
+        BigDecimal total = porMes.values().stream()
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        return total.divide(BigDecimal.valueOf(meses), 2, RoundingMode.HALF_UP);
+        return total.divide(BigDecimal.valueOf(porMes.size()), 2, RoundingMode.HALF_UP);
     }
 
-    private TendenciaInfo calcularTendencia(List<MovimientoFinanciero> movimientos, int meses) {
-        if (movimientos.isEmpty() || meses < 2) {
+    private TendenciaInfo calcularTendencia(SortedMap<YearMonth, BigDecimal> porMes) {
+        boolean sinDatos = porMes.values().stream().allMatch(t -> t.signum() == 0);
+        if (sinDatos || porMes.size() < 2) {
             return new TendenciaInfo("ESTABLE", 0.0, "Datos insuficientes");
         }
 
-        // Dividir en primera mitad y segunda mitad
-        int mitad = movimientos.size() / 2;
-        List<MovimientoFinanciero> primeraM = movimientos.subList(0, mitad);
-        List<MovimientoFinanciero> segundaMitad = movimientos.subList(mitad, movimientos.size());
+        // Dividir en meses más antiguos y meses más recientes
+        List<BigDecimal> totales = new ArrayList<>(porMes.values());
+        int mitad = totales.size() / 2;
 
-        BigDecimal totalPrimera = primeraM.stream()
-                .map(MovimientoFinanciero::getMonto)
+        BigDecimal totalPrimera = totales.subList(0, mitad).stream()
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        BigDecimal totalSegunda = segundaMitad.stream()
-                .map(MovimientoFinanciero::getMonto)
+        BigDecimal totalSegunda = totales.subList(totales.size() - mitad, totales.size()).stream()
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         double variacion = calcularVariacionPorcentual(totalPrimera, totalSegunda);
@@ -212,13 +232,14 @@ public class TrendAnalysisService {
         return new TendenciaInfo(tipo, variacion, descripcion);
     }
 
-    private Map<String, BigDecimal> analizarPorCategoria(List<MovimientoFinanciero> gastos) {
-        Map<Long, BigDecimal> porCategoriaId = gastos.stream()
-                .filter(g -> g.getCategoriaId() != null)
+    private Map<String, BigDecimal> analizarPorCategoria(List<TotalAgrupadoMovimientos> resumen) {
+        Map<Long, BigDecimal> porCategoriaId = resumen.stream()
+                .filter(t -> t.tipoMovimiento() == TipoMovimiento.EXPENSE)
+                .filter(TotalAgrupadoMovimientos::tieneCategoria)
                 .collect(Collectors.groupingBy(
-                        MovimientoFinanciero::getCategoriaId,
+                        TotalAgrupadoMovimientos::categoriaId,
                         Collectors.reducing(BigDecimal.ZERO,
-                                MovimientoFinanciero::getMonto,
+                                TotalAgrupadoMovimientos::total,
                                 BigDecimal::add)
                 ));
 
@@ -230,27 +251,8 @@ public class TrendAnalysisService {
                 ));
     }
 
-    private BigDecimal predecirProximoMes(List<MovimientoFinanciero> movimientos) {
-        if (movimientos.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-
-        // Predicción simple: promedio de los últimos 3 meses
-        int mesesParaPrediccion = Math.min(3, movimientos.size());
-        BigDecimal total = movimientos.stream()
-                .limit(mesesParaPrediccion)
-                .map(MovimientoFinanciero::getMonto)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return total.divide(BigDecimal.valueOf(mesesParaPrediccion), 2, RoundingMode.HALF_UP);
-    }
-
-    private BigDecimal calcularTotalPorTipo(List<MovimientoFinanciero> movimientos, boolean esIngreso) {
-        return movimientos.stream()
-                .filter(m -> esIngreso ? m.getTipoMovimiento().esIngreso()
-                                       : m.getTipoMovimiento() == TipoMovimiento.EXPENSE)
-                .map(MovimientoFinanciero::getMonto)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private BigDecimal totalPorTipo(MoneyAccumulator[] totalesPorTipo, TipoMovimiento tipo) {
+        return totalesPorTipo[MovimientoColumns.codigo(tipo)].total();
     }
 
     private double calcularVariacionPorcentual(BigDecimal valorAnterior, BigDecimal valorNuevo) {
@@ -264,20 +266,6 @@ public class TrendAnalysisService {
                 .doubleValue();
     }
 
-    private BigDecimal calcularDesviacionEstandar(List<MovimientoFinanciero> movimientos, BigDecimal promedio) {
-        if (movimientos.size() < 2) {
-            return BigDecimal.ZERO;
-        }
-
-        double varianza = movimientos.stream()
-                .map(MovimientoFinanciero::getMonto)
-                .map(m -> m.subtract(promedio).pow(2))
-                .map(BigDecimal::doubleValue)
-                .reduce(0.0, Double::sum) / movimientos.size();
-
-        return BigDecimal.valueOf(Math.sqrt(varianza));
-    }
-
     // DTOs internos
 
     public record TrendAnalysisResult(
@@ -2,6 +2,7 @@ package com.controfinanciero.infrastructure.web.controller;
 
 import com.controfinanciero.domain.model.Usuario;
 import com.controfinanciero.infrastructure.security.service.AuthenticationService;
+import com.controfinanciero.infrastructure.service.CacheAnalisisService;
 import com.controfinanciero.infrastructure.service.TrendAnalysisService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -13,6 +14,7 @@ import java.time.LocalDate;
 /**
  * 📊 Controller de Análisis de Tendencias
  * Endpoints para análisis financiero avanzado
+ * Los resultados se sirven desde CacheAnalisisService hasta que el usuario registra cambios
  */
 @RestController
 @RequestMapping("/api/analisis")
@@ -21,6 +23,7 @@ public class AnalisisController {
 
     private final TrendAnalysisService trendAnalysisService;
     private final AuthenticationService authService;
+    private final CacheAnalisisService cacheAnalisis;
 
     /**
      * GET /api/analisis/tendencias
@@ -32,8 +35,10 @@ public class AnalisisController {
 
         Usuario usuario = authService.getCurrentUser();
 
-        TrendAnalysisService.TrendAnalysisResult resultado =
-                trendAnalysisService.analizarTendencias(usuario.getId(), meses);
+        TrendAnalysisService.TrendAnalysisResult resultado = cacheAnalisis.obtener(
+                usuario.getId(), "tendencias",
+                () -> trendAnalysisService.analizarTendencias(usuario.getId(), meses),
+                meses);
 
         return ResponseEntity.ok(resultado);
     }
@@ -51,8 +56,10 @@ public class AnalisisController {
 
         Usuario usuario = authService.getCurrentUser();
 
-        TrendAnalysisService.ComparacionPeriodos comparacion =
-                trendAnalysisService.compararPeriodos(usuario.getId(), inicio1, fin1, inicio2, fin2);
+        TrendAnalysisService.ComparacionPeriodos comparacion = cacheAnalisis.obtener(
+                usuario.getId(), "comparar-periodos",
+                () -> trendAnalysisService.compararPeriodos(usuario.getId(), inicio1, fin1, inicio2, fin2),
+                inicio1, fin1, inicio2, fin2);
 
         return ResponseEntity.ok(comparacion);
     }
@@ -67,7 +74,10 @@ public class AnalisisController {
 
         Usuario usuario = authService.getCurrentUser();
 
-        var patrones = trendAnalysisService.detectarPatronesInusuales(usuario.getId(), dias);
+        var patrones = cacheAnalisis.obtener(
+                usuario.getId(), "patrones-inusuales",
+                () -> trendAnalysisService.detectarPatronesInusuales(usuario.getId(), dias),
+                dias);
 
         return ResponseEntity.ok(new PatronesResponse(
                 patrones.size(),
@@ -2,6 +2,7 @@ package com.controfinanciero.infrastructure.web.controller;
 
 import com.controfinanciero.domain.model.Usuario;
 import com.controfinanciero.infrastructure.security.service.AuthenticationService;
+import com.controfinanciero.infrastructure.service.CacheAnalisisService;
 import com.controfinanciero.infrastructure.service.FinancialCoachService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -17,18 +18,21 @@ public class CoachController {
 
     private final FinancialCoachService coachService;
     private final AuthenticationService authService;
+    private final CacheAnalisisService cacheAnalisis;
 
     @GetMapping("/consejo-del-dia")
     public ResponseEntity<?> obtenerConsejo() {
         Usuario usuario = authService.getCurrentUser();
-        var consejo = coachService.generarConsejoDelDia(usuario.getId());
+        var consejo = cacheAnalisis.obtener(usuario.getId(), "consejo-del-dia",
+                () -> coachService.generarConsejoDelDia(usuario.getId()));
         return ResponseEntity.ok(consejo);
     }
 
     @GetMapping("/analisis-habitos")
     public ResponseEntity<?> analizarHabitos() {
         Usuario usuario = authService.getCurrentUser();
-        var analisis = coachService.analizarHabitos(usuario.getId());
+        var analisis = cacheAnalisis.obtener(usuario.getId(), "analisis-habitos",
+                () -> coachService.analizarHabitos(usuario.getId()));
         return ResponseEntity.ok(analisis);
     }
 }
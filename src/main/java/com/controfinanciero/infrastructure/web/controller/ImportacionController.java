@@ -0,0 +1,49 @@
+package com.controfinanciero.infrastructure.web.controller;
+
+import com.controfinanciero.infrastructure.security.AuthenticatedUserService;
+import com.controfinanciero.infrastructure.service.ImportacionExtractosService;
+import com.controfinanciero.infrastructure.service.ImportacionExtractosService.ResumenImportacion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+/**
+ * 📥 Controller de Importación de Extractos Bancarios
+ * Carga masiva de movimientos desde archivos CSV u OFX
+ */
+@RestController
+@RequestMapping("/api/importaciones")
+@RequiredArgsConstructor
+public class ImportacionController {
+
+    private final ImportacionExtractosService importacionService;
+    private final AuthenticatedUserService authenticatedUserService;
+
+    /**
+     * POST /api/importaciones/extractos (multipart, campo "archivos")
+     * Devuelve un resumen por archivo: leídas, importadas, duplicadas e inválidas.
+     */
+    @PostMapping(value = "/extractos", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<List<ResumenImportacion>> importarExtractos(
+            @RequestParam("archivos") List<MultipartFile> archivos) {
+
+        Long userId = authenticatedUserService.getCurrentUserId();
+        return ResponseEntity.ok(importacionService.importar(userId, archivos));
+    }
+
+    /**
+     * GET /api/importaciones/progreso
+     * Progreso de la importación en curso (o la última) del usuario autenticado.
+     */
+    @GetMapping("/progreso")
+    public ResponseEntity<?> obtenerProgreso() {
+        Long userId = authenticatedUserService.getCurrentUserId();
+        return importacionService.obtenerProgreso(userId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+}
@@ -3,6 +3,7 @@ package com.controfinanciero.infrastructure.web.controller;
 import com.controfinanciero.domain.model.MovimientoFinanciero;
 import com.controfinanciero.domain.model.Usuario;
 import com.controfinanciero.infrastructure.security.service.AuthenticationService;
+import com.controfinanciero.infrastructure.service.CacheAnalisisService;
 import com.controfinanciero.infrastructure.service.FinancialIntelligenceService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +18,7 @@ import java.util.Map;
 /**
  * 🧠 Controlador de Inteligencia Financiera
  * Predicciones, anomalías y recomendaciones personalizadas
+ * Los resultados se sirven desde CacheAnalisisService hasta que el usuario registra cambios
  */
 @RestController
 @RequestMapping("/api/inteligencia")
@@ -25,6 +27,7 @@ public class InteligenciaController {
 
     private final FinancialIntelligenceService intelligenceService;
     private final AuthenticationService authService;
+    private final CacheAnalisisService cacheAnalisis;
 
     /**
      * 📈 GET /api/inteligencia/prediccion
@@ -33,8 +36,7 @@ public class InteligenciaController {
     @GetMapping("/prediccion")
     public ResponseEntity<Map<String, Object>> obtenerPrediccion() {
         Usuario usuario = authService.getCurrentUser();
-        Map<String, Object> prediccion = intelligenceService.predecirGastosMesActual(usuario.getId());
-        return ResponseEntity.ok(prediccion);
+        return ResponseEntity.ok(prediccion(usuario.getId()));
     }
 
     /**
@@ -44,8 +46,7 @@ public class InteligenciaController {
     @GetMapping("/anomalias")
     public ResponseEntity<List<MovimientoFinanciero>> detectarAnomalias() {
         Usuario usuario = authService.getCurrentUser();
-        List<MovimientoFinanciero> anomalias = intelligenceService.detectarAnomalias(usuario.getId());
-        return ResponseEntity.ok(anomalias);
+        return ResponseEntity.ok(anomalias(usuario.getId()));
     }
 
     /**
@@ -55,7 +56,7 @@ public class InteligenciaController {
     @GetMapping("/recomendaciones")
     public ResponseEntity<Map<String, Object>> obtenerRecomendaciones() {
         Usuario usuario = authService.getCurrentUser();
-        List<String> recomendaciones = intelligenceService.generarRecomendaciones(usuario.getId());
+        List<String> recomendaciones = snapshot(usuario.getId()).recomendaciones();
 
         Map<String, Object> response = new HashMap<>();
         response.put("recomendaciones", recomendaciones);
@@ -66,18 +67,36 @@ public class InteligenciaController {
 
     /**
      * 📊 GET /api/inteligencia/dashboard
-     * Dashboard completo con todas las métricas de inteligencia
+     * Dashboard completo con todas las métricas de inteligencia, calculadas en un solo snapshot
      */
     @GetMapping("/dashboard")
     public ResponseEntity<Map<String, Object>> obtenerDashboard() {
         Usuario usuario = authService.getCurrentUser();
+        FinancialIntelligenceService.SnapshotFinanciero snapshot = snapshot(usuario.getId());
 
         Map<String, Object> dashboard = new HashMap<>();
-        dashboard.put("prediccion", intelligenceService.predecirGastosMesActual(usuario.getId()));
-        dashboard.put("anomalias", intelligenceService.detectarAnomalias(usuario.getId()));
-        dashboard.put("recomendaciones", intelligenceService.generarRecomendaciones(usuario.getId()));
+        dashboard.put("prediccion", snapshot.prediccion());
+        dashboard.put("anomalias", snapshot.anomalias());
+        dashboard.put("recomendaciones", snapshot.recomendaciones());
 
         return ResponseEntity.ok(dashboard);
     }
+
+    // Las recomendaciones y el dashboard comparten la misma entrada de caché (el snapshot)
+
+    private Map<String, Object> prediccion(Long usuarioId) {
+        return cacheAnalisis.obtener(usuarioId, "prediccion",
+                () -> intelligenceService.predecirGastosMesActual(usuarioId));
+    }
+
+    private List<MovimientoFinanciero> anomalias(Long usuarioId) {
+        return cacheAnalisis.obtener(usuarioId, "anomalias",
+                () -> intelligenceService.detectarAnomalias(usuarioId));
+    }
+
+    private FinancialIntelligenceService.SnapshotFinanciero snapshot(Long usuarioId) {
+        return cacheAnalisis.obtener(usuarioId, "snapshot",
+                () -> intelligenceService.generarSnapshot(usuarioId));
+    }
 }
 
@@ -1,14 +1,25 @@
 package com.controfinanciero.infrastructure.web.controller;
 
+import com.controfinanciero.domain.repository.MovimientoFinancieroRepository;
 import com.controfinanciero.domain.repository.NotificacionRepository;
 import com.controfinanciero.infrastructure.persistence.entity.MetaColaboradorEntity;
 import com.controfinanciero.infrastructure.persistence.repository.MetaColaboradorRepository;
+import com.controfinanciero.infrastructure.service.DeteccionAnomaliasService;
+import com.controfinanciero.infrastructure.service.ParticionesMovimientosService;
+import com.controfinanciero.infrastructure.service.PronosticoService;
+import com.controfinanciero.infrastructure.service.RetencionNotificacionesService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -24,6 +35,12 @@ public class MaintenanceController {
 
     private final MetaColaboradorRepository colaboradorRepository;
     private final NotificacionRepository notificacionRepository;
+    private final MovimientoFinancieroRepository movimientoRepository;
+    private final ParticionesMovimientosService particionesService;
+    private final DeteccionAnomaliasService deteccionAnomalias;
+    private final PronosticoService pronosticoService;
+    private final RetencionNotificacionesService retencionNotificaciones;
+    private final CacheManager cacheManager;
 
     /**
      * POST /api/maintenance/limpiar-duplicados-colaboradores
@@ -83,46 +100,38 @@ public class MaintenanceController {
     /**
      * POST /api/maintenance/limpiar-notificaciones-corruptas
      * Elimina notificaciones de metas compartidas sin metaId válido
+     * (DELETE por lotes en la base, sin cargar las notificaciones)
      */
     @PostMapping("/limpiar-notificaciones-corruptas")
-    @Transactional
     public ResponseEntity<?> limpiarNotificacionesCorruptas() {
         log.info("🔧 Iniciando limpieza de notificaciones corruptas...");
 
-        List<String> tiposMetasCompartidas = Arrays.asList(
-                "META_COMPARTIDA",
-                "APORTE_META_COMPARTIDA",
-                "META_COMPLETADA",
-                "RECORDATORIO_META"
-        );
-
-        var todasNotificaciones = notificacionRepository.findAll();
-        int eliminadas = 0;
-        List<String> detalles = new ArrayList<>();
+        RetencionNotificacionesService.ResultadoRetencion resultado = retencionNotificaciones.eliminarMetasSinMeta();
 
-        for (var notif : todasNotificaciones) {
-            if (tiposMetasCompartidas.contains(notif.getTipo())) {
-                // Verificar si metaId es null (campo directo en la entidad)
-                boolean esCorrupta = notif.getMetaId() == null;
+        log.info("🎯 Limpieza completada: {} notificaciones corruptas eliminadas", resultado.eliminadas());
 
-                if (esCorrupta) {
-                    String detalle = String.format("Notificación ID %d (%s): metaId null - Eliminada",
-                            notif.getId(), notif.getTipo());
-                    detalles.add(detalle);
-                    log.info("✅ " + detalle);
+        return ResponseEntity.ok(new LimpiezaResponse(
+                "Limpieza de notificaciones corruptas completada",
+                (int) resultado.eliminadas(),
+                List.of(String.format("%d notificaciones sin metaId eliminadas en %d lotes",
+                        resultado.eliminadas(), resultado.lotes()))
+        ));
+    }
 
-                    notificacionRepository.delete(notif);
-                    eliminadas++;
-                }
-            }
-        }
+    /**
+     * POST /api/maintenance/aplicar-retencion-notificaciones
+     * Aplica ahora las políticas de retención de notificaciones (leídas antiguas,
+     * no leídas muy antiguas y de metas sin metaId) sin esperar al trabajo diario.
+     */
+    @PostMapping("/aplicar-retencion-notificaciones")
+    public ResponseEntity<?> aplicarRetencionNotificaciones() {
+        log.info("🔧 Aplicando retención de notificaciones...");
 
-        log.info("🎯 Limpieza completada: {} notificaciones corruptas eliminadas", eliminadas);
+        List<RetencionNotificacionesService.ResultadoRetencion> resultados = retencionNotificaciones.aplicarPoliticas();
 
-        return ResponseEntity.ok(new LimpiezaResponse(
-                "Limpieza de notificaciones corruptas completada",
-                eliminadas,
-                detalles
+        return ResponseEntity.ok(Map.of(
+                "mensaje", "Retención de notificaciones aplicada",
+                "politicas", resultados
         ));
     }
 
@@ -166,29 +175,17 @@ public class MaintenanceController {
      */
     @GetMapping("/verificar-notificaciones-corruptas")
     public ResponseEntity<?> verificarNotificacionesCorruptas() {
-        List<String> tiposMetasCompartidas = Arrays.asList(
-                "META_COMPARTIDA",
-                "APORTE_META_COMPARTIDA",
-                "META_COMPLETADA",
-                "RECORDATORIO_META"
-        );
-
-        var todasNotificaciones = notificacionRepository.findAll();
         List<NotificacionCorruptaInfo> corruptas = new ArrayList<>();
 
-        for (var notif : todasNotificaciones) {
-            if (tiposMetasCompartidas.contains(notif.getTipo())) {
-                // Verificar si metaId es null
-                if (notif.getMetaId() == null) {
-                    corruptas.add(new NotificacionCorruptaInfo(
-                            notif.getId(),
-                            notif.getTipo(),
-                            notif.getTitulo(),
-                            "metaId = null",
-                            notif.getVersion()
-                    ));
-                }
-            }
+        for (var notif : notificacionRepository.findByTipoInAndMetaIdIsNull(
+                RetencionNotificacionesService.TIPOS_METAS_COMPARTIDAS)) {
+            corruptas.add(new NotificacionCorruptaInfo(
+                    notif.getId(),
+                    notif.getTipo(),
+                    notif.getTitulo(),
+                    "metaId = null",
+                    notif.getVersion()
+            ));
         }
 
         return ResponseEntity.ok(new VerificacionNotificacionesResponse(
@@ -198,6 +195,153 @@ public class MaintenanceController {
         ));
     }
 
+    /**
+     * POST /api/maintenance/reconstruir-resumen-mensual
+     * Reconstruye el resumen mensual (user_monthly_rollup) desde financial_movements y recalcula
+     * con él el gasto de los presupuestos. Los meses archivados conservan su resumen.
+     * Sin usuarioId reconstruye el de todos los usuarios.
+     */
+    @PostMapping("/reconstruir-resumen-mensual")
+    public ResponseEntity<?> reconstruirResumenMensual(@RequestParam(required = false) Long usuarioId) {
+        log.info("🔧 Reconstruyendo resumen mensual {}...",
+                usuarioId != null ? "del usuario " + usuarioId : "de todos los usuarios");
+
+        // Los meses archivados ya no están en financial_movements: su resumen se conserva
+        LocalDate desde = particionesService.inicioHistorialVigente();
+        if (usuarioId != null) {
+            movimientoRepository.reconstruirResumenMensual(usuarioId, desde);
+        } else {
+            movimientoRepository.reconstruirResumenMensualCompleto(desde);
+        }
+
+        return ResponseEntity.ok(Map.of("mensaje", "Resumen mensual reconstruido"));
+    }
+
+    /**
+     * POST /api/maintenance/reconstruir-estadisticas-gasto
+     * Recalcula las estadísticas de gasto por categoría (category_running_stats) y las marcas
+     * de gastos inusuales desde financial_movements. Sin usuarioId reconstruye todos los usuarios.
+     */
+    @PostMapping("/reconstruir-estadisticas-gasto")
+    public ResponseEntity<?> reconstruirEstadisticasGasto(@RequestParam(required = false) Long usuarioId) {
+        log.info("🔧 Reconstruyendo estadísticas de gasto {}...",
+                usuarioId != null ? "del usuario " + usuarioId : "de todos los usuarios");
+
+        int marcados = usuarioId != null
+                ? deteccionAnomalias.reconstruirUsuario(usuarioId)
+                : deteccionAnomalias.reconstruirTodos();
+
+        return ResponseEntity.ok(Map.of(
+                "mensaje", "Estadísticas de gasto reconstruidas",
+                "gastosInusuales", marcados
+        ));
+    }
+
+    /**
+     * POST /api/maintenance/recalcular-pronosticos
+     * Reajusta los pronósticos mensuales (monthly_forecasts) sin esperar al recálculo nocturno.
+     * Sin usuarioId recalcula todos los usuarios.
+     */
+    @PostMapping("/recalcular-pronosticos")
+    public ResponseEntity<?> recalcularPronosticos(@RequestParam(required = false) Long usuarioId) {
+        log.info("🔧 Recalculando pronósticos {}...",
+                usuarioId != null ? "del usuario " + usuarioId : "de todos los usuarios");
+
+        int pronosticos = usuarioId != null
+                ? pronosticoService.reajustarUsuario(usuarioId).size()
+                : pronosticoService.recalcularTodos();
+
+        return ResponseEntity.ok(Map.of(
+                "mensaje", "Pronósticos recalculados",
+                "pronosticos", pronosticos
+        ));
+    }
+
+    /**
+     * POST /api/maintenance/particionar-movimientos
+     * Convierte financial_movements en tabla particionada por mes (una sola vez).
+     * Bloquea la tabla mientras copia las filas: ejecutar en una ventana de mantenimiento.
+     */
+    @PostMapping("/particionar-movimientos")
+    public ResponseEntity<?> particionarMovimientos() {
+        log.info("🔧 Convirtiendo financial_movements a tabla particionada...");
+
+        long migradas = particionesService.convertirATablaParticionada();
+        List<String> creadas = particionesService.crearParticionesFuturas();
+
+        return ResponseEntity.ok(Map.of(
+                "mensaje", "financial_movements particionada por mes",
+                "filasMigradas", migradas,
+                "particionesCreadas", creadas
+        ));
+    }
+
+    /**
+     * POST /api/maintenance/mantener-particiones
+     * Ejecuta manualmente la creación de particiones futuras y el archivado de las antiguas.
+     */
+    @PostMapping("/mantener-particiones")
+    public ResponseEntity<?> mantenerParticiones() {
+        if (!particionesService.estaParticionada()) {
+            return ResponseEntity.badRequest().body(Map.of("mensaje", "financial_movements no está particionada"));
+        }
+
+        return ResponseEntity.ok(Map.of(
+                "particionesCreadas", particionesService.crearParticionesFuturas(),
+                "particionesArchivadas", particionesService.archivarParticionesAntiguas()
+        ));
+    }
+
+    /**
+     * GET /api/maintenance/cache-estadisticas
+     * Aciertos, fallos, desalojos y tamaño de cada caché en memoria.
+     */
+    @GetMapping("/cache-estadisticas")
+    public ResponseEntity<List<EstadisticasCache>> estadisticasCache() {
+        List<EstadisticasCache> estadisticas = new ArrayList<>();
+        for (String nombre : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(nombre);
+            if (cache instanceof TransactionAwareCacheDecorator decorador) {
+                cache = decorador.getTargetCache();
+            }
+            if (!(cache instanceof CaffeineCache caffeine)) {
+                continue;
+            }
+
+            var nativa = caffeine.getNativeCache();
+            CacheStats stats = nativa.stats();
+            long peso = nativa.policy().eviction()
+                    .map(eviction -> eviction.weightedSize().orElse(0L))
+                    .orElse(0L);
+            estadisticas.add(new EstadisticasCache(
+                    nombre,
+                    stats.hitCount(),
+                    stats.missCount(),
+                    stats.hitRate(),
+                    stats.evictionCount(),
+                    nativa.estimatedSize(),
+                    peso
+            ));
+        }
+        return ResponseEntity.ok(estadisticas);
+    }
+
+    /**
+     * POST /api/maintenance/limpiar-cache
+     * Vacía todas las cachés en memoria (por ejemplo, tras modificar datos directamente en la base).
+     */
+    @PostMapping("/limpiar-cache")
+    public ResponseEntity<?> limpiarCache() {
+        cacheManager.getCacheNames().forEach(nombre -> {
+            Cache cache = cacheManager.getCache(nombre);
+            if (cache != null) {
+                cache.invalidate();
+            }
+        });
+        log.info("🧹 Cachés en memoria vaciadas");
+        return ResponseEntity.ok(Map.of("mensaje", "Cachés vaciadas", "caches", cacheManager.getCacheNames()));
+    }
+
     // DTOs
     record LimpiezaResponse(String mensaje, int cantidad, List<String> detalles) {}
 
@@ -207,6 +351,9 @@ public class MaintenanceController {
 
     record NotificacionCorruptaInfo(Long id, String tipo, String titulo, String problema, String version) {}
 
+    record EstadisticasCache(String cache, long aciertos, long fallos, double tasaAciertos,
+                             long desalojos, long entradas, long peso) {}
+
     record VerificacionNotificacionesResponse(String mensaje, int cantidad, List<NotificacionCorruptaInfo> notificaciones) {}
 }
 
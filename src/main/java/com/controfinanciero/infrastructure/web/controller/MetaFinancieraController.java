@@ -3,6 +3,7 @@ package com.controfinanciero.infrastructure.web.controller;
 import com.controfinanciero.application.dto.CrearMetaFinancieraCommand;
 import com.controfinanciero.application.dto.MetaFinancieraDTO;
 import com.controfinanciero.domain.model.Usuario;
+import com.controfinanciero.infrastructure.service.CacheAnalisisService;
 import com.controfinanciero.infrastructure.service.SmartGoalsService;
 import com.controfinanciero.application.usecase.Meta.CrearMetaFinancieraUseCase;
 import com.controfinanciero.application.usecase.Meta.ObtenerMetasFinancierasUseCase;
@@ -35,6 +36,7 @@ public class MetaFinancieraController {
     private final MetaFinancieraRepository metaRepository;
     private final AuthenticatedUserService authenticatedUserService;
     private final SmartGoalsService smartGoalsService;
+    private final CacheAnalisisService cacheAnalisis;
 
     @PostMapping
     public ResponseEntity<MetaFinancieraResponse> crearMeta(@Valid @RequestBody CrearMetaFinancieraRequest request) {
@@ -159,7 +161,8 @@ public class MetaFinancieraController {
     public ResponseEntity<?> analizarTodasLasMetas() {
         Long userId = authenticatedUserService.getCurrentUserId();
 
-        var analisis = smartGoalsService.analizarTodasLasMetas(userId);
+        var analisis = cacheAnalisis.obtener(userId, "metas-analisis-completo",
+                () -> smartGoalsService.analizarTodasLasMetas(userId));
 
         return ResponseEntity.ok(new AnalisisCompletoResponse(
                 analisis.size(),
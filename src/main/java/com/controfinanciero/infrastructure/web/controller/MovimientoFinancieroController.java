@@ -3,18 +3,25 @@ package com.controfinanciero.infrastructure.web.controller;
 import com.controfinanciero.application.dto.CrearMovimientoFinancieroCommand;
 import com.controfinanciero.application.dto.MovimientoFinancieroDTO;
 import com.controfinanciero.application.usecase.movimiento.CrearMovimientoFinancieroUseCase;
+import com.controfinanciero.application.usecase.movimiento.CrearMovimientosLoteUseCase;
 import com.controfinanciero.application.usecase.movimiento.ObtenerMovimientosFinancierosUseCase;
 import com.controfinanciero.domain.model.enums.TipoMovimiento;
 import com.controfinanciero.domain.repository.MovimientoFinancieroRepository;
+import com.controfinanciero.domain.valueobject.CursorMovimiento;
+import com.controfinanciero.domain.valueobject.FiltroMovimientos;
 import com.controfinanciero.infrastructure.security.AuthenticatedUserService;
 import com.controfinanciero.infrastructure.web.dto.request.CrearMovimientoFinancieroRequest;
+import com.controfinanciero.infrastructure.web.dto.request.CrearMovimientosLoteRequest;
+import com.controfinanciero.infrastructure.web.dto.response.LoteMovimientosResponse;
 import com.controfinanciero.infrastructure.web.dto.response.MovimientoFinancieroResponse;
+import com.controfinanciero.infrastructure.web.dto.response.PaginaCursorResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -38,10 +45,13 @@ import java.util.stream.Collectors;
 public class MovimientoFinancieroController {
 
     private final CrearMovimientoFinancieroUseCase crearMovimientoUseCase;
+    private final CrearMovimientosLoteUseCase crearMovimientosLoteUseCase;
     private final ObtenerMovimientosFinancierosUseCase obtenerMovimientosUseCase;
     private final MovimientoFinancieroRepository movimientoRepository;
     private final AuthenticatedUserService authenticatedUserService;
 
+    private static final int TAMANO_MAXIMO_CURSOR = 100;
+
     /**
      * Crear movimiento para el usuario autenticado
      */
@@ -51,26 +61,31 @@ public class MovimientoFinancieroController {
 
         Long userId = authenticatedUserService.getCurrentUserId();
 
-        CrearMovimientoFinancieroCommand command = new CrearMovimientoFinancieroCommand(
-                userId, // ✅ Usa el usuario autenticado
-                request.tipoMovimiento(),
-                request.monto(),
-                request.descripcion(),
-                request.fechaMovimiento(),
-                request.categoriaId(),
-                request.fuenteIngresoId(),
-                request.metaId(),
-                request.esRecurrente(),
-                request.patronRecurrencia(),
-                request.notas()
-        );
-
-        MovimientoFinancieroDTO dto = crearMovimientoUseCase.ejecutar(command);
+        MovimientoFinancieroDTO dto = crearMovimientoUseCase.ejecutar(toCommand(userId, request));
         MovimientoFinancieroResponse response = toResponse(dto);
 
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Crear movimientos por lotes para el usuario autenticado (sincronización bancaria)
+     * POST /api/movimientos/batch
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<LoteMovimientosResponse> crearMovimientosLote(
+            @Valid @RequestBody CrearMovimientosLoteRequest request) {
+
+        Long userId = authenticatedUserService.getCurrentUserId();
+
+        List<CrearMovimientoFinancieroCommand> commands = request.movimientos().stream()
+                .map(movimiento -> toCommand(userId, movimiento))
+                .toList();
+
+        List<Long> ids = crearMovimientosLoteUseCase.ejecutar(commands);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(new LoteMovimientosResponse(ids.size(), ids));
+    }
+
     /**
      * ✅ NUEVO: Obtener movimientos con paginación
      * GET /api/movimientos/paginated?page=0&size=20&sort=movementDate,desc
@@ -94,49 +109,59 @@ public class MovimientoFinancieroController {
         String property = sort[0];
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, property));
 
-        // Obtener repository para usar métodos paginados
-        var jpaRepo = (com.controfinanciero.infrastructure.persistence.repository.MovimientoFinancieroJpaRepository)
-                      movimientoRepository;
+        FiltroMovimientos filtro = new FiltroMovimientos(tipo, fechaInicio, fechaFin, categoriaId);
+        Page<MovimientoFinancieroResponse> responsePage = obtenerMovimientosUseCase
+                .ejecutarPaginado(userId, filtro, pageable)
+                .map(this::toResponse);
 
-        Page<com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancieroEntity> entityPage;
+        return ResponseEntity.ok(responsePage);
+    }
 
-        // Aplicar filtros
-        if (fechaInicio != null && fechaFin != null) {
-            entityPage = jpaRepo.findByUserIdAndDateRange(userId, fechaInicio, fechaFin, pageable);
-        } else if (tipo != null) {
-            entityPage = jpaRepo.findByUserIdAndMovementType(userId, tipo, pageable);
-        } else if (categoriaId != null) {
-            entityPage = jpaRepo.findByUserIdAndCategoryId(userId, categoriaId, pageable);
-        } else {
-            entityPage = jpaRepo.findByUserId(userId, pageable);
-        }
+    /**
+     * Obtener movimientos con paginación por cursor (scroll infinito)
+     * GET /api/movimientos/cursor?size=20&cursor=...&direccion=siguiente
+     * Ordena por fecha e id descendentes y no calcula el total de elementos.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<PaginaCursorResponse<MovimientoFinancieroResponse>> obtenerMovimientosPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "siguiente") String direccion,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) TipoMovimiento tipo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(required = false) Long categoriaId) {
 
-        // Convertir a DTOs y luego a Responses
-        Page<MovimientoFinancieroResponse> responsePage = entityPage.map(entity -> {
-            // Convertir entity a DTO manualmente (simplificado)
-            MovimientoFinancieroDTO dto = new MovimientoFinancieroDTO(
-                entity.getId(),
-                entity.getUserId(),
-                entity.getMovementType(),
-                entity.getAmount(),
-                entity.getDescription(),
-                entity.getMovementDate(),
-                entity.getCategoryId(),
-                null, // categoriaNombre
-                entity.getIncomeSourceId(),
-                null, // fuenteIngresoNombre
-                entity.getGoalId(),
-                null, // metaNombre
-                entity.getIsRecurring(),
-                entity.getRecurrencePattern(),
-                entity.getNotes(),
-                entity.getCreatedAt(),
-                entity.getUpdatedAt()
-            );
-            return toResponse(dto);
-        });
+        Long userId = authenticatedUserService.getCurrentUserId();
 
-        return ResponseEntity.ok(responsePage);
+        int tamano = Math.max(1, Math.min(size, TAMANO_MAXIMO_CURSOR));
+        CursorMovimiento posicion = cursor != null ? CursorMovimiento.decodificar(cursor) : null;
+        boolean haciaAtras = posicion != null && "anterior".equalsIgnoreCase(direccion);
+        FiltroMovimientos filtro = new FiltroMovimientos(tipo, fechaInicio, fechaFin, categoriaId);
+
+        Slice<MovimientoFinancieroDTO> slice = obtenerMovimientosUseCase
+                .ejecutarPorCursor(userId, filtro, posicion, haciaAtras, tamano);
+
+        List<MovimientoFinancieroResponse> contenido = slice.getContent().stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+
+        // Hacia adelante: siempre hay página anterior si se partió de un cursor.
+        // Hacia atrás: siempre hay página siguiente (la de la que se viene).
+        boolean haySiguiente = haciaAtras ? !contenido.isEmpty() : slice.hasNext();
+        boolean hayAnterior = haciaAtras ? slice.hasNext() : posicion != null && !contenido.isEmpty();
+
+        String siguienteCursor = haySiguiente ? cursorDe(contenido.get(contenido.size() - 1)) : null;
+        String anteriorCursor = hayAnterior ? cursorDe(contenido.get(0)) : null;
+
+        return ResponseEntity.ok(new PaginaCursorResponse<>(
+                contenido,
+                contenido.size(),
+                siguienteCursor,
+                anteriorCursor,
+                haySiguiente,
+                hayAnterior
+        ));
     }
 
     /**
@@ -252,6 +277,26 @@ public class MovimientoFinancieroController {
         }
     }
 
+    private CrearMovimientoFinancieroCommand toCommand(Long userId, CrearMovimientoFinancieroRequest request) {
+        return new CrearMovimientoFinancieroCommand(
+                userId, // ✅ Usa el usuario autenticado
+                request.tipoMovimiento(),
+                request.monto(),
+                request.descripcion(),
+                request.fechaMovimiento(),
+                request.categoriaId(),
+                request.fuenteIngresoId(),
+                request.metaId(),
+                request.esRecurrente(),
+                request.patronRecurrencia(),
+                request.notas()
+        );
+    }
+
+    private String cursorDe(MovimientoFinancieroResponse response) {
+        return new CursorMovimiento(response.fechaMovimiento(), response.id()).codificar();
+    }
+
     private MovimientoFinancieroResponse toResponse(MovimientoFinancieroDTO dto) {
         return new MovimientoFinancieroResponse(
                 dto.id(),
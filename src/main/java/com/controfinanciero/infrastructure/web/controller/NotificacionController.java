@@ -4,9 +4,17 @@ import com.controfinanciero.domain.model.Usuario;
 import com.controfinanciero.domain.repository.NotificacionRepository;
 import com.controfinanciero.infrastructure.persistence.entity.NotificacionEntity;
 import com.controfinanciero.infrastructure.security.service.AuthenticationService;
+import com.controfinanciero.infrastructure.service.BandejaNotificacionesService;
+import com.controfinanciero.infrastructure.service.BandejaNotificacionesService.CursorNotificacion;
+import com.controfinanciero.infrastructure.service.NotificacionesPushService;
+import com.controfinanciero.infrastructure.web.dto.response.NotificacionResponse;
+import com.controfinanciero.infrastructure.web.dto.response.PaginaCursorResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.List;
@@ -23,39 +31,41 @@ public class NotificacionController {
 
     private final NotificacionRepository notificacionRepo;
     private final AuthenticationService authService;
+    private final NotificacionesPushService pushService;
+    private final BandejaNotificacionesService bandeja;
 
     /**
-     * 📋 GET /api/notificaciones
-     * Obtiene todas las notificaciones del usuario
+     * 📋 GET /api/notificaciones?size=20&cursor=...
+     * Bandeja del usuario paginada por cursor (más recientes primero)
      */
     @GetMapping
-    public ResponseEntity<List<NotificacionEntity>> obtenerNotificaciones() {
+    public ResponseEntity<PaginaCursorResponse<NotificacionResponse>> obtenerNotificaciones(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         Usuario usuario = authService.getCurrentUser();
-        List<NotificacionEntity> notificaciones = notificacionRepo
-                .findByUsuarioIdOrderByCreatedAtDesc(usuario.getId());
-        return ResponseEntity.ok(notificaciones);
+        return ResponseEntity.ok(pagina(usuario.getId(), false, cursor, size));
     }
 
     /**
-     * 🔴 GET /api/notificaciones/no-leidas
-     * Obtiene solo las notificaciones no leídas
+     * 🔴 GET /api/notificaciones/no-leidas?size=20&cursor=...
+     * Obtiene solo las notificaciones no leídas, paginadas por cursor
      */
     @GetMapping("/no-leidas")
-    public ResponseEntity<List<NotificacionEntity>> obtenerNoLeidas() {
+    public ResponseEntity<PaginaCursorResponse<NotificacionResponse>> obtenerNoLeidas(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         Usuario usuario = authService.getCurrentUser();
-        List<NotificacionEntity> notificaciones = notificacionRepo
-                .findByUsuarioIdAndLeidaFalseOrderByCreatedAtDesc(usuario.getId());
-        return ResponseEntity.ok(notificaciones);
+        return ResponseEntity.ok(pagina(usuario.getId(), true, cursor, size));
     }
 
     /**
      * 🔵 GET /api/notificaciones/contador
-     * Obtiene el contador de notificaciones no leídas
+     * Obtiene el contador de notificaciones no leídas (en memoria, sin consultar la base)
      */
     @GetMapping("/contador")
     public ResponseEntity<Map<String, Long>> obtenerContador() {
         Usuario usuario = authService.getCurrentUser();
-        long contador = notificacionRepo.countNoLeidasByUsuarioId(usuario.getId());
+        long contador = bandeja.contarNoLeidas(usuario.getId());
 
         Map<String, Long> response = new HashMap<>();
         response.put("noLeidas", contador);
@@ -63,45 +73,43 @@ public class NotificacionController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * 📡 GET /api/notificaciones/stream
+     * Notificaciones en vivo (Server-Sent Events) en lugar de sondear /contador.
+     * Eventos: 'contador' al conectar y 'notificacion' por cada nueva (id = id de la notificación).
+     * Como requiere el header Authorization, el cliente usa fetch con lectura del stream
+     * (EventSource no permite headers) y envía Last-Event-ID al reconectar.
+     * El usuario se resuelve con una consulta corta: sin Open Session In View la conexión
+     * vuelve al pool antes de que empiece el stream.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEventoId) {
+        Usuario usuario = authService.getCurrentUser();
+        return pushService.suscribir(usuario.getId(), ultimoEventoId);
+    }
+
     /**
      * ✅ PUT /api/notificaciones/{id}/marcar-leida
      * Marca una notificación como leída
      */
     @PutMapping("/{id}/marcar-leida")
-    public ResponseEntity<NotificacionEntity> marcarComoLeida(@PathVariable Long id) {
+    public ResponseEntity<NotificacionResponse> marcarComoLeida(@PathVariable Long id) {
         Usuario usuario = authService.getCurrentUser();
-
-        NotificacionEntity notificacion = notificacionRepo.findById(id)
-                .orElseThrow(() -> new RuntimeException("Notificación no encontrada"));
-
-        if (!notificacion.getUsuarioId().equals(usuario.getId())) {
-            throw new RuntimeException("No autorizado");
-        }
-
-        notificacion.setLeida(true);
-        notificacionRepo.save(notificacion);
-
-        return ResponseEntity.ok(notificacion);
+        NotificacionEntity notificacion = bandeja.marcarLeida(usuario.getId(), id);
+        return ResponseEntity.ok(NotificacionResponse.from(notificacion));
     }
 
     /**
      * ✅ PUT /api/notificaciones/marcar-todas-leidas
-     * Marca todas las notificaciones como leídas
+     * Marca todas las notificaciones como leídas (un solo UPDATE)
      */
     @PutMapping("/marcar-todas-leidas")
     public ResponseEntity<Map<String, String>> marcarTodasComoLeidas() {
         Usuario usuario = authService.getCurrentUser();
-
-        List<NotificacionEntity> notificaciones = notificacionRepo
-                .findByUsuarioIdAndLeidaFalseOrderByCreatedAtDesc(usuario.getId());
-
-        notificaciones.forEach(n -> {
-            n.setLeida(true);
-            notificacionRepo.save(n);
-        });
+        int marcadas = bandeja.marcarTodasLeidas(usuario.getId());
 
         Map<String, String> response = new HashMap<>();
-        response.put("mensaje", String.format("%d notificaciones marcadas como leídas", notificaciones.size()));
+        response.put("mensaje", String.format("%d notificaciones marcadas como leídas", marcadas));
 
         return ResponseEntity.ok(response);
     }
@@ -113,15 +121,7 @@ public class NotificacionController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Map<String, String>> eliminarNotificacion(@PathVariable Long id) {
         Usuario usuario = authService.getCurrentUser();
-
-        NotificacionEntity notificacion = notificacionRepo.findById(id)
-                .orElseThrow(() -> new RuntimeException("Notificación no encontrada"));
-
-        if (!notificacion.getUsuarioId().equals(usuario.getId())) {
-            throw new RuntimeException("No autorizado");
-        }
-
-        notificacionRepo.delete(notificacion);
+        bandeja.eliminar(usuario.getId(), id);
 
         Map<String, String> response = new HashMap<>();
         response.put("mensaje", "Notificación eliminada");
@@ -150,6 +150,7 @@ public class NotificacionController {
 
         // Eliminar todas las notificaciones antiguas
         notificacionesAntiguas.forEach(notificacionRepo::delete);
+        bandeja.invalidarContador(usuario.getId());
 
         Map<String, Object> response = new HashMap<>();
         response.put("mensaje", "Notificaciones antiguas eliminadas");
@@ -158,5 +159,27 @@ public class NotificacionController {
 
         return ResponseEntity.ok(response);
     }
-}
 
+    private PaginaCursorResponse<NotificacionResponse> pagina(Long usuarioId, boolean soloNoLeidas,
+                                                               String cursor, int size) {
+        CursorNotificacion posicion = cursor != null ? CursorNotificacion.decodificar(cursor) : null;
+        Slice<NotificacionEntity> slice = bandeja.pagina(usuarioId, soloNoLeidas, posicion, size);
+
+        List<NotificacionResponse> contenido = slice.getContent().stream()
+                .map(NotificacionResponse::from)
+                .toList();
+        String siguienteCursor = slice.hasNext()
+                ? CursorNotificacion.de(slice.getContent().get(slice.getNumberOfElements() - 1)).codificar()
+                : null;
+
+        // La bandeja solo avanza hacia notificaciones más antiguas: no hay cursor anterior
+        return new PaginaCursorResponse<>(
+                contenido,
+                contenido.size(),
+                siguienteCursor,
+                null,
+                slice.hasNext(),
+                false
+        );
+    }
+}
@@ -1,6 +1,7 @@
 package com.controfinanciero.infrastructure.web.controller;
 
 import com.controfinanciero.domain.model.Usuario;
+import com.controfinanciero.infrastructure.service.CacheAnalisisService;
 import com.controfinanciero.infrastructure.service.ExcelReportService;
 import com.controfinanciero.infrastructure.service.PdfReportService;
 import com.controfinanciero.infrastructure.security.service.AuthenticationService;
@@ -10,6 +11,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 
@@ -25,6 +27,7 @@ public class ReporteController {
     private final PdfReportService pdfService;
     private final ExcelReportService excelService;
     private final AuthenticationService authService;
+    private final CacheAnalisisService cacheAnalisis;
 
     /**
      * 📄 GET /api/reportes/pdf
@@ -41,7 +44,9 @@ public class ReporteController {
 
         Usuario usuario = authService.getCurrentUser();
 
-        byte[] pdf = pdfService.generarEstadoCuenta(usuario, fechaInicio, fechaFin);
+        // Se genera desde la réplica salvo justo después de una escritura del usuario
+        byte[] pdf = cacheAnalisis.leerEscriturasPropias(usuario.getId(),
+                () -> pdfService.generarEstadoCuenta(usuario, fechaInicio, fechaFin));
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
@@ -55,20 +60,22 @@ public class ReporteController {
 
     /**
      * 📊 GET /api/reportes/excel
-     * Genera un reporte en Excel
+     * Genera un reporte en Excel, escrito en streaming directamente a la respuesta
      *
      * Params:
      * - fechaInicio: fecha inicial (YYYY-MM-DD)
      * - fechaFin: fecha final (YYYY-MM-DD)
      */
     @GetMapping("/excel")
-    public ResponseEntity<byte[]> generarExcel(
+    public ResponseEntity<StreamingResponseBody> generarExcel(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
 
+        // El usuario se resuelve antes: el cuerpo se escribe en otro hilo, fuera del contexto de seguridad
         Usuario usuario = authService.getCurrentUser();
 
-        byte[] excel = excelService.generarReporteExcel(usuario, fechaInicio, fechaFin);
+        StreamingResponseBody excel = outputStream ->
+                excelService.escribirReporteExcel(usuario, fechaInicio, fechaFin, outputStream);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType(
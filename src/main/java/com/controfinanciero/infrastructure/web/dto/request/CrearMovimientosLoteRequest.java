@@ -0,0 +1,18 @@
+package com.controfinanciero.infrastructure.web.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Request para crear movimientos financieros por lotes
+ * ✅ Sin usuarioId (se obtiene del token JWT)
+ */
+public record CrearMovimientosLoteRequest(
+
+        @NotEmpty(message = "El lote debe contener al menos un movimiento")
+        @Size(max = 10000, message = "El lote admite como máximo 10000 movimientos")
+        List<@Valid CrearMovimientoFinancieroRequest> movimientos
+) {
+}
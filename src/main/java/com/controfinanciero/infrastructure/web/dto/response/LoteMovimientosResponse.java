@@ -0,0 +1,13 @@
+package com.controfinanciero.infrastructure.web.dto.response;
+
+import java.util.List;
+
+/**
+ * Response de la creación de movimientos por lotes.
+ * Los ids siguen el mismo orden que los movimientos recibidos.
+ */
+public record LoteMovimientosResponse(
+        int creados,
+        List<Long> ids
+) {
+}
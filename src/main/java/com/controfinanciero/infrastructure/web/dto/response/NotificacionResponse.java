@@ -0,0 +1,38 @@
+package com.controfinanciero.infrastructure.web.dto.response;
+
+import com.controfinanciero.infrastructure.persistence.entity.NotificacionEntity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response para notificación (bandeja y canal en vivo)
+ */
+public record NotificacionResponse(
+        Long id,
+        String tipo,
+        String titulo,
+        String mensaje,
+        Boolean leida,
+        LocalDateTime fechaEnvio,
+        LocalDateTime createdAt,
+        Long metaId,
+        String usuarioInvitador,
+        String metaNombre,
+        String version
+) {
+    public static NotificacionResponse from(NotificacionEntity notificacion) {
+        return new NotificacionResponse(
+                notificacion.getId(),
+                notificacion.getTipo(),
+                notificacion.getTitulo(),
+                notificacion.getMensaje(),
+                notificacion.getLeida(),
+                notificacion.getFechaEnvio(),
+                notificacion.getCreatedAt(),
+                notificacion.getMetaId(),
+                notificacion.getUsuarioInvitador(),
+                notificacion.getMetaNombre(),
+                notificacion.getVersion()
+        );
+    }
+}
@@ -0,0 +1,17 @@
+package com.controfinanciero.infrastructure.web.dto.response;
+
+import java.util.List;
+
+/**
+ * Response para paginación por cursor (scroll infinito).
+ * Los cursores son tokens opacos; null indica que no hay más páginas en esa dirección.
+ */
+public record PaginaCursorResponse<T>(
+        List<T> contenido,
+        int tamano,
+        String siguienteCursor,
+        String anteriorCursor,
+        boolean haySiguiente,
+        boolean hayAnterior
+) {
+}
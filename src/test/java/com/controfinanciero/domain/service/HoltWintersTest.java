@@ -0,0 +1,110 @@
+package com.controfinanciero.domain.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Selección del modelo según la historia disponible y pronósticos de series construidas
+ * para que el modelo elegido las reproduzca sin error (estacionalidad pura, tendencia lineal),
+ * así el pronóstico esperado se conoce exactamente y se comprueba el índice estacional.
+ */
+class HoltWintersTest {
+
+    private static final int PERIODO = 12;
+    private static final double[] PATRON = {30, -10, 5, 0, -20, 15, 40, -35, 10, -5, 25, -55};
+    private static final double TOLERANCIA = 1e-9;
+
+    @ParameterizedTest(name = "{0} meses -> {1}")
+    @CsvSource({
+            "1, PROMEDIO",
+            "2, PROMEDIO",
+            "3, HOLT",
+            "23, HOLT",
+            "24, HW",
+            "40, HW"
+    })
+    void eligeElModeloSegunLaHistoriaDisponible(int meses, String modelo) {
+        HoltWinters.Ajuste ajuste = HoltWinters.ajustar(estacional(meses), PERIODO);
+
+        assertThat(ajuste.modelo()).isEqualTo(modelo);
+        assertThat(ajuste.estacionalidad()).hasSize(modelo.equals(HoltWinters.HOLT_WINTERS) ? PERIODO : 0);
+    }
+
+    @ParameterizedTest(name = "{0} meses")
+    @ValueSource(ints = {24, 30, 35, 36})
+    void pronosticoEstacionalSigueElMesDelCalendario(int meses) {
+        HoltWinters.Ajuste ajuste = HoltWinters.ajustar(estacional(meses), PERIODO);
+
+        assertThat(ajuste.modelo()).isEqualTo(HoltWinters.HOLT_WINTERS);
+        assertThat(ajuste.rmse()).isCloseTo(0, within(TOLERANCIA));
+        assertThat(ajuste.fase()).isEqualTo(meses % PERIODO);
+        // El mes h después del último dato es el índice meses + h - 1 de la misma serie
+        for (int horizonte = 1; horizonte <= 2 * PERIODO; horizonte++) {
+            assertThat(ajuste.pronosticar(horizonte))
+                    .as("horizonte %d", horizonte)
+                    .isCloseTo(valorEstacional(meses + horizonte - 1), within(TOLERANCIA));
+        }
+    }
+
+    @Test
+    void holtExtrapolaUnaTendenciaLineal() {
+        double[] serie = new double[8];
+        for (int t = 0; t < serie.length; t++) {
+            serie[t] = 10 + 5 * t;
+        }
+
+        HoltWinters.Ajuste ajuste = HoltWinters.ajustar(serie, PERIODO);
+
+        assertThat(ajuste.modelo()).isEqualTo(HoltWinters.HOLT);
+        assertThat(ajuste.rmse()).isCloseTo(0, within(TOLERANCIA));
+        assertThat(ajuste.tendencia()).isCloseTo(5, within(TOLERANCIA));
+        assertThat(ajuste.pronosticar(1)).isCloseTo(50, within(TOLERANCIA));
+        assertThat(ajuste.pronosticar(6)).isCloseTo(75, within(TOLERANCIA));
+    }
+
+    @Test
+    void promedioConMenosDeTresMeses() {
+        HoltWinters.Ajuste ajuste = HoltWinters.ajustar(new double[]{10, 20}, PERIODO);
+
+        assertThat(ajuste.modelo()).isEqualTo(HoltWinters.PROMEDIO);
+        assertThat(ajuste.rmse()).isCloseTo(5, within(TOLERANCIA));
+        assertThat(ajuste.pronosticar(1)).isEqualTo(15);
+        assertThat(ajuste.pronosticar(12)).isEqualTo(15);
+    }
+
+    @Test
+    void elPronosticoNuncaEsNegativo() {
+        HoltWinters.Ajuste ajuste = HoltWinters.ajustar(new double[]{300, 200, 100}, PERIODO);
+
+        assertThat(ajuste.tendencia()).isNegative();
+        assertThat(ajuste.pronosticar(10)).isZero();
+    }
+
+    @Test
+    void rechazaArgumentosInvalidos() {
+        assertThatThrownBy(() -> HoltWinters.ajustar(new double[0], PERIODO))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HoltWinters.ajustar(new double[]{1, 2, 3}, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HoltWinters.ajustar(new double[]{1, 2, 3}, PERIODO).pronosticar(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static double[] estacional(int meses) {
+        double[] serie = new double[meses];
+        for (int t = 0; t < meses; t++) {
+            serie[t] = valorEstacional(t);
+        }
+        return serie;
+    }
+
+    private static double valorEstacional(int t) {
+        return 100 + PATRON[t % PERIODO];
+    }
+}
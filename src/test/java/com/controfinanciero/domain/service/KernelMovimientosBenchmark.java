@@ -0,0 +1,149 @@
+package com.controfinanciero.domain.service;
+
+import com.controfinanciero.domain.model.MovimientoFinanciero;
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+import com.controfinanciero.domain.valueobject.MoneyAccumulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Mismo análisis de una petición (totales por tipo, gasto por categoría y por mes, media,
+ * varianza y percentiles del gasto) calculado de dos formas:
+ * <ul>
+ *     <li>streams: recorridos de List&lt;MovimientoFinanciero&gt; con BigDecimal, como antes del kernel;</li>
+ *     <li>kernel: MovimientoColumns construido una vez y las pasadas de KernelMovimientos;</li>
+ *     <li>pasadas: solo las pasadas del kernel, con las columnas ya construidas.</li>
+ * </ul>
+ * Ejecutar después de {@code mvn test-compile}:
+ * <pre>
+ * mvn -q dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.controfinanciero.domain.service.KernelMovimientosBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class KernelMovimientosBenchmark {
+
+    private static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+    private static final int MESES = 24;
+    private static final double[] PERCENTILES = {50, 90, 99};
+    private static final byte GASTO = MovimientoColumns.codigo(TipoMovimiento.EXPENSE);
+
+    @Param({"10000", "100000", "1000000"})
+    private int filas;
+
+    private List<MovimientoFinanciero> movimientos;
+    private MovimientoColumns columnas;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        TipoMovimiento[] tipos = TipoMovimiento.values();
+        movimientos = new ArrayList<>(filas);
+        for (int i = 0; i < filas; i++) {
+            Long categoriaId = random.nextInt(5) == 0 ? null : (long) (1 + random.nextInt(40));
+            movimientos.add(MovimientoFinanciero.reconstituir(
+                    (long) i + 1, 1L, tipos[random.nextInt(tipos.length)],
+                    BigDecimal.valueOf(1 + random.nextInt(10_000_000), 2), "movimiento",
+                    INICIO.plusDays(random.nextInt(MESES * 30)), categoriaId,
+                    null, null, false, null, null, null, null));
+        }
+        columnas = MovimientoColumns.desde(movimientos);
+    }
+
+    @Benchmark
+    public void streams(Blackhole blackhole) {
+        Map<TipoMovimiento, BigDecimal> porTipo = movimientos.stream()
+                .collect(Collectors.groupingBy(MovimientoFinanciero::getTipoMovimiento,
+                        Collectors.reducing(BigDecimal.ZERO, MovimientoFinanciero::getMonto, BigDecimal::add)));
+
+        List<MovimientoFinanciero> gastos = movimientos.stream()
+                .filter(movimiento -> movimiento.getTipoMovimiento().name().equals("EXPENSE"))
+                .toList();
+        Map<Long, BigDecimal> porCategoria = gastos.stream()
+                .filter(movimiento -> movimiento.getCategoriaId() != null)
+                .collect(Collectors.groupingBy(MovimientoFinanciero::getCategoriaId,
+                        Collectors.reducing(BigDecimal.ZERO, MovimientoFinanciero::getMonto, BigDecimal::add)));
+        Map<YearMonth, BigDecimal> porMes = gastos.stream()
+                .collect(Collectors.groupingBy(movimiento -> YearMonth.from(movimiento.getFechaMovimiento()),
+                        Collectors.reducing(BigDecimal.ZERO, MovimientoFinanciero::getMonto, BigDecimal::add)));
+
+        BigDecimal suma = gastos.stream().map(MovimientoFinanciero::getMonto).reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal media = suma.divide(BigDecimal.valueOf(gastos.size()), 2, RoundingMode.HALF_UP);
+        double varianza = gastos.stream()
+                .mapToDouble(movimiento -> movimiento.getMonto().subtract(media).pow(2).doubleValue())
+                .sum() / gastos.size();
+
+        List<BigDecimal> ordenados = gastos.stream().map(MovimientoFinanciero::getMonto).sorted().toList();
+        BigDecimal[] percentiles = new BigDecimal[PERCENTILES.length];
+        for (int p = 0; p < PERCENTILES.length; p++) {
+            int rango = Math.max(1, (int) Math.ceil(PERCENTILES[p] * ordenados.size() / 100.0));
+            percentiles[p] = ordenados.get(rango - 1);
+        }
+
+        blackhole.consume(porTipo);
+        blackhole.consume(porCategoria);
+        blackhole.consume(porMes);
+        blackhole.consume(varianza);
+        blackhole.consume(percentiles);
+    }
+
+    @Benchmark
+    public void kernel(Blackhole blackhole) {
+        pasadas(MovimientoColumns.desde(movimientos), blackhole);
+    }
+
+    @Benchmark
+    public void pasadas(Blackhole blackhole) {
+        pasadas(columnas, blackhole);
+    }
+
+    private static void pasadas(MovimientoColumns columnas, Blackhole blackhole) {
+        MoneyAccumulator[] porTipo = KernelMovimientos.totalesPorTipo(columnas);
+        MoneyAccumulator[] porCategoria = KernelMovimientos.totalesPorCategoria(columnas, GASTO);
+        MoneyAccumulator[] porMes = KernelMovimientos.totalesPorMes(columnas, GASTO, MovimientoColumns.mes(INICIO), MESES);
+        KernelMovimientos.EstadisticasMonto estadisticas = KernelMovimientos.estadisticas(columnas, GASTO);
+        long[] percentiles = KernelMovimientos.percentiles(columnas, GASTO, PERCENTILES);
+
+        blackhole.consume(porTipo);
+        blackhole.consume(porCategoria);
+        blackhole.consume(porMes);
+        blackhole.consume(estadisticas);
+        blackhole.consume(percentiles);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(KernelMovimientosBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
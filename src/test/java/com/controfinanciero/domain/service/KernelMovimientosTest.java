@@ -0,0 +1,286 @@
+package com.controfinanciero.domain.service;
+
+import com.controfinanciero.domain.model.MovimientoFinanciero;
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+import com.controfinanciero.domain.valueobject.Dinero;
+import com.controfinanciero.domain.valueobject.Periodo;
+import com.controfinanciero.domain.valueobject.ResumenFinanciero;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * El kernel columnar debe dar los mismos resultados que recorrer los movimientos de dominio
+ * con BigDecimal (como se calculaba antes): totales, saldo, resumen por periodo, agrupaciones,
+ * media, varianza y filtros. Las listas se generan con semillas reproducibles.
+ */
+class KernelMovimientosTest {
+
+    private static final Currency MONEDA = Currency.getInstance("USD");
+    private static final TipoMovimiento[] TIPOS = TipoMovimiento.values();
+    private static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+    private static final int DIAS = 730;
+
+    private final CalculadorSaldo calculadorSaldo = new CalculadorSaldo();
+
+    static LongStream semillas() {
+        return LongStream.range(0, 100);
+    }
+
+    @ParameterizedTest(name = "semilla {0}")
+    @MethodSource("semillas")
+    void saldoYTotalesCoincidenConElRecorridoDeDominio(long semilla) {
+        List<MovimientoFinanciero> movimientos = movimientosAleatorios(new Random(semilla));
+
+        BigDecimal saldo = BigDecimal.ZERO;
+        for (MovimientoFinanciero movimiento : movimientos) {
+            saldo = movimiento.incrementaSaldo()
+                    ? saldo.add(movimiento.getMonto())
+                    : saldo.subtract(movimiento.getMonto());
+        }
+        BigDecimal ingresos = total(movimientos, TipoMovimiento.INCOME);
+        BigDecimal gastos = total(movimientos, TipoMovimiento.EXPENSE);
+        BigDecimal ahorros = total(movimientos, TipoMovimiento.SAVINGS);
+
+        assertThat(calculadorSaldo.calcularSaldoTotal(movimientos, MONEDA)).isEqualTo(dinero(saldo));
+        assertThat(calculadorSaldo.calcularTotalIngresos(movimientos, MONEDA)).isEqualTo(dinero(ingresos));
+        assertThat(calculadorSaldo.calcularTotalGastos(movimientos, MONEDA)).isEqualTo(dinero(gastos));
+        assertThat(calculadorSaldo.calcularTotalAhorros(movimientos, MONEDA)).isEqualTo(dinero(ahorros));
+        assertThat(calculadorSaldo.calcularSaldoDisponible(movimientos, MONEDA))
+                .isEqualTo(dinero(ingresos.subtract(gastos).subtract(ahorros)));
+    }
+
+    @ParameterizedTest(name = "semilla {0}")
+    @MethodSource("semillas")
+    void resumenDePeriodoCoincideConFiltrarPorFecha(long semilla) {
+        Random random = new Random(semilla);
+        List<MovimientoFinanciero> movimientos = movimientosAleatorios(random);
+        LocalDate desde = INICIO.plusDays(random.nextInt(DIAS));
+        Periodo periodo = new Periodo(desde, desde.plusDays(random.nextInt(120)));
+
+        List<MovimientoFinanciero> delPeriodo = movimientos.stream()
+                .filter(movimiento -> periodo.contiene(movimiento.getFechaMovimiento()))
+                .toList();
+        BigDecimal ingresos = total(delPeriodo, TipoMovimiento.INCOME);
+        BigDecimal gastos = total(delPeriodo, TipoMovimiento.EXPENSE);
+        BigDecimal ahorros = total(delPeriodo, TipoMovimiento.SAVINGS);
+
+        ResumenFinanciero resumen = calculadorSaldo.calcularResumen(movimientos, periodo, MONEDA);
+        assertThat(resumen.totalIngresos()).isEqualTo(dinero(ingresos));
+        assertThat(resumen.totalGastos()).isEqualTo(dinero(gastos));
+        assertThat(resumen.totalAhorros()).isEqualTo(dinero(ahorros));
+        assertThat(resumen.saldoDisponible()).isEqualTo(dinero(ingresos.subtract(gastos).subtract(ahorros)));
+        assertThat(calculadorSaldo.calcularSaldoEnPeriodo(movimientos, periodo, MONEDA))
+                .isEqualTo(calculadorSaldo.calcularSaldoTotal(delPeriodo, MONEDA));
+    }
+
+    @ParameterizedTest(name = "semilla {0}")
+    @MethodSource("semillas")
+    void estadisticasCoincidenConBigDecimal(long semilla) {
+        List<MovimientoFinanciero> movimientos = movimientosAleatorios(new Random(semilla));
+        MovimientoColumns columnas = MovimientoColumns.desde(movimientos);
+
+        for (TipoMovimiento tipo : TIPOS) {
+            List<BigDecimal> montos = movimientos.stream()
+                    .filter(movimiento -> movimiento.getTipoMovimiento() == tipo)
+                    .map(MovimientoFinanciero::getMonto)
+                    .toList();
+            KernelMovimientos.EstadisticasMonto estadisticas =
+                    KernelMovimientos.estadisticas(columnas, MovimientoColumns.codigo(tipo));
+
+            assertThat(estadisticas.cantidad()).isEqualTo(montos.size());
+            if (montos.isEmpty()) {
+                continue;
+            }
+            BigDecimal suma = montos.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal media = suma.divide(BigDecimal.valueOf(montos.size()), 2, RoundingMode.HALF_UP);
+            double sumaCuadrados = 0;
+            for (BigDecimal monto : montos) {
+                sumaCuadrados += monto.subtract(media).pow(2).doubleValue();
+            }
+
+            assertThat(estadisticas.suma()).isEqualByComparingTo(suma);
+            assertThat(estadisticas.media()).isEqualTo(media);
+            // Mismo redondeo por fila y mismo orden de suma: el double debe ser idéntico
+            assertThat(estadisticas.varianza()).as("tipo %s", tipo).isEqualTo(sumaCuadrados / montos.size());
+        }
+    }
+
+    @ParameterizedTest(name = "semilla {0}")
+    @MethodSource("semillas")
+    void agrupacionesCoincidenConElRecorridoDeDominio(long semilla) {
+        List<MovimientoFinanciero> movimientos = movimientosAleatorios(new Random(semilla));
+        MovimientoColumns columnas = MovimientoColumns.desde(movimientos);
+        byte gasto = MovimientoColumns.codigo(TipoMovimiento.EXPENSE);
+
+        var totales = KernelMovimientos.totalesPorCategoria(columnas, gasto);
+        long[] conteo = KernelMovimientos.conteoPorCategoria(columnas, gasto);
+        for (int indice = 0; indice < columnas.cantidadCategorias(); indice++) {
+            long categoriaId = columnas.categoriaId(indice);
+            List<MovimientoFinanciero> deCategoria = movimientos.stream()
+                    .filter(MovimientoFinanciero::esGasto)
+                    .filter(movimiento -> movimiento.getCategoriaId() != null
+                            && movimiento.getCategoriaId() == categoriaId)
+                    .toList();
+            assertThat(totales[indice].total()).isEqualByComparingTo(total(deCategoria, TipoMovimiento.EXPENSE));
+            assertThat(conteo[indice]).isEqualTo(deCategoria.size());
+        }
+
+        int mesDesde = MovimientoColumns.mes(INICIO);
+        var porMes = KernelMovimientos.totalesPorMes(columnas, gasto, mesDesde, 24);
+        for (int posicion = 0; posicion < 24; posicion++) {
+            LocalDate mes = INICIO.plusMonths(posicion);
+            BigDecimal esperado = movimientos.stream()
+                    .filter(MovimientoFinanciero::esGasto)
+                    .filter(movimiento -> movimiento.getFechaMovimiento().getYear() == mes.getYear()
+                            && movimiento.getFechaMovimiento().getMonth() == mes.getMonth())
+                    .map(MovimientoFinanciero::getMonto)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            assertThat(porMes[posicion].total()).as("mes %s", mes).isEqualByComparingTo(esperado);
+        }
+    }
+
+    @ParameterizedTest(name = "semilla {0}")
+    @MethodSource("semillas")
+    void filasMayoresQueCoincidenConCompareTo(long semilla) {
+        Random random = new Random(semilla);
+        List<MovimientoFinanciero> movimientos = movimientosAleatorios(random);
+        MovimientoColumns columnas = MovimientoColumns.desde(movimientos);
+        // Umbral con hasta 4 decimales: prueba el redondeo hacia abajo a centavos
+        BigDecimal umbral = BigDecimal.valueOf(random.nextInt(100_000_000), 4);
+
+        List<Integer> esperadas = new ArrayList<>();
+        for (int i = 0; i < movimientos.size(); i++) {
+            MovimientoFinanciero movimiento = movimientos.get(i);
+            if (movimiento.esGasto() && movimiento.getMonto().compareTo(umbral) > 0) {
+                esperadas.add(i);
+            }
+        }
+
+        int[] filas = KernelMovimientos.filasMayoresQue(
+                columnas, MovimientoColumns.codigo(TipoMovimiento.EXPENSE), umbral);
+        assertThat(filas).containsExactly(esperadas.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    @ParameterizedTest(name = "semilla {0}")
+    @MethodSource("semillas")
+    void percentilesCoincidenConOrdenarLosMontos(long semilla) {
+        List<MovimientoFinanciero> movimientos = movimientosAleatorios(new Random(semilla));
+        MovimientoColumns columnas = MovimientoColumns.desde(movimientos);
+        double[] pedidos = {0, 1, 25, 50, 90, 95, 99, 100};
+
+        for (TipoMovimiento tipo : TIPOS) {
+            List<BigDecimal> ordenados = movimientos.stream()
+                    .filter(movimiento -> movimiento.getTipoMovimiento() == tipo)
+                    .map(MovimientoFinanciero::getMonto)
+                    .sorted()
+                    .toList();
+            long[] percentiles = KernelMovimientos.percentiles(columnas, MovimientoColumns.codigo(tipo), pedidos);
+
+            if (ordenados.isEmpty()) {
+                assertThat(percentiles).isEmpty();
+                continue;
+            }
+            for (int p = 0; p < pedidos.length; p++) {
+                // Rango más cercano sobre la lista ordenada con BigDecimal
+                int rango = Math.max(1, (int) Math.ceil(pedidos[p] * ordenados.size() / 100.0));
+                assertThat(MovimientoColumns.desdeCentavos(percentiles[p]))
+                        .as("tipo %s, percentil %s", tipo, pedidos[p])
+                        .isEqualByComparingTo(ordenados.get(rango - 1));
+            }
+        }
+    }
+
+    @Test
+    void percentilesDeListaConocida() {
+        List<MovimientoFinanciero> movimientos = new ArrayList<>();
+        for (int monto = 10; monto >= 1; monto--) {
+            movimientos.add(movimiento(TipoMovimiento.EXPENSE, monto + ".00", INICIO, null));
+        }
+        movimientos.add(movimiento(TipoMovimiento.INCOME, "1000.00", INICIO, null));
+        MovimientoColumns columnas = MovimientoColumns.desde(movimientos);
+
+        long[] percentiles = KernelMovimientos.percentiles(
+                columnas, MovimientoColumns.codigo(TipoMovimiento.EXPENSE), 0, 10, 50, 55, 100);
+
+        assertThat(percentiles).containsExactly(100, 100, 500, 600, 1000);
+        assertThatThrownBy(() -> KernelMovimientos.percentiles(
+                columnas, MovimientoColumns.codigo(TipoMovimiento.EXPENSE), 101))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void indiceMaximoDesempataPorMenorCategoria() {
+        List<MovimientoFinanciero> movimientos = List.of(
+                movimiento(TipoMovimiento.EXPENSE, "10.00", INICIO, 30L),
+                movimiento(TipoMovimiento.EXPENSE, "10.00", INICIO, 20L),
+                movimiento(TipoMovimiento.EXPENSE, "5.00", INICIO, 10L),
+                movimiento(TipoMovimiento.EXPENSE, "5.00", INICIO, 20L)
+        );
+        MovimientoColumns columnas = MovimientoColumns.desde(movimientos);
+        long[] conteo = KernelMovimientos.conteoPorCategoria(columnas, MovimientoColumns.codigo(TipoMovimiento.EXPENSE));
+
+        int indice = KernelMovimientos.indiceMaximo(columnas, conteo);
+
+        assertThat(columnas.categoriaId(indice)).isEqualTo(20L);
+        assertThat(KernelMovimientos.indiceMaximo(columnas, new long[columnas.cantidadCategorias()]))
+                .isEqualTo(MovimientoColumns.SIN_INDICE_CATEGORIA);
+    }
+
+    @Test
+    void listaVaciaDaTotalesEnCero() {
+        assertThat(calculadorSaldo.calcularSaldoTotal(List.of(), MONEDA)).isEqualTo(dinero(BigDecimal.ZERO));
+        assertThat(KernelMovimientos.estadisticas(MovimientoColumns.desde(List.of()),
+                MovimientoColumns.codigo(TipoMovimiento.EXPENSE)).cantidad()).isZero();
+    }
+
+    /**
+     * Movimientos de todos los tipos en dos años, con y sin categoría. Algunos montos llegan
+     * al máximo de numeric(15,2) para cubrir las diferencias que no caben exactas en un double.
+     */
+    private static List<MovimientoFinanciero> movimientosAleatorios(Random random) {
+        int cantidad = random.nextInt(400);
+        List<MovimientoFinanciero> movimientos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            long centavos = random.nextInt(50) == 0
+                    ? 1 + (long) (random.nextDouble() * 999_999_999_999_999L)
+                    : 1 + random.nextInt(10_000_000);
+            Long categoriaId = random.nextInt(5) == 0 ? null : (long) (1 + random.nextInt(12));
+            movimientos.add(movimiento(
+                    TIPOS[random.nextInt(TIPOS.length)],
+                    BigDecimal.valueOf(centavos, 2).toPlainString(),
+                    INICIO.plusDays(random.nextInt(DIAS)),
+                    categoriaId));
+        }
+        return movimientos;
+    }
+
+    private static MovimientoFinanciero movimiento(TipoMovimiento tipo, String monto, LocalDate fecha, Long categoriaId) {
+        return MovimientoFinanciero.reconstituir(
+                null, 1L, tipo, new BigDecimal(monto), "movimiento", fecha, categoriaId,
+                null, null, false, null, null, null, null);
+    }
+
+    private static BigDecimal total(List<MovimientoFinanciero> movimientos, TipoMovimiento tipo) {
+        return movimientos.stream()
+                .filter(movimiento -> movimiento.getTipoMovimiento() == tipo)
+                .map(MovimientoFinanciero::getMonto)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static Dinero dinero(BigDecimal cantidad) {
+        return new Dinero(cantidad, MONEDA);
+    }
+}
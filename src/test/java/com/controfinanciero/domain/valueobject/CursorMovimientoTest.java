@@ -0,0 +1,74 @@
+package com.controfinanciero.domain.valueobject;
+
+import com.controfinanciero.domain.exception.MovimientoInvalidoException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * El token del cursor es opaco para el cliente: codificar y decodificar deben ser inversos,
+ * y cualquier token manipulado o truncado debe dar MovimientoInvalidoException (400), nunca
+ * otra excepción.
+ */
+class CursorMovimientoTest {
+
+    @Test
+    void decodificarInvierteCodificar() {
+        CursorMovimiento cursor = new CursorMovimiento(LocalDate.of(2025, 2, 28), 123_456_789_012L);
+
+        assertThat(CursorMovimiento.decodificar(cursor.codificar())).isEqualTo(cursor);
+    }
+
+    @Test
+    void elTokenEsSeguroParaUrlYSinRelleno() {
+        for (long id = 1; id < 2_000; id += 7) {
+            String token = new CursorMovimiento(LocalDate.of(2024, 1, 1).plusDays(id), id).codificar();
+
+            assertThat(token).matches("[A-Za-z0-9_-]+");
+            assertThat(CursorMovimiento.decodificar(token).id()).isEqualTo(id);
+        }
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {"   ", "%%%", "no es base64!", "YWJj=", "QQ"})
+    void tokenQueNoEsBase64NiCursorEsInvalido(String token) {
+        assertThatThrownBy(() -> CursorMovimiento.decodificar(token))
+                .isInstanceOf(MovimientoInvalidoException.class)
+                .hasMessageStartingWith("Cursor de paginación inválido");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "2025-01-15",
+            "2025-01-15|",
+            "|42",
+            "2025-13-01|42",
+            "2025-02-30|42",
+            "15/01/2025|42",
+            "2025-01-15|cuarenta",
+            "2025-01-15|42|7",
+            "2025-01-15|99999999999999999999"
+    })
+    void contenidoMalformadoEsInvalido(String contenido) {
+        String token = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(contenido.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> CursorMovimiento.decodificar(token))
+                .isInstanceOf(MovimientoInvalidoException.class);
+    }
+
+    @Test
+    void fechaEIdSonObligatorios() {
+        assertThatThrownBy(() -> new CursorMovimiento(null, 1L)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> new CursorMovimiento(LocalDate.now(), null)).isInstanceOf(NullPointerException.class);
+    }
+}
@@ -0,0 +1,230 @@
+package com.controfinanciero.domain.valueobject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Propiedades de MoneyAccumulator: para cualquier secuencia de operaciones el total es
+ * exactamente (valor y escala) la suma con BigDecimal, tanto en el camino rápido en centavos
+ * como después de desbordar el long. Cada semilla genera una secuencia reproducible.
+ */
+class MoneyAccumulatorTest {
+
+    private static final int OPERACIONES_POR_SEMILLA = 2_000;
+
+    static LongStream semillas() {
+        return LongStream.range(0, 200);
+    }
+
+    @ParameterizedTest(name = "semilla {0}")
+    @MethodSource("semillas")
+    void totalCoincideConBigDecimal(long semilla) {
+        Random random = new Random(semilla);
+        MoneyAccumulator acumulador = new MoneyAccumulator();
+        BigDecimal esperado = BigDecimal.valueOf(0, 2);
+
+        for (int i = 0; i < OPERACIONES_POR_SEMILLA; i++) {
+            switch (random.nextInt(6)) {
+                case 0 -> {
+                    long monto = centavosAleatorios(random);
+                    acumulador.sumarCentavos(monto);
+                    esperado = esperado.add(BigDecimal.valueOf(monto, 2));
+                }
+                case 1 -> {
+                    long monto = centavosAleatorios(random);
+                    acumulador.restarCentavos(monto);
+                    esperado = esperado.subtract(BigDecimal.valueOf(monto, 2));
+                }
+                case 2 -> {
+                    BigDecimal monto = montoAleatorio(random);
+                    acumulador.sumar(monto);
+                    esperado = esperado.add(monto);
+                }
+                case 3 -> {
+                    BigDecimal monto = montoAleatorio(random);
+                    acumulador.restar(monto);
+                    esperado = esperado.subtract(monto);
+                }
+                case 4 -> {
+                    MoneyAccumulator otro = acumuladorAleatorio(random);
+                    acumulador.sumar(otro);
+                    esperado = esperado.add(otro.total());
+                }
+                default -> {
+                    MoneyAccumulator otro = acumuladorAleatorio(random);
+                    acumulador.restar(otro);
+                    esperado = esperado.subtract(otro.total());
+                }
+            }
+            assertThat(acumulador.total())
+                    .as("semilla %d, operación %d", semilla, i)
+                    .isEqualTo(esperado);
+        }
+
+        assertThat(acumulador.esCero()).isEqualTo(esperado.signum() == 0);
+        assertCentavos(acumulador, esperado);
+    }
+
+    @ParameterizedTest(name = "semilla {0}")
+    @MethodSource("semillas")
+    void compararConCoincideConBigDecimal(long semilla) {
+        Random random = new Random(semilla);
+        for (int i = 0; i < 100; i++) {
+            MoneyAccumulator a = acumuladorAleatorio(random);
+            MoneyAccumulator b = random.nextInt(10) == 0 ? copia(a) : acumuladorAleatorio(random);
+            assertThat(Integer.signum(a.compararCon(b)))
+                    .as("semilla %d: %s vs %s", semilla, a.total(), b.total())
+                    .isEqualTo(a.total().compareTo(b.total()));
+        }
+    }
+
+    @Test
+    void desbordaHaciaBigDecimalSinPerderExactitud() {
+        MoneyAccumulator acumulador = new MoneyAccumulator()
+                .sumarCentavos(Long.MAX_VALUE)
+                .sumarCentavos(Long.MAX_VALUE)
+                .sumarCentavos(1);
+
+        BigDecimal esperado = BigDecimal.valueOf(Long.MAX_VALUE, 2)
+                .multiply(BigDecimal.valueOf(2))
+                .add(new BigDecimal("0.01"));
+        assertThat(acumulador.total()).isEqualTo(esperado);
+        assertThatThrownBy(acumulador::centavos).isInstanceOf(ArithmeticException.class);
+
+        // Al volver al rango de long el total sigue siendo exacto
+        acumulador.restarCentavos(Long.MAX_VALUE).restarCentavos(Long.MAX_VALUE);
+        assertThat(acumulador.total()).isEqualTo(new BigDecimal("0.01"));
+        assertThat(acumulador.centavos()).isEqualTo(1);
+    }
+
+    @Test
+    void desbordaHaciaNegativos() {
+        MoneyAccumulator acumulador = new MoneyAccumulator()
+                .sumarCentavos(Long.MIN_VALUE)
+                .sumarCentavos(-1);
+
+        assertThat(acumulador.total())
+                .isEqualTo(BigDecimal.valueOf(Long.MIN_VALUE, 2).subtract(new BigDecimal("0.01")));
+    }
+
+    @Test
+    void restarLongMinValueNoDesborda() {
+        MoneyAccumulator acumulador = new MoneyAccumulator().restarCentavos(Long.MIN_VALUE);
+
+        assertThat(acumulador.total()).isEqualTo(BigDecimal.valueOf(Long.MIN_VALUE, 2).negate());
+    }
+
+    @Test
+    void montosConMasDeDosDecimalesSeSumanExactos() {
+        MoneyAccumulator acumulador = new MoneyAccumulator()
+                .sumar(new BigDecimal("10.005"))
+                .sumar(new BigDecimal("0.005"));
+
+        assertThat(acumulador.total()).isEqualTo(new BigDecimal("10.010"));
+        assertThat(acumulador.centavos()).isEqualTo(1001);
+        assertThat(acumulador.comoDinero(Currency.getInstance("USD")).cantidad())
+                .isEqualByComparingTo("10.01");
+    }
+
+    @Test
+    void sumaDeDineroEquivaleAEncadenarDineroSumar() {
+        Currency moneda = Currency.getInstance("USD");
+        Random random = new Random(42);
+        MoneyAccumulator acumulador = new MoneyAccumulator();
+        Dinero encadenado = new Dinero(BigDecimal.ZERO, moneda);
+
+        for (int i = 0; i < 10_000; i++) {
+            Dinero monto = new Dinero(BigDecimal.valueOf(random.nextInt(1_000_000), 2), moneda);
+            acumulador.sumar(monto);
+            encadenado = encadenado.sumar(monto);
+        }
+
+        assertThat(acumulador.comoDinero(moneda)).isEqualTo(encadenado);
+    }
+
+    @Test
+    void acumuladoresParcialesSeCombinanIgualQueUnoSolo() {
+        Random random = new Random(7);
+        List<Long> montos = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            montos.add(centavosAleatorios(random));
+        }
+
+        MoneyAccumulator total = new MoneyAccumulator();
+        montos.forEach(total::sumarCentavos);
+
+        MoneyAccumulator primeraMitad = new MoneyAccumulator();
+        MoneyAccumulator segundaMitad = new MoneyAccumulator();
+        for (int i = 0; i < montos.size(); i++) {
+            (i % 2 == 0 ? primeraMitad : segundaMitad).sumarCentavos(montos.get(i));
+        }
+
+        assertThat(primeraMitad.sumar(segundaMitad).total()).isEqualTo(total.total());
+    }
+
+    /**
+     * Centavos pequeños la mayoría de las veces y, a veces, cercanos a los extremos del long
+     * para forzar el desborde en ambos sentidos.
+     */
+    private static long centavosAleatorios(Random random) {
+        return switch (random.nextInt(10)) {
+            case 0 -> Long.MAX_VALUE - random.nextInt(1_000);
+            case 1 -> Long.MIN_VALUE + random.nextInt(1_000);
+            case 2 -> random.nextLong();
+            default -> random.nextInt(2_000_001) - 1_000_000L;
+        };
+    }
+
+    /**
+     * Montos de escala 0 a 4 y hasta 22 dígitos: unos caben en centavos y otros obligan
+     * a seguir en BigDecimal.
+     */
+    private static BigDecimal montoAleatorio(Random random) {
+        int escala = random.nextInt(10) == 0 ? 3 + random.nextInt(2) : random.nextInt(3);
+        int bits = random.nextInt(8) == 0 ? 60 + random.nextInt(14) : 1 + random.nextInt(40);
+        BigInteger sinEscala = new BigInteger(bits, random);
+        if (random.nextBoolean()) {
+            sinEscala = sinEscala.negate();
+        }
+        return new BigDecimal(sinEscala, escala);
+    }
+
+    private static MoneyAccumulator acumuladorAleatorio(Random random) {
+        MoneyAccumulator acumulador = new MoneyAccumulator();
+        int operaciones = random.nextInt(4);
+        for (int i = 0; i < operaciones; i++) {
+            if (random.nextBoolean()) {
+                acumulador.sumarCentavos(centavosAleatorios(random));
+            } else {
+                acumulador.sumar(montoAleatorio(random));
+            }
+        }
+        return acumulador;
+    }
+
+    private static MoneyAccumulator copia(MoneyAccumulator original) {
+        return new MoneyAccumulator().sumar(original);
+    }
+
+    private static void assertCentavos(MoneyAccumulator acumulador, BigDecimal esperado) {
+        BigInteger centavos = esperado.setScale(2, RoundingMode.HALF_UP).unscaledValue();
+        if (centavos.bitLength() < Long.SIZE) {
+            assertThat(acumulador.centavos()).isEqualTo(centavos.longValueExact());
+        } else {
+            assertThatThrownBy(acumulador::centavos).isInstanceOf(ArithmeticException.class);
+        }
+    }
+}
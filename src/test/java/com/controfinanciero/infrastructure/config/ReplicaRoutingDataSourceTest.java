@@ -0,0 +1,256 @@
+package com.controfinanciero.infrastructure.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Enrutamiento primario/réplica con dos bases H2 en memoria, el mismo armado que
+ * DataSourceConfig (LazyConnectionDataSourceProxy sobre ReplicaRoutingDataSource y
+ * ReplicaJpaTransactionManager) y transacciones declaradas con @Transactional.
+ * Cada base tiene una tabla 'origen' con su nombre, así cada lectura dice a dónde fue.
+ */
+@SpringJUnitConfig(ReplicaRoutingDataSourceTest.Configuracion.class)
+class ReplicaRoutingDataSourceTest {
+
+    private static final long MAXIMO_RETRASO_SEGUNDOS = 10;
+
+    @Autowired
+    private Lecturas lecturas;
+
+    @Autowired
+    private Anidadas anidadas;
+
+    @Autowired
+    private ReplicaConRetraso enrutador;
+
+    @BeforeEach
+    void setUp() {
+        enrutador.retraso = 0;
+        enrutador.verificarRetrasoReplica();
+    }
+
+    @Test
+    void lecturaEtiquetadaVaALaReplica() {
+        assertThat(enrutador.isReplicaDisponible()).isTrue();
+        assertThat(lecturas.lecturaEtiquetada()).isEqualTo("replica");
+    }
+
+    @Test
+    void lecturaSinEtiquetaYSinTransaccionVanAlPrimario() {
+        // El readOnly implícito de los repositorios Spring Data no lleva la etiqueta
+        assertThat(lecturas.lecturaSinEtiqueta()).isEqualTo("primario");
+        assertThat(lecturas.sinTransaccion()).isEqualTo("primario");
+    }
+
+    @Test
+    void escrituraVaAlPrimario() {
+        int previas = lecturas.contarEscrituras();
+
+        assertThat(lecturas.escribir("movimiento")).isEqualTo("primario");
+        assertThat(lecturas.contarEscrituras()).isEqualTo(previas + 1);
+    }
+
+    @Test
+    void lecturaEtiquetadaAnidadaEnUnaEscrituraUsaLaReplicaYLuegoVuelveAlPrimario() {
+        assertThat(anidadas.escrituraConLecturaAnidada()).containsExactly("primario", "replica", "primario");
+    }
+
+    @Test
+    void enPrimarioFuerzaElPrimarioDentroDeUnaLecturaEtiquetada() {
+        assertThat(ReplicaJpaTransactionManager.enPrimario(lecturas::lecturaEtiquetada)).isEqualTo("primario");
+        assertThat(lecturas.lecturaEtiquetada()).isEqualTo("replica");
+    }
+
+    @Test
+    void retrasoSobreElMaximoEnviaLasLecturasAlPrimario() {
+        enrutador.retraso = MAXIMO_RETRASO_SEGUNDOS + 0.5;
+        enrutador.verificarRetrasoReplica();
+
+        assertThat(enrutador.isReplicaDisponible()).isFalse();
+        assertThat(lecturas.lecturaEtiquetada()).isEqualTo("primario");
+
+        // Al ponerse al día vuelve a recibir lecturas
+        enrutador.retraso = MAXIMO_RETRASO_SEGUNDOS;
+        enrutador.verificarRetrasoReplica();
+        assertThat(lecturas.lecturaEtiquetada()).isEqualTo("replica");
+    }
+
+    @Test
+    @DirtiesContext
+    void replicaSinConexionEnviaLaLecturaAlPrimario() {
+        enrutador.replica.close();
+
+        assertThat(lecturas.lecturaEtiquetada()).isEqualTo("primario");
+        assertThat(enrutador.isReplicaDisponible()).isFalse();
+    }
+
+    /**
+     * ReplicaRoutingDataSource con el retraso de replicación fijado por la prueba
+     * (H2 no tiene las funciones pg_last_wal_* que mide el original).
+     */
+    static class ReplicaConRetraso extends ReplicaRoutingDataSource {
+
+        final HikariDataSource replica;
+        volatile double retraso;
+
+        ReplicaConRetraso(HikariDataSource primario, HikariDataSource replica) {
+            super(primario, replica, MAXIMO_RETRASO_SEGUNDOS);
+            this.replica = replica;
+        }
+
+        @Override
+        double medirRetrasoSegundos(Connection connection) {
+            return retraso;
+        }
+    }
+
+    static class Lecturas {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        Lecturas(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Transactional(readOnly = true, label = ReplicaJpaTransactionManager.LECTURA_REPLICA)
+        public String lecturaEtiquetada() {
+            return origen();
+        }
+
+        @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW,
+                label = ReplicaJpaTransactionManager.LECTURA_REPLICA)
+        public String lecturaEtiquetadaNueva() {
+            return origen();
+        }
+
+        @Transactional(readOnly = true)
+        public String lecturaSinEtiqueta() {
+            return origen();
+        }
+
+        public String sinTransaccion() {
+            return origen();
+        }
+
+        @Transactional
+        public String escribir(String descripcion) {
+            jdbcTemplate.update("INSERT INTO escrituras (descripcion) VALUES (?)", descripcion);
+            return origen();
+        }
+
+        @Transactional(readOnly = true)
+        public int contarEscrituras() {
+            return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM escrituras", Integer.class);
+        }
+
+        private String origen() {
+            return jdbcTemplate.queryForObject("SELECT nombre FROM origen", String.class);
+        }
+    }
+
+    /**
+     * Transacción de escritura que abre una lectura etiquetada en su propia transacción
+     * (en otro bean para que la llamada pase por el proxy transaccional).
+     */
+    static class Anidadas {
+
+        private final Lecturas lecturas;
+
+        Anidadas(Lecturas lecturas) {
+            this.lecturas = lecturas;
+        }
+
+        @Transactional
+        public List<String> escrituraConLecturaAnidada() {
+            String antes = lecturas.escribir("antes");
+            String anidada = lecturas.lecturaEtiquetadaNueva();
+            String despues = lecturas.escribir("después");
+            return List.of(antes, anidada, despues);
+        }
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    static class Configuracion {
+
+        @Bean
+        ReplicaConRetraso replicaRoutingDataSource() throws SQLException {
+            return new ReplicaConRetraso(pool("primario", false), pool("replica", true));
+        }
+
+        @Bean
+        DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+            return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setPackagesToScan(ReplicaRoutingDataSourceTest.class.getPackageName());
+            return factory;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new ReplicaJpaTransactionManager(entityManagerFactory);
+        }
+
+        @Bean
+        Lecturas lecturas(DataSource dataSource) {
+            return new Lecturas(new JdbcTemplate(dataSource));
+        }
+
+        @Bean
+        Anidadas anidadas(Lecturas lecturas) {
+            return new Anidadas(lecturas);
+        }
+
+        /**
+         * Base H2 con su nombre en 'origen'. Se crea antes del pool porque el de la réplica
+         * es de solo lectura, igual que en DataSourceConfig.
+         */
+        private static HikariDataSource pool(String nombre, boolean soloLectura) throws SQLException {
+            String url = "jdbc:h2:mem:" + nombre + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+            try (Connection connection = DriverManager.getConnection(url);
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE origen (nombre VARCHAR(20))");
+                statement.execute("INSERT INTO origen VALUES ('" + nombre + "')");
+                statement.execute("CREATE TABLE escrituras (descripcion VARCHAR(40))");
+            }
+
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl(url);
+            config.setPoolName("hikari-" + nombre);
+            config.setReadOnly(soloLectura);
+            config.setMaximumPoolSize(2);
+            return new HikariDataSource(config);
+        }
+    }
+}
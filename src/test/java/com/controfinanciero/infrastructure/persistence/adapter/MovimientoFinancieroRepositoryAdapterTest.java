@@ -0,0 +1,293 @@
+package com.controfinanciero.infrastructure.persistence.adapter;
+
+import com.controfinanciero.domain.model.MovimientoFinanciero;
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+import com.controfinanciero.domain.valueobject.CursorMovimiento;
+import com.controfinanciero.domain.valueobject.FiltroMovimientos;
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancieroEntity;
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoInusualEntity;
+import com.controfinanciero.infrastructure.persistence.repository.MovimientoFinancieroImportacionRepository;
+import com.controfinanciero.infrastructure.persistence.repository.MovimientoFinancieroJpaRepository;
+import com.controfinanciero.infrastructure.persistence.repository.ResumenMensualUsuarioJpaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.model.TypeContributions;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.SqlTypes;
+import org.hibernate.type.descriptor.jdbc.EnumJdbcType;
+import org.hibernate.type.descriptor.sql.internal.DdlTypeImpl;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Paginación por cursor (keyset) de MovimientoFinancieroRepositoryAdapter con las consultas
+ * reales de MovimientoFinancieroJpaRepository sobre H2: orden (fecha DESC, id DESC), límites
+ * de cada página hacia delante y hacia atrás desde cada posición, empates de fecha y filtros.
+ * Los movimientos se generan con una semilla fija y muchas fechas repetidas.
+ */
+@SpringJUnitConfig(MovimientoFinancieroRepositoryAdapterTest.Configuracion.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MovimientoFinancieroRepositoryAdapterTest {
+
+    private static final Long USUARIO = 1L;
+    private static final Long OTRO_USUARIO = 2L;
+    private static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+    private static final int TAMANO = 5;
+
+    @Autowired
+    private MovimientoFinancieroJpaRepository jpaRepository;
+
+    private MovimientoFinancieroRepositoryAdapter adapter;
+    private List<MovimientoFinancieroEntity> delUsuario;
+
+    @BeforeAll
+    void cargarMovimientos() {
+        adapter = new MovimientoFinancieroRepositoryAdapter(jpaRepository,
+                mock(ResumenMensualUsuarioJpaRepository.class),
+                mock(MovimientoFinancieroImportacionRepository.class),
+                mock(ApplicationEventPublisher.class));
+
+        Random random = new Random(7);
+        TipoMovimiento[] tipos = TipoMovimiento.values();
+        List<MovimientoFinancieroEntity> movimientos = new ArrayList<>();
+        for (int i = 0; i < 80; i++) {
+            // 15 días para 80 movimientos: muchas fechas con varios movimientos
+            MovimientoFinancieroEntity entity = new MovimientoFinancieroEntity(
+                    i % 8 == 0 ? OTRO_USUARIO : USUARIO,
+                    tipos[random.nextInt(tipos.length)],
+                    BigDecimal.valueOf(1 + random.nextInt(100_000), 2),
+                    "movimiento " + i,
+                    INICIO.plusDays(random.nextInt(15)));
+            entity.setCategoryId(random.nextInt(3) == 0 ? null : (long) (1 + random.nextInt(2)));
+            entity.setIsRecurring(false);
+            movimientos.add(entity);
+        }
+        delUsuario = jpaRepository.saveAll(movimientos).stream()
+                .filter(entity -> entity.getUserId().equals(USUARIO))
+                .toList();
+    }
+
+    static Stream<FiltroMovimientos> filtros() {
+        return Stream.of(
+                FiltroMovimientos.sinFiltros(),
+                new FiltroMovimientos(TipoMovimiento.EXPENSE, null, null, null),
+                new FiltroMovimientos(null, null, null, 1L),
+                new FiltroMovimientos(null, INICIO.plusDays(3), INICIO.plusDays(9), null),
+                new FiltroMovimientos(TipoMovimiento.INCOME, INICIO.plusDays(2), null, 2L)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("filtros")
+    void recorrerHaciaDelanteDevuelveTodoEnOrdenSinRepetirNiSaltar(FiltroMovimientos filtro) {
+        List<MovimientoFinancieroEntity> esperados = ordenados(filtro);
+
+        List<Long> recorrido = new ArrayList<>();
+        Slice<MovimientoFinanciero> pagina = adapter.findByUsuarioIdDespuesDeCursor(USUARIO, filtro, null, TAMANO);
+        int paginas = 1;
+        while (true) {
+            pagina.forEach(movimiento -> recorrido.add(movimiento.getId()));
+            if (!pagina.hasNext()) {
+                break;
+            }
+            assertThat(pagina.getContent()).hasSize(TAMANO);
+            pagina = adapter.findByUsuarioIdDespuesDeCursor(USUARIO, filtro, cursor(pagina.getContent().get(TAMANO - 1)), TAMANO);
+            paginas++;
+        }
+
+        assertThat(recorrido).containsExactlyElementsOf(ids(esperados));
+        assertThat(paginas).isEqualTo(Math.max(1, (esperados.size() + TAMANO - 1) / TAMANO));
+    }
+
+    @ParameterizedTest
+    @MethodSource("filtros")
+    void paginaDespuesDeCadaPosicionEmpiezaEnLaSiguiente(FiltroMovimientos filtro) {
+        List<MovimientoFinancieroEntity> esperados = ordenados(filtro);
+
+        for (int i = 0; i < esperados.size(); i++) {
+            Slice<MovimientoFinanciero> pagina = adapter.findByUsuarioIdDespuesDeCursor(
+                    USUARIO, filtro, cursor(esperados.get(i)), TAMANO);
+
+            int hasta = Math.min(esperados.size(), i + 1 + TAMANO);
+            assertThat(ids(pagina)).as("después de la posición %d", i)
+                    .containsExactlyElementsOf(ids(esperados.subList(i + 1, hasta)));
+            assertThat(pagina.hasNext()).isEqualTo(hasta < esperados.size());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("filtros")
+    void paginaAntesDeCadaPosicionTerminaEnLaAnteriorEnOrdenDescendente(FiltroMovimientos filtro) {
+        List<MovimientoFinancieroEntity> esperados = ordenados(filtro);
+
+        for (int i = 0; i < esperados.size(); i++) {
+            Slice<MovimientoFinanciero> pagina = adapter.findByUsuarioIdAntesDeCursor(
+                    USUARIO, filtro, cursor(esperados.get(i)), TAMANO);
+
+            int desde = Math.max(0, i - TAMANO);
+            assertThat(ids(pagina)).as("antes de la posición %d", i)
+                    .containsExactlyElementsOf(ids(esperados.subList(desde, i)));
+            assertThat(pagina.hasNext()).isEqualTo(desde > 0);
+        }
+    }
+
+    @Test
+    void cursorEntreDosMovimientosDelMismoDiaRespetaElDesempatePorId() {
+        // Dos movimientos consecutivos del mismo día con ids no contiguos: un cursor con un id
+        // intermedio (que no existe) parte el día entre los dos
+        List<MovimientoFinancieroEntity> esperados = ordenados(FiltroMovimientos.sinFiltros());
+        int corte = 1;
+        while (!esperados.get(corte - 1).getMovementDate().equals(esperados.get(corte).getMovementDate())
+                || esperados.get(corte - 1).getId() - esperados.get(corte).getId() < 2) {
+            corte++;
+        }
+        MovimientoFinancieroEntity siguiente = esperados.get(corte);
+        CursorMovimiento entreDos = new CursorMovimiento(siguiente.getMovementDate(), siguiente.getId() + 1);
+
+        Slice<MovimientoFinanciero> despues = adapter.findByUsuarioIdDespuesDeCursor(
+                USUARIO, FiltroMovimientos.sinFiltros(), entreDos, esperados.size());
+        Slice<MovimientoFinanciero> antes = adapter.findByUsuarioIdAntesDeCursor(
+                USUARIO, FiltroMovimientos.sinFiltros(), entreDos, esperados.size());
+
+        assertThat(ids(despues)).containsExactlyElementsOf(ids(esperados.subList(corte, esperados.size())));
+        assertThat(ids(antes)).containsExactlyElementsOf(ids(esperados.subList(0, corte)));
+    }
+
+    @Test
+    void cursorConIdMaximoIncluyeTodoElDiaDelCursor() {
+        List<MovimientoFinancieroEntity> esperados = ordenados(FiltroMovimientos.sinFiltros());
+        LocalDate primerDia = esperados.get(0).getMovementDate();
+
+        Slice<MovimientoFinanciero> pagina = adapter.findByUsuarioIdDespuesDeCursor(
+                USUARIO, FiltroMovimientos.sinFiltros(), new CursorMovimiento(primerDia, Long.MAX_VALUE), TAMANO);
+
+        assertThat(ids(pagina)).containsExactlyElementsOf(ids(esperados.subList(0, TAMANO)));
+        assertThat(pagina.hasNext()).isTrue();
+    }
+
+    @Test
+    void cursorDespuesDelUltimoDevuelvePaginaVacia() {
+        List<MovimientoFinancieroEntity> esperados = ordenados(FiltroMovimientos.sinFiltros());
+
+        Slice<MovimientoFinanciero> pagina = adapter.findByUsuarioIdDespuesDeCursor(
+                USUARIO, FiltroMovimientos.sinFiltros(), cursor(esperados.get(esperados.size() - 1)), TAMANO);
+
+        assertThat(pagina.getContent()).isEmpty();
+        assertThat(pagina.hasNext()).isFalse();
+    }
+
+    /**
+     * Movimientos del usuario que cumplen el filtro, en el orden del listado (fecha DESC, id DESC).
+     */
+    private List<MovimientoFinancieroEntity> ordenados(FiltroMovimientos filtro) {
+        return delUsuario.stream()
+                .filter(m -> filtro.tipo() == null || m.getMovementType() == filtro.tipo())
+                .filter(m -> filtro.categoriaId() == null || filtro.categoriaId().equals(m.getCategoryId()))
+                .filter(m -> filtro.fechaInicio() == null || !m.getMovementDate().isBefore(filtro.fechaInicio()))
+                .filter(m -> filtro.fechaFin() == null || !m.getMovementDate().isAfter(filtro.fechaFin()))
+                .sorted(Comparator.comparing(MovimientoFinancieroEntity::getMovementDate)
+                        .thenComparing(MovimientoFinancieroEntity::getId)
+                        .reversed())
+                .toList();
+    }
+
+    private static CursorMovimiento cursor(MovimientoFinancieroEntity entity) {
+        return new CursorMovimiento(entity.getMovementDate(), entity.getId());
+    }
+
+    private static CursorMovimiento cursor(MovimientoFinanciero movimiento) {
+        return new CursorMovimiento(movimiento.getFechaMovimiento(), movimiento.getId());
+    }
+
+    private static List<Long> ids(List<MovimientoFinancieroEntity> entities) {
+        return entities.stream().map(MovimientoFinancieroEntity::getId).toList();
+    }
+
+    private static List<Long> ids(Slice<MovimientoFinanciero> pagina) {
+        return pagina.getContent().stream().map(MovimientoFinanciero::getId).toList();
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    @EnableJpaRepositories(basePackageClasses = MovimientoFinancieroJpaRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = MovimientoFinancieroJpaRepository.class))
+    static class Configuracion {
+
+        @Bean
+        DataSource dataSource() {
+            return new DriverManagerDataSource("jdbc:h2:mem:keyset-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setManagedTypes(PersistenceManagedTypes.of(
+                    MovimientoFinancieroEntity.class.getName(), MovimientoInusualEntity.class.getName()));
+            factory.setJpaPropertyMap(Map.of(
+                    "hibernate.dialect", H2ConEnumDialect.class.getName(),
+                    "hibernate.hbm2ddl.auto", "create-drop"));
+            return factory;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+    }
+
+    /**
+     * H2 no tiene el tipo enumerado de PostgreSQL de movement_type: la columna se crea como texto,
+     * que es como Hibernate lee y escribe el enum.
+     */
+    public static class H2ConEnumDialect extends H2Dialect {
+
+        @Override
+        protected void registerColumnTypes(TypeContributions typeContributions, ServiceRegistry serviceRegistry) {
+            super.registerColumnTypes(typeContributions, serviceRegistry);
+            typeContributions.getTypeConfiguration().getDdlTypeRegistry()
+                    .addDescriptor(new DdlTypeImpl(SqlTypes.NAMED_ENUM, "varchar(20)", this));
+        }
+
+        @Override
+        public void contributeTypes(TypeContributions typeContributions, ServiceRegistry serviceRegistry) {
+            super.contributeTypes(typeContributions, serviceRegistry);
+            typeContributions.getTypeConfiguration().getJdbcTypeRegistry()
+                    .addDescriptor(SqlTypes.NAMED_ENUM, EnumJdbcType.INSTANCE);
+        }
+    }
+}
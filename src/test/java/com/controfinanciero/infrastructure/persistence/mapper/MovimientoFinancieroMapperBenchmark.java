@@ -0,0 +1,162 @@
+package com.controfinanciero.infrastructure.persistence.mapper;
+
+import com.controfinanciero.domain.model.MovimientoFinanciero;
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancieroEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el mapeo Entity → Domain anterior (constructor de creación + reflexión campo a campo)
+ * con la fábrica reconstituir(...) que usa MovimientoFinancieroEntityMapper.
+ * <p>
+ * Ejecutar después de {@code mvn test-compile}:
+ * <pre>
+ * mvn -q dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.controfinanciero.infrastructure.persistence.mapper.MovimientoFinancieroMapperBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MovimientoFinancieroMapperBenchmark {
+
+    /**
+     * Filas por consulta: una página típica y un listado completo de un año.
+     */
+    @Param({"50", "2000"})
+    private int filas;
+
+    private List<MovimientoFinancieroEntity> entidades;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        TipoMovimiento[] tipos = TipoMovimiento.values();
+        LocalDateTime creado = LocalDateTime.of(2026, 1, 1, 12, 0);
+        entidades = new ArrayList<>(filas);
+        for (int i = 0; i < filas; i++) {
+            MovimientoFinancieroEntity entity = new MovimientoFinancieroEntity(
+                    7L,
+                    tipos[random.nextInt(tipos.length)],
+                    BigDecimal.valueOf(1 + random.nextInt(1_000_000), 2),
+                    "movimiento " + i,
+                    LocalDate.of(2026, 1, 1).plusDays(random.nextInt(365)));
+            entity.setId((long) i + 1);
+            entity.setCategoryId(random.nextBoolean() ? (long) random.nextInt(20) + 1 : null);
+            entity.setIncomeSourceId(random.nextInt(4) == 0 ? 3L : null);
+            entity.setGoalId(random.nextInt(10) == 0 ? 5L : null);
+            entity.setIsRecurring(random.nextInt(8) == 0);
+            entity.setNotes(random.nextInt(3) == 0 ? "nota" : null);
+            entity.setCreatedAt(creado);
+            entity.setUpdatedAt(creado);
+            entidades.add(entity);
+        }
+    }
+
+    @Benchmark
+    public void reconstituir(Blackhole blackhole) {
+        for (MovimientoFinancieroEntity entity : entidades) {
+            blackhole.consume(MovimientoFinancieroEntityMapper.toDomain(entity));
+        }
+    }
+
+    @Benchmark
+    public void reflexion(Blackhole blackhole) {
+        for (MovimientoFinancieroEntity entity : entidades) {
+            blackhole.consume(toDomainPorReflexion(entity));
+        }
+    }
+
+    /**
+     * Mapeo anterior a reconstituir(...), copiado sin cambios: valida y fecha el movimiento
+     * como si fuera nuevo y luego sobrescribe cada campo privado por reflexión.
+     */
+    static MovimientoFinanciero toDomainPorReflexion(MovimientoFinancieroEntity entity) {
+        if (entity == null) {
+            return null;
+        }
+
+        MovimientoFinanciero movimiento = new MovimientoFinanciero(
+                entity.getUserId(),
+                entity.getMovementType(),
+                entity.getAmount(),
+                entity.getDescription(),
+                entity.getMovementDate()
+        );
+
+        // Usar reflexión para establecer campos privados
+        try {
+            var idField = MovimientoFinanciero.class.getDeclaredField("id");
+            idField.setAccessible(true);
+            idField.set(movimiento, entity.getId());
+
+            var categoriaIdField = MovimientoFinanciero.class.getDeclaredField("categoriaId");
+            categoriaIdField.setAccessible(true);
+            categoriaIdField.set(movimiento, entity.getCategoryId());
+
+            var fuenteIngresoIdField = MovimientoFinanciero.class.getDeclaredField("fuenteIngresoId");
+            fuenteIngresoIdField.setAccessible(true);
+            fuenteIngresoIdField.set(movimiento, entity.getIncomeSourceId());
+
+            var metaIdField = MovimientoFinanciero.class.getDeclaredField("metaId");
+            metaIdField.setAccessible(true);
+            metaIdField.set(movimiento, entity.getGoalId());
+
+            var esRecurrenteField = MovimientoFinanciero.class.getDeclaredField("esRecurrente");
+            esRecurrenteField.setAccessible(true);
+            esRecurrenteField.set(movimiento, entity.getIsRecurring());
+
+            var patronRecurrenciaField = MovimientoFinanciero.class.getDeclaredField("patronRecurrencia");
+            patronRecurrenciaField.setAccessible(true);
+            patronRecurrenciaField.set(movimiento, entity.getRecurrencePattern());
+
+            var notasField = MovimientoFinanciero.class.getDeclaredField("notas");
+            notasField.setAccessible(true);
+            notasField.set(movimiento, entity.getNotes());
+
+            var createdAtField = MovimientoFinanciero.class.getDeclaredField("createdAt");
+            createdAtField.setAccessible(true);
+            createdAtField.set(movimiento, entity.getCreatedAt());
+
+            var updatedAtField = MovimientoFinanciero.class.getDeclaredField("updatedAt");
+            updatedAtField.setAccessible(true);
+            updatedAtField.set(movimiento, entity.getUpdatedAt());
+        } catch (Exception e) {
+            throw new RuntimeException("Error al mapear MovimientoFinancieroEntity a MovimientoFinanciero", e);
+        }
+
+        return movimiento;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MovimientoFinancieroMapperBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
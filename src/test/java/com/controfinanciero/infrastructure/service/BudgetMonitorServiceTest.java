@@ -0,0 +1,306 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancieroEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Libro de presupuestos: deltas agregados por (usuario, categoría, periodo) en un solo UPDATE
+ * y alertas solo cuando el delta cruza el 80% o el 100% del límite (con el gasto que devuelve
+ * RETURNING). El UPDATE se simula: se verifican sus parámetros y se le hacen devolver filas.
+ */
+@ExtendWith(MockitoExtension.class)
+class BudgetMonitorServiceTest {
+
+    private static final String PERIODO_ACTUAL = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM"));
+    private static final Long USUARIO = 1L;
+    private static final Long CATEGORIA = 10L;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private NotificationService notificationService;
+
+    private BudgetMonitorService servicio;
+
+    /**
+     * Filas que devolverá el RETURNING del próximo UPDATE.
+     */
+    private final List<Map<String, Object>> filasDevueltas = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        servicio = new BudgetMonitorService(jdbcTemplate, notificationService);
+        lenient().when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenAnswer(invocacion -> {
+            RowMapper<Object> mapeo = invocacion.getArgument(1);
+            List<Object> resultado = new ArrayList<>();
+            for (int i = 0; i < filasDevueltas.size(); i++) {
+                Map<String, Object> fila = filasDevueltas.get(i);
+                ResultSet rs = mock(ResultSet.class, llamada -> llamada.getArguments().length == 1
+                        ? fila.get((String) llamada.getArgument(0))
+                        : null);
+                resultado.add(mapeo.mapRow(rs, i));
+            }
+            return resultado;
+        });
+    }
+
+    @Test
+    void cruzarElOchentaPorCientoAlertaCercaDelLimite() {
+        devolver(fila("100.00", "85.00", "15.00"));
+
+        servicio.aplicarGastos(List.of(gasto("15.00", LocalDate.now(), CATEGORIA)), 1);
+
+        verify(notificationService).alertarPresupuestoCercaLimite(
+                eq(USUARIO), eq("Comida"), eq(85.0), eq(100.0), eq(85.0));
+        verify(notificationService, never()).alertarPresupuestoExcedido(anyLong(), anyString(), anyDouble(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void cruzarElLimiteAlertaExcedidoUnaSolaVez() {
+        // De 70% a 110%: cruza ambos umbrales, pero se envía solo la alerta de excedido
+        devolver(fila("100.00", "110.00", "40.00"));
+
+        servicio.aplicarGastos(List.of(gasto("40.00", LocalDate.now(), CATEGORIA)), 1);
+
+        verify(notificationService).alertarPresupuestoExcedido(
+                eq(USUARIO), eq("Comida"), eq(110.0), eq(100.0), eq(110.0));
+        verify(notificationService, never()).alertarPresupuestoCercaLimite(anyLong(), anyString(), anyDouble(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void gastoDentroDeLaMismaFranjaNoRepiteAlertas() {
+        // 85% -> 95%: ya se alertó al cruzar el 80%
+        devolver(fila("100.00", "95.00", "10.00"));
+        servicio.aplicarGastos(List.of(gasto("10.00", LocalDate.now(), CATEGORIA)), 1);
+
+        // 105% -> 120%: ya se alertó al cruzar el 100%
+        devolver(fila("100.00", "120.00", "15.00"));
+        servicio.aplicarGastos(List.of(gasto("15.00", LocalDate.now(), CATEGORIA)), 1);
+
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void llegarExactamenteAlUmbralCuentaComoCruce() {
+        devolver(fila("100.00", "80.00", "5.00"));
+
+        servicio.aplicarGastos(List.of(gasto("5.00", LocalDate.now(), CATEGORIA)), 1);
+
+        verify(notificationService).alertarPresupuestoCercaLimite(
+                eq(USUARIO), anyString(), eq(80.0), eq(100.0), eq(80.0));
+    }
+
+    @Test
+    void descontarUnGastoNoAlerta() {
+        devolver(fila("100.00", "85.00", "-30.00"));
+
+        servicio.aplicarGastos(List.of(gasto("30.00", LocalDate.now(), CATEGORIA)), -1);
+
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void periodosPasadosYPresupuestosInactivosNoAlertan() {
+        Map<String, Object> pasado = fila("100.00", "90.00", "20.00");
+        pasado.put("periodo", "2020-01");
+        Map<String, Object> inactivo = fila("100.00", "90.00", "20.00");
+        inactivo.put("activo", false);
+        devolver(pasado, inactivo);
+
+        servicio.aplicarGastos(List.of(gasto("20.00", LocalDate.now(), CATEGORIA)), 1);
+
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void agregaLosDeltasPorPresupuestoEnUnSoloUpdate() throws SQLException {
+        devolver();
+        LocalDate mesPasado = LocalDate.now().minusMonths(1);
+
+        servicio.aplicarGastos(List.of(
+                gasto("10.00", LocalDate.now(), CATEGORIA),
+                gasto("5.50", LocalDate.now(), CATEGORIA),
+                gasto("7.00", mesPasado, CATEGORIA),
+                gasto("3.00", LocalDate.now(), null),
+                ingreso("100.00")
+        ), 1);
+
+        ParametrosUpdate parametros = parametrosDelUpdate();
+        assertThat(parametros.periodoActual()).isEqualTo(PERIODO_ACTUAL);
+        assertThat(parametros.usuarios()).containsExactly(USUARIO, USUARIO);
+        assertThat(parametros.categorias()).containsExactly(CATEGORIA, CATEGORIA);
+        assertThat(parametros.periodos())
+                .containsExactly(mesPasado.format(DateTimeFormatter.ofPattern("yyyy-MM")), PERIODO_ACTUAL);
+        assertThat(parametros.montos()).containsExactly(new BigDecimal("7.00"), new BigDecimal("15.50"));
+    }
+
+    @Test
+    void ordenaLosDeltasPorPresupuestoParaNoInterbloquearse() throws SQLException {
+        devolver();
+        LocalDate mesPasado = LocalDate.now().minusMonths(1);
+        MovimientoFinancieroEntity deOtroUsuario = gasto("1.00", LocalDate.now(), CATEGORIA);
+        deOtroUsuario.setUserId(USUARIO + 1);
+        Long otraCategoria = 30L;
+
+        servicio.aplicarGastos(List.of(
+                deOtroUsuario,
+                gasto("2.00", LocalDate.now(), otraCategoria),
+                gasto("3.00", LocalDate.now(), CATEGORIA),
+                gasto("4.00", mesPasado, CATEGORIA)
+        ), 1);
+
+        // Orden (usuario, categoría, periodo), sin importar el orden del lote
+        ParametrosUpdate parametros = parametrosDelUpdate();
+        assertThat(parametros.usuarios()).containsExactly(USUARIO, USUARIO, USUARIO, USUARIO + 1);
+        assertThat(parametros.categorias()).containsExactly(CATEGORIA, CATEGORIA, otraCategoria, CATEGORIA);
+        assertThat(parametros.periodos()).containsExactly(
+                mesPasado.format(DateTimeFormatter.ofPattern("yyyy-MM")), PERIODO_ACTUAL, PERIODO_ACTUAL, PERIODO_ACTUAL);
+        assertThat(parametros.montos()).containsExactly(
+                new BigDecimal("4.00"), new BigDecimal("3.00"), new BigDecimal("2.00"), new BigDecimal("1.00"));
+    }
+
+    @Test
+    void editarSinCambiarElImporteNoTocaElPresupuesto() {
+        MovimientoFinancieroEntity anterior = gasto("40.00", LocalDate.now(), CATEGORIA);
+        MovimientoFinancieroEntity nuevo = gasto("40.00", LocalDate.now(), CATEGORIA);
+        nuevo.setDescription("descripción corregida");
+
+        servicio.aplicarEdicion(anterior, nuevo);
+
+        verifyNoInteractions(jdbcTemplate, notificationService);
+    }
+
+    @Test
+    void editarElImporteAplicaSoloElDeltaNeto() throws SQLException {
+        // Subir de 50 a 60 con 85 gastados: 75% -> 85%, una sola alerta por el delta neto
+        devolver(fila("100.00", "85.00", "10.00"));
+
+        servicio.aplicarEdicion(gasto("50.00", LocalDate.now(), CATEGORIA), gasto("60.00", LocalDate.now(), CATEGORIA));
+
+        ParametrosUpdate parametros = parametrosDelUpdate();
+        assertThat(parametros.montos()).containsExactly(new BigDecimal("10.00"));
+        verify(notificationService).alertarPresupuestoCercaLimite(
+                eq(USUARIO), anyString(), eq(85.0), eq(100.0), eq(85.0));
+    }
+
+    @Test
+    void cambiarDeCategoriaDescuentaDeUnaYSumaALaOtra() throws SQLException {
+        devolver();
+        Long otraCategoria = 20L;
+
+        servicio.aplicarEdicion(gasto("50.00", LocalDate.now(), CATEGORIA), gasto("50.00", LocalDate.now(), otraCategoria));
+
+        ParametrosUpdate parametros = parametrosDelUpdate();
+        assertThat(parametros.categorias()).containsExactly(CATEGORIA, otraCategoria);
+        assertThat(parametros.montos()).containsExactly(new BigDecimal("-50.00"), new BigDecimal("50.00"));
+    }
+
+    // ========== Simulación del UPDATE ... RETURNING ==========
+
+    @SafeVarargs
+    private void devolver(Map<String, Object>... filas) {
+        filasDevueltas.clear();
+        filasDevueltas.addAll(List.of(filas));
+    }
+
+    /**
+     * Fila devuelta por RETURNING para el presupuesto de prueba del periodo actual.
+     */
+    private static Map<String, Object> fila(String limite, String gastoActual, String delta) {
+        return new HashMap<>(Map.of(
+                "user_id", USUARIO,
+                "categoria_id", CATEGORIA,
+                "categoria_nombre", "Comida",
+                "limite_mensual", new BigDecimal(limite),
+                "gasto_actual", new BigDecimal(gastoActual),
+                "periodo", PERIODO_ACTUAL,
+                "activo", true,
+                "monto", new BigDecimal(delta)
+        ));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ParametrosUpdate parametrosDelUpdate() throws SQLException {
+        ArgumentCaptor<PreparedStatementCreator> creador = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate).query(creador.capture(), any(RowMapper.class));
+
+        Connection connection = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(ps);
+        when(connection.createArrayOf(anyString(), any(Object[].class))).thenAnswer(invocacion -> {
+            Object elementos = invocacion.getArgument(1);
+            return mock(Array.class, llamada -> "getArray".equals(llamada.getMethod().getName()) ? elementos : null);
+        });
+        creador.getValue().createPreparedStatement(connection);
+
+        ArgumentCaptor<String> periodo = ArgumentCaptor.forClass(String.class);
+        verify(ps).setString(eq(1), periodo.capture());
+        ArgumentCaptor<Array> arrays = ArgumentCaptor.forClass(Array.class);
+        verify(ps, times(4)).setArray(anyInt(), arrays.capture());
+        List<Array> valores = arrays.getAllValues();
+        return new ParametrosUpdate(
+                periodo.getValue(),
+                (Long[]) valores.get(0).getArray(),
+                (Long[]) valores.get(1).getArray(),
+                (String[]) valores.get(2).getArray(),
+                (BigDecimal[]) valores.get(3).getArray());
+    }
+
+    private record ParametrosUpdate(String periodoActual, Long[] usuarios, Long[] categorias,
+                                    String[] periodos, BigDecimal[] montos) {
+    }
+
+    // ========== Movimientos ==========
+
+    private static MovimientoFinancieroEntity gasto(String monto, LocalDate fecha, Long categoriaId) {
+        MovimientoFinancieroEntity gasto = new MovimientoFinancieroEntity(
+                USUARIO, TipoMovimiento.EXPENSE, new BigDecimal(monto), "gasto", fecha);
+        gasto.setCategoryId(categoriaId);
+        return gasto;
+    }
+
+    private static MovimientoFinancieroEntity ingreso(String monto) {
+        MovimientoFinancieroEntity ingreso = new MovimientoFinancieroEntity(
+                USUARIO, TipoMovimiento.INCOME, new BigDecimal(monto), "ingreso", LocalDate.now());
+        ingreso.setCategoryId(CATEGORIA);
+        return ingreso;
+    }
+}
@@ -0,0 +1,269 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.infrastructure.persistence.entity.TrabajoProgramadoEntity;
+import com.controfinanciero.infrastructure.persistence.entity.TrabajoProgramadoEntity.Estado;
+import com.controfinanciero.infrastructure.persistence.entity.TrabajoProgramadoEntity.Tipo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cola de trabajos: claves de tramo deterministas e idempotentes entre nodos, reclamo con
+ * lease a nombre de esta instancia, latido que renueva solo los trabajos propios en curso y
+ * reprogramación con espera exponencial. El SQL (PostgreSQL) se simula: la tabla de trabajos
+ * encolados es un conjunto de claves y se verifican los parámetros de cada sentencia.
+ */
+@ExtendWith(MockitoExtension.class)
+class ColaTrabajosServiceTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2025, 3, 1);
+    private static final int LEASE_SEGUNDOS = 300;
+    private static final int MAX_INTENTOS = 5;
+    private static final int ESPERA_REINTENTO_SEGUNDOS = 30;
+    private static final int DISPERSION_SEGUNDOS = 600;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ColaTrabajosService cola;
+    private String trabajador;
+
+    /**
+     * Trabajos encolados (tipo:clave), para simular la clave única de background_jobs.
+     */
+    private final Set<String> encolados = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        cola = new ColaTrabajosService(jdbcTemplate);
+        ReflectionTestUtils.setField(cola, "usuariosPorTramo", 1_000L);
+        ReflectionTestUtils.setField(cola, "dispersionSegundos", DISPERSION_SEGUNDOS);
+        ReflectionTestUtils.setField(cola, "leaseSegundos", LEASE_SEGUNDOS);
+        ReflectionTestUtils.setField(cola, "maxIntentos", MAX_INTENTOS);
+        ReflectionTestUtils.setField(cola, "esperaReintentoSegundos", ESPERA_REINTENTO_SEGUNDOS);
+        trabajador = (String) ReflectionTestUtils.getField(cola, "trabajador");
+
+        // INSERT ... ON CONFLICT (job_type, job_key) DO NOTHING
+        lenient().when(jdbcTemplate.update(startsWith("INSERT INTO background_jobs"), any(Object[].class)))
+                .thenAnswer(invocacion -> encolados.add(invocacion.getArgument(1) + ":" + invocacion.getArgument(2)) ? 1 : 0);
+    }
+
+    @Test
+    void encolarPorTramosAlineaLosTramosAMultiplosDelTamano() {
+        int nuevos = cola.encolarPorTramos(Tipo.MOVIMIENTOS_RECURRENTES, FECHA, List.of(2_999L, 5L, 999L, 1_000L, 2_500L));
+
+        assertThat(nuevos).isEqualTo(3);
+        assertThat(encolados).containsExactlyInAnyOrder(
+                "MOVIMIENTOS_RECURRENTES:2025-03-01:0-999",
+                "MOVIMIENTOS_RECURRENTES:2025-03-01:1000-1999",
+                "MOVIMIENTOS_RECURRENTES:2025-03-01:2000-2999");
+        verify(jdbcTemplate).update(startsWith("INSERT INTO background_jobs"), eq("MOVIMIENTOS_RECURRENTES"),
+                eq("2025-03-01:1000-1999"), eq(1_000L), eq(1_999L), eq(FECHA), any(Integer.class));
+    }
+
+    @Test
+    void elRetrasoDeCadaTramoQuedaDentroDeLaVentanaDeDispersion() {
+        List<Long> usuarios = new ArrayList<>();
+        for (long usuario = 0; usuario < 200_000; usuario += 1_000) {
+            usuarios.add(usuario);
+        }
+
+        cola.encolarPorTramos(Tipo.MOVIMIENTOS_RECURRENTES, FECHA, usuarios);
+
+        ArgumentCaptor<Object[]> argumentos = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(200))
+                .update(startsWith("INSERT INTO background_jobs"), argumentos.capture());
+        Set<Integer> retrasos = new HashSet<>();
+        for (Object[] fila : argumentos.getAllValues()) {
+            retrasos.add((Integer) fila[5]);
+        }
+        assertThat(retrasos).allSatisfy(retraso -> assertThat(retraso).isBetween(0, DISPERSION_SEGUNDOS - 1));
+        assertThat(retrasos).as("los tramos no arrancan todos a la vez").hasSizeGreaterThan(1);
+    }
+
+    @Test
+    void encolarDosVecesElMismoTrabajoEsIdempotente() {
+        // Otro nodo encola los mismos tramos: mismas claves, ningún trabajo nuevo
+        assertThat(cola.encolarPorTramos(Tipo.MOVIMIENTOS_RECURRENTES, FECHA, List.of(5L, 1_500L))).isEqualTo(2);
+        assertThat(cola.encolarPorTramos(Tipo.MOVIMIENTOS_RECURRENTES, FECHA, List.of(1_999L, 7L))).isZero();
+
+        assertThat(cola.encolar(Tipo.LIMPIEZA_NOTIFICACIONES, "2025-03-01", FECHA)).isTrue();
+        assertThat(cola.encolar(Tipo.LIMPIEZA_NOTIFICACIONES, "2025-03-01", FECHA)).isFalse();
+        assertThat(encolados).hasSize(3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reclamarFallaPrimeroLosAgotadosYTomaElLeaseANombreDeEstaInstancia() throws Exception {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(invocacion -> {
+            RowMapper<TrabajoProgramadoEntity> mapeo = invocacion.getArgument(1);
+            return List.of(mapeo.mapRow(filaReclamada(7L, 2), 0));
+        });
+
+        List<TrabajoProgramadoEntity> reclamados = cola.reclamar(10);
+
+        InOrder orden = inOrder(jdbcTemplate);
+        orden.verify(jdbcTemplate).update(startsWith("UPDATE background_jobs SET status = 'FALLIDO'"), eq(MAX_INTENTOS));
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        orden.verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class),
+                eq(trabajador), eq(LEASE_SEGUNDOS), eq(MAX_INTENTOS), eq(10));
+        // Disponibles o con lease vencido, sin esperar a los que reclama otro nodo
+        assertThat(sql.getValue())
+                .contains("locked_until < now() AND attempts < ?")
+                .contains("FOR UPDATE SKIP LOCKED");
+
+        assertThat(reclamados).singleElement().satisfies(trabajo -> {
+            assertThat(trabajo.getId()).isEqualTo(7L);
+            assertThat(trabajo.getTipo()).isEqualTo(Tipo.MOVIMIENTOS_RECURRENTES);
+            assertThat(trabajo.getUsuarioDesde()).isEqualTo(1_000L);
+            assertThat(trabajo.getUsuarioHasta()).isEqualTo(1_999L);
+            assertThat(trabajo.getEstado()).isEqualTo(Estado.EN_CURSO);
+            assertThat(trabajo.getIntentos()).isEqualTo(2);
+            assertThat(trabajo.getBloqueadoPor()).isEqualTo(trabajador);
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void elLatidoRenuevaSoloLosTrabajosPropiosQueSiguenEnCurso() throws Exception {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(invocacion -> {
+            RowMapper<TrabajoProgramadoEntity> mapeo = invocacion.getArgument(1);
+            return List.of(mapeo.mapRow(filaReclamada(1L, 1), 0),
+                    mapeo.mapRow(filaReclamada(2L, 1), 1),
+                    mapeo.mapRow(filaReclamada(3L, 1), 2));
+        });
+        lenient().when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+        List<TrabajoProgramadoEntity> reclamados = cola.reclamar(3);
+
+        cola.completar(reclamados.get(0));
+        cola.fallar(reclamados.get(1), new IllegalStateException("caído"));
+        cola.renovarLeases();
+
+        ArgumentCaptor<PreparedStatementCreator> renovacion = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate).update(renovacion.capture());
+        Connection conexion = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(conexion.prepareStatement(anyString())).thenReturn(ps);
+        when(conexion.createArrayOf(anyString(), any())).thenReturn(mock(Array.class));
+
+        renovacion.getValue().createPreparedStatement(conexion);
+
+        verify(conexion).createArrayOf("bigint", new Long[]{3L});
+        verify(ps).setInt(1, LEASE_SEGUNDOS);
+        verify(ps).setString(3, trabajador);
+
+        // Sin trabajos en curso el latido no toca la base de datos
+        cola.completar(reclamados.get(2));
+        cola.renovarLeases();
+        verify(jdbcTemplate).update(any(PreparedStatementCreator.class));
+    }
+
+    @Test
+    void unErrorEnElLatidoNoDetieneElHilo() {
+        @SuppressWarnings("unchecked")
+        Set<Long> enCurso = (Set<Long>) ReflectionTestUtils.getField(cola, "enCurso");
+        enCurso.add(1L);
+        when(jdbcTemplate.update(any(PreparedStatementCreator.class)))
+                .thenThrow(new DataAccessResourceFailureException("sin conexión"));
+
+        assertThatCode(cola::renovarLeases).doesNotThrowAnyException();
+    }
+
+    @Test
+    void fallarReprogramaConEsperaExponencialHastaAgotarLosIntentos() {
+        TrabajoProgramadoEntity trabajo = trabajo(9L, 3);
+
+        cola.fallar(trabajo, new IllegalStateException("timeout"));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).update(sql.capture(), eq(MAX_INTENTOS), eq(ESPERA_REINTENTO_SEGUNDOS),
+                eq("IllegalStateException: timeout"), eq(9L), eq(trabajador));
+        // espera = base * 2^(intentos - 1): 30 s, 60 s, 120 s...; FALLIDO al llegar a max-intentos
+        assertThat(sql.getValue())
+                .contains("CASE WHEN attempts >= ? THEN 'FALLIDO' ELSE 'PENDIENTE' END")
+                .contains("make_interval(secs => ? * power(2, attempts - 1))")
+                .endsWith("WHERE id = ? AND locked_by = ?");
+    }
+
+    @Test
+    void completarSoloAfectaAlTrabajoSiSiguePerteneciendoAEstaInstancia() {
+        when(jdbcTemplate.update(startsWith("UPDATE background_jobs SET status = 'COMPLETADO'"), any(Object[].class)))
+                .thenReturn(0);
+
+        // El lease venció y otro nodo lo retomó: no se pisa su estado ni se lanza error
+        assertThatCode(() -> cola.completar(trabajo(4L, 1))).doesNotThrowAnyException();
+
+        verify(jdbcTemplate).update(startsWith("UPDATE background_jobs SET status = 'COMPLETADO'"), eq(4L), eq(trabajador));
+        verify(jdbcTemplate, never()).update(any(PreparedStatementCreator.class));
+    }
+
+    private ResultSet filaReclamada(long id, int intentos) throws Exception {
+        LocalDateTime ahora = LocalDateTime.now();
+        Map<String, Object> fila = new HashMap<>();
+        fila.put("id", id);
+        fila.put("job_type", "MOVIMIENTOS_RECURRENTES");
+        fila.put("job_key", "2025-03-01:1000-1999");
+        fila.put("user_from", 1_000L);
+        fila.put("user_to", 1_999L);
+        fila.put("reference_date", FECHA);
+        fila.put("status", "EN_CURSO");
+        fila.put("attempts", intentos);
+        fila.put("run_at", Timestamp.valueOf(ahora));
+        fila.put("locked_by", trabajador);
+        fila.put("locked_until", Timestamp.valueOf(ahora.plusSeconds(LEASE_SEGUNDOS)));
+        fila.put("last_error", null);
+        fila.put("created_at", Timestamp.valueOf(ahora));
+        fila.put("updated_at", Timestamp.valueOf(ahora));
+
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(anyString())).thenAnswer(i -> fila.get(i.<String>getArgument(0)));
+        when(rs.getInt(anyString())).thenAnswer(i -> fila.get(i.<String>getArgument(0)));
+        when(rs.getString(anyString())).thenAnswer(i -> fila.get(i.<String>getArgument(0)));
+        when(rs.getTimestamp(anyString())).thenAnswer(i -> fila.get(i.<String>getArgument(0)));
+        when(rs.getObject(anyString(), any(Class.class))).thenAnswer(i -> fila.get(i.<String>getArgument(0)));
+        return rs;
+    }
+
+    private TrabajoProgramadoEntity trabajo(long id, int intentos) {
+        LocalDateTime ahora = LocalDateTime.now();
+        return new TrabajoProgramadoEntity(id, Tipo.MOVIMIENTOS_RECURRENTES, "2025-03-01:0-999", 0L, 999L, FECHA,
+                Estado.EN_CURSO, intentos, ahora, trabajador, ahora.plusSeconds(LEASE_SEGUNDOS), null, ahora, ahora);
+    }
+}
@@ -0,0 +1,224 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.infrastructure.persistence.entity.CorreoSalienteEntity;
+import com.controfinanciero.infrastructure.persistence.entity.CorreoSalienteEntity.Estado;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bandeja de salida → despachador → SMTP contra un servidor GreenMail local, con el mismo
+ * JavaMailSender y la misma plantilla Thymeleaf que en producción. La bandeja de salida
+ * (SQL de PostgreSQL) se simula: entrega los lotes reclamados y registra qué correos se
+ * marcan enviados, fallidos o pospuestos.
+ */
+@ExtendWith(MockitoExtension.class)
+class DespachadorCorreosServiceTest {
+
+    private static final int LOTE_RECLAMO = 100;
+    private static final int LOTE_SMTP = 20;
+    private static final int ESPERA_LIMITE_SEGUNDOS = 30;
+
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Mock
+    private CorreosSalientesService correosSalientes;
+    @Mock
+    private ObjectProvider<JavaMailSender> mailSenderProvider;
+
+    private DespachadorCorreosService despachador;
+    private JavaMailSenderImpl mailSender;
+    private long siguienteId;
+
+    @BeforeEach
+    void setUp() {
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtp.getSmtp().getPort());
+        mailSender.setDefaultEncoding("UTF-8");
+        lenient().when(mailSenderProvider.getIfAvailable()).thenReturn(mailSender);
+
+        ClassLoaderTemplateResolver plantillas = new ClassLoaderTemplateResolver();
+        plantillas.setPrefix("templates/");
+        plantillas.setSuffix(".html");
+        plantillas.setTemplateMode(TemplateMode.HTML);
+        plantillas.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(plantillas);
+
+        despachador = new DespachadorCorreosService(correosSalientes, mailSenderProvider, templateEngine);
+        ReflectionTestUtils.setField(despachador, "habilitado", true);
+        ReflectionTestUtils.setField(despachador, "remitente", "no-reply@controlfinanciero.app");
+        ReflectionTestUtils.setField(despachador, "nombreRemitente", "Control Financiero");
+        ReflectionTestUtils.setField(despachador, "loteReclamo", LOTE_RECLAMO);
+        ReflectionTestUtils.setField(despachador, "loteSmtp", LOTE_SMTP);
+        ReflectionTestUtils.setField(despachador, "conexiones", 2);
+        ReflectionTestUtils.setField(despachador, "duracionMaximaMs", 30_000L);
+        ReflectionTestUtils.setField(despachador, "limitePorMinuto", 1_000);
+        ReflectionTestUtils.setField(despachador, "limitesPropios", Map.of());
+        ReflectionTestUtils.setField(despachador, "esperaLimiteSegundos", ESPERA_LIMITE_SEGUNDOS);
+        siguienteId = 1;
+    }
+
+    @Test
+    void enviaCadaRondaEnLotesSmtpYMarcaEnviadosLosEntregados() throws Exception {
+        List<CorreoSalienteEntity> primeraRonda = correos(LOTE_RECLAMO, "ejemplo.com");
+        List<CorreoSalienteEntity> segundaRonda = correos(30, "ejemplo.com");
+        when(correosSalientes.reclamar(LOTE_RECLAMO)).thenReturn(primeraRonda, segundaRonda);
+
+        despachador.despachar();
+
+        // Una ronda llena obliga a reclamar otra; la segunda, incompleta, termina el despacho
+        verify(correosSalientes, times(2)).reclamar(LOTE_RECLAMO);
+        assertThat(smtp.getReceivedMessages()).hasSize(130);
+
+        // Un marcarEnviados por lote SMTP: 100 / 20 + ceil(30 / 20)
+        ArgumentCaptor<Collection<Long>> enviados = idsCaptor();
+        verify(correosSalientes, times(7)).marcarEnviados(enviados.capture());
+        assertThat(enviados.getAllValues()).allSatisfy(lote -> assertThat(lote).hasSizeLessThanOrEqualTo(LOTE_SMTP));
+        assertThat(union(enviados.getAllValues())).isEqualTo(ids(primeraRonda, segundaRonda));
+        verify(correosSalientes, never()).fallar(any(), any(), anyBoolean());
+
+        MimeMessage recibido = smtp.getReceivedMessagesForDomain(primeraRonda.get(0).getDestinatario())[0];
+        assertThat(recibido.getSubject()).isEqualTo(primeraRonda.get(0).getAsunto());
+        assertThat(recibido.getFrom()[0].toString()).contains("no-reply@controlfinanciero.app");
+        assertThat(GreenMailUtil.getBody(recibido)).contains("Control Financiero");
+    }
+
+    @Test
+    void direccionInvalidaFallaSinReintentoYElRestoDelLoteSeEnvia() {
+        List<CorreoSalienteEntity> validos = correos(3, "ejemplo.com");
+        CorreoSalienteEntity invalido = correo("sin arroba", "ejemplo.com");
+        List<CorreoSalienteEntity> ronda = new ArrayList<>(validos);
+        ronda.add(1, invalido);
+        when(correosSalientes.reclamar(LOTE_RECLAMO)).thenReturn(ronda);
+
+        despachador.despachar();
+
+        verify(correosSalientes).fallar(eq(invalido), any(), eq(true));
+        verify(correosSalientes).marcarEnviados(ids(validos));
+        assertThat(smtp.getReceivedMessages()).hasSize(3);
+    }
+
+    @Test
+    void servidorSmtpCaidoReprogramaElLoteComoErrorTransitorio() {
+        List<CorreoSalienteEntity> ronda = correos(5, "ejemplo.com");
+        when(correosSalientes.reclamar(LOTE_RECLAMO)).thenReturn(ronda);
+        smtp.stop();
+
+        despachador.despachar();
+
+        for (CorreoSalienteEntity correo : ronda) {
+            verify(correosSalientes).fallar(eq(correo), any(), eq(false));
+        }
+        verify(correosSalientes, never()).fallar(any(), any(), eq(true));
+        verify(correosSalientes).marcarEnviados(List.of());
+    }
+
+    @Test
+    void excesoSobreElLimiteDelProveedorSePosponeSinEnviar() {
+        ReflectionTestUtils.setField(despachador, "limitesPropios", Map.of("lento.com", 2));
+        List<CorreoSalienteEntity> lentos = correos(5, "lento.com");
+        List<CorreoSalienteEntity> rapidos = correos(3, "rapido.com");
+        List<CorreoSalienteEntity> ronda = new ArrayList<>(lentos);
+        ronda.addAll(rapidos);
+        when(correosSalientes.reclamar(LOTE_RECLAMO)).thenReturn(ronda);
+
+        despachador.despachar();
+
+        verify(correosSalientes).posponer(ids(lentos.subList(2, 5)), ESPERA_LIMITE_SEGUNDOS);
+        assertThat(smtp.getReceivedMessagesForDomain("lento.com")).hasSize(2);
+        assertThat(smtp.getReceivedMessagesForDomain("rapido.com")).hasSize(3);
+
+        ArgumentCaptor<Collection<Long>> enviados = idsCaptor();
+        verify(correosSalientes).marcarEnviados(enviados.capture());
+        assertThat(union(enviados.getAllValues())).isEqualTo(ids(lentos.subList(0, 2), rapidos));
+    }
+
+    @Test
+    void deshabilitadoNoReclamaNiEnvia() {
+        ReflectionTestUtils.setField(despachador, "habilitado", false);
+
+        despachador.despachar();
+
+        verify(correosSalientes, never()).reclamar(anyInt());
+        verify(correosSalientes, never()).posponer(anyCollection(), anyInt());
+        assertThat(smtp.getReceivedMessages()).isEmpty();
+    }
+
+    private List<CorreoSalienteEntity> correos(int cantidad, String proveedor) {
+        List<CorreoSalienteEntity> correos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            correos.add(correo("usuario" + siguienteId + "@" + proveedor, proveedor));
+        }
+        return correos;
+    }
+
+    private CorreoSalienteEntity correo(String destinatario, String proveedor) {
+        long id = siguienteId++;
+        LocalDateTime ahora = LocalDateTime.now();
+        return new CorreoSalienteEntity(id, id, destinatario, proveedor, "PRESUPUESTO_ALERTA",
+                "Presupuesto al 80% #" + id, "Llevas gastado el 80% de tu presupuesto.\nRevisa tus gastos.",
+                Estado.ENVIANDO, 1, ahora, "prueba", ahora.plusMinutes(5), null, ahora, null);
+    }
+
+    @SafeVarargs
+    private static Set<Long> ids(List<CorreoSalienteEntity>... listas) {
+        Set<Long> ids = new HashSet<>();
+        for (List<CorreoSalienteEntity> lista : listas) {
+            lista.forEach(correo -> ids.add(correo.getId()));
+        }
+        return ids;
+    }
+
+    private static List<Long> ids(List<CorreoSalienteEntity> correos) {
+        return correos.stream().map(CorreoSalienteEntity::getId).toList();
+    }
+
+    private static Set<Long> union(List<Collection<Long>> lotes) {
+        Set<Long> ids = new HashSet<>();
+        lotes.forEach(ids::addAll);
+        return ids;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<Collection<Long>> idsCaptor() {
+        return ArgumentCaptor.forClass(Collection.class);
+    }
+}
@@ -0,0 +1,204 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+import com.controfinanciero.infrastructure.persistence.entity.EstadisticaCategoriaEntity;
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoFinancieroEntity;
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoInusualEntity;
+import com.controfinanciero.infrastructure.persistence.repository.EstadisticaCategoriaJpaRepository;
+import com.controfinanciero.infrastructure.persistence.repository.MovimientoFinancieroJpaRepository;
+import com.controfinanciero.infrastructure.persistence.repository.MovimientoInusualJpaRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Estadísticas de gasto por categoría: Welford exacto durante las primeras 1/alfa
+ * observaciones, media móvil exponencial después, y marca de gastos que superan
+ * media + N desviaciones de los gastos previos.
+ */
+@ExtendWith(MockitoExtension.class)
+class DeteccionAnomaliasServiceTest {
+
+    private static final double ALFA_MINIMO = 0.05;
+    private static final int OBSERVACIONES_WELFORD = 20;
+    private static final Long USUARIO = 7L;
+    private static final Long CATEGORIA = 3L;
+
+    @Mock
+    private EstadisticaCategoriaJpaRepository estadisticaRepository;
+    @Mock
+    private MovimientoInusualJpaRepository inusualRepository;
+    @Mock
+    private MovimientoFinancieroJpaRepository movimientoJpaRepository;
+    @Mock
+    private NotificationService notificationService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private EntityManager entityManager;
+
+    private DeteccionAnomaliasService servicio;
+    private EstadisticaCategoriaEntity estadistica;
+    private long siguienteId;
+
+    @BeforeEach
+    void setUp() {
+        servicio = new DeteccionAnomaliasService(estadisticaRepository, inusualRepository,
+                movimientoJpaRepository, notificationService, transactionTemplate);
+        ReflectionTestUtils.setField(servicio, "entityManager", entityManager);
+        ReflectionTestUtils.setField(servicio, "alfaMinimo", ALFA_MINIMO);
+        ReflectionTestUtils.setField(servicio, "minimoObservaciones", 5L);
+        ReflectionTestUtils.setField(servicio, "desviaciones", 2.0);
+        ReflectionTestUtils.setField(servicio, "diasNotificacion", 7);
+
+        estadistica = new EstadisticaCategoriaEntity();
+        estadistica.setUsuarioId(USUARIO);
+        estadistica.setCategoriaId(CATEGORIA);
+        lenient().when(estadisticaRepository.bloquear(anyLong(), anyLong())).thenReturn(estadistica);
+        siguienteId = 1;
+    }
+
+    @Test
+    void primerasObservacionesDanMediaYVarianzaExactas() {
+        Random random = new Random(11);
+        List<Double> montos = new ArrayList<>();
+        for (int i = 0; i < OBSERVACIONES_WELFORD; i++) {
+            double monto = 10 + random.nextInt(9_000) / 100.0;
+            montos.add(monto);
+            servicio.registrarGasto(gasto(monto, LocalDate.now().minusDays(30)));
+
+            double media = montos.stream().mapToDouble(Double::doubleValue).average().orElseThrow();
+            double varianza = montos.stream().mapToDouble(m -> (m - media) * (m - media)).sum() / montos.size();
+            assertThat(estadistica.getCantidad()).isEqualTo(montos.size());
+            assertThat(estadistica.getMedia()).as("media tras %d gastos", montos.size()).isCloseTo(media, within(1e-9));
+            assertThat(estadistica.getVarianza()).as("varianza tras %d gastos", montos.size()).isCloseTo(varianza, within(1e-7));
+        }
+    }
+
+    @Test
+    void despuesDeUnoSobreAlfaLaMediaEsExponencial() {
+        Random random = new Random(5);
+        List<Double> montos = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            double monto = 20 + random.nextInt(4_000) / 100.0;
+            montos.add(monto);
+            servicio.registrarGasto(gasto(monto, LocalDate.now().minusDays(30)));
+        }
+
+        // Media de Welford hasta 1/alfa, luego cada gasto pesa alfa y los anteriores decaen (1 - alfa)
+        double esperada = montos.subList(0, OBSERVACIONES_WELFORD - 1).stream()
+                .mapToDouble(Double::doubleValue).average().orElseThrow();
+        for (int i = OBSERVACIONES_WELFORD - 1; i < montos.size(); i++) {
+            double peso = Math.max(1.0 / (i + 1), ALFA_MINIMO);
+            esperada = (1 - peso) * esperada + peso * montos.get(i);
+        }
+        assertThat(estadistica.getMedia()).isCloseTo(esperada, within(1e-9));
+    }
+
+    @Test
+    void laMediaMovilSigueUnCambioDeHabito() {
+        for (int i = 0; i < 100; i++) {
+            servicio.registrarGasto(gasto(50, LocalDate.now().minusDays(30)));
+        }
+        for (int i = 0; i < 250; i++) {
+            servicio.registrarGasto(gasto(500, LocalDate.now().minusDays(30)));
+        }
+
+        // La media acumulada sería ~371; la móvil ya olvidó casi todo el hábito anterior
+        assertThat(estadistica.getMedia()).isCloseTo(500, within(0.01));
+        assertThat(Math.sqrt(estadistica.getVarianza())).isLessThan(1);
+    }
+
+    @Test
+    void noMarcaAntesDelMinimoDeObservaciones() {
+        for (int i = 0; i < 4; i++) {
+            servicio.registrarGasto(gasto(10, LocalDate.now()));
+        }
+        servicio.registrarGasto(gasto(10_000, LocalDate.now()));
+
+        verify(entityManager, never()).persist(any());
+        verify(notificationService, never()).alertarMovimientoInusual(anyLong(), anyString(), anyDouble(), anyString());
+    }
+
+    @Test
+    void marcaGastoSobreMediaMasDosDesviacionesYNotificaSiEsReciente() {
+        double[] previos = {100, 110, 90, 105, 95};
+        for (double monto : previos) {
+            servicio.registrarGasto(gasto(monto, LocalDate.now()));
+        }
+        double media = 100;
+        double desviacion = Math.sqrt(50); // varianza poblacional de los previos
+
+        // Justo en el umbral no se marca
+        servicio.registrarGasto(gasto(media + 2 * desviacion - 0.01, LocalDate.now()));
+        verify(entityManager, never()).persist(any());
+
+        double mediaAntes = estadistica.getMedia();
+        double desviacionAntes = Math.sqrt(estadistica.getVarianza());
+        MovimientoFinancieroEntity inusual = gasto(400, LocalDate.now());
+        servicio.registrarGasto(inusual);
+
+        ArgumentCaptor<MovimientoInusualEntity> marca = ArgumentCaptor.forClass(MovimientoInusualEntity.class);
+        verify(entityManager).persist(marca.capture());
+        assertThat(marca.getValue().getMovimientoId()).isEqualTo(inusual.getId());
+        assertThat(marca.getValue().getCategoriaId()).isEqualTo(CATEGORIA);
+        // Se puntúa contra los gastos previos, sin incluir el propio gasto
+        assertThat(marca.getValue().getPuntaje()).isCloseTo((400 - mediaAntes) / desviacionAntes, within(1e-9));
+        verify(notificationService).alertarMovimientoInusual(eq(USUARIO), anyString(), eq(400.0), anyString());
+    }
+
+    @Test
+    void marcaSinNotificarLosGastosAntiguos() {
+        for (int i = 0; i < 10; i++) {
+            servicio.registrarGasto(gasto(100 + i % 3, LocalDate.now().minusDays(60)));
+        }
+        servicio.registrarGasto(gasto(5_000, LocalDate.now().minusDays(60)));
+
+        verify(entityManager).persist(any(MovimientoInusualEntity.class));
+        verify(notificationService, never()).alertarMovimientoInusual(anyLong(), anyString(), anyDouble(), anyString());
+    }
+
+    @Test
+    void ignoraMovimientosQueNoSonGastos() {
+        MovimientoFinancieroEntity ingreso = new MovimientoFinancieroEntity(
+                USUARIO, TipoMovimiento.INCOME, new BigDecimal("1000.00"), "sueldo", LocalDate.now());
+
+        servicio.registrarGasto(ingreso);
+
+        verify(estadisticaRepository, never()).bloquear(anyLong(), anyLong());
+        assertThat(estadistica.getCantidad()).isZero();
+    }
+
+    private MovimientoFinancieroEntity gasto(double monto, LocalDate fecha) {
+        MovimientoFinancieroEntity gasto = new MovimientoFinancieroEntity(
+                USUARIO, TipoMovimiento.EXPENSE, BigDecimal.valueOf(monto).setScale(2, RoundingMode.HALF_UP),
+                "gasto", fecha);
+        gasto.setId(siguienteId++);
+        gasto.setCategoryId(CATEGORIA);
+        return gasto;
+    }
+}
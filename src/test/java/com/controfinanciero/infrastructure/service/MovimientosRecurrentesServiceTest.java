@@ -0,0 +1,289 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.domain.model.MovimientoFinanciero;
+import com.controfinanciero.domain.repository.MovimientoFinancieroRepository;
+import com.controfinanciero.infrastructure.persistence.entity.MovimientoRecurrenteEntity;
+import com.controfinanciero.infrastructure.persistence.repository.MovimientoRecurrenteJpaRepository;
+import com.controfinanciero.infrastructure.service.CorreosSalientesService.CorreoPendiente;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Recurrencias atrasadas: se generan todas las ocurrencias vencidas (con el día del mes
+ * configurado, fecha fin y tope por ejecución) y cada (recurrencia, fecha) se crea una sola vez
+ * aunque el trabajo se reintente o lo procese otra instancia. La tabla recurring_occurrences
+ * (INSERT ... ON CONFLICT DO NOTHING RETURNING) se simula con un conjunto en memoria.
+ */
+@ExtendWith(MockitoExtension.class)
+class MovimientosRecurrentesServiceTest {
+
+    private static final LocalDate HOY = LocalDate.of(2024, 4, 10);
+
+    @Mock
+    private MovimientoRecurrenteJpaRepository recurrenteRepository;
+    @Mock
+    private MovimientoFinancieroRepository movimientoRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private BandejaNotificacionesService bandeja;
+    @Mock
+    private CorreosSalientesService correosSalientes;
+
+    private MovimientosRecurrentesService servicio;
+
+    /**
+     * Recurrencias por id, tal como las devuelve la base de datos.
+     */
+    private final Map<Long, MovimientoRecurrenteEntity> recurrencias = new LinkedHashMap<>();
+
+    /**
+     * Ocurrencias ya reclamadas: "recurrencia@fecha".
+     */
+    private final Set<String> ocurrencias = new HashSet<>();
+
+    /**
+     * Movimientos guardados en todas las ejecuciones.
+     */
+    private final List<MovimientoFinanciero> guardados = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        servicio = new MovimientosRecurrentesService(recurrenteRepository, movimientoRepository, jdbcTemplate,
+                transactionTemplate, bandeja, correosSalientes);
+        ReflectionTestUtils.setField(servicio, "tamanoLote", 100);
+        ReflectionTestUtils.setField(servicio, "paralelismo", 2);
+        ReflectionTestUtils.setField(servicio, "maximoOcurrencias", 400);
+
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocacion -> invocacion.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+        lenient().when(recurrenteRepository.findPendientesByUsuarioIdBetween(anyLong(), anyLong(), any()))
+                .thenAnswer(invocacion -> pendientes(invocacion.getArgument(2)));
+        lenient().when(recurrenteRepository.findPendientesParaProcesar(anyList(), any())).thenAnswer(invocacion -> {
+            List<Long> ids = invocacion.getArgument(0);
+            return pendientes(invocacion.getArgument(1)).stream()
+                    .filter(recurrente -> ids.contains(recurrente.getId()))
+                    .toList();
+        });
+        lenient().when(movimientoRepository.saveAll(anyList())).thenAnswer(invocacion -> {
+            List<MovimientoFinanciero> movimientos = invocacion.getArgument(0);
+            guardados.addAll(movimientos);
+            return movimientos;
+        });
+        lenient().when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+                .thenAnswer(invocacion -> reclamar(invocacion.getArgument(0), invocacion.getArgument(1)));
+    }
+
+    @Test
+    void generaTodasLasOcurrenciasAtrasadasConElDiaDelMesConfigurado() {
+        // Mensual el día 31 con el servidor parado desde enero: ene 31, feb 29 (bisiesto), mar 31
+        MovimientoRecurrenteEntity alquiler = recurrencia(1L, 10L, "MENSUAL", LocalDate.of(2024, 1, 31));
+        alquiler.setDiaMes(31);
+
+        int creados = servicio.procesar(0, 999, HOY);
+
+        assertThat(creados).isEqualTo(3);
+        assertThat(fechas(guardados)).containsExactly(
+                LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 31));
+        assertThat(alquiler.getProximaEjecucion()).isEqualTo(LocalDate.of(2024, 4, 30));
+        assertThat(alquiler.getUltimaEjecucion()).isNotNull();
+        assertThat(guardados).allSatisfy(movimiento -> {
+            assertThat(movimiento.getUsuarioId()).isEqualTo(10L);
+            assertThat(movimiento.getDescripcion()).isEqualTo("🤖 AUTOMÁTICO: Alquiler");
+            assertThat(movimiento.getNotas()).contains("#1");
+        });
+
+        ArgumentCaptor<List<CorreoPendiente>> correos = correosCaptor();
+        verify(correosSalientes).encolarLote(eq("MOVIMIENTO_AUTOMATICO"), correos.capture());
+        assertThat(correos.getValue()).singleElement()
+                .satisfies(correo -> assertThat(correo.mensaje()).startsWith("Se han registrado automáticamente 3 movimientos"));
+    }
+
+    @Test
+    void procesarDosVecesLaMismaRecurrenciaNoDuplicaMovimientos() {
+        // Un lease vencido se retoma en otro nodo mientras el primero aún procesa: el segundo
+        // leyó la recurrencia sin avanzar y ve las mismas fechas vencidas
+        recurrencia(1L, 10L, "SEMANAL", LocalDate.of(2024, 3, 20));
+        assertThat(servicio.procesar(0, 999, HOY)).isEqualTo(4);
+
+        recurrencia(1L, 10L, "SEMANAL", LocalDate.of(2024, 3, 20));
+        assertThat(servicio.procesar(0, 999, HOY)).isZero();
+
+        assertThat(fechas(guardados)).containsExactly(
+                LocalDate.of(2024, 3, 20), LocalDate.of(2024, 3, 27), LocalDate.of(2024, 4, 3), HOY);
+        verify(movimientoRepository).saveAll(anyList());
+        verify(bandeja).registrarNuevas(any());
+    }
+
+    @Test
+    void otraInstanciaYaReclamoParteDeLasOcurrencias() {
+        recurrencia(1L, 10L, "DIARIA", LocalDate.of(2024, 4, 6));
+        ocurrencias.add(ocurrencia(1L, LocalDate.of(2024, 4, 7)));
+        ocurrencias.add(ocurrencia(1L, LocalDate.of(2024, 4, 9)));
+
+        int creados = servicio.procesar(0, 999, HOY);
+
+        assertThat(creados).isEqualTo(3);
+        assertThat(fechas(guardados)).containsExactly(
+                LocalDate.of(2024, 4, 6), LocalDate.of(2024, 4, 8), LocalDate.of(2024, 4, 10));
+        assertThat(ocurrencias).hasSize(5);
+    }
+
+    @Test
+    void respetaLaFechaFinYDesactivaLaRecurrenciaTerminada() {
+        MovimientoRecurrenteEntity quincenal = recurrencia(1L, 10L, "QUINCENAL", LocalDate.of(2024, 2, 1));
+        quincenal.setFechaFin(LocalDate.of(2024, 3, 10));
+
+        servicio.procesar(0, 999, HOY);
+
+        assertThat(fechas(guardados)).containsExactly(
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 16), LocalDate.of(2024, 3, 2));
+        assertThat(quincenal.getProximaEjecucion()).isEqualTo(LocalDate.of(2024, 3, 17));
+        assertThat(quincenal.getActivo()).isFalse();
+    }
+
+    @Test
+    void elTopePorEjecucionDejaElRestoParaLaSiguiente() {
+        ReflectionTestUtils.setField(servicio, "maximoOcurrencias", 4);
+        MovimientoRecurrenteEntity diaria = recurrencia(1L, 10L, "DIARIA", LocalDate.of(2024, 4, 1));
+
+        assertThat(servicio.procesar(0, 999, HOY)).isEqualTo(4);
+        assertThat(diaria.getProximaEjecucion()).isEqualTo(LocalDate.of(2024, 4, 5));
+        assertThat(servicio.procesar(0, 999, HOY)).isEqualTo(4);
+        assertThat(servicio.procesar(0, 999, HOY)).isEqualTo(2);
+        assertThat(servicio.procesar(0, 999, HOY)).isZero();
+
+        assertThat(fechas(guardados)).hasSize(10).doesNotHaveDuplicates();
+        assertThat(diaria.getProximaEjecucion()).isEqualTo(HOY.plusDays(1));
+    }
+
+    @Test
+    void unLoteNoParteLasRecurrenciasDeUnUsuario() {
+        ReflectionTestUtils.setField(servicio, "tamanoLote", 2);
+        recurrencia(1L, 10L, "MENSUAL", LocalDate.of(2024, 4, 1));
+        recurrencia(2L, 10L, "MENSUAL", LocalDate.of(2024, 4, 1));
+        recurrencia(3L, 10L, "MENSUAL", LocalDate.of(2024, 4, 1));
+        recurrencia(4L, 20L, "MENSUAL", LocalDate.of(2024, 4, 1));
+
+        assertThat(servicio.procesar(0, 999, HOY)).isEqualTo(4);
+
+        verify(recurrenteRepository).findPendientesParaProcesar(List.of(1L, 2L, 3L), HOY);
+        verify(recurrenteRepository).findPendientesParaProcesar(List.of(4L), HOY);
+    }
+
+    @Test
+    void sinOcurrenciasNuevasNoNotifica() {
+        recurrencia(1L, 10L, "ANUAL", LocalDate.of(2024, 4, 10));
+        ocurrencias.add(ocurrencia(1L, LocalDate.of(2024, 4, 10)));
+
+        assertThat(servicio.procesar(0, 999, HOY)).isZero();
+
+        verify(movimientoRepository, never()).saveAll(anyList());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(correosSalientes, never()).encolarLote(anyString(), anyList());
+    }
+
+    private MovimientoRecurrenteEntity recurrencia(Long id, Long usuarioId, String frecuencia, LocalDate proxima) {
+        MovimientoRecurrenteEntity recurrente = new MovimientoRecurrenteEntity();
+        recurrente.setId(id);
+        recurrente.setUsuarioId(usuarioId);
+        recurrente.setTipoMovimiento("EXPENSE");
+        recurrente.setMonto(new BigDecimal("850.00"));
+        recurrente.setDescripcion("Alquiler");
+        recurrente.setCategoriaId(5L);
+        recurrente.setFrecuencia(frecuencia);
+        recurrente.setFechaInicio(proxima);
+        recurrente.setProximaEjecucion(proxima);
+        recurrente.setActivo(true);
+        recurrencias.put(id, recurrente);
+        return recurrente;
+    }
+
+    private List<MovimientoRecurrenteEntity> pendientes(LocalDate hoy) {
+        return recurrencias.values().stream()
+                .filter(recurrente -> recurrente.getActivo() && !recurrente.getProximaEjecucion().isAfter(hoy))
+                .toList();
+    }
+
+    /**
+     * INSERT ... ON CONFLICT DO NOTHING RETURNING: devuelve solo las ocurrencias que no existían.
+     */
+    private List<Object> reclamar(PreparedStatementCreator sentencia, RowMapper<Object> mapeo) throws Exception {
+        Connection conexion = mock(Connection.class);
+        when(conexion.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        List<Object[]> arrays = new ArrayList<>();
+        when(conexion.createArrayOf(anyString(), any())).thenAnswer(invocacion -> {
+            arrays.add(invocacion.getArgument(1));
+            return mock(Array.class);
+        });
+        sentencia.createPreparedStatement(conexion);
+
+        Object[] recurrentes = arrays.get(0);
+        Object[] fechas = arrays.get(1);
+        List<Object> nuevas = new ArrayList<>();
+        for (int i = 0; i < recurrentes.length; i++) {
+            Long recurrenteId = (Long) recurrentes[i];
+            Date fecha = (Date) fechas[i];
+            if (ocurrencias.add(ocurrencia(recurrenteId, fecha.toLocalDate()))) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("recurrence_id")).thenReturn(recurrenteId);
+                when(rs.getDate("occurrence_date")).thenReturn(fecha);
+                nuevas.add(mapeo.mapRow(rs, nuevas.size()));
+            }
+        }
+        return nuevas;
+    }
+
+    private static String ocurrencia(Long recurrenteId, LocalDate fecha) {
+        return recurrenteId + "@" + fecha;
+    }
+
+    private static List<LocalDate> fechas(Collection<MovimientoFinanciero> movimientos) {
+        return movimientos.stream().map(MovimientoFinanciero::getFechaMovimiento).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<CorreoPendiente>> correosCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+}
@@ -0,0 +1,221 @@
+package com.controfinanciero.infrastructure.service;
+
+import com.controfinanciero.domain.event.MovimientoCreado;
+import com.controfinanciero.domain.event.MovimientoEliminado;
+import com.controfinanciero.domain.model.enums.TipoMovimiento;
+import com.controfinanciero.domain.repository.MetaFinancieraRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Marcas de efectos en movement_event_effects: un evento entregado dos veces (reintento o
+ * entrega tardía) no ahorra ni suma a la meta dos veces, y al eliminar el movimiento se revierte
+ * exactamente lo aplicado, una sola vez, conservando la marca. La tabla se simula en memoria y
+ * cada transacción la restaura al hacer rollback, como haría PostgreSQL.
+ */
+@ExtendWith(MockitoExtension.class)
+class SuscriptoresMovimientosServiceTest {
+
+    private static final Long USUARIO = 1L;
+    private static final Long META = 30L;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private GamificationService gamificationService;
+    @Mock
+    private AutomaticSavingsService automaticSavingsService;
+    @Mock
+    private MetaFinancieraRepository metaRepository;
+    @Mock
+    private GoalMonitorService goalMonitorService;
+
+    private SuscriptoresMovimientosService suscriptores;
+
+    /**
+     * Filas de movement_event_effects: "movimiento:efecto" → monto aplicado (null hasta registrarlo).
+     */
+    private Map<String, BigDecimal> efectos = new HashMap<>();
+    private Map<String, BigDecimal> alIniciar;
+
+    @BeforeEach
+    void setUp() {
+        suscriptores = new SuscriptoresMovimientosService(jdbcTemplate, transactionManager, gamificationService,
+                automaticSavingsService, metaRepository, goalMonitorService);
+        ReflectionTestUtils.setField(suscriptores, "maxIntentos", 3);
+        ReflectionTestUtils.setField(suscriptores, "esperaReintentoMs", 0L);
+
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocacion -> {
+            alIniciar = new HashMap<>(efectos);
+            return mock(TransactionStatus.class);
+        });
+        lenient().doAnswer(invocacion -> efectos = alIniciar).when(transactionManager).rollback(any());
+
+        // MARCAR: INSERT ... ON CONFLICT DO NOTHING
+        lenient().when(jdbcTemplate.update(startsWith("INSERT INTO movement_event_effects"), any(Object[].class)))
+                .thenAnswer(invocacion -> {
+                    String clave = clave(invocacion.getArgument(1), invocacion.getArgument(2));
+                    if (efectos.containsKey(clave)) {
+                        return 0;
+                    }
+                    efectos.put(clave, null);
+                    return 1;
+                });
+        // REGISTRAR_MONTO
+        lenient().when(jdbcTemplate.update(startsWith("UPDATE movement_event_effects SET amount"), any(Object[].class)))
+                .thenAnswer(invocacion -> {
+                    efectos.replace(clave(invocacion.getArgument(2), invocacion.getArgument(3)), invocacion.getArgument(1));
+                    return 1;
+                });
+        // DESMARCAR
+        lenient().when(jdbcTemplate.update(startsWith("DELETE FROM movement_event_effects"), any(Object[].class)))
+                .thenAnswer(invocacion -> {
+                    efectos.remove(clave(invocacion.getArgument(1), invocacion.getArgument(2)));
+                    return 1;
+                });
+        // REVERTIR: deja el monto en 0 y devuelve el anterior si era positivo
+        lenient().when(jdbcTemplate.queryForList(startsWith("UPDATE movement_event_effects e SET amount = 0"),
+                eq(BigDecimal.class), any(Object[].class))).thenAnswer(invocacion -> {
+                    String clave = clave(invocacion.getArgument(2), invocacion.getArgument(3));
+                    BigDecimal previo = efectos.get(clave);
+                    if (previo == null || previo.signum() <= 0) {
+                        return List.of();
+                    }
+                    efectos.put(clave, BigDecimal.ZERO);
+                    return List.of(previo);
+                });
+    }
+
+    @Test
+    void unGastoEntregadoDosVecesRedondeaUnaSolaVez() {
+        when(automaticSavingsService.procesarRedondeo(USUARIO, new BigDecimal("12.30")))
+                .thenReturn(new BigDecimal("0.70"));
+        MovimientoCreado creado = creado(10L, TipoMovimiento.EXPENSE, "12.30", null);
+
+        suscriptores.alCrearMovimiento(creado);
+        suscriptores.alCrearMovimiento(creado);
+
+        verify(automaticSavingsService, times(1)).procesarRedondeo(any(), any());
+        assertThat(efectos).containsEntry("10:REDONDEO", new BigDecimal("0.70"));
+        // La racha es idempotente por sí misma y no lleva marca
+        verify(gamificationService, times(2)).registrarActividad(USUARIO);
+    }
+
+    @Test
+    void sinRedondeoNoQuedaMarcaNiNadaQueRevertir() {
+        when(automaticSavingsService.procesarRedondeo(any(), any())).thenReturn(BigDecimal.ZERO);
+
+        suscriptores.alCrearMovimiento(creado(11L, TipoMovimiento.EXPENSE, "12.00", null));
+        suscriptores.alEliminarMovimiento(eliminado(11L, TipoMovimiento.EXPENSE, "12.00", null));
+
+        assertThat(efectos).doesNotContainKey("11:REDONDEO");
+        verify(automaticSavingsService, never()).revertirRedondeo(any(), any());
+    }
+
+    @Test
+    void eliminarUnGastoRevierteElRedondeoAplicadoUnaSolaVez() {
+        when(automaticSavingsService.procesarRedondeo(any(), any())).thenReturn(new BigDecimal("0.70"));
+        suscriptores.alCrearMovimiento(creado(12L, TipoMovimiento.EXPENSE, "12.30", null));
+
+        MovimientoEliminado eliminado = eliminado(12L, TipoMovimiento.EXPENSE, "12.30", null);
+        suscriptores.alEliminarMovimiento(eliminado);
+        suscriptores.alEliminarMovimiento(eliminado);
+
+        verify(automaticSavingsService, times(1)).revertirRedondeo(USUARIO, new BigDecimal("0.70"));
+        assertThat(efectos).containsEntry("12:REDONDEO", BigDecimal.ZERO);
+    }
+
+    @Test
+    void unAhorroEntregadoDosVecesSumaALaMetaUnaSolaVez() {
+        when(metaRepository.agregarMonto(META, new BigDecimal("200.00"))).thenReturn(true);
+        MovimientoCreado creado = creado(20L, TipoMovimiento.SAVINGS, "200.00", META);
+
+        suscriptores.alCrearMovimiento(creado);
+        suscriptores.alCrearMovimiento(creado);
+
+        verify(metaRepository, times(1)).agregarMonto(any(), any());
+        verify(goalMonitorService, times(1)).verificarProgresoMeta(META);
+        assertThat(efectos).containsEntry("20:META", new BigDecimal("200.00"));
+    }
+
+    @Test
+    void unaEntregaTardiaDelAltaTrasLaBajaNoVuelveASumarALaMeta() {
+        when(metaRepository.agregarMonto(any(), any())).thenReturn(true);
+        when(metaRepository.quitarMonto(any(), any())).thenReturn(true);
+        MovimientoCreado creado = creado(21L, TipoMovimiento.SAVINGS, "200.00", META);
+
+        suscriptores.alCrearMovimiento(creado);
+        suscriptores.alEliminarMovimiento(eliminado(21L, TipoMovimiento.SAVINGS, "200.00", META));
+        suscriptores.alCrearMovimiento(creado);
+
+        verify(metaRepository, times(1)).agregarMonto(META, new BigDecimal("200.00"));
+        verify(metaRepository, times(1)).quitarMonto(META, new BigDecimal("200.00"));
+        assertThat(efectos).containsEntry("21:META", BigDecimal.ZERO);
+    }
+
+    @Test
+    void eliminarUnAhorroQueNoSeSumoNoDescuentaDeLaMeta() {
+        // Meta inactiva al crear: la marca queda sin monto aplicado
+        when(metaRepository.agregarMonto(any(), any())).thenReturn(false);
+
+        suscriptores.alCrearMovimiento(creado(22L, TipoMovimiento.SAVINGS, "200.00", META));
+        suscriptores.alEliminarMovimiento(eliminado(22L, TipoMovimiento.SAVINGS, "200.00", META));
+
+        verify(metaRepository, never()).quitarMonto(anyLong(), any());
+        verify(goalMonitorService, never()).verificarProgresoMeta(anyLong());
+    }
+
+    @Test
+    void unFalloTransitorioDeshaceLaMarcaYElReintentoAplicaUnaVez() {
+        when(metaRepository.agregarMonto(META, new BigDecimal("50.00")))
+                .thenThrow(new TransientDataAccessResourceException("conexión perdida"))
+                .thenReturn(true);
+
+        suscriptores.alCrearMovimiento(creado(23L, TipoMovimiento.SAVINGS, "50.00", META));
+
+        verify(metaRepository, times(2)).agregarMonto(META, new BigDecimal("50.00"));
+        verify(transactionManager).rollback(any());
+        verify(goalMonitorService, times(1)).verificarProgresoMeta(META);
+        assertThat(efectos).containsEntry("23:META", new BigDecimal("50.00"));
+    }
+
+    private static MovimientoCreado creado(Long id, TipoMovimiento tipo, String monto, Long metaId) {
+        return new MovimientoCreado(id, USUARIO, tipo, new BigDecimal(monto), null, metaId, LocalDate.of(2025, 5, 1));
+    }
+
+    private static MovimientoEliminado eliminado(Long id, TipoMovimiento tipo, String monto, Long metaId) {
+        return new MovimientoEliminado(id, USUARIO, tipo, new BigDecimal(monto), null, metaId, LocalDate.of(2025, 5, 1));
+    }
+
+    private static String clave(Object movimientoId, Object efecto) {
+        return movimientoId + ":" + efecto;
+    }
+}